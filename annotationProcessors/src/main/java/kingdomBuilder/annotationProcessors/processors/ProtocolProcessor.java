@@ -4,6 +4,7 @@ import kingdomBuilder.annotationProcessors.TemplateRenderer;
 import kingdomBuilder.annotationProcessors.templates.ProtocolConsumer;
 import kingdomBuilder.annotationProcessors.templates.ProtocolDeserializer;
 import kingdomBuilder.annotationProcessors.templates.ProtocolSerializer;
+import kingdomBuilder.annotationProcessors.templates.ServerProtocolDeserializer;
 import kingdomBuilder.annotations.Protocol;
 
 import javax.annotation.processing.*;
@@ -50,7 +51,10 @@ public class ProtocolProcessor extends AbstractProcessor {
     }
 
     private <T> void generateFromTemplate(T template, Element... originatingElements) throws IOException {
-        final String name = template.getClass().getSimpleName();
+        generateFromTemplate(template.getClass().getSimpleName(), template, originatingElements);
+    }
+
+    private <T> void generateFromTemplate(String name, T template, Element... originatingElements) throws IOException {
         JavaFileObject file = filer.createSourceFile(name, originatingElements);
         String content = TemplateRenderer.render(template);
         try(PrintWriter writer = new PrintWriter(file.openWriter())) {
@@ -71,15 +75,26 @@ public class ProtocolProcessor extends AbstractProcessor {
 
         elements.forEach(this::sortByFormatPrefix);
 
+        // Packets of both directions are serialized, so that a server can be written with them, too.
+        final Set<TypeElement> packets = new HashSet<>(requests);
+        packets.addAll(responses);
+
         try {
             generateFromTemplate(
-                    new ProtocolConsumer("kingdomBuilder.network.generated", responses),
+                    "ProtocolConsumer",
+                    new ProtocolConsumer("kingdomBuilder.network.generated", "ProtocolConsumer", responses),
                     responses.toArray(new TypeElement[0])
             );
 
             generateFromTemplate(
-                    new ProtocolSerializer("kingdomBuilder.network.generated", requests, processingEnv.getTypeUtils()),
-                    responses.toArray(new TypeElement[0])
+                    "ServerProtocolConsumer",
+                    new ProtocolConsumer("kingdomBuilder.network.generated", "ServerProtocolConsumer", requests),
+                    requests.toArray(new TypeElement[0])
+            );
+
+            generateFromTemplate(
+                    new ProtocolSerializer("kingdomBuilder.network.generated", packets, processingEnv.getTypeUtils()),
+                    packets.toArray(new TypeElement[0])
             );
 
             generateFromTemplate(
@@ -89,6 +104,14 @@ public class ProtocolProcessor extends AbstractProcessor {
                             processingEnv.getTypeUtils()),
                     responses.toArray(new TypeElement[0])
             );
+
+            generateFromTemplate(
+                    new ServerProtocolDeserializer(
+                            "kingdomBuilder.network.generated",
+                            requests,
+                            processingEnv.getTypeUtils()),
+                    requests.toArray(new TypeElement[0])
+            );
         } catch(Exception exc) {
             exc.printStackTrace();
         }
@@ -13,10 +13,12 @@ import java.util.stream.Collectors;
 @Template
 public class ProtocolConsumer {
     private final String packageName;
+    private final String name;
     private final Set<TypeElement> elements;
 
-    public ProtocolConsumer(String packageName, Set<TypeElement> elements) {
+    public ProtocolConsumer(String packageName, String name, Set<TypeElement> elements) {
         this.packageName = packageName;
+        this.name = name;
         this.elements = elements;
     }
 
@@ -27,6 +29,13 @@ public class ProtocolConsumer {
         return packageName;
     }
 
+    /**
+     * {@return Returns the name of the generated interface.}
+     */
+    public String getName() {
+        return name;
+    }
+
     /**
      * {@return Returns all imports required for the generated source.}
      */
@@ -9,7 +9,9 @@ import javax.lang.model.util.Types;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 
 @Template
@@ -30,27 +32,34 @@ public class ProtocolDeserializer {
     public String getImports() { return ProtocolUtil.makeImports(elements); }
 
     public String getCases() throws IOException {
-        List<String> cases = new ArrayList<>();
+        // Message types are dispatched on their hash; packets whose types share a hash share a case.
+        Map<Integer, List<TypeElement>> elementsByHash = new TreeMap<>();
         for(TypeElement element: elements) {
-            if(!element.getAnnotation(Protocol.class).isComponent())
-                cases.add(makeCase(element));
+            if(!element.getAnnotation(Protocol.class).isComponent()) {
+                final int hash = ProtocolDeserializerCase.messageTypeOf(element).hashCode();
+                elementsByHash.computeIfAbsent(hash, h -> new ArrayList<>()).add(element);
+            }
         }
 
+        List<String> cases = new ArrayList<>();
+        for(List<TypeElement> group: elementsByHash.values())
+            cases.add(makeCase(group));
+
         return String.join("\n", cases);
     }
 
     public String getDeserializerMethods() throws IOException {
         List<String> methods = new ArrayList<>();
         for(TypeElement element: elements) {
-            ProtocolDeserializerMethod pdm = new ProtocolDeserializerMethod(elements, element, types);
+            ProtocolDeserializerMethod pdm = new ProtocolDeserializerMethod("ProtocolDeserializer", elements, element, types);
             methods.add(TemplateRenderer.render(pdm));
         }
 
         return String.join("\n", methods);
     }
 
-    private String makeCase(TypeElement element) throws IOException {
-        ProtocolDeserializerCase psc = new ProtocolDeserializerCase(element, types);
+    private String makeCase(List<TypeElement> group) throws IOException {
+        ProtocolDeserializerCase psc = new ProtocolDeserializerCase(group);
         return TemplateRenderer.render(psc);
     }
 
@@ -1,46 +1,62 @@
 package kingdomBuilder.annotationProcessors.templates;
 
 import kingdomBuilder.annotationProcessors.Template;
-import kingdomBuilder.annotationProcessors.protocol.Placeholder;
-import kingdomBuilder.annotationProcessors.util.TypeVisitor;
 import kingdomBuilder.annotations.Protocol;
 
-import javax.annotation.processing.ProcessingEnvironment;
-import javax.lang.model.element.*;
-import javax.lang.model.type.DeclaredType;
-import javax.lang.model.type.TypeKind;
-import javax.lang.model.type.TypeMirror;
-import javax.lang.model.util.SimpleTypeVisitor6;
-import javax.lang.model.util.Types;
-import java.lang.reflect.Type;
+import javax.lang.model.element.TypeElement;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
+/**
+ * Renders the case of the message type dispatch for all packets whose message types share a hash.
+ * The message type is compared character by character, since different types may share a hash.
+ */
 @Template
 public class ProtocolDeserializerCase {
-    private final TypeElement element;
-    private final String messageType;
+    private final List<TypeElement> elements;
+    private final int hash;
 
-    public ProtocolDeserializerCase(TypeElement element, Types types) {
-        this.element = element;
+    public ProtocolDeserializerCase(List<TypeElement> elements) {
+        this.elements = elements;
+        this.hash = messageTypeOf(elements.get(0)).hashCode();
+    }
+
+    /**
+     * {@return Returns the message type of the packet, e.g. [CLIENT_JOINED].}
+     * @param element the packet.
+     */
+    public static String messageTypeOf(TypeElement element) {
         final String format = element.getAnnotation(Protocol.class).format();
-        this.messageType = format.split(" ", 3)[1];
+        return format.split(" ", 3)[1];
     }
 
     public String getCase() {
-        return String.format("\"%s\"", this.messageType);
+        return String.valueOf(hash);
     }
 
-    public String getPacketType() {
-        return element.getSimpleName().toString();
+    public String getMatchers() {
+        List<String> matchers = new ArrayList<>();
+        for(TypeElement element: elements)
+            matchers.add(makeMatcher(element));
+
+        return String.join("\n", matchers);
     }
 
-    public String getDeserializeParam() {
-        return element.getRecordComponents().size() > 0
-                ? "sections[2]"
-                : "";
+    private static String makeMatcher(TypeElement element) {
+        final String packetType = element.getSimpleName().toString();
+        final String deserializeCall = element.getRecordComponents().size() > 0
+                ? String.format("payloadBegin < 0 ? null : deserialize%s(rawPacket, payloadBegin, rawPacket.length())", packetType)
+                : String.format("deserialize%s()", packetType);
+
+        return String.format("""
+                if(matches(rawPacket, typeBegin, typeEnd, "%s")) {
+                    %s packet = %s;
+                    if(packet != null) consumer.accept(packet);
+                    else consumer.onFailure(rawPacket.toString());
+                    return;
+                }
+""".stripTrailing(), messageTypeOf(element), packetType, deserializeCall);
     }
 
 }
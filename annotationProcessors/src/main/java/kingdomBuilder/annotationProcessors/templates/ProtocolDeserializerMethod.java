@@ -18,11 +18,13 @@ import java.util.stream.Collectors;
 
 @Template
 public class ProtocolDeserializerMethod {
+    private final String deserializerName;
     private final Set<TypeElement> elements;
     private final TypeElement element;
     private final Types types;
 
-    public ProtocolDeserializerMethod(Set<TypeElement> elements, TypeElement element, Types types) {
+    public ProtocolDeserializerMethod(String deserializerName, Set<TypeElement> elements, TypeElement element, Types types) {
+        this.deserializerName = deserializerName;
         this.elements = elements;
         this.element = element;
         this.types = types;
@@ -34,21 +36,33 @@ public class ProtocolDeserializerMethod {
 
     public String getQualifiedPacketType() { return element.getQualifiedName().toString(); }
 
-    public String getDeserializerParam() { return element.getRecordComponents().size() > 0 ? "String payload" : ""; }
+    public String getDeserializerParam() {
+        return element.getRecordComponents().size() > 0 ? "CharSequence packet, int begin, int end" : "";
+    }
 
     public String getPayloadPreprocessing() {
         return element.getRecordComponents().size() > 0
-                ? "List<String> tokens = split(payload, " + getComponentCount() + ");"
+                ? """
+final int strip = unwrap(packet, begin, end);
+            final int limit = end - strip;
+            int cursor = begin + strip;
+            int fieldEnd;"""
                 : "";
     }
 
     public String getConstructionVariables() {
+        // The fields are parsed one after another, each one ending before the next ';'.
         List<String> lines = new ArrayList<>();
+        final int count = element.getRecordComponents().size();
         int idx = 0;
-        for(var comp: element.getRecordComponents())
-            lines.add(makeConstructionVariable(comp, idx++));
+        for(var comp: element.getRecordComponents()) {
+            final boolean last = idx++ == count - 1;
+            lines.add("fieldEnd = fieldEnd(packet, cursor, limit, " + last + ");");
+            lines.add(makeConstructionVariable(comp));
+            if(!last) lines.add("cursor = fieldEnd + 1;");
+        }
 
-        return String.join("\n        ", lines);
+        return String.join("\n            ", lines);
     }
 
     public String getConstructionArgs() {
@@ -63,15 +77,15 @@ public class ProtocolDeserializerMethod {
         return String.valueOf(element.getRecordComponents().size());
     }
 
-    private String makeConstructionVariable(RecordComponentElement component, int idx) {
+    private String makeConstructionVariable(RecordComponentElement component) {
         Class<?> cls = getClassForQualifiedName(component.asType().toString());
         String type = cls != null ? cls.getSimpleName() : component.asType().toString();
-        String value = makeConstructionVariableValue(component, cls, idx);
+        String value = makeConstructionVariableValue(component, cls);
 
         return type + " " + component.getSimpleName() + " = " + value + ";";
     }
 
-    private String makeConstructionVariableValue(RecordComponentElement component, Class<?> cls, int idx) {
+    private String makeConstructionVariableValue(RecordComponentElement component, Class<?> cls) {
         final TypeKind type = component.asType().getKind();
         switch (type) {
             case DECLARED: {
@@ -80,27 +94,27 @@ public class ProtocolDeserializerMethod {
                     if(cls == null)
                         cls = getClassForQualifiedName(typeElement.getQualifiedName());
 
-                    if(cls == String.class) return String.format("tokens.get(%d)", idx);
-                    else if(cls == List.class) return makeListValue(component, cls, idx);
+                    if(cls == String.class) return "packet.subSequence(cursor, fieldEnd).toString()";
+                    else if(cls == List.class) return makeListValue(component);
                     else if(elements.contains(typeElement)) {
-                        return String.format("deserialize%s(tokens.get(%d))", typeElement.getSimpleName(), idx);
+                        return String.format("deserialize%s(%s)", typeElement.getSimpleName(), makeRangeArgs(typeElement));
                     }
                 }
 
                 return "null";
             }
 
-            case INT: return String.format("Integer.parseInt(tokens.get(%d))", idx);
+            case INT: return "parseInteger(packet, cursor, fieldEnd)";
             default: return "0";
         }
     }
 
-    private String makeListValue(RecordComponentElement component, Class<?> cls, int idx) {
+    private String makeListValue(RecordComponentElement component) {
         final var args = getGenericParameterTypes(component.asType());
         final var arg = args.get(0);
         final var elementType = getClassForQualifiedName(arg.toString());
 
-        if(elementType == Integer.class) return String.format("parseIntegerList(tokens.get(%d));", idx);
+        if(elementType == Integer.class) return "parseIntegerList(packet, cursor, fieldEnd)";
 
         // Check whether the argument is a component (Protocol.is_component = true).
         final TypeElement arg_element = elements
@@ -113,15 +127,16 @@ public class ProtocolDeserializerMethod {
             String name = arg_element.getSimpleName().toString();
             name = name.substring(0, 1).toUpperCase() + name.substring(1);
 
-            return String.format("""
-splitList(tokens.get(%d))
-            .stream()
-            .filter(t -> !t.isEmpty())
-            .map(ProtocolDeserializer::deserialize%s)
-            .toList()""", idx, name);
+            return arg_element.getRecordComponents().size() > 0
+                    ? String.format("parseList(packet, cursor, fieldEnd, %s::deserialize%s)", deserializerName, name)
+                    : String.format("parseList(packet, cursor, fieldEnd, (p, b, e) -> deserialize%s())", name);
         }
 
-        return "new ArrayList<>();";
+        return "new ArrayList<>()";
+    }
+
+    private static String makeRangeArgs(TypeElement component) {
+        return component.getRecordComponents().size() > 0 ? "packet, cursor, fieldEnd" : "";
     }
 
     private Class<?> getClassForQualifiedName(Name name) {
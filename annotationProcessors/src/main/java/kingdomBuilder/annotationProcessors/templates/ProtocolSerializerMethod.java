@@ -12,7 +12,6 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -31,77 +30,175 @@ public class ProtocolSerializerMethod {
         return element.getSimpleName().toString();
     }
 
-    public String getComponents() {
-        return element
-                .getRecordComponents()
+    public String getBuilderBody() {
+        return segments()
+                .stream()
+                .map(segment -> segment.component() == null
+                        ? String.format("builder.append(\"%s\");", segment.literal())
+                        : makeBuilderValue(segment.component()))
+                .collect(Collectors.joining("\n        "));
+    }
+
+    public String getBufferBody() {
+        return segments()
                 .stream()
-                .map(comp -> String.format("String %s = %s;", comp.getSimpleName(), makeComponentValue(comp)))
+                .map(segment -> segment.component() == null
+                        ? String.format("putAscii(buffer, \"%s\");", segment.literal())
+                        : makeBufferValue(segment.component()))
                 .collect(Collectors.joining("\n        "));
     }
 
-    public String getBody() {
+    public String getSize() {
+        final List<String> sizes = new ArrayList<>();
+        int literalSize = 0;
+        for(Segment segment: segments()) {
+            if(segment.component() == null) literalSize += segment.literal().length();
+            else sizes.add(makeSizeValue(segment.component()));
+        }
+
+        sizes.add(0, String.valueOf(literalSize));
+        return String.join(" + ", sizes);
+    }
+
+    /**
+     * Represents either a literal part of the format or a placeholder for a record component.
+     */
+    private record Segment(String literal, RecordComponentElement component) {}
+
+    /**
+     * Splits the format into literals and placeholders in the order they are serialized.
+     * @return The segments of the format.
+     */
+    private List<Segment> segments() {
         final Protocol protocol = element.getAnnotation(Protocol.class);
         final String format = protocol.format();
         final List<Placeholder> placeholders = Placeholder.fromFormatString(format);
-        final List<String> components = new ArrayList<>();
+        final List<Segment> segments = new ArrayList<>();
 
         int formatCursor = 0;
         for(Placeholder p: placeholders) {
-            if(formatCursor != p.offset()) {
-                final String component = String.format("\"%s\"", format.substring(formatCursor, p.offset()));
-                components.add(component);
-                formatCursor = p.end() + 2;
-            }
+            if(formatCursor != p.offset())
+                segments.add(new Segment(format.substring(formatCursor, p.offset()), null));
 
-            components.add(p.name());
+            segments.add(new Segment(null, getComponent(p.name())));
+            formatCursor = p.end() + 2;
         }
 
-        if(!components.isEmpty() && formatCursor < format.length()) {
-            String component = format.substring(formatCursor);
-                   component = String.format("\"%s\"", component);
-            components.add(component);
+        if(segments.isEmpty())
+            segments.add(new Segment(format, null));
+        else if(formatCursor < format.length())
+            segments.add(new Segment(format.substring(formatCursor), null));
+
+        return trimEnclosingDelimiters(segments);
+    }
+
+    /**
+     * Removes the brackets or braces, which the format places around a component or a list,
+     * since components and lists are serialized together with their delimiters.
+     * @param segments the segments of the format.
+     * @return The segments without the enclosing delimiters.
+     */
+    private List<Segment> trimEnclosingDelimiters(List<Segment> segments) {
+        for(int i = 1; i + 1 < segments.size(); ++i) {
+            final Segment segment = segments.get(i);
+            if(segment.component() == null) continue;
+
+            final String delimiters = switch (getValueKind(segment.component())) {
+                case COMPONENT -> "[]";
+                case INTEGER_LIST, COMPONENT_LIST, EMPTY_LIST -> "{}";
+                default -> null;
+            };
+
+            final Segment before = segments.get(i - 1);
+            final Segment after = segments.get(i + 1);
+            if(delimiters == null
+                    || before.component() != null || !before.literal().endsWith(delimiters.substring(0, 1))
+                    || after.component() != null || !after.literal().startsWith(delimiters.substring(1)))
+                continue;
+
+            segments.set(i - 1, new Segment(before.literal().substring(0, before.literal().length() - 1), null));
+            segments.set(i + 1, new Segment(after.literal().substring(1), null));
         }
 
-        return components.isEmpty()
-                ? String.format("\"%s\";", format)
-                : String.join(" + ", components) + ";";
+        segments.removeIf(segment -> segment.component() == null && segment.literal().isEmpty());
+        return segments;
     }
 
-    private String makeComponentValue(RecordComponentElement component) {
-        final TypeKind type = component.asType().getKind();
-        return switch (type) {
-            case DECLARED   -> makeCompositeValue(component);
-            default         -> String.format("String.valueOf(packet.%s())", component.getSimpleName());
+    private RecordComponentElement getComponent(String name) {
+        return element
+                .getRecordComponents()
+                .stream()
+                .filter(comp -> comp.getSimpleName().contentEquals(name))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("No component for placeholder " + name + "."));
+    }
+
+    private String makeBuilderValue(RecordComponentElement component) {
+        return switch (getValueKind(component)) {
+            case INTEGER_LIST -> String.format("appendIntegerList(builder, packet.%s());", component.getSimpleName());
+            case COMPONENT -> String.format("serialize(packet.%s(), builder);", component.getSimpleName());
+            case COMPONENT_LIST -> String.format("appendList(builder, packet.%s(), ProtocolSerializer::serialize);", component.getSimpleName());
+            case EMPTY_LIST -> "builder.append(\"{}\");";
+            case NONE -> "";
+            default -> String.format("builder.append(packet.%s());", component.getSimpleName());
         };
     }
 
-    private String makeCompositeValue(RecordComponentElement component) {
-        final TypeElement typeElement = getTypeElementForMirror(component.asType());
-        final Class<?> cls = getClassForQualifiedName(typeElement.getQualifiedName());
+    private String makeBufferValue(RecordComponentElement component) {
+        return switch (getValueKind(component)) {
+            case INTEGER -> String.format("putInt(buffer, packet.%s());", component.getSimpleName());
+            case STRING -> String.format("putUtf8(buffer, packet.%s());", component.getSimpleName());
+            case INTEGER_LIST -> String.format("putIntegerList(buffer, packet.%s());", component.getSimpleName());
+            case COMPONENT -> String.format("serialize(packet.%s(), buffer);", component.getSimpleName());
+            case COMPONENT_LIST -> String.format("putList(buffer, packet.%s(), ProtocolSerializer::serialize);", component.getSimpleName());
+            case EMPTY_LIST -> "putAscii(buffer, \"{}\");";
+            case NONE -> "";
+        };
+    }
 
-        if(cls == String.class) return String.format("packet.%s()", component.getSimpleName());
-        if(cls == List.class) return makeListValue(component, typeElement, cls);
-        return "\"\"";
+    private String makeSizeValue(RecordComponentElement component) {
+        return switch (getValueKind(component)) {
+            case INTEGER -> String.format("sizeOf(packet.%s())", component.getSimpleName());
+            case STRING -> String.format("utf8Length(packet.%s())", component.getSimpleName());
+            case INTEGER_LIST, COMPONENT -> String.format("sizeOf(packet.%s())", component.getSimpleName());
+            case COMPONENT_LIST -> String.format("sizeOf(packet.%s(), ProtocolSerializer::sizeOf)", component.getSimpleName());
+            case EMPTY_LIST -> "2";
+            case NONE -> "0";
+        };
     }
 
-    private String makeListValue(RecordComponentElement componentElement, TypeElement typeElement, Class<?> cls) {
-        final var args = getGenericParameterTypes(componentElement.asType());
-        final var arg = args.get(0);
-        final var elementType = getClassForQualifiedName(arg.toString());
+    /**
+     * Represents how the value of a record component is serialized.
+     */
+    private enum ValueKind { INTEGER, STRING, INTEGER_LIST, COMPONENT, COMPONENT_LIST, EMPTY_LIST, NONE }
+
+    private ValueKind getValueKind(RecordComponentElement component) {
+        final TypeKind type = component.asType().getKind();
+        if(type != TypeKind.DECLARED)
+            return ValueKind.INTEGER;
+
+        final TypeElement typeElement = getTypeElementForMirror(component.asType());
+        final Class<?> cls = getClassForQualifiedName(typeElement.getQualifiedName());
 
-        String value = "";
+        if(cls == String.class) return ValueKind.STRING;
+        if(cls == List.class) {
+            final var arg = getGenericParameterTypes(component.asType()).get(0);
+            if(getClassForQualifiedName(arg.toString()) == Integer.class)
+                return ValueKind.INTEGER_LIST;
 
-        if(elementType == Integer.class) {
-            value = String.format("""
-packet
-            .%s()
-            .stream()
-            .map(String::valueOf)
-            .collect(Collectors.joining(","))
-""", componentElement.getSimpleName());
+            return isProtocolComponent(arg) ? ValueKind.COMPONENT_LIST : ValueKind.EMPTY_LIST;
         }
 
-        return "String.format(\"{%s}\", " + value + "        )";
+        return isProtocolComponent(component.asType()) ? ValueKind.COMPONENT : ValueKind.NONE;
+    }
+
+    /**
+     * {@return Returns whether the type is annotated with @Protocol and thus has serializers of its own.}
+     * @param type the type to check.
+     */
+    private boolean isProtocolComponent(TypeMirror type) {
+        final TypeElement typeElement = getTypeElementForMirror(type);
+        return typeElement != null && typeElement.getAnnotation(Protocol.class) != null;
     }
 
     private Class<?> getClassForQualifiedName(Name name) {
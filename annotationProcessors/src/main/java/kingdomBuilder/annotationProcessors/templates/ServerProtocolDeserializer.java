@@ -0,0 +1,113 @@
+package kingdomBuilder.annotationProcessors.templates;
+
+import kingdomBuilder.annotationProcessors.Template;
+import kingdomBuilder.annotationProcessors.TemplateRenderer;
+import kingdomBuilder.annotations.Protocol;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Types;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+
+/**
+ * Renders the deserializer of the commands sent by clients, e.g. "place [1;2]" or "end turn".
+ * Commands are dispatched on the hash of their first word, since the name of a command may
+ * consist of several words.
+ */
+@Template
+public class ServerProtocolDeserializer {
+
+    private final String packageName;
+    private final Set<TypeElement> elements;
+    private final Types types;
+
+    public ServerProtocolDeserializer(String packageName, Set<TypeElement> elements, Types types) {
+        this.packageName = packageName;
+        this.elements = elements;
+        this.types = types;
+    }
+
+    /**
+     * {@return Returns the name of the command, i.e. the format up to its payload, e.g. host game.}
+     * @param element the packet.
+     */
+    public static String commandOf(TypeElement element) {
+        final String format = element.getAnnotation(Protocol.class).format();
+        final int payloadBegin = format.indexOf("#{");
+        String command = payloadBegin < 0 ? format : format.substring(0, payloadBegin);
+        while(command.endsWith(" ") || command.endsWith("["))
+            command = command.substring(0, command.length() - 1);
+
+        return command;
+    }
+
+    public String getPackageName() { return this.packageName; }
+
+    public String getImports() { return ProtocolUtil.makeImports(elements); }
+
+    public String getCases() {
+        Map<Integer, List<TypeElement>> elementsByHash = new TreeMap<>();
+        for(TypeElement element: elements) {
+            if(!element.getAnnotation(Protocol.class).isComponent()) {
+                final int hash = commandOf(element).split(" ", 2)[0].hashCode();
+                elementsByHash.computeIfAbsent(hash, h -> new ArrayList<>()).add(element);
+            }
+        }
+
+        List<String> cases = new ArrayList<>();
+        for(Map.Entry<Integer, List<TypeElement>> entry: elementsByHash.entrySet())
+            cases.add(makeCase(entry.getKey(), entry.getValue()));
+
+        return String.join("\n", cases);
+    }
+
+    public String getDeserializerMethods() throws IOException {
+        List<String> methods = new ArrayList<>();
+        for(TypeElement element: elements) {
+            ProtocolDeserializerMethod pdm = new ProtocolDeserializerMethod("ServerProtocolDeserializer", elements, element, types);
+            methods.add(TemplateRenderer.render(pdm));
+        }
+
+        return String.join("\n", methods);
+    }
+
+    private static String makeCase(int hash, List<TypeElement> group) {
+        // Longer commands are matched first, since a command might start with another one.
+        group.sort(Comparator.comparing((TypeElement e) -> commandOf(e).length()).reversed());
+
+        List<String> matchers = new ArrayList<>();
+        for(TypeElement element: group)
+            matchers.add(makeMatcher(element));
+
+        return String.format("""
+            case %d: {
+%s
+            } break;
+""".stripTrailing(), hash, String.join("\n", matchers));
+    }
+
+    private static String makeMatcher(TypeElement element) {
+        final String packetType = element.getSimpleName().toString();
+        final String command = commandOf(element);
+        final String deserializeCall = element.getRecordComponents().size() > 0
+                ? String.format("rawPacket.length() <= %d ? null : deserialize%s(rawPacket, %d, rawPacket.length())",
+                                command.length(), packetType, command.length() + 1)
+                : String.format("deserialize%s()", packetType);
+
+        return String.format("""
+                if(matchesCommand(rawPacket, "%s")) {
+                    %s packet = %s;
+                    if(packet != null) consumer.accept(packet);
+                    else consumer.onFailure(rawPacket.toString());
+                    return;
+                }
+""".stripTrailing(), command, packetType, deserializeCall);
+    }
+
+}
@@ -0,0 +1,42 @@
+plugins {
+    java
+    idea
+    id("me.champeau.jmh") version "0.6.8"
+}
+
+repositories {
+    mavenCentral()
+}
+
+group = "kingdomBuilder"
+version = "1.0"
+
+dependencies {
+    jmh(project(":kingdomBuilder"))
+    jmh(project(":network"))
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+// Run with "gradlew :benchmarks:jmh", a single suite can be selected with "-PjmhIncludes=GameMapBenchmark".
+jmh {
+    jmhVersion.set("1.35")
+
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    timeUnit.set("us")
+    benchmarkMode.set(listOf("avgt"))
+
+    // allocation rate and bytes per operation next to every result
+    profilers.set(listOf("gc"))
+
+    resultFormat.set("JSON")
+
+    if (project.hasProperty("jmhIncludes"))
+        includes.set(listOf(project.property("jmhIncludes") as String))
+}
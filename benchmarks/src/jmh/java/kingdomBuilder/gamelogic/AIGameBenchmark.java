@@ -0,0 +1,76 @@
+package kingdomBuilder.gamelogic;
+
+import kingdomBuilder.gui.controller.BotDifficulty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Benchmarks a whole turn of the AI of every difficulty. The AI searches on the calling thread only, so that the
+ * results do not depend on the amount of cores.
+ */
+@State(Scope.Benchmark)
+public class AIGameBenchmark {
+
+    /**
+     * Represents how far the game on the board has progressed.
+     */
+    @Param({"EARLY", "MID", "LATE"})
+    BenchmarkBoard.Density density;
+
+    /**
+     * Represents the difficulty of the AI.
+     */
+    @Param({"EASY", "NORMAL", "HARD", "EXPERT", "MONTE_CARLO"})
+    BotDifficulty difficulty;
+
+    /**
+     * Represents the player that the AI controls.
+     */
+    Player player;
+
+    /**
+     * Represents the AI.
+     */
+    AIGame aiGame;
+
+    /**
+     * Creates the board and the AI.
+     */
+    @Setup
+    public void setup() {
+        BenchmarkBoard board = new BenchmarkBoard(density);
+        player = board.player();
+
+        aiGame = new AIGame(board.gameMap, difficulty, null);
+        aiGame.setAiPlayer(player);
+        aiGame.setWinConditions(board.winConditions);
+        aiGame.setPlayers(board.players);
+        aiGame.setSingleThreaded(true);
+    }
+
+    /**
+     * Starts the turn again, since the AI uses up the tokens of its player while it plans, and drops the cached
+     * results of the previous turn, so that every turn is searched from scratch.
+     */
+    @Setup(Level.Invocation)
+    public void startTurn() {
+        player.startTurn();
+        aiGame.setTranspositionTableMemory(TranspositionTable.DEFAULT_MEMORY);
+    }
+
+    /**
+     * Benchmarks a turn of the AI.
+     *
+     * @return the moves of the turn.
+     */
+    @Benchmark
+    public List<ClientTurn> chooseAI() {
+        return aiGame.chooseAI();
+    }
+}
@@ -0,0 +1,222 @@
+package kingdomBuilder.gamelogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Represents a reproducible board for the benchmarks. The board is built from four quadrants of the game, each
+ * with a different special place, and filled by three players who place their settlements on random placeable
+ * tiles with random terrain cards. The same density always creates the same board.
+ */
+final class BenchmarkBoard {
+
+    /**
+     * Represents how far the game on the board has progressed.
+     */
+    enum Density {
+        /**
+         * Represents a board at the start of a game.
+         */
+        EARLY(6),
+        /**
+         * Represents a board in the middle of a game.
+         */
+        MID(20),
+        /**
+         * Represents a board near the end of a game.
+         */
+        LATE(34);
+
+        /**
+         * Represents the amount of settlements every player has placed.
+         */
+        final int settlements;
+
+        /**
+         * Creates a density.
+         *
+         * @param settlements the amount of settlements every player has placed.
+         */
+        Density(int settlements) {
+            this.settlements = settlements;
+        }
+    }
+
+    /**
+     * Represents the seed of the random placements.
+     */
+    static final long SEED = 20220117L;
+
+    /**
+     * Represents the amount of players on the board.
+     */
+    static final int PLAYERS = 3;
+
+    /**
+     * Represents the amount of settlements every player has at the start of the game.
+     */
+    static final int STARTING_SETTLEMENTS = 40;
+
+    /**
+     * Represents the quadrant with a tower.
+     */
+    private static final String TOWER_QUADRANT =
+            "FORREST;FORREST;FLOWER;DESERT;DESERT;DESERT;DESERT;CANYON;DESERT;DESERT;" +
+            "FORREST;MOUNTAIN;FLOWER;FLOWER;DESERT;CANYON;DESERT;CANYON;CANYON;CANYON;" +
+            "FORREST;FORREST;FORREST;FLOWER;DESERT;DESERT;CANYON;TOWER;WATER;CANYON;" +
+            "FORREST;FORREST;FLOWER;FLOWER;DESERT;DESERT;DESERT;DESERT;WATER;WATER;" +
+            "MOUNTAIN;FLOWER;FLOWER;WATER;FLOWER;DESERT;DESERT;WATER;WATER;FORREST;" +
+            "MOUNTAIN;GRAS;FLOWER;TOWER;WATER;WATER;WATER;FLOWER;FORREST;FORREST;" +
+            "GRAS;MOUNTAIN;GRAS;GRAS;GRAS;WATER;FLOWER;FLOWER;FORREST;FORREST;" +
+            "MOUNTAIN;MOUNTAIN;GRAS;WATER;WATER;CANYON;CASTLE;FLOWER;FLOWER;GRAS;" +
+            "CANYON;MOUNTAIN;WATER;MOUNTAIN;CANYON;GRAS;GRAS;GRAS;GRAS;GRAS;" +
+            "CANYON;CANYON;MOUNTAIN;MOUNTAIN;CANYON;CANYON;CANYON;GRAS;GRAS;GRAS";
+
+    /**
+     * Represents the quadrant with a tavern.
+     */
+    private static final String TAVERN_QUADRANT =
+            "FLOWER;FLOWER;FLOWER;WATER;FLOWER;FLOWER;DESERT;DESERT;DESERT;DESERT;" +
+            "DESERT;FLOWER;FLOWER;WATER;FLOWER;CANYON;FLOWER;DESERT;DESERT;DESERT;" +
+            "DESERT;DESERT;FLOWER;FLOWER;WATER;CANYON;TAVERN;CANYON;DESERT;WATER;" +
+            "MOUNTAIN;DESERT;FLOWER;CASTLE;WATER;WATER;CANYON;WATER;WATER;WATER;" +
+            "MOUNTAIN;DESERT;FLOWER;GRAS;GRAS;GRAS;WATER;FORREST;FORREST;FORREST;" +
+            "DESERT;MOUNTAIN;FLOWER;GRAS;GRAS;FORREST;FORREST;FORREST;FORREST;FORREST;" +
+            "DESERT;MOUNTAIN;FLOWER;FORREST;GRAS;FORREST;FORREST;GRAS;FORREST;FORREST;" +
+            "CANYON;CANYON;MOUNTAIN;FORREST;FORREST;CANYON;TAVERN;GRAS;GRAS;GRAS;" +
+            "CANYON;CANYON;MOUNTAIN;MOUNTAIN;FORREST;CANYON;CANYON;GRAS;GRAS;GRAS;" +
+            "CANYON;CANYON;MOUNTAIN;MOUNTAIN;CANYON;CANYON;GRAS;GRAS;GRAS;GRAS";
+
+    /**
+     * Represents the quadrant with paddocks.
+     */
+    private static final String PADDOCK_QUADRANT =
+            "CANYON;MOUNTAIN;MOUNTAIN;MOUNTAIN;CANYON;CANYON;CANYON;GRAS;GRAS;GRAS;" +
+            "CANYON;MOUNTAIN;MOUNTAIN;CANYON;CANYON;FORREST;PADDOCK;GRAS;GRAS;GRAS;" +
+            "CANYON;CANYON;CANYON;MOUNTAIN;FORREST;FORREST;FORREST;FORREST;FORREST;FORREST;" +
+            "DESERT;DESERT;MOUNTAIN;MOUNTAIN;FORREST;WATER;FORREST;WATER;FORREST;FORREST;" +
+            "DESERT;DESERT;MOUNTAIN;WATER;WATER;CANYON;WATER;GRAS;WATER;WATER;" +
+            "WATER;WATER;WATER;MOUNTAIN;MOUNTAIN;CANYON;FLOWER;CASTLE;GRAS;GRAS;" +
+            "DESERT;DESERT;DESERT;DESERT;MOUNTAIN;CANYON;FLOWER;GRAS;GRAS;GRAS;" +
+            "DESERT;DESERT;DESERT;FLOWER;CANYON;MOUNTAIN;FLOWER;FLOWER;GRAS;GRAS;" +
+            "DESERT;DESERT;PADDOCK;FLOWER;FLOWER;FLOWER;FLOWER;GRAS;GRAS;FORREST;" +
+            "DESERT;DESERT;FLOWER;FLOWER;FLOWER;FLOWER;FLOWER;FORREST;FORREST;FORREST";
+
+    /**
+     * Represents the quadrant with an oracle.
+     */
+    private static final String ORACLE_QUADRANT =
+            "GRAS;GRAS;GRAS;FLOWER;FLOWER;MOUNTAIN;CANYON;CANYON;WATER;WATER;" +
+            "GRAS;GRAS;FLOWER;FLOWER;FLOWER;MOUNTAIN;CANYON;CANYON;WATER;WATER;" +
+            "GRAS;GRAS;FLOWER;CANYON;FLOWER;CANYON;CANYON;CASTLE;WATER;WATER;" +
+            "FORREST;CASTLE;GRAS;GRAS;CANYON;GRAS;MOUNTAIN;DESERT;DESERT;WATER;" +
+            "FORREST;FORREST;FORREST;FORREST;CANYON;GRAS;GRAS;MOUNTAIN;DESERT;DESERT;" +
+            "WATER;WATER;FORREST;WATER;WATER;WATER;FLOWER;DESERT;DESERT;DESERT;" +
+            "GRAS;GRAS;WATER;FLOWER;FLOWER;WATER;FLOWER;FLOWER;DESERT;DESERT;" +
+            "FORREST;FORREST;GRAS;ORACLE;FLOWER;WATER;FLOWER;FLOWER;MOUNTAIN;DESERT;" +
+            "FORREST;FORREST;GRAS;FORREST;WATER;DESERT;DESERT;CANYON;CANYON;DESERT;" +
+            "FORREST;FORREST;FORREST;FORREST;WATER;DESERT;DESERT;CANYON;CANYON;CANYON";
+
+    /**
+     * Represents the terrains of the terrain cards.
+     */
+    private static final TileType[] TERRAINS = TileType.placeableTileTypes.toArray(new TileType[0]);
+
+    /**
+     * Represents the map of the board.
+     */
+    final GameMap gameMap;
+
+    /**
+     * Represents the players in the order of their turns.
+     */
+    final ArrayList<Player> players = new ArrayList<>();
+
+    /**
+     * Represents the win conditions of the game on the board.
+     */
+    final ArrayList<WinCondition> winConditions =
+            new ArrayList<>(List.of(WinCondition.FISHER, WinCondition.MERCHANT, WinCondition.KNIGHT));
+
+    /**
+     * Creates the board with the given density.
+     *
+     * @param density how far the game on the board has progressed.
+     */
+    BenchmarkBoard(Density density) {
+        gameMap = new GameMap(2, quadrant(TOWER_QUADRANT), quadrant(TAVERN_QUADRANT),
+                quadrant(PADDOCK_QUADRANT), quadrant(ORACLE_QUADRANT));
+
+        for (int i = 0; i < PLAYERS; i++)
+            players.add(new Player(i, "Player " + i, PlayerColor.values()[i], STARTING_SETTLEMENTS));
+
+        Random random = new Random(SEED);
+        BitBoard placeable = new BitBoard(gameMap.size());
+
+        // turns of up to three settlements until every player has placed enough or is stuck.
+        for (int round = 0; round < STARTING_SETTLEMENTS; round++) {
+            for (Player player : players) {
+                int placed = STARTING_SETTLEMENTS - player.getRemainingSettlements();
+                int settlements = Math.min(Game.SETTLEMENTS_PER_TURN, density.settlements - placed);
+                TileType terrain = TERRAINS[random.nextInt(TERRAINS.length)];
+
+                for (int i = 0; i < settlements; i++) {
+                    gameMap.placeableTiles(player, terrain, placeable);
+
+                    int count = placeable.cardinality();
+                    if (count == 0)
+                        break;
+
+                    int tile = placeable.nextSetBit(0);
+                    for (int skip = random.nextInt(count); skip > 0; skip--)
+                        tile = placeable.nextSetBit(tile + 1);
+
+                    Tile target = gameMap.at(tile);
+                    Game.unsafePlaceSettlement(gameMap, player, target.x, target.y);
+                    Game.unsafeCheckForTokens(gameMap, player, target.x, target.y);
+                }
+            }
+        }
+
+        // the player whose turn is benchmarked holds a token of every special place, so that all of them are used.
+        for (int i = 0; i < gameMap.size(); i++)
+            if (TileType.tokenType.contains(gameMap.at(i).tileType))
+                player().addToken(gameMap.at(i));
+
+        // every player is at the start of a turn with a random terrain card.
+        for (Player player : players) {
+            player.setTerrainCard(TERRAINS[random.nextInt(TERRAINS.length)]);
+            player.startTurn();
+        }
+    }
+
+    /**
+     * Gets the player whose turn is benchmarked.
+     *
+     * @return the first player.
+     */
+    Player player() {
+        return players.get(0);
+    }
+
+    /**
+     * Gets a settlement of the player whose turn is benchmarked.
+     *
+     * @return the first settlement of the player.
+     */
+    Tile settlement() {
+        return gameMap.getSettlements(player()).findFirst().orElseThrow();
+    }
+
+    /**
+     * Parses a quadrant.
+     *
+     * @param quadrant the tile types of the quadrant separated by semicolons.
+     * @return the tile types of the quadrant.
+     */
+    private static TileType[] quadrant(String quadrant) {
+        return Arrays.stream(quadrant.split(";")).map(TileType::valueOf).toArray(TileType[]::new);
+    }
+}
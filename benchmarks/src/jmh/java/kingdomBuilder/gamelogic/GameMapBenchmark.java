@@ -0,0 +1,88 @@
+package kingdomBuilder.gamelogic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Set;
+
+/**
+ * Benchmarks the queries of the map that the game and the AI use on every turn.
+ */
+@State(Scope.Benchmark)
+public class GameMapBenchmark {
+
+    /**
+     * Represents how far the game on the board has progressed.
+     */
+    @Param({"EARLY", "MID", "LATE"})
+    BenchmarkBoard.Density density;
+
+    /**
+     * Represents the map of the board.
+     */
+    GameMap gameMap;
+
+    /**
+     * Represents the player whose turn is benchmarked.
+     */
+    Player player;
+
+    /**
+     * Represents a settlement of the player.
+     */
+    Tile settlement;
+
+    /**
+     * Creates the board.
+     */
+    @Setup
+    public void setup() {
+        BenchmarkBoard board = new BenchmarkBoard(density);
+        gameMap = board.gameMap;
+        player = board.player();
+        settlement = board.settlement();
+    }
+
+    /**
+     * Benchmarks the tiles on which the player can place a settlement with the terrain card.
+     *
+     * @return the amount of placeable tiles.
+     */
+    @Benchmark
+    public long getAllPlaceableTiles() {
+        return gameMap.getAllPlaceableTiles(player, player.getTerrainCard()).count();
+    }
+
+    /**
+     * Benchmarks the group of the settlement.
+     *
+     * @return the settlements of the group.
+     */
+    @Benchmark
+    public Set<Tile> getSettlementGroup() {
+        return gameMap.getSettlementGroup(player, settlement);
+    }
+
+    /**
+     * Benchmarks the amount of special places that are connected by the settlements of the player.
+     *
+     * @return the amount of connected special places.
+     */
+    @Benchmark
+    public long connectedSpecialPlaces() {
+        return gameMap.connectedSpecialPlaces(player);
+    }
+
+    /**
+     * Benchmarks the copy of the map that every AI turn starts with.
+     *
+     * @return the copy.
+     */
+    @Benchmark
+    public GameMap copy() {
+        return new GameMap(gameMap);
+    }
+}
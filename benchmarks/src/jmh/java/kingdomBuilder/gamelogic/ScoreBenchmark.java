@@ -0,0 +1,166 @@
+package kingdomBuilder.gamelogic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * Benchmarks the scoring of every win condition and of a whole game.
+ */
+@State(Scope.Benchmark)
+public class ScoreBenchmark {
+
+    /**
+     * Represents how far the game on the board has progressed.
+     */
+    @Param({"EARLY", "MID", "LATE"})
+    BenchmarkBoard.Density density;
+
+    /**
+     * Represents the board.
+     */
+    BenchmarkBoard board;
+
+    /**
+     * Represents the map of the board.
+     */
+    GameMap gameMap;
+
+    /**
+     * Represents the player whose turn is benchmarked.
+     */
+    Player player;
+
+    /**
+     * Creates the board.
+     */
+    @Setup
+    public void setup() {
+        board = new BenchmarkBoard(density);
+        gameMap = board.gameMap;
+        player = board.player();
+    }
+
+    /**
+     * Benchmarks the score of the castles.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreCastles() {
+        return Game.scoreCastles(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of the anchorite.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreAnchorite() {
+        return Game.scoreAnchorite(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of the citizens.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreCitizen() {
+        return Game.scoreCitizen(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of the explorers.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreExplorer() {
+        return Game.scoreExplorer(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of the knights.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreKnight() {
+        return Game.scoreKnight(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of the merchants.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreMerchant() {
+        return Game.scoreMerchant(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of the lords.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreLord() {
+        return Game.scoreLord(gameMap, player, board.players);
+    }
+
+    /**
+     * Benchmarks the score of the farmers.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreFarmer() {
+        return Game.scoreFarmer(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of the workers.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreWorker() {
+        return Game.scoreWorker(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of the fishers.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreFisher() {
+        return Game.scoreFisher(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of the miners.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int scoreMiner() {
+        return Game.scoreMiner(gameMap, player);
+    }
+
+    /**
+     * Benchmarks the score of all win conditions of the board.
+     *
+     * @return the score of the player.
+     */
+    @Benchmark
+    public int calculateScore() {
+        return Game.calculateScore(gameMap, player, board.winConditions, board.players);
+    }
+}
@@ -0,0 +1,127 @@
+package kingdomBuilder.gamelogic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * Benchmarks the tiles on which the tokens can be used. The board contains a tower, a tavern, paddocks and an
+ * oracle, whose tokens the player holds. The other tokens are benchmarked without being held by the player.
+ */
+@State(Scope.Benchmark)
+public class TokenBenchmark {
+
+    /**
+     * Represents how far the game on the board has progressed.
+     */
+    @Param({"EARLY", "MID", "LATE"})
+    BenchmarkBoard.Density density;
+
+    /**
+     * Represents the board.
+     */
+    BenchmarkBoard board;
+
+    /**
+     * Represents the map of the board.
+     */
+    GameMap gameMap;
+
+    /**
+     * Represents the player whose turn is benchmarked.
+     */
+    Player player;
+
+    /**
+     * Creates the board.
+     */
+    @Setup
+    public void setup() {
+        board = new BenchmarkBoard(density);
+        gameMap = board.gameMap;
+        player = board.player();
+    }
+
+    /**
+     * Benchmarks the tiles of the oracle token.
+     *
+     * @return the amount of tiles.
+     */
+    @Benchmark
+    public long allTokenOracleTiles() {
+        return Game.allTokenOracleTiles(gameMap, player).count();
+    }
+
+    /**
+     * Benchmarks the tiles of the farm token.
+     *
+     * @return the amount of tiles.
+     */
+    @Benchmark
+    public long allTokenFarmTiles() {
+        return Game.allTokenFarmTiles(gameMap, player).count();
+    }
+
+    /**
+     * Benchmarks the tiles of the tavern token.
+     *
+     * @return the amount of tiles.
+     */
+    @Benchmark
+    public long allTokenTavernTiles() {
+        return Game.allTokenTavernTiles(gameMap, player).count();
+    }
+
+    /**
+     * Benchmarks the tiles of the tower token.
+     *
+     * @return the amount of tiles.
+     */
+    @Benchmark
+    public long allTokenTowerTiles() {
+        return Game.allTokenTowerTiles(gameMap, player).count();
+    }
+
+    /**
+     * Benchmarks the tiles of the oasis token.
+     *
+     * @return the amount of tiles.
+     */
+    @Benchmark
+    public long allTokenOasisTiles() {
+        return Game.allTokenOasisTiles(gameMap, player).count();
+    }
+
+    /**
+     * Benchmarks the tiles of the harbor token.
+     *
+     * @return the amount of tiles.
+     */
+    @Benchmark
+    public long allTokenHarborTiles() {
+        return Game.allTokenHarborTiles(gameMap, player, true).count();
+    }
+
+    /**
+     * Benchmarks the tiles of the paddock token.
+     *
+     * @return the amount of tiles.
+     */
+    @Benchmark
+    public long allTokenPaddockTiles() {
+        return Game.allTokenPaddockTiles(gameMap, player).count();
+    }
+
+    /**
+     * Benchmarks the tiles of the barn token.
+     *
+     * @return the amount of tiles.
+     */
+    @Benchmark
+    public long allTokenBarnTiles() {
+        return Game.allTokenBarnTiles(gameMap, player, true).count();
+    }
+}
@@ -0,0 +1,162 @@
+package kingdomBuilder.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a minimal server on the loopback interface, which answers every received command with a message, so
+ * that a round trip of the clients can be measured without the real server.
+ */
+final class LoopbackServer implements AutoCloseable {
+
+    /**
+     * Represents the answer to every command.
+     */
+    static final byte[] REPLY = "[SERVER_MESSAGE] [MESSAGE] <[1;{2};pong]>\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Represents the amount of connections that may wait to be accepted.
+     */
+    static final int BACKLOG = 4096;
+
+    /**
+     * Represents the selector of the server and all connections.
+     */
+    private final Selector selector;
+
+    /**
+     * Represents the socket that accepts the connections.
+     */
+    private final ServerSocketChannel server;
+
+    /**
+     * Represents the thread that runs the server.
+     */
+    private final Thread thread;
+
+    /**
+     * Represents the buffer that the commands are read into.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    /**
+     * Represents all accepted connections.
+     */
+    private final List<SocketChannel> connections = new ArrayList<>();
+
+    /**
+     * Opens the server on a free port and starts its thread.
+     *
+     * @throws IOException when the server cannot be opened.
+     */
+    LoopbackServer() throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("127.0.0.1", 0), BACKLOG);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+
+        thread = new Thread(this::run, "LoopbackServer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Gets the address that the clients connect to.
+     *
+     * @return the address of the server.
+     * @throws IOException when the address cannot be determined.
+     */
+    InetSocketAddress address() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    /**
+     * Accepts connections and answers commands until the server is closed.
+     */
+    private void run() {
+        try {
+            while (selector.isOpen()) {
+                selector.select(key -> {
+                    try {
+                        if (key.isAcceptable())
+                            accept();
+                        else if (key.isReadable())
+                            answer(key);
+                    } catch (IOException exc) {
+                        key.cancel();
+                    }
+                });
+            }
+        } catch (Exception closed) {
+            // the selector was closed.
+        }
+    }
+
+    /**
+     * Accepts a waiting connection.
+     *
+     * @throws IOException when the connection cannot be accepted.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null)
+            return;
+
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ);
+        connections.add(channel);
+    }
+
+    /**
+     * Reads the commands of a connection and answers each of them.
+     *
+     * @param key the key of the connection.
+     * @throws IOException when the connection was lost.
+     */
+    private void answer(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        buffer.clear();
+        if (channel.read(buffer) < 0) {
+            key.cancel();
+            channel.close();
+            return;
+        }
+
+        int commands = 0;
+        for (int i = 0; i < buffer.position(); i++)
+            if (buffer.get(i) == '\n')
+                commands++;
+
+        // the answers are small, thus the socket only rarely cannot take them at once.
+        for (int i = 0; i < commands; i++) {
+            ByteBuffer reply = ByteBuffer.wrap(REPLY);
+            while (reply.hasRemaining())
+                channel.write(reply);
+        }
+    }
+
+    /**
+     * Closes the server and all connections.
+     *
+     * @throws IOException          when the server cannot be closed.
+     * @throws InterruptedException when the thread of the server does not end.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        server.close();
+        selector.close();
+        thread.join();
+
+        for (SocketChannel connection : connections)
+            connection.close();
+    }
+}
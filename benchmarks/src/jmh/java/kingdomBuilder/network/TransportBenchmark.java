@@ -0,0 +1,160 @@
+package kingdomBuilder.network;
+
+import kingdomBuilder.network.internal.BlockingClientSelector;
+import kingdomBuilder.network.internal.ClientSelectorPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares the transports of the clients with many simulated clients, that are connected to a
+ * {@link LoopbackServer}. Every operation is a round, in which every client sends a command and waits for the answer,
+ * thus the time of an operation divided by the amount of clients is the time per command. The heap used per
+ * connection is printed once the clients are connected.
+ */
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    /**
+     * Represents the transports of the clients.
+     */
+    public enum Transport {
+
+        /**
+         * Represents clients that share a pool of selector threads.
+         */
+        SELECTOR,
+
+        /**
+         * Represents clients with blocking IO on threads of their own.
+         */
+        BLOCKING
+    }
+
+    /**
+     * Represents the time that the clients have to connect.
+     */
+    static final long CONNECT_TIMEOUT = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * Represents the transport of the clients.
+     */
+    @Param({"SELECTOR", "BLOCKING"})
+    Transport transport;
+
+    /**
+     * Represents the amount of simulated clients.
+     */
+    @Param({"100", "1000"})
+    int clients;
+
+    /**
+     * Represents the server that the clients are connected to.
+     */
+    LoopbackServer server;
+
+    /**
+     * Represents the selector that created the clients.
+     */
+    ClientSelector selector;
+
+    /**
+     * Represents the thread that runs the selector.
+     */
+    Thread selectorThread;
+
+    /**
+     * Represents the connected clients.
+     */
+    final List<Client> connected = new ArrayList<>();
+
+    /**
+     * Represents the amount of answers that were received by all clients.
+     */
+    final AtomicInteger answers = new AtomicInteger();
+
+    /**
+     * Starts the server and connects the clients.
+     *
+     * @throws IOException          when the server cannot be started or a client cannot connect.
+     * @throws InterruptedException when the setup is interrupted.
+     */
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        server = new LoopbackServer();
+        InetSocketAddress address = server.address();
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        selector = (transport == Transport.SELECTOR) ? new ClientSelectorPool() : new BlockingClientSelector();
+        selectorThread = new Thread(selector, "SelectorThread");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+
+        for (int i = 0; i < clients; i++) {
+            Client client = selector.connect(address);
+            client.onMessageReceived.subscribe(message -> answers.incrementAndGet());
+            connected.add(client);
+        }
+
+        long deadline = System.nanoTime() + CONNECT_TIMEOUT;
+        for (Client client : connected) {
+            while (!client.isConnected()) {
+                if (System.nanoTime() - deadline > 0)
+                    throw new IOException("The clients did not connect in time.");
+                Thread.sleep(1);
+            }
+        }
+
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%n%s: %d bytes of heap per connection%n", transport, (heapAfter - heapBefore) / clients);
+    }
+
+    /**
+     * Disconnects the clients and stops the server.
+     *
+     * @throws IOException          when the server cannot be stopped.
+     * @throws InterruptedException when the teardown is interrupted.
+     */
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        for (Client client : connected)
+            client.disconnect();
+
+        selector.stop();
+        selectorThread.interrupt();
+        server.close();
+    }
+
+    /**
+     * Benchmarks a round, in which every client sends a command and receives the answer.
+     *
+     * @return the amount of answers received so far.
+     */
+    @Benchmark
+    public int round() {
+        int expected = answers.get() + clients;
+
+        for (Client client : connected)
+            client.chat(List.of(), "ping");
+
+        while (answers.get() < expected)
+            LockSupport.parkNanos(1_000);
+
+        return expected;
+    }
+}
@@ -1,20 +1,23 @@
 package kingdomBuilder;
 
 import kingdomBuilder.annotations.State;
+import kingdomBuilder.generated.DeferredState;
 import kingdomBuilder.gamelogic.WinCondition;
 import kingdomBuilder.gamelogic.*;
 import kingdomBuilder.gui.SceneLoader;
 import kingdomBuilder.network.Client;
 import kingdomBuilder.network.ClientSelector;
-import kingdomBuilder.network.internal.ClientSelectorImpl;
+import kingdomBuilder.network.internal.ClientSelectorPool;
 import kingdomBuilder.network.protocol.*;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents the state of the Kingdom Builder application.
@@ -101,7 +104,7 @@ public record KBState(SceneLoader sceneLoader,
         this(null,
                 new HashMap<>(),
                 new HashMap<>(),
-                new ClientSelectorImpl(),
+                new ClientSelectorPool(),
                 null,
                 null,
                 new ArrayList<>(),
@@ -136,6 +139,50 @@ public record KBState(SceneLoader sceneLoader,
         );
     }
 
+    /**
+     * Copies the game and the collections, which the reducers change in place, so that the copy can be read on the
+     * JavaFX Application Thread while the dispatcher goes on reducing. The settlements on the copy of the map belong
+     * to the copies of the players.
+     *
+     * @return the copy of the state.
+     */
+    public KBState snapshot() {
+        Map<Player, Player> copies = new IdentityHashMap<>();
+        UnaryOperator<Player> copyOf = player -> player == null ? null : copies.computeIfAbsent(player, Player::new);
+
+        DeferredState state = new DeferredState(this);
+        if (clients != null)
+            state.setClients(new HashMap<>(clients));
+        if (games != null)
+            state.setGames(new HashMap<>(games));
+        if (playersOfGame != null)
+            state.setPlayersOfGame(new HashMap<>(playersOfGame));
+        if (Bots != null)
+            state.setBots(new HashMap<>(Bots));
+        if (winConditions != null)
+            state.setWinConditions(new ArrayList<>(winConditions));
+
+        if (players != null) {
+            ArrayList<Player> playersCopy = new ArrayList<>(players);
+            playersCopy.replaceAll(copyOf);
+            state.setPlayers(playersCopy);
+        }
+        if (playersMap != null) {
+            HashMap<Integer, Player> playersMapCopy = new HashMap<>(playersMap);
+            playersMapCopy.replaceAll((id, player) -> copyOf.apply(player));
+            state.setPlayersMap(playersMapCopy);
+        }
+        state.setCurrentPlayer(copyOf.apply(currentPlayer));
+
+        if (gameMap != null) {
+            GameMap gameMapCopy = new GameMap(gameMap);
+            copies.forEach(gameMapCopy::replacePlayer);
+            state.setGameMap(gameMapCopy);
+        }
+
+        return state.withChanges();
+    }
+
     /**
      * Represents the clientStatus.
      */
@@ -4,6 +4,10 @@ import kingdomBuilder.gui.controller.BotDifficulty;
 
 import java.lang.ref.Cleaner;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -14,7 +18,7 @@ public class AIGame {
     /**
      * The timer used for delaying turns over time.
      */
-    public Timer turnTimer = new Timer();
+    public Timer turnTimer;
     /**
      * The map that is shared  between  all  players.
      */
@@ -43,6 +47,104 @@ public class AIGame {
      * The amount of recursive calls the expertAI makes.
      */
     int SEARCH_DEPTH = 2;
+    /**
+     * The deepest search the expertAI starts when the game has a time limit.
+     */
+    static final int MAX_SEARCH_DEPTH = 4;
+    /**
+     * The default time in milliseconds that is kept free at the end of a turn to send the moves of the AI.
+     */
+    public static final int DEFAULT_SAFETY_MARGIN = 1000;
+    /**
+     * The time limit of a turn in milliseconds or -1 if the game has no time limit.
+     */
+    private volatile int timeLimit = -1;
+    /**
+     * The time in milliseconds that is kept free at the end of a turn to send the moves of the AI.
+     */
+    private int safetyMargin = DEFAULT_SAFETY_MARGIN;
+    /**
+     * The depth the current search of the expertAI started with.
+     */
+    private int rootDepth = SEARCH_DEPTH;
+    /**
+     * The value of {@link System#nanoTime()} at which the current search has to stop.
+     */
+    private long deadline;
+    /**
+     * Whether the current search has a deadline.
+     */
+    private boolean hasDeadline = false;
+    /**
+     * The amount of threads the expertAI uses for its search.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * Whether the expertAI searches only on the calling thread, which makes its turns reproducible.
+     */
+    private boolean singleThreaded = false;
+    /**
+     * The pool that runs the parallel search of the expertAI. It is created with the first parallel search.
+     */
+    private ForkJoinPool searchPool;
+    /**
+     * The results of the expertAI for positions it has already searched. It is created with the first search.
+     */
+    private TranspositionTable transpositionTable;
+    /**
+     * The memory cap of the transposition table in bytes.
+     */
+    private long transpositionTableMemory = TranspositionTable.DEFAULT_MEMORY;
+    /**
+     * The default amount of iterations of the Monte Carlo AI.
+     */
+    public static final int DEFAULT_MONTE_CARLO_ITERATIONS = 8000;
+    /**
+     * The default time in milliseconds the Monte Carlo AI searches at most.
+     */
+    public static final int DEFAULT_MONTE_CARLO_TIME = 2000;
+    /**
+     * The amount of iterations of the Monte Carlo AI for a turn.
+     */
+    private int monteCarloIterations = DEFAULT_MONTE_CARLO_ITERATIONS;
+    /**
+     * The time in milliseconds the Monte Carlo AI searches at most for a turn.
+     */
+    private int monteCarloTime = DEFAULT_MONTE_CARLO_TIME;
+    /**
+     * The generator of the legal moves of the AI, which is only used by the thread that runs the turn of this AI.
+     */
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+
+    /**
+     * Represents a possible combination of placements of a turn together with its score.
+     *
+     * @param turn          the moves of the turn.
+     * @param score         the score of the AI after the turn.
+     * @param collectsToken whether the turn collects a token.
+     */
+    private record Candidate(List<ClientTurn> turn, int score, boolean collectsToken) {
+    }
+
+    /**
+     * Signals that the search of the expertAI ran out of time.
+     */
+    private static final class SearchTimeoutException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The only instance of the exception. It carries no stack trace, so it can be thrown from every search.
+         */
+        static final SearchTimeoutException INSTANCE = new SearchTimeoutException();
+
+        /**
+         * Creates the exception without a stack trace, since it is only used to unwind the search.
+         */
+        private SearchTimeoutException() {
+            super("The search ran out of time.", null, false, false);
+        }
+    }
 
     /**
      * The constructor for AIGame.
@@ -51,9 +153,22 @@ public class AIGame {
      * @param difficulty the difficulty of the AI.
      */
     public AIGame(GameMap gameMap, BotDifficulty difficulty) {
+        this(gameMap, difficulty, null);
+        this.turnTimer = new Timer();
+    }
+
+    /**
+     * Creates an AI with the given played terrain cards. The AI has no timer, since it is not used to send the
+     * moves to a server.
+     *
+     * @param gameMap     the game map the AI operates on.
+     * @param difficulty  the difficulty of the AI.
+     * @param playedCards the terrain cards that have been played or null if none have been played yet.
+     */
+    AIGame(GameMap gameMap, BotDifficulty difficulty, Map<TileType, Integer> playedCards) {
         this.gameMap = gameMap;
         this.difficulty = difficulty;
-        this.playedTerrainCards = setTerrainCards();
+        this.playedTerrainCards = (playedCards == null) ? setTerrainCards() : playedCards;
     }
 
     /**
@@ -65,6 +180,7 @@ public class AIGame {
         return switch (difficulty) {
             case EASY -> randomAI();
             case EXPERT -> expertAI();
+            case MONTE_CARLO -> monteCarloAI();
             default -> greedyAI(null);
         };
     }
@@ -81,12 +197,12 @@ public class AIGame {
 
         for (int i = 0; i < aiPlayer.remainingSettlementsOfTurn; i++) {
 
-            List<Tile> placeable = aiGameMap.getAllPlaceableTiles(aiPlayer, aiPlayer.getTerrainCard()).toList();
-            int index = (int) (Math.random() * (placeable.size()));
-            Tile t = placeable.get(index);
+            int count = moveGenerator.generatePlacements(aiGameMap, aiPlayer, aiPlayer.getTerrainCard());
+            int move = moveGenerator.get((int) (Math.random() * count));
+            Tile t = aiGameMap.at(MoveGenerator.fromOf(move));
 
             aiGameMap.at(t.x, t.y).placeSettlement(aiPlayer);
-            moves.add(new ClientTurn(aiPlayer.ID, ClientTurn.TurnType.PLACE, t.x, t.y, -1, -1));
+            moves.add(MoveGenerator.toClientTurn(aiGameMap, aiPlayer.ID, move));
         }
         return moves;
     }
@@ -105,7 +221,7 @@ public class AIGame {
         GameMap aiGameMap = (map == null) ? new GameMap(gameMap) : map;
         List<ClientTurn> moves = new ArrayList<>();
 
-        Set<Tile> freeTiles = aiGameMap.getAllPlaceableTiles(aiPlayer, aiPlayer.getTerrainCard()).collect(Collectors.toSet());
+        Set<Tile> freeTiles = placeableTiles(aiGameMap, aiPlayer.getTerrainCard());
         int settlementsLeft = aiPlayer.getRemainingSettlements();
 
         // AI uses token before basic turn except there can be one collected on basic turn.
@@ -113,7 +229,7 @@ public class AIGame {
             settlementsLeft = useTokenAI(aiGameMap, moves, aiPlayer.getRemainingSettlements(), false);
 
         // AI does basic turn.
-        settlementsLeft = greedyBasicTurn(aiGameMap, moves, settlementsLeft);
+        settlementsLeft = greedyBasicTurn(aiGameMap, moves, settlementsLeft, aiPlayer.remainingSettlementsOfTurn);
 
         // AI uses tokens at end of turn.
         useTokenAI(aiGameMap, moves, settlementsLeft, true);
@@ -126,23 +242,23 @@ public class AIGame {
      * @param map             the map to operate on.
      * @param moves           the moves of the AI.
      * @param settlementsLeft the amount of settlements that are left.
+     * @param placements      the amount of basic placements to make.
      * @return the amount of settlements that are left.
      */
-    private int greedyBasicTurn(GameMap map, List<ClientTurn> moves, int settlementsLeft) {
+    private int greedyBasicTurn(GameMap map, List<ClientTurn> moves, int settlementsLeft, int placements) {
 
         int currentScore;
-        int bestScore = Game.calculateScore(map, aiPlayer, winConditions, players);
+        int bestScore = score(map, aiPlayer);
         int alternativeScore = Integer.MIN_VALUE;
         Tile bestTile = null;
         Tile alternativeTile = null;
 
-        for (int i = 0; i < aiPlayer.remainingSettlementsOfTurn; i++) {
+        for (int i = 0; i < placements; i++) {
 
             if (settlementsLeft <= 0)
                 break;
 
-            Set<Tile> freeTiles = map.getAllPlaceableTiles(aiPlayer, aiPlayer.getTerrainCard())
-                    .collect(Collectors.toSet());
+            Set<Tile> freeTiles = placeableTiles(map, aiPlayer.getTerrainCard());
 
             // collect a token if possible.
             Tile bestToken = collectBestToken(map, freeTiles);
@@ -153,9 +269,11 @@ public class AIGame {
                 continue;
             }
 
-            for (Tile t : freeTiles) {
+            // the placements are still in the generator, since collecting the token does not generate moves.
+            for (int move = 0; move < moveGenerator.size(); move++) {
+                Tile t = map.at(MoveGenerator.fromOf(moveGenerator.get(move)));
                 map.at(t.x, t.y).placeSettlement(aiPlayer);
-                currentScore = Game.calculateScore(map, aiPlayer, winConditions, players);
+                currentScore = score(map, aiPlayer);
                 map.at(t.x, t.y).removeSettlement();
 
                 if (currentScore >= alternativeScore) {
@@ -194,19 +312,130 @@ public class AIGame {
      */
     private List<ClientTurn> expertAI() {
 
+        if (transpositionTable == null)
+            transpositionTable = new TranspositionTable(transpositionTableMemory);
+        transpositionTable.newSearch();
+
+        // without a time limit the search has a fixed depth.
+        if (timeLimit < 0)
+            return expertAISearch(SEARCH_DEPTH, false);
+
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeLimit - safetyMargin));
+        hasDeadline = true;
+
+        // the first iteration always completes, so that there is a turn even if the time is very short.
+        List<ClientTurn> bestTurn = null;
+        try {
+            for (int depth = 1; depth <= MAX_SEARCH_DEPTH; depth++) {
+                bestTurn = expertAISearch(depth, depth > 1);
+
+                if (System.nanoTime() - deadline >= 0)
+                    break;
+            }
+        } catch (RuntimeException exc) {
+            if (!isSearchTimeout(exc))
+                throw exc;
+        } finally {
+            hasDeadline = false;
+        }
+
+        return bestTurn;
+    }
+
+    /**
+     * AI that searches its basic placements with Monte Carlo Tree Search and plays random turns for all players,
+     * with terrain cards drawn from the rest of the deck, to value them. The search stops after a fixed amount of
+     * iterations or when its time is up, whichever comes first. Several trees are searched in parallel and merged.
+     * If the budget is too small for the trees to reach every placement of the turn, the remaining placements are
+     * made like the greedyAI makes them. The tokens are used like the greedyAI uses them at the end of a turn.
+     *
+     * @return the moves for the Monte Carlo AI.
+     */
+    private List<ClientTurn> monteCarloAI() {
+        long time = monteCarloTime;
+        if (timeLimit >= 0)
+            time = Math.min(time, Math.max(0, timeLimit - safetyMargin));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(time);
+
+        MonteCarloSearch search = new MonteCarloSearch(gameMap, aiPlayer, players, winConditions, playedTerrainCards);
+
+        int trees = singleThreaded ? 1 : parallelism;
+        List<Supplier<MonteCarloSearch.Node>> searches = new ArrayList<>(trees);
+        for (int tree = 0; tree < trees; tree++) {
+            long seed = gameMap.getHash() + tree;
+            int iterations = monteCarloIterations / trees + (tree < monteCarloIterations % trees ? 1 : 0);
+            searches.add(() -> search.search(seed, iterations, deadline));
+        }
+
+        GameMap aiGameMap = new GameMap(gameMap);
+        List<ClientTurn> moves = new ArrayList<>();
+        int settlementsLeft = aiPlayer.getRemainingSettlements();
+        int placements = aiPlayer.remainingSettlementsOfTurn;
+
+        for (int index : MonteCarloSearch.bestPlacements(invokeAll(searches))) {
+            Tile tile = aiGameMap.at(index);
+            aiGameMap.placeSettlement(aiPlayer, tile.x, tile.y);
+            moves.add(new ClientTurn(aiPlayer.ID, ClientTurn.TurnType.PLACE, tile.x, tile.y, -1, -1));
+            settlementsLeft--;
+            placements--;
+        }
+
+        settlementsLeft = greedyBasicTurn(aiGameMap, moves, settlementsLeft, placements);
+        useTokenAI(aiGameMap, moves, settlementsLeft, true);
+        return moves;
+    }
+
+    /**
+     * Searches the best turn of the expertAI with the given depth. The search runs on a copy of the AI, so that
+     * neither the map nor the player of this AI are changed.
+     *
+     * @param depth       the depth of the search.
+     * @param cancellable whether the search stops when the deadline has passed.
+     * @return the moves of the best turn.
+     * @throws SearchTimeoutException if the search is cancellable and ran out of time.
+     */
+    private List<ClientTurn> expertAISearch(int depth, boolean cancellable) {
         List<ClientTurn> bestTurn = new ArrayList<>();
 
-        expertAITurn(new GameMap(gameMap),
+        AIGame search = fork(gameMap, new EnumMap<>(playedTerrainCards));
+        search.rootDepth = depth;
+        search.hasDeadline = cancellable;
+
+        search.expertAITurn(search.gameMap,
                 bestTurn,
-                playedTerrainCards,
-                aiPlayer.getTerrainCard(),
-                aiPlayer.getRemainingSettlements(),
-                SEARCH_DEPTH,
+                search.playedTerrainCards,
+                search.aiPlayer.getTerrainCard(),
+                search.aiPlayer.getRemainingSettlements(),
+                depth,
                 0);
 
         return bestTurn;
     }
 
+    /**
+     * Stops the search if it ran out of time.
+     *
+     * @throws SearchTimeoutException if the deadline of the search has passed.
+     */
+    private void checkDeadline() {
+        if (hasDeadline && System.nanoTime() - deadline >= 0)
+            throw SearchTimeoutException.INSTANCE;
+    }
+
+    /**
+     * Checks whether the exception or one of its causes signals that the search ran out of time. Exceptions of
+     * parallel searches can be wrapped when they are passed to the waiting thread.
+     *
+     * @param exc the exception.
+     * @return true if the search ran out of time. False otherwise.
+     */
+    private static boolean isSearchTimeout(Throwable exc) {
+        for (Throwable cause = exc; cause != null; cause = cause.getCause())
+            if (cause instanceof SearchTimeoutException)
+                return true;
+        return false;
+    }
+
     /**
      * Calculates the turn of the expertAI with permutations or switches to greedyAIs basic turn if too many placements
      * are possible.
@@ -214,9 +443,11 @@ public class AIGame {
      * @param map             the map the AI operates on.
      * @param bestTurn        the list of moves where the best turn will be saved.
      * @param playedCards     all played cards so far in that game.
+     * @param terrain         the terrain card of the turn.
      * @param settlementsLeft amount of settlements that are left.
      * @param depth           the current depth of the search.
      * @param followingScore  the score that is calculated.
+     * @return the score of the turn.
      */
     private int expertAITurn(GameMap map,
                              List<ClientTurn> bestTurn,
@@ -226,119 +457,122 @@ public class AIGame {
                              int depth,
                              int followingScore) {
 
-
         if (settlementsLeft <= 0 || depth <= 0)
             return followingScore;
 
-        // if it is not the first call than change the reference of the original move List.
-        if (depth < SEARCH_DEPTH) {
-            bestTurn = new ArrayList<>();
+        checkDeadline();
+
+        // the root collects the moves of the turn, only the positions below it are cached.
+        if (depth >= rootDepth)
+            return searchTurn(map, bestTurn, playedCards, terrain, settlementsLeft, depth, followingScore)
+                    .orElse(followingScore);
+
+        long hash = map.getHash() ^ ZobristKeys.playedCards(playedCards);
+        TranspositionTable.Entry entry = transpositionTable.probe(hash, terrain, settlementsLeft, depth);
+        if (entry != null)
+            return entry.relative() ? followingScore + entry.score() : entry.score();
+
+        List<ClientTurn> turn = new ArrayList<>();
+        OptionalInt score = searchTurn(map, turn, playedCards, terrain, settlementsLeft, depth, followingScore);
+        transpositionTable.store(hash, terrain, settlementsLeft, depth, score.orElse(0), score.isEmpty(), turn);
+
+        return score.orElse(followingScore);
+    }
+
+    /**
+     * Searches the turn of a position of the expertAI. See {@link #expertAITurn}.
+     *
+     * @param map             the map the AI operates on.
+     * @param bestTurn        the list of moves where the best turn will be saved.
+     * @param playedCards     all played cards so far in that game.
+     * @param terrain         the terrain card of the turn.
+     * @param settlementsLeft amount of settlements that are left.
+     * @param depth           the current depth of the search.
+     * @param followingScore  the score that is calculated.
+     * @return the score of the turn or an empty value if the turn was expanded, in which case the score is the
+     * score the search collected on its way to the position.
+     */
+    private OptionalInt searchTurn(GameMap map,
+                                   List<ClientTurn> bestTurn,
+                                   Map<TileType, Integer> playedCards,
+                                   TileType terrain,
+                                   int settlementsLeft,
+                                   int depth,
+                                   int followingScore) {
+
+        // if it is not the first call than start a new turn.
+        if (depth < rootDepth) {
             aiPlayer.startTurn();
             aiPlayer.setTerrainCard(terrain);
         }
 
-        Map<List<ClientTurn>, Integer> bestTurns = new HashMap<>();
         List<ClientTurn> preMoves = new ArrayList<>();
-        List<ClientTurn> turn;
-        boolean tokenAvailable = false;
 
         // use greedyAI to collect token at first move
-        Set<Tile> first = map.getAllPlaceableTiles(aiPlayer, terrain).collect(Collectors.toSet());
+        Set<Tile> first = placeableTiles(map, terrain);
 
         if (tokenAvailableOnSet(map, first)) {
             bestTurn.addAll(greedyAI(map));
-            return Game.calculateScore(map, aiPlayer, winConditions, players);
+            return OptionalInt.of(score(map, aiPlayer));
         }
 
 
         // AI uses token as pre basic turn
         settlementsLeft = useTokenAI(map, preMoves, settlementsLeft, false);
 
-        first = map.getAllPlaceableTiles(aiPlayer, terrain).collect(Collectors.toSet());
-        int score = 0;
-        int placementCount = 0;
-
-        outerLoop:
-        for (Tile t : first) {
+        if (settlementsLeft <= 0) {
+            bestTurn.addAll(preMoves);
+            return OptionalInt.of(score(map, aiPlayer));
+        }
 
-            map.at(t.x, t.y).placeSettlement(aiPlayer);
-            settlementsLeft--;
+        // the roots are ordered by their position, so that the result does not depend on the order of the search.
+        moveGenerator.generatePlacements(map, aiPlayer, terrain);
+        int[] roots = moveGenerator.toArray();
+
+        int placements = Math.min(settlementsLeft, Game.SETTLEMENTS_PER_TURN);
+        int placementsLeft = settlementsLeft;
+        List<Supplier<List<Candidate>>> searches = new ArrayList<>(roots.length);
+        for (int root : roots) {
+            searches.add(() -> {
+                // every parallel search needs its own map, a sequential search can use the given one.
+                GameMap rootMap = singleThreaded ? map : new GameMap(map);
+                return searchRoot(rootMap, rootMap.at(MoveGenerator.fromOf(root)), preMoves, terrain, placementsLeft);
+            });
+        }
 
-            if (settlementsLeft == 0)
-                score = Game.calculateScore(map, aiPlayer, winConditions, players);
+        // combine the candidates in the order of the roots. A candidate that collects a token is always taken.
+        Map<List<ClientTurn>, Integer> bestTurns = new LinkedHashMap<>();
+        List<Candidate> candidates = new ArrayList<>();
+        Candidate tokenCandidate = null;
 
-            Set<Tile> second = map.getAllPlaceableTiles(aiPlayer, terrain).collect(Collectors.toSet());
+        for (List<Candidate> rootCandidates : invokeAll(searches)) {
+            if (!rootCandidates.isEmpty() && rootCandidates.get(0).collectsToken) {
+                tokenCandidate = rootCandidates.get(0);
+                break;
+            }
+            candidates.addAll(rootCandidates);
+        }
 
-            for (Tile l : second) {
+        settlementsLeft -= placements;
 
-                map.at(l.x, l.y).placeSettlement(aiPlayer);
-                settlementsLeft--;
+        if (tokenCandidate != null) {
+            for (ClientTurn move : tokenCandidate.turn.subList(preMoves.size(), tokenCandidate.turn.size()))
+                map.placeSettlement(aiPlayer, move.x, move.y);
 
-                if (settlementsLeft == 0)
-                    score = Game.calculateScore(map, aiPlayer, winConditions, players);
-
-                Set<Tile> third = map.getAllPlaceableTiles(aiPlayer, terrain).collect(Collectors.toSet());
-
-                for (Tile k : third) {
-
-                    map.at(k.x, k.y).placeSettlement(aiPlayer);
-                    settlementsLeft--;
-
-                    if (settlementsLeft >= 0)
-                        score = Game.calculateScore(map, aiPlayer, winConditions, players);
-
-                    // prefer token collections over score
-                    tokenAvailable = tokenAvailableOnTile(map, t) || tokenAvailableOnTile(map, l) || tokenAvailableOnTile(map, k);
-
-                    if (bestTurns.isEmpty() || Collections.min(bestTurns.values()) <= score || tokenAvailable) {
-                        turn = new ArrayList<>(preMoves);
-
-                        switch (settlementsLeft) {
-                            case -2 -> {
-                                turn.add(new ClientTurn(aiPlayer.ID, ClientTurn.TurnType.PLACE, t.x, t.y, -1, -1));
-                                placementCount = 1;
-                            }
-                            case -1 -> {
-                                turn.add(new ClientTurn(aiPlayer.ID, ClientTurn.TurnType.PLACE, t.x, t.y, -1, -1));
-                                turn.add(new ClientTurn(aiPlayer.ID, ClientTurn.TurnType.PLACE, l.x, l.y, -1, -1));
-                                placementCount = 2;
-                            }
-                            default -> {
-                                turn.add(new ClientTurn(aiPlayer.ID, ClientTurn.TurnType.PLACE, t.x, t.y, -1, -1));
-                                turn.add(new ClientTurn(aiPlayer.ID, ClientTurn.TurnType.PLACE, l.x, l.y, -1, -1));
-                                turn.add(new ClientTurn(aiPlayer.ID, ClientTurn.TurnType.PLACE, k.x, k.y, -1, -1));
-                                placementCount = 3;
-                            }
-                        }
-
-                        // always take token at first run no matter what score the AI gets
-                        if (tokenAvailable) {
-                            bestTurns.clear();
-                            bestTurn.addAll(turn);
-                            break outerLoop;
-                        }
-
-                        bestTurns.put(turn, score);
-
-                        // only the best three turns
-                        if (bestTurns.size() > 3)
-                            bestTurns.remove(Collections.min(bestTurns.entrySet(), Map.Entry.comparingByValue()).getKey());
-                    }
-                    map.at(k.x, k.y).removeSettlement();
-                    settlementsLeft++;
-                }
-                map.at(l.x, l.y).removeSettlement();
-                settlementsLeft++;
-            }
-            map.at(t.x, t.y).removeSettlement();
-            settlementsLeft++;
+            bestTurn.addAll(tokenCandidate.turn);
+            useTokenAI(map, bestTurn, settlementsLeft, true);
+            return OptionalInt.of(score(map, aiPlayer));
         }
 
-        settlementsLeft -= placementCount;
+        // only the best three turns, earlier candidates win ties.
+        candidates.stream()
+                .sorted(Comparator.comparingInt(Candidate::score).reversed())
+                .limit(3)
+                .forEach(candidate -> bestTurns.put(candidate.turn, candidate.score));
 
-        if (tokenAvailable) {
-            useTokenAI(map, bestTurn, settlementsLeft, true);
-            return Game.calculateScore(map, aiPlayer, winConditions, players);
+        if (bestTurns.isEmpty()) {
+            bestTurn.addAll(preMoves);
+            return OptionalInt.of(score(map, aiPlayer));
         }
 
         var bestTurnKeys = bestTurns.keySet().stream().toList();
@@ -351,15 +585,14 @@ public class AIGame {
         }
 
         // terrain prediction
-        Map<TileType, Integer> tempPC1 = playedCards.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        Map<TileType, Integer> tempPC1 = new EnumMap<>(playedCards);
 
         // does not expand if only entry
         if (bestTurnKeys.size() <= 1) {
             bestTurn.addAll(bestTurnKeys.get(0));
             useTokenAI(map, bestTurn, settlementsLeft, true);
 
-            return Game.calculateScore(map, aiPlayer, winConditions, players);
+            return OptionalInt.of(score(map, aiPlayer));
         }
 
         // simulate future placements
@@ -387,12 +620,107 @@ public class AIGame {
         Set<ClientTurn> test = new LinkedHashSet<>(bestTurn);
 
        bestTurn = test.stream().toList(); // necessary because it duplicates sometimes moves from "moves"...
-        return followingScore;
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Evaluates all combinations of basic placements that start with the given tile. The map is left unchanged.
+     *
+     * @param map             the map the AI operates on.
+     * @param root            the tile of the first placement.
+     * @param preMoves        the moves that were made before the basic placements.
+     * @param terrain         the terrain of the basic placements.
+     * @param settlementsLeft amount of settlements that are left.
+     * @return the first candidate that collects a token or the best three candidates of the root.
+     */
+    private List<Candidate> searchRoot(GameMap map,
+                                       Tile root,
+                                       List<ClientTurn> preMoves,
+                                       TileType terrain,
+                                       int settlementsLeft) {
+
+        int placements = Math.min(settlementsLeft, Game.SETTLEMENTS_PER_TURN);
+        List<Candidate> candidates = new ArrayList<>();
+        Deque<Tile> placed = new ArrayDeque<>(placements);
+
+        // every placement of the turn enumerates its successors with its own generator, since the roots may be
+        // searched in parallel and the placements are searched recursively.
+        MoveGenerator[] generators = new MoveGenerator[placements];
+        for (int i = 0; i < placements; i++)
+            generators[i] = new MoveGenerator(map.size());
+
+        placed.addLast(root);
+        searchPlacements(map, placed, placements, preMoves, terrain, candidates, generators);
+
+        if (!candidates.isEmpty() && candidates.get(candidates.size() - 1).collectsToken)
+            return List.of(candidates.get(candidates.size() - 1));
+
+        return candidates.stream()
+                .sorted(Comparator.comparingInt(Candidate::score).reversed())
+                .limit(3)
+                .toList();
+    }
+
+    /**
+     * Places the last tile of the given placements and either evaluates the placements or continues with all
+     * following placements. The map is left unchanged.
+     *
+     * @param map        the map the AI operates on.
+     * @param placed     the tiles of the placements so far.
+     * @param placements the amount of placements of the turn.
+     * @param preMoves   the moves that were made before the basic placements.
+     * @param terrain    the terrain of the basic placements.
+     * @param candidates the list the evaluated candidates are added to.
+     * @param generators the generators of the placements, indexed by the amount of placements so far.
+     * @return true if a candidate collects a token and the search can stop. False otherwise.
+     */
+    private boolean searchPlacements(GameMap map,
+                                     Deque<Tile> placed,
+                                     int placements,
+                                     List<ClientTurn> preMoves,
+                                     TileType terrain,
+                                     List<Candidate> candidates,
+                                     MoveGenerator[] generators) {
+
+        checkDeadline();
+
+        Tile tile = placed.peekLast();
+        map.placeSettlement(aiPlayer, tile.x, tile.y);
+
+        try {
+            if (placed.size() < placements) {
+                MoveGenerator next = generators[placed.size()];
+                int count = next.generatePlacements(map, aiPlayer, terrain);
+
+                for (int move = 0; move < count; move++) {
+                    placed.addLast(map.at(MoveGenerator.fromOf(next.get(move))));
+                    boolean found = searchPlacements(map, placed, placements, preMoves, terrain, candidates, generators);
+                    placed.removeLast();
+
+                    if (found)
+                        return true;
+                }
+                return false;
+            }
+
+            // prefer token collections over score
+            boolean tokenAvailable = placed.stream().anyMatch(t -> tokenAvailableOnTile(map, t));
+
+            List<ClientTurn> turn = new ArrayList<>(preMoves);
+            for (Tile t : placed)
+                turn.add(new ClientTurn(aiPlayer.ID, ClientTurn.TurnType.PLACE, t.x, t.y, -1, -1));
+
+            candidates.add(new Candidate(turn, score(map, aiPlayer), tokenAvailable));
+            return tokenAvailable;
+        } finally {
+            map.removeSettlement(tile.x, tile.y);
+        }
     }
 
     /**
      * Splits the search into three branches of possible future placements ( without considering opponent placements )
-     * and returns the calculated score of all those branches combined.
+     * and returns the calculated score of all those branches combined. Every branch is searched by its own copy of
+     * the AI on its own copy of the map, so that the branches can run in parallel.
      *
      * @param map             the map the AI operates on.
      * @param original        the original list of moves of that turn.
@@ -410,50 +738,164 @@ public class AIGame {
                           int followingScore) {
 
         // get turn.
-        GameMap tempGM1 = new GameMap(map);
+        int turnMark = map.mark();
 
         // update local map.
         int tempSL = settlementsLeft;
         for (ClientTurn clientTurn : original) {
-            if (!tempGM1.at(clientTurn.x, clientTurn.y).isBlocked())
-                tempGM1.at(clientTurn.x, clientTurn.y).placeSettlement(aiPlayer);
+            if (!map.at(clientTurn.x, clientTurn.y).isBlocked())
+                map.placeSettlement(aiPlayer, clientTurn.x, clientTurn.y);
             tempSL--;
         }
 
-        followingScore += Game.calculateScore(tempGM1, aiPlayer, winConditions, players);
+        followingScore += score(map, aiPlayer);
 
         // use token at the end
-        tempSL = useTokenAI(tempGM1, original, tempSL, true);
+        tempSL = useTokenAI(map, original, tempSL, true);
+
+        List<TileType> predictions = predictTerrainCard(playedCards).subList(0, 3);
+        List<Supplier<Integer>> branches = new ArrayList<>(predictions.size());
 
-        GameMap tempGM2 = new GameMap(tempGM1);
-        GameMap tempGM3 = new GameMap(tempGM1);
+        for (TileType prediction : predictions) {
+            Map<TileType, Integer> predictedCards = new EnumMap<>(playedCards);
+            predictedCards.merge(prediction, 1, Integer::sum);
 
-        Map<TileType, Integer> tempPC1 = playedCards;
-        Map<TileType, Integer> tempPC2 = playedCards;
-        Map<TileType, Integer> tempPC3 = playedCards;
+            AIGame branch = fork(map, predictedCards);
+            int branchSL = tempSL;
+            int branchScore = followingScore;
+
+            branches.add(() -> branch.expertAITurn(branch.gameMap, null, predictedCards, prediction,
+                    branchSL, depth - 1, branchScore));
+        }
+
+        for (int branchScore : invokeAll(branches))
+            followingScore += branchScore;
+
+        map.rollback(turnMark);
+
+        return followingScore;
+    }
 
-        ArrayList<TileType> predictions = predictTerrainCard(playedCards);
+    /**
+     * Creates a copy of the AI with its own copy of the map and of the player, so that it can search independently
+     * of this AI.
+     *
+     * @param map         the map to copy.
+     * @param playedCards the played cards of the copy.
+     * @return the copy of the AI.
+     */
+    private AIGame fork(GameMap map, Map<TileType, Integer> playedCards) {
+        GameMap forkMap = new GameMap(map);
+        Player forkPlayer = new Player(aiPlayer);
+        forkMap.replacePlayer(aiPlayer, forkPlayer);
+
+        AIGame fork = new AIGame(forkMap, difficulty, playedCards);
+        fork.aiPlayer = forkPlayer;
+        fork.winConditions = winConditions;
+        if (players != null) {
+            fork.players = new ArrayList<>(players);
+            fork.players.replaceAll(player -> player == aiPlayer ? forkPlayer : player);
+        }
+        fork.SEARCH_DEPTH = SEARCH_DEPTH;
+        fork.rootDepth = rootDepth;
+        fork.deadline = deadline;
+        fork.hasDeadline = hasDeadline;
+        fork.parallelism = parallelism;
+        fork.singleThreaded = singleThreaded;
+        fork.searchPool = searchPool;
+        fork.transpositionTable = transpositionTable;
+
+        return fork;
+    }
 
-        int temp = tempPC1.get(predictions.get(0));
-        tempPC1.put(predictions.get(0), temp + 1);
+    /**
+     * Runs the given searches and returns their results in the same order. Unless the AI is single threaded, the
+     * searches run in parallel in the search pool of the AI.
+     *
+     * @param searches the searches to run.
+     * @param <T>      the type of the results.
+     * @return the results of the searches.
+     */
+    private <T> List<T> invokeAll(List<Supplier<T>> searches) {
+        if (singleThreaded || searches.size() <= 1)
+            return searches.stream().map(Supplier::get).toList();
 
-        temp = tempPC2.get(predictions.get(1));
-        tempPC2.put(predictions.get(1), temp + 1);
+        List<ForkJoinTask<T>> tasks = searches.stream()
+                .map(search -> ForkJoinTask.adapt(search::get))
+                .toList();
 
-        temp = tempPC3.get(predictions.get(2));
-        tempPC3.put(predictions.get(2), temp + 1);
+        if (ForkJoinTask.inForkJoinPool())
+            ForkJoinTask.invokeAll(tasks);
+        else
+            searchPool().submit(() -> ForkJoinTask.invokeAll(tasks)).join();
 
+        return tasks.stream().map(ForkJoinTask::join).toList();
+    }
 
-        followingScore += expertAITurn(tempGM1, null, tempPC1, predictions.get(0),
-                tempSL, depth - 1, followingScore);
+    /**
+     * Creates a copy of the AI with its own copies of the map, of all players and of the played terrain cards, so
+     * that it can choose a turn on another thread while the game goes on with the originals. The copy shares the
+     * search pool and the transposition table with this AI.
+     *
+     * @return the copy of the AI.
+     */
+    public AIGame snapshot() {
+        GameMap snapshotMap = new GameMap(gameMap);
+        Map<Player, Player> copies = new IdentityHashMap<>();
+        if (players != null)
+            players.forEach(player -> copies.put(player, new Player(player)));
+        copies.computeIfAbsent(aiPlayer, Player::new);
+        copies.forEach(snapshotMap::replacePlayer);
+
+        AIGame snapshot = new AIGame(snapshotMap, difficulty, new EnumMap<>(playedTerrainCards));
+        snapshot.aiPlayer = copies.get(aiPlayer);
+        snapshot.winConditions = (winConditions == null) ? null : new ArrayList<>(winConditions);
+        if (players != null) {
+            snapshot.players = new ArrayList<>(players);
+            snapshot.players.replaceAll(copies::get);
+        }
+        snapshot.SEARCH_DEPTH = SEARCH_DEPTH;
+        snapshot.rootDepth = rootDepth;
+        snapshot.timeLimit = timeLimit;
+        snapshot.safetyMargin = safetyMargin;
+        snapshot.parallelism = parallelism;
+        snapshot.singleThreaded = singleThreaded;
+        snapshot.monteCarloIterations = monteCarloIterations;
+        snapshot.monteCarloTime = monteCarloTime;
+        snapshot.searchPool = searchPool();
+
+        // the table is kept by this AI, so that the following turns can reuse the results of this one.
+        if (transpositionTable == null && difficulty == BotDifficulty.EXPERT)
+            transpositionTable = new TranspositionTable(transpositionTableMemory);
+        snapshot.transpositionTable = transpositionTable;
+        snapshot.transpositionTableMemory = transpositionTableMemory;
+        return snapshot;
+    }
 
-        followingScore += expertAITurn(tempGM2, null, tempPC2, predictions.get(1),
-                tempSL, depth - 1, followingScore);
+    /**
+     * Gets the pool that runs the parallel searches of the AI and creates it if necessary.
+     *
+     * @return the search pool.
+     */
+    private synchronized ForkJoinPool searchPool() {
+        if (searchPool == null)
+            searchPool = new ForkJoinPool(parallelism);
+        return searchPool;
+    }
 
-        followingScore += expertAITurn(tempGM3, null, tempPC3, predictions.get(2),
-                tempSL, depth - 1, followingScore);
+    /**
+     * Calculates the score of a player on the given map with the win conditions of the AI. The score is read from
+     * the score evaluator of the map, which is updated with every placement instead of walking the whole map.
+     *
+     * @param map    the map the AI operates on.
+     * @param player the player for which the score should be calculated.
+     * @return the score of the player.
+     */
+    private int score(GameMap map, Player player) {
+        if (players == null || !players.contains(player))
+            return Game.calculateScore(map, player, winConditions, players);
 
-        return followingScore;
+        return map.getScoreEvaluator(players).score(player, winConditions);
     }
 
     /**
@@ -510,7 +952,7 @@ public class AIGame {
         } else
             bestToken = collectableToken;
 
-        int bestScore = Game.calculateScore(map, aiPlayer, winConditions, players);
+        int bestScore = score(map, aiPlayer);
         int currentScore;
         Tile bestTile = null;
 
@@ -518,7 +960,7 @@ public class AIGame {
             for (Tile t : bestToken)
                 for (Tile l : t.surroundingTiles(map).filter(freeTiles::contains).collect(Collectors.toSet())) {
                     map.at(l.x, l.y).placeSettlement(aiPlayer);
-                    currentScore = Game.calculateScore(map, aiPlayer, winConditions, players);
+                    currentScore = score(map, aiPlayer);
 
                     if (currentScore >= bestScore) {
                         bestScore = currentScore;
@@ -629,194 +1071,129 @@ public class AIGame {
      * @return the  best  move for  a  settlement with that token.
      */
     private ClientTurn calculateScoreToken(GameMap map, Player player, TileType token, boolean postBasicPlacement) {
-        ClientTurn bestMove = null;
-
-        Set<Tile> freeTiles;
-        int currentScore = 0;
-        int bestScore = Game.calculateScore(map, player, winConditions, players);
-
-        switch (token) {
-
-            case HARBOR -> {
-                Set<Tile> settlements =
-                        Game.allTokenHarborTiles(map, player, false).collect(Collectors.toSet());
-
-                for (Tile t : settlements) {
-                    freeTiles = Game.allTokenHarborTiles(map, player, true).collect(Collectors.toSet());
-
-                    if (lastSettlementOnToken(map, player, t))
-                        continue;
-
-                    outerloop1:
-                    for (Tile l : freeTiles) {
-                        Set<Tile> surroundingToken = l.surroundingTiles(map).filter
-                                (n -> TileType.tokenType.contains(n.tileType)).collect(Collectors.toSet());
+        if (!TileType.tokenType.contains(token))
+            return null;
 
-                        for (Tile k : surroundingToken) {
-                            if (!k.hasSurroundingSettlement(map, player)) {
-                                bestMove = tokenToClientTurn(player, token, t.x, t.y, l.x, l.y);
-                                break outerloop1;
-                            }
-                        }
+        ClientTurn.TurnType type = ClientTurn.TurnType.valueOf(token.name());
+        boolean moves = MoveGenerator.isMove(type);
 
-                        useTokenHarbor(map, player, t.x, t.y, l.x, l.y);
-                        currentScore = Game.calculateScore(map, player, winConditions, players);
+        int bestMove = -1;
+        int currentScore;
+        int bestScore = score(map, player);
 
-                        if (currentScore > bestScore) {
-                            bestScore = currentScore;
-                            bestMove = tokenToClientTurn(player, token, t.x, t.y, l.x, l.y);
-                        }
-                        undoToken(map, player, token, t.x, t.y, l.x, l.y);
-                    }
-                }
+        // the moves of a settlement are consecutive, so a settlement is skipped by skipping its index.
+        int count = moveGenerator.generate(map, player, type);
+        int from = -1;
+        int skippedFrom = -1;
 
-                if (bestMove == null)
-                    return null;
+        for (int i = 0; i < count; i++) {
+            int move = moveGenerator.get(i);
 
-                useTokenHarbor(map, player, bestMove.x, bestMove.y, bestMove.toX, bestMove.toY);
-                return bestMove;
+            if (MoveGenerator.fromOf(move) != from) {
+                from = MoveGenerator.fromOf(move);
+                if (moves && lastSettlementOnToken(map, player, map.at(from)))
+                    skippedFrom = from;
             }
+            if (from == skippedFrom)
+                continue;
 
-            case PADDOCK -> {
-                Set<Tile> settlements = Game.allTokenPaddockTiles(map, player).collect(Collectors.toSet());
-
-                for (Tile t : settlements) {
-                    freeTiles = Game.allTokenPaddockTiles(map, player, t.x, t.y).collect(Collectors.toSet());
-
-                    if (lastSettlementOnToken(map, player, t))
-                        continue;
-
-                    outerloop2:
-                    for (Tile l : freeTiles) {
-                        Set<Tile> surroundingToken = l.surroundingTiles(map).filter
-                                (n -> TileType.tokenType.contains(n.tileType)).collect(Collectors.toSet());
-
-                        for (Tile k : surroundingToken) {
-                            if (!k.hasSurroundingSettlement(map, player)) {
-                                bestMove = tokenToClientTurn(player, token, t.x, t.y, l.x, l.y);
-                                break outerloop2;
-                            }
-                        }
-
-                        useTokenPaddock(map, player, t.x, t.y, l.x, l.y);
-                        currentScore = Game.calculateScore(map, player, winConditions, players);
-
-                        if (currentScore > bestScore) {
-                            bestScore = currentScore;
-                            bestMove = tokenToClientTurn(player, token, t.x, t.y, l.x, l.y);
-                        }
-                        undoToken(map, player, token, t.x, t.y, l.x, l.y);
-                    }
-                }
+            Tile l = map.at(moves ? MoveGenerator.toOf(move) : from);
 
-                if (bestMove == null)
-                    return null;
+            // a move next to a special place, that the player has no settlement next to, is always taken.
+            if (nextToNewSpecialPlace(map, player, l)) {
+                bestMove = move;
+                if (!moves)
+                    break;
 
-                useTokenPaddock(map, player, bestMove.x, bestMove.y, bestMove.toX, bestMove.toY);
-                return bestMove;
+                skippedFrom = from;
+                continue;
             }
 
-            case BARN -> {
-
-                Set<Tile> settlements =
-                        Game.allTokenBarnTiles(map, player, false).collect(Collectors.toSet());
-
-                for (Tile t : settlements) {
-                    freeTiles = Game.allTokenBarnTiles(map, player, true).collect(Collectors.toSet());
-
-                    if (lastSettlementOnToken(map, player, t))
-                        continue;
-
-                    outerloop3:
-                    for (Tile l : freeTiles) {
-                        Set<Tile> surroundingToken = l.surroundingTiles(map).filter
-                                (n -> TileType.tokenType.contains(n.tileType)).collect(Collectors.toSet());
+            applyTokenMove(map, player, token, move);
+            currentScore = score(map, player);
 
-                        for (Tile k : surroundingToken) {
-                            if (!k.hasSurroundingSettlement(map, player)) {
-                                bestMove = tokenToClientTurn(player, token, t.x, t.y, l.x, l.y);
-                                break outerloop3;
-                            }
-                        }
-
-                        useTokenBarn(map, player, t.x, t.y, l.x, l.y);
-                        currentScore = Game.calculateScore(map, player, winConditions, players);
-
-                        if (currentScore > bestScore) {
-                            bestScore = currentScore;
-                            bestMove = tokenToClientTurn(player, token, t.x, t.y, l.x, l.y);
-                        }
-                        undoToken(map, player, token, t.x, t.y, l.x, l.y);
-                    }
-                }
-
-                if (bestMove == null)
-                    return null;
-
-                useTokenBarn(map, player, bestMove.x, bestMove.y, bestMove.toX, bestMove.toY);
-                return bestMove;
+            // always play a token that places at the end of the turn if score does not change.
+            if ((currentScore > bestScore) || (currentScore == bestScore && postBasicPlacement && !moves)) {
+                bestScore = currentScore;
+                bestMove = move;
             }
+            undoTokenMove(map, player, token, move);
+        }
 
-            default -> {
-
-                Tile bestTile = null;
-                if (!TileType.tokenType.contains(token))
-                    return null;
-
-                freeTiles = allPlaceTokenTiles(map, player, token);
-
-                if (freeTiles.isEmpty())
-                    return null;
-
-                outerloop4:
-                for (Tile l : freeTiles) {
-                    Set<Tile> surroundingToken = l.surroundingTiles(map).filter
-                            (n -> TileType.tokenType.contains(n.tileType)).collect(Collectors.toSet());
-
-                    for (Tile k : surroundingToken) {
-                        if (!k.hasSurroundingSettlement(map, player)) {
-                            bestTile = l;
-                            break outerloop4;
-                        }
-                    }
+        if (bestMove == -1)
+            return null;
 
-                    useToken(map, player, token, l.x, l.y);
-                    currentScore = Game.calculateScore(map, player, winConditions, players);
+        applyTokenMove(map, player, token, bestMove);
+        return MoveGenerator.toClientTurn(map, player.ID, bestMove);
+    }
 
-                    // always play a token that places at the end of the turn if score does not change.
-                    if ((currentScore > bestScore) || (currentScore == bestScore && postBasicPlacement)) {
-                        bestScore = currentScore;
-                        bestTile = l;
-                    }
-                    undoToken(map, player, token, l.x, l.y);
-                }
+    /**
+     * Checks if next to a tile is a special place that the player has no settlement next to.
+     *
+     * @param map    the map of the AI.
+     * @param player the player controlled by AI.
+     * @param tile   the tile where the settlement is placed.
+     * @return true if the tile is next to such a special place. False otherwise.
+     */
+    private boolean nextToNewSpecialPlace(GameMap map, Player player, Tile tile) {
+        return tile.surroundingTokenTiles(map).anyMatch(k -> !k.hasSurroundingSettlement(map, player));
+    }
 
-                if (bestTile == null)
-                    return null;
+    /**
+     * Uses a token with a packed move of the {@link MoveGenerator}.
+     *
+     * @param map    the map of the AI.
+     * @param player the player that the AI controls.
+     * @param token  the token that is being used.
+     * @param move   the packed move.
+     */
+    private void applyTokenMove(GameMap map, Player player, TileType token, int move) {
+        Tile from = map.at(MoveGenerator.fromOf(move));
 
-                useToken(map, player, token, bestTile.x, bestTile.y);
-                return tokenToClientTurn(player, token, bestTile.x, bestTile.y, -1, -1);
+        switch (token) {
+            case HARBOR, PADDOCK, BARN -> {
+                Tile to = map.at(MoveGenerator.toOf(move));
+                from.moveSettlement(to);
+                player.useToken(token);
             }
+            default -> useToken(map, player, token, from.x, from.y);
         }
     }
 
     /**
-     * returns all possible placements with the  given  token that  only  places  settlements .
+     * Undoes the use of a token with a packed move of the {@link MoveGenerator}.
      *
-     * @param map    the  map  for  the  AI.
-     * @param player the  player  that the AI controls.
-     * @param token  the token.
-     * @return all  possible placements  with  the  given token.
-     */
-    private Set<Tile> allPlaceTokenTiles(GameMap map, Player player, TileType token) {
-        return switch (token) {
-            case ORACLE -> Game.allTokenOracleTiles(map, player).collect(Collectors.toSet());
-            case FARM -> Game.allTokenFarmTiles(map, player).collect(Collectors.toSet());
-            case TAVERN -> Game.allTokenTavernTiles(map, player).collect(Collectors.toSet());
-            case TOWER -> Game.allTokenTowerTiles(map, player).collect(Collectors.toSet());
-            case OASIS -> Game.allTokenOasisTiles(map, player).collect(Collectors.toSet());
-            default -> new HashSet<>();
-        };
+     * @param map    the map of the AI.
+     * @param player the player that the AI controls.
+     * @param token  the token that is being used.
+     * @param move   the packed move.
+     */
+    private void undoTokenMove(GameMap map, Player player, TileType token, int move) {
+        Tile from = map.at(MoveGenerator.fromOf(move));
+
+        if (MoveGenerator.toOf(move) == MoveGenerator.NONE)
+            undoToken(map, player, token, from.x, from.y);
+        else {
+            Tile to = map.at(MoveGenerator.toOf(move));
+            undoToken(map, player, token, from.x, from.y, to.x, to.y);
+        }
+    }
+
+    /**
+     * Returns all tiles where the AI can place a settlement on the given terrain with its basic turn. The placements
+     * stay in the generator of the AI until it generates the next moves.
+     *
+     * @param map     the map of the AI.
+     * @param terrain the terrain of the placements.
+     * @return the tiles of the placements.
+     */
+    private Set<Tile> placeableTiles(GameMap map, TileType terrain) {
+        int count = moveGenerator.generatePlacements(map, aiPlayer, terrain);
+
+        Set<Tile> tiles = new HashSet<>(2 * count);
+        for (int move = 0; move < count; move++)
+            tiles.add(map.at(MoveGenerator.fromOf(moveGenerator.get(move))));
+        return tiles;
     }
 
     /**
@@ -859,31 +1236,6 @@ public class AIGame {
         }
     }
 
-    /**
-     * returns a ClientTurn as a move with the token.
-     *
-     * @param player the player that the AI controls.
-     * @param token  the token that is being used.
-     * @param fromX  the x coordinate of the settlement that is moved.
-     * @param fromY  the y coordinate of the settlement that is moved.
-     * @param toX    the x coordinate of the new destination.
-     * @param toY    the y coordinate of the new destination.
-     * @return the ClientTurn as a move with the token.
-     */
-    private ClientTurn tokenToClientTurn(Player player, TileType token, int fromX, int fromY, int toX, int toY) {
-        return switch (token) {
-            case ORACLE -> new ClientTurn(player.ID, ClientTurn.TurnType.ORACLE, fromX, fromY, toX, toY);
-            case FARM -> new ClientTurn(player.ID, ClientTurn.TurnType.FARM, fromX, fromY, toX, toY);
-            case TAVERN -> new ClientTurn(player.ID, ClientTurn.TurnType.TAVERN, fromX, fromY, toX, toY);
-            case TOWER -> new ClientTurn(player.ID, ClientTurn.TurnType.TOWER, fromX, fromY, toX, toY);
-            case OASIS -> new ClientTurn(player.ID, ClientTurn.TurnType.OASIS, fromX, fromY, toX, toY);
-            case HARBOR -> new ClientTurn(player.ID, ClientTurn.TurnType.HARBOR, fromX, fromY, toX, toY);
-            case PADDOCK -> new ClientTurn(player.ID, ClientTurn.TurnType.PADDOCK, fromX, fromY, toX, toY);
-            case BARN -> new ClientTurn(player.ID, ClientTurn.TurnType.BARN, fromX, fromY, toX, toY);
-            default -> null;
-        };
-    }
-
     /**
      * undo the use of a token that only places by removing it from the map.
      *
@@ -975,48 +1327,6 @@ public class AIGame {
         player.useToken(TileType.OASIS);
     }
 
-    /**
-     * Use Harbor token. The player can move a settlement from any tile to a water tile.
-     *
-     * @param player the player that is using the token.
-     * @param fromX  the x coordinate of settlement to move.
-     * @param fromY  the y coordinate of settlement to move.
-     * @param toX    the x coordinate of target tile to put settlement.
-     * @param toY    the y coordinate of target tile to put settlement.
-     */
-    private void useTokenHarbor(GameMap map, Player player, int fromX, int fromY, int toX, int toY) {
-        map.at(fromX, fromY).moveSettlement(map.at(toX, toY));
-        player.useToken(TileType.HARBOR);
-    }
-
-    /**
-     * Use Paddock token. The player can move a settlement two tiles in horizontal or diagonal
-     * direction.
-     *
-     * @param player the player that is using the token.
-     * @param fromX  the x coordinate of settlement to move.
-     * @param fromY  the y coordinate of settlement to move.
-     * @param toX    the x coordinate of target tile to put settlement.
-     * @param toY    the y coordinate of target tile to put settlement.
-     */
-    private void useTokenPaddock(GameMap map, Player player, int fromX, int fromY, int toX, int toY) {
-        map.at(fromX, fromY).moveSettlement(map.at(toX, toY));
-        player.useToken(TileType.PADDOCK);
-    }
-
-    /**
-     * Use Barn token. The player can move a settlement on a tile with current terrain  card.
-     *
-     * @param fromX the x coordinate of settlement to move.
-     * @param fromY the y coordinate of settlement to move.
-     * @param toX   the x coordinate of target tile to put settlement.
-     * @param toY   the y coordinate of target tile to put settlement.
-     */
-    private void useTokenBarn(GameMap map, Player player, int fromX, int fromY, int toX, int toY) {
-        map.at(fromX, fromY).moveSettlement(map.at(toX, toY));
-        player.useToken(TileType.BARN);
-    }
-
     /**
      * Returns the terrain cards in ascending order depending on how often they have been drawn within a game.
      *
@@ -1028,7 +1338,7 @@ public class AIGame {
         playedCards
                 .entrySet()
                 .stream()
-                .sorted(Map.Entry.comparingByValue())
+                .sorted(Map.Entry.<TileType, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
                 .forEachOrdered(x -> prediction.add(x.getKey()));
         return prediction;
     }
@@ -1073,7 +1383,7 @@ public class AIGame {
      * @return A map of terrain types and the amount of times it has been drawn.
      */
     private Map<TileType, Integer> setTerrainCards() {
-        Map<TileType, Integer> terrainCards = new HashMap<>();
+        Map<TileType, Integer> terrainCards = new EnumMap<>(TileType.class);
         terrainCards.put(TileType.GRAS, 0);
         terrainCards.put(TileType.FLOWER, 0);
         terrainCards.put(TileType.FORREST, 0);
@@ -1083,6 +1393,82 @@ public class AIGame {
         return terrainCards;
     }
 
+    /**
+     * Sets the amount of threads the expertAI uses for its search.
+     *
+     * @param parallelism the amount of threads.
+     * @throws IllegalArgumentException if the amount of threads is not positive.
+     */
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("The parallelism has to be positive!");
+
+        this.parallelism = parallelism;
+        if (searchPool != null) {
+            searchPool.shutdown();
+            searchPool = null;
+        }
+    }
+
+    /**
+     * Sets whether the expertAI searches only on the calling thread. A single threaded AI makes the same turns for
+     * the same game, which is useful for tests and for comparing bots.
+     *
+     * @param singleThreaded true to search on the calling thread only. False to search in parallel.
+     */
+    public void setSingleThreaded(boolean singleThreaded) {
+        this.singleThreaded = singleThreaded;
+    }
+
+    /**
+     * Sets the memory cap of the transposition table of the expertAI. The results that are already in the table
+     * are dropped.
+     *
+     * @param memory the memory cap in bytes.
+     * @throws IllegalArgumentException if the memory cap is too small for the table.
+     */
+    public void setTranspositionTableMemory(long memory) {
+        transpositionTable = new TranspositionTable(memory);
+        transpositionTableMemory = memory;
+    }
+
+    /**
+     * Sets the budget of the Monte Carlo AI for a turn. The search stops when either of them is used up.
+     *
+     * @param iterations the amount of iterations.
+     * @param time       the time in milliseconds.
+     * @throws IllegalArgumentException if the amount of iterations or the time is not positive.
+     */
+    public void setMonteCarloBudget(int iterations, int time) {
+        if (iterations <= 0 || time <= 0)
+            throw new IllegalArgumentException("The budget of the search has to be positive!");
+
+        this.monteCarloIterations = iterations;
+        this.monteCarloTime = time;
+    }
+
+    /**
+     * Sets the time limit of a turn. With a time limit the expertAI deepens its search until the time limit minus
+     * the safety margin has passed and makes the best turn of the deepest search that was completed.
+     *
+     * @param timeLimit the time limit of a turn in milliseconds or -1 if the game has no time limit.
+     */
+    public void setTimeLimit(int timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Sets the time that is kept free at the end of a turn, e.g. to send the moves of the AI to the server.
+     *
+     * @param safetyMargin the time in milliseconds.
+     * @throws IllegalArgumentException if the safety margin is negative.
+     */
+    public void setSafetyMargin(int safetyMargin) {
+        if (safetyMargin < 0)
+            throw new IllegalArgumentException("The safety margin must not be negative!");
+        this.safetyMargin = safetyMargin;
+    }
+
     /**
      * set the player for the AI.
      *
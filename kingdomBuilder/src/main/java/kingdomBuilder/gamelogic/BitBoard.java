@@ -0,0 +1,322 @@
+package kingdomBuilder.gamelogic;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Represents a set of tiles of a map as a compact array of bits. Each bit represents the tile with the same
+ * 1D index in the map, so that queries on the board can be combined word by word.
+ */
+public final class BitBoard {
+
+    /**
+     * Represents the amount of bits that are stored in one word.
+     */
+    private static final int WORD_SIZE = Long.SIZE;
+
+    /**
+     * Represents the bits of the board.
+     */
+    private final long[] words;
+
+    /**
+     * Represents the amount of tiles the board can contain.
+     */
+    public final int size;
+
+    /**
+     * Creates an empty board for the given amount of tiles.
+     *
+     * @param size the amount of tiles the board can contain.
+     */
+    public BitBoard(int size) {
+        this.size = size;
+        this.words = new long[(size + WORD_SIZE - 1) / WORD_SIZE];
+    }
+
+    /**
+     * Creates a copy of a board.
+     *
+     * @param board the board to copy.
+     */
+    public BitBoard(BitBoard board) {
+        this.size = board.size;
+        this.words = board.words.clone();
+    }
+
+    /**
+     * Checks whether the tile with the given index is contained in the board.
+     *
+     * @param index the index of the tile.
+     * @return true if the tile is contained. False otherwise.
+     */
+    public boolean get(int index) {
+        return (words[index / WORD_SIZE] & (1L << index)) != 0;
+    }
+
+    /**
+     * Adds the tile with the given index to the board.
+     *
+     * @param index the index of the tile.
+     */
+    public void set(int index) {
+        words[index / WORD_SIZE] |= (1L << index);
+    }
+
+    /**
+     * Removes the tile with the given index from the board.
+     *
+     * @param index the index of the tile.
+     */
+    public void clear(int index) {
+        words[index / WORD_SIZE] &= ~(1L << index);
+    }
+
+    /**
+     * Removes all tiles from the board.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Adds all tiles of the board.
+     */
+    public void fill() {
+        Arrays.fill(words, -1L);
+        trim();
+    }
+
+    /**
+     * Replaces the content of this board with the content of the given board.
+     *
+     * @param board the board to copy from.
+     * @return this board.
+     */
+    public BitBoard copyFrom(BitBoard board) {
+        System.arraycopy(board.words, 0, words, 0, words.length);
+        return this;
+    }
+
+    /**
+     * Keeps only the tiles that are contained in both boards.
+     *
+     * @param board the other board.
+     * @return this board.
+     */
+    public BitBoard and(BitBoard board) {
+        for (int i = 0; i < words.length; i++)
+            words[i] &= board.words[i];
+        return this;
+    }
+
+    /**
+     * Adds all tiles that are contained in the given board.
+     *
+     * @param board the other board.
+     * @return this board.
+     */
+    public BitBoard or(BitBoard board) {
+        for (int i = 0; i < words.length; i++)
+            words[i] |= board.words[i];
+        return this;
+    }
+
+    /**
+     * Removes all tiles that are contained in the given board.
+     *
+     * @param board the other board.
+     * @return this board.
+     */
+    public BitBoard andNot(BitBoard board) {
+        for (int i = 0; i < words.length; i++)
+            words[i] &= ~board.words[i];
+        return this;
+    }
+
+    /**
+     * Adds all tiles of the given board after moving each of them by the given distance of indices.
+     * Tiles that would be moved outside the board are dropped.
+     *
+     * @param board    the board to shift.
+     * @param distance the distance to move each tile. Positive values move to higher indices.
+     * @return this board.
+     */
+    public BitBoard orShifted(BitBoard board, int distance) {
+        return orShifted(board, null, distance);
+    }
+
+    /**
+     * Adds all tiles of the given board that are also contained in the mask after moving each of them by the given
+     * distance of indices. Tiles that would be moved outside the board are dropped.
+     *
+     * @param board    the board to shift.
+     * @param mask     the tiles of the board that should be shifted or null to shift all tiles.
+     * @param distance the distance to move each tile. Positive values move to higher indices.
+     * @return this board.
+     */
+    public BitBoard orShifted(BitBoard board, BitBoard mask, int distance) {
+        int wordShift = Math.abs(distance) / WORD_SIZE;
+        int bitShift = Math.abs(distance) % WORD_SIZE;
+
+        if (distance >= 0) {
+            for (int i = words.length - 1; i >= wordShift; i--) {
+                long word = wordAt(board, mask, i - wordShift) << bitShift;
+                if (bitShift != 0 && i - wordShift - 1 >= 0)
+                    word |= wordAt(board, mask, i - wordShift - 1) >>> (WORD_SIZE - bitShift);
+                words[i] |= word;
+            }
+        } else {
+            for (int i = 0; i + wordShift < words.length; i++) {
+                long word = wordAt(board, mask, i + wordShift) >>> bitShift;
+                if (bitShift != 0 && i + wordShift + 1 < words.length)
+                    word |= wordAt(board, mask, i + wordShift + 1) << (WORD_SIZE - bitShift);
+                words[i] |= word;
+            }
+        }
+
+        trim();
+        return this;
+    }
+
+    /**
+     * Gets a word of the given board that is filtered by the given mask.
+     *
+     * @param board the board to read from.
+     * @param mask  the mask to filter the word or null.
+     * @param index the index of the word.
+     * @return the filtered word.
+     */
+    private static long wordAt(BitBoard board, BitBoard mask, int index) {
+        return (mask == null) ? board.words[index] : board.words[index] & mask.words[index];
+    }
+
+    /**
+     * Checks whether the board contains no tiles.
+     *
+     * @return true if the board is empty. False otherwise.
+     */
+    public boolean isEmpty() {
+        for (long word : words)
+            if (word != 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Checks whether both boards share at least one tile.
+     *
+     * @param board the other board.
+     * @return true if both boards share a tile. False otherwise.
+     */
+    public boolean intersects(BitBoard board) {
+        for (int i = 0; i < words.length; i++)
+            if ((words[i] & board.words[i]) != 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * Counts the tiles of the board.
+     *
+     * @return the amount of tiles of the board.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Finds the index of the next tile of the board starting at the given index.
+     *
+     * @param from the index to start searching at.
+     * @return the index of the next tile or -1 if there is none.
+     */
+    public int nextSetBit(int from) {
+        if (from >= size)
+            return -1;
+
+        int wordIndex = from / WORD_SIZE;
+        long word = words[wordIndex] & (-1L << from);
+
+        while (true) {
+            if (word != 0)
+                return wordIndex * WORD_SIZE + Long.numberOfTrailingZeros(word);
+            if (++wordIndex == words.length)
+                return -1;
+            word = words[wordIndex];
+        }
+    }
+
+    /**
+     * Returns an iterator over the indices of all tiles of the board in ascending order.
+     *
+     * @return the iterator over the indices of the tiles.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            int next = nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next < 0)
+                    throw new NoSuchElementException();
+
+                int current = next;
+                next = nextSetBit(current + 1);
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Returns a stream of the indices of all tiles of the board in ascending order.
+     *
+     * @return the stream of the indices of the tiles.
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(
+                Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.DISTINCT),
+                false);
+    }
+
+    /**
+     * Removes all bits of the last word that are not part of the board.
+     */
+    private void trim() {
+        int used = size % WORD_SIZE;
+        if (used != 0)
+            words[words.length - 1] &= (-1L >>> (WORD_SIZE - used));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BitBoard board)) return false;
+        return size == board.size && Arrays.equals(words, board.words);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
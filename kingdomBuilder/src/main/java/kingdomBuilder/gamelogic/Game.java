@@ -1,11 +1,9 @@
 package kingdomBuilder.gamelogic;
 
 import java.security.InvalidParameterException;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -68,8 +66,7 @@ public class Game {
      * @return all possible tiles at the start of the game.
      */
     public static Stream<Tile> allBasicTurnTiles(GameMap gameMap, Player player) {
-        return (player.remainingSettlementsOfTurn <= 0) ?
-                Stream.empty() : gameMap.getAllPlaceableTiles(player, player.getTerrainCard());
+        return targetTiles(gameMap, player, ClientTurn.TurnType.PLACE, MoveGenerator.NONE);
     }
 
     /**
@@ -80,12 +77,7 @@ public class Game {
      * @return the set of tiles where the player could place a settlement using the oracle token.
      */
     public static Stream<Tile> allTokenOracleTiles(GameMap gameMap, Player player) {
-        if (player.getRemainingSettlements() <= 0)
-            return Stream.empty();
-
-        return (player.getCurrentTurnState() == TurnState.BASIC_TURN
-                || !player.playerHasTokenLeft(TileType.ORACLE)) ?
-                Stream.empty() : gameMap.getAllPlaceableTiles(player, player.getTerrainCard());
+        return targetTiles(gameMap, player, ClientTurn.TurnType.ORACLE, MoveGenerator.NONE);
     }
 
     /**
@@ -96,12 +88,7 @@ public class Game {
      * @return the set of tiles where the player could place a settlement with using the farm token.
      */
     public static Stream<Tile> allTokenFarmTiles(GameMap gameMap, Player player) {
-        if (player.getRemainingSettlements() <= 0)
-            return Stream.empty();
-
-        return (player.getCurrentTurnState() == TurnState.BASIC_TURN
-                || !player.playerHasTokenLeft(TileType.FARM) ?
-                Stream.empty() : gameMap.getAllPlaceableTiles(player, TileType.GRAS));
+        return targetTiles(gameMap, player, ClientTurn.TurnType.FARM, MoveGenerator.NONE);
     }
 
     /**
@@ -112,14 +99,7 @@ public class Game {
      * @return the set of tiles where the player could place a settlement with using the tavern token.
      */
     public static Stream<Tile> allTokenTavernTiles(GameMap gameMap, Player player) {
-        if (player.getRemainingSettlements() <= 0)
-            return Stream.empty();
-
-        return (player.getCurrentTurnState() == TurnState.BASIC_TURN
-                || !player.playerHasTokenLeft(TileType.TAVERN)) ?
-                Stream.empty()
-                : gameMap.stream().filter(tile -> !tile.isBlocked()
-                && tile.isAtEndOfAChain(gameMap, player));
+        return targetTiles(gameMap, player, ClientTurn.TurnType.TAVERN, MoveGenerator.NONE);
     }
 
     /**
@@ -130,12 +110,7 @@ public class Game {
      * @return the set of tiles where the player could place a settlement with using the tower token.
      */
     public static Stream<Tile> allTokenTowerTiles(GameMap gameMap, Player player) {
-        if (player.getRemainingSettlements() <= 0)
-            return Stream.empty();
-
-        return (player.getCurrentTurnState() == TurnState.BASIC_TURN
-                || !player.playerHasTokenLeft(TileType.TOWER)) ?
-                Stream.empty() : gameMap.getPlaceableTilesAtBorder(player);
+        return targetTiles(gameMap, player, ClientTurn.TurnType.TOWER, MoveGenerator.NONE);
     }
 
     /**
@@ -146,12 +121,7 @@ public class Game {
      * @return the set of tiles where the player could place a settlement with using the Oasis Token.
      */
     public static Stream<Tile> allTokenOasisTiles(GameMap gameMap, Player player) {
-        if (player.getRemainingSettlements() <= 0)
-            return Stream.empty();
-
-        return (player.getCurrentTurnState() == TurnState.BASIC_TURN
-                || !player.playerHasTokenLeft(TileType.OASIS)) ?
-                Stream.empty() : gameMap.getAllPlaceableTiles(player, TileType.DESERT);
+        return targetTiles(gameMap, player, ClientTurn.TurnType.OASIS, MoveGenerator.NONE);
     }
 
     /**
@@ -164,20 +134,9 @@ public class Game {
      * @return all tiles that are placeable with token harbor.
      */
     public static Stream<Tile> allTokenHarborTiles(GameMap gameMap, Player player, boolean highlightDestination) {
-        if (player.getCurrentTurnState() == TurnState.BASIC_TURN
-                || !player.playerHasTokenLeft(TileType.HARBOR))
-            return Stream.empty();
-
-        Supplier<Stream<Tile>> allPlaceableTilesWater = () -> gameMap.getTiles(TileType.WATER).filter(
-                tile -> tile.tileType == TileType.WATER
-                        && tile.occupiedBy == null
-                        && tile.hasSurroundingSettlement(gameMap, player));
-
-        allPlaceableTilesWater = allPlaceableTilesWater.get().findAny().isEmpty() ?
-                () -> gameMap.getTiles(TileType.WATER).filter(t -> t.occupiedBy == null)
-                : allPlaceableTilesWater;
-
-        return highlightDestination ? allPlaceableTilesWater.get() : gameMap.getSettlements(player);
+        return highlightDestination ?
+                targetTiles(gameMap, player, ClientTurn.TurnType.HARBOR, MoveGenerator.NONE)
+                : sourceTiles(gameMap, player, ClientTurn.TurnType.HARBOR);
     }
 
     /**
@@ -188,9 +147,7 @@ public class Game {
      * @return all tiles that a paddock token can be used on.
      */
     public static Stream<Tile> allTokenPaddockTiles(GameMap gameMap, Player player) {
-        return (player.getCurrentTurnState() == TurnState.BASIC_TURN
-                || !player.playerHasTokenLeft(TileType.PADDOCK)) ?
-                Stream.empty() : gameMap.getSettlements(player);
+        return sourceTiles(gameMap, player, ClientTurn.TurnType.PADDOCK);
     }
 
     /**
@@ -204,9 +161,7 @@ public class Game {
      * @throws InvalidParameterException when player does not own a settlement at given position.
      */
     public static Stream<Tile> allTokenPaddockTiles(GameMap gameMap, Player player, int fromX, int fromY) {
-        return (player.getCurrentTurnState() == TurnState.BASIC_TURN
-                || !player.playerHasTokenLeft(TileType.PADDOCK)) ?
-                Stream.empty() : gameMap.at(fromX, fromY).surroundingTilesPaddock(gameMap);
+        return targetTiles(gameMap, player, ClientTurn.TurnType.PADDOCK, gameMap.indexOf(gameMap.at(fromX, fromY)));
     }
 
     /**
@@ -219,12 +174,41 @@ public class Game {
      * @return all tiles that are placeable with token barn.
      */
     public static Stream<Tile> allTokenBarnTiles(GameMap gameMap, Player player, boolean highlightDestination) {
-        if (player.getCurrentTurnState() == TurnState.BASIC_TURN
-                || !player.playerHasTokenLeft(TileType.BARN))
+        return highlightDestination ?
+                targetTiles(gameMap, player, ClientTurn.TurnType.BARN, MoveGenerator.NONE)
+                : sourceTiles(gameMap, player, ClientTurn.TurnType.BARN);
+    }
+
+    /**
+     * Returns the tiles where moves of the given type start, see {@link MoveGenerator#sources}.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @param type    the type of the moves.
+     * @return the tiles or an empty stream if the player cannot make moves of the type.
+     */
+    private static Stream<Tile> sourceTiles(GameMap gameMap, Player player, ClientTurn.TurnType type) {
+        if (!MoveGenerator.isAvailable(player, type))
             return Stream.empty();
 
-        return highlightDestination ?
-                gameMap.getAllPlaceableTiles(player, player.getTerrainCard()) : gameMap.getSettlements(player);
+        return gameMap.stream(MoveGenerator.sources(gameMap, player, type, new BitBoard(gameMap.size())));
+    }
+
+    /**
+     * Returns the tiles a settlement can be placed on or moved to with moves of the given type,
+     * see {@link MoveGenerator#targets}.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @param type    the type of the moves.
+     * @param from    the index of the settlement that is moved by a paddock.
+     * @return the tiles or an empty stream if the player cannot make moves of the type.
+     */
+    private static Stream<Tile> targetTiles(GameMap gameMap, Player player, ClientTurn.TurnType type, int from) {
+        if (!MoveGenerator.isAvailable(player, type))
+            return Stream.empty();
+
+        return gameMap.stream(MoveGenerator.targets(gameMap, player, type, from, new BitBoard(gameMap.size())));
     }
 
     /**
@@ -519,20 +503,7 @@ public class Game {
      * @return the score for the win condition "anchorite".
      */
     static int scoreAnchorite(GameMap gameMap, Player player) {
-        Stream<Tile> settlements = gameMap.getSettlements(player);
-
-        AtomicInteger score = new AtomicInteger();
-
-        Set<Tile> group = new HashSet<>();
-
-        settlements.forEach(t -> {
-            if (!group.contains(t)) {
-                gameMap.getSettlementGroup(group, player, t.x, t.y);
-                score.addAndGet(1);
-            }
-        });
-
-        return score.get();
+        return gameMap.getGroupCount(player);
     }
 
     /**
@@ -544,26 +515,7 @@ public class Game {
      * @return the score for the win condition "citizen".
      */
     static int scoreCitizen(GameMap gameMap, Player player) {
-        Stream<Tile> settlements = gameMap.getSettlements(player);
-
-        var ref = new Object() {
-            int biggestGroupSize = 0;
-            int prevCheckedCount = 0;
-        };
-
-        Set<Tile> checkedSettlements = new HashSet<>();
-
-        settlements.forEach(t -> {
-            if (!checkedSettlements.contains(t)) {
-                gameMap.getSettlementGroup(checkedSettlements, player, t.x, t.y);
-                if ((checkedSettlements.size() - ref.prevCheckedCount) > ref.biggestGroupSize)
-                    ref.biggestGroupSize = checkedSettlements.size() - ref.prevCheckedCount;
-
-                ref.prevCheckedCount = checkedSettlements.size();
-            }
-        });
-
-        return ref.biggestGroupSize / 2;
+        return gameMap.getBiggestGroupSize(player) / 2;
     }
 
     /**
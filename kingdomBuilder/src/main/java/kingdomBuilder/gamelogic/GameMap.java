@@ -25,16 +25,6 @@ public class GameMap implements Iterable<Tile> {
      */
     private final Tile[] tiles;
 
-    /**
-     * Represents all tiles of the map.
-     */
-    private final Set<Tile> tileSet;
-
-    /**
-     * Represents all special places of the map.
-     */
-    private final Set<Tile> specialPlaces;
-
     /**
      * Represents the width of a quadrant.
      */
@@ -51,18 +41,186 @@ public class GameMap implements Iterable<Tile> {
     public final int startingTokenCount;
 
     /**
-     * Creates a copy of a Map.
+     * Represents the precomputed neighbours of every tile of the map.
+     */
+    final NeighbourTable neighbourTable;
+
+    /**
+     * Represents the tiles of each tile type, indexed by the ordinal of the tile type.
+     */
+    private final BitBoard[] terrainBoards;
+
+    /**
+     * Represents the tiles of each quadrant, indexed by the ordinal of the quadrant.
+     */
+    private final BitBoard[] quadrantBoards;
+
+    /**
+     * Represents the tiles at the border of the map.
+     */
+    private final BitBoard borderBoard;
+
+    /**
+     * Represents the tiles that are not in the first column of the map.
+     */
+    private final BitBoard notFirstColumnBoard;
+
+    /**
+     * Represents the tiles that are not in the last column of the map.
+     */
+    private final BitBoard notLastColumnBoard;
+
+    /**
+     * Represents the tiles of even rows that are not in the first column of the map.
+     */
+    private final BitBoard evenRowsNotFirstColumnBoard;
+
+    /**
+     * Represents the tiles of odd rows that are not in the last column of the map.
+     */
+    private final BitBoard oddRowsNotLastColumnBoard;
+
+    /**
+     * Represents the tiles where no settlement can be placed, either due to their terrain or because they
+     * are occupied.
+     */
+    private final BitBoard blockedBoard;
+
+    /**
+     * Represents the tiles that are occupied by any player.
+     */
+    private final BitBoard occupiedBoard;
+
+    /**
+     * Represents the tiles that are occupied by each player.
+     */
+    private final Map<Player, BitBoard> settlementBoards;
+
+    /**
+     * Represents the tile index of every special place, indexed by the number of the special place.
+     */
+    final int[] specialPlaceIndices;
+
+    /**
+     * Represents the special places next to every tile as a bit mask over the numbers of the special places.
+     */
+    final long[] specialMasks;
+
+    /**
+     * Represents the groups of connected settlements of each player.
+     */
+    private final Map<Player, SettlementGroups> settlementGroups;
+
+    /**
+     * Represents the tiles next to the settlements of each player.
+     */
+    private final Map<Player, SettlementFrontier> frontiers;
+
+    /**
+     * Represents the lines of settlements of each player along the axes of the map.
+     */
+    private final Map<Player, SettlementRuns> settlementRuns;
+
+    /**
+     * Represents the Zobrist hash of the settlements and tokens of the map.
+     */
+    private long hash;
+
+    /**
+     * Represents the changes of the map since the oldest open mark, in the order they were made.
+     */
+    private final ArrayList<Change> undoLog = new ArrayList<>();
+
+    /**
+     * Represents the positions in the undo log of all open marks. The most recent mark is the last one.
+     */
+    private final ArrayList<Integer> marks = new ArrayList<>();
+
+    /**
+     * Whether the map is currently undoing changes and should not record them.
+     */
+    private boolean undoing = false;
+
+    /**
+     * Represents the score evaluators that are updated when the map changes.
+     */
+    private final List<ScoreEvaluator> scoreEvaluators = new ArrayList<>(1);
+
+    /**
+     * Represents the kind of change that was made to the map.
+     */
+    private enum ChangeType {
+        /**
+         * A settlement was placed on the tile.
+         */
+        PLACE,
+        /**
+         * A settlement was removed from the tile.
+         */
+        REMOVE,
+        /**
+         * The player took a token from the special place.
+         */
+        TAKE_TOKEN,
+        /**
+         * The player returned a token to the special place.
+         */
+        RETURN_TOKEN
+    }
+
+    /**
+     * Represents a single change of the map that can be undone.
+     *
+     * @param type   the kind of change.
+     * @param index  the index of the tile that was changed.
+     * @param player the player who caused the change.
+     */
+    private record Change(ChangeType type, int index, Player player) {
+    }
+
+    /**
+     * Creates a snapshot of a Map. The layout of the map is shared with the original, only the state of the tiles
+     * is copied, so that both maps can be changed independently afterwards.
      *
      * @param gameMap The Map to copy.
      */
     public GameMap(GameMap gameMap) {
 
-        tiles = Arrays.stream(gameMap.tiles).map(tile -> new Tile(tile)).toArray(Tile[]::new);
-        tileSet = gameMap.tileSet.stream().map(tile -> new Tile(tile)).collect(Collectors.toSet());
+        tiles = new Tile[gameMap.tiles.length];
+        for (int i = 0; i < tiles.length; i++)
+            tiles[i] = new Tile(gameMap.tiles[i]);
+
         quadrantWidth = gameMap.quadrantWidth;
         mapWidth = gameMap.mapWidth;
         startingTokenCount = gameMap.startingTokenCount;
-        specialPlaces = gameMap.specialPlaces;
+        neighbourTable = gameMap.neighbourTable;
+
+        // boards that only depend on the layout of the map can be shared
+        terrainBoards = gameMap.terrainBoards;
+        quadrantBoards = gameMap.quadrantBoards;
+        borderBoard = gameMap.borderBoard;
+        notFirstColumnBoard = gameMap.notFirstColumnBoard;
+        notLastColumnBoard = gameMap.notLastColumnBoard;
+        evenRowsNotFirstColumnBoard = gameMap.evenRowsNotFirstColumnBoard;
+        oddRowsNotLastColumnBoard = gameMap.oddRowsNotLastColumnBoard;
+
+        blockedBoard = new BitBoard(gameMap.blockedBoard);
+        occupiedBoard = new BitBoard(gameMap.occupiedBoard);
+        settlementBoards = new HashMap<>();
+        gameMap.settlementBoards.forEach((player, board) -> settlementBoards.put(player, new BitBoard(board)));
+
+        specialPlaceIndices = gameMap.specialPlaceIndices;
+        specialMasks = gameMap.specialMasks;
+        settlementGroups = new HashMap<>();
+        gameMap.settlementGroups.forEach((player, groups) -> settlementGroups.put(player, new SettlementGroups(groups)));
+        frontiers = new HashMap<>();
+        gameMap.frontiers.forEach((player, frontier) -> frontiers.put(player, new SettlementFrontier(frontier)));
+        settlementRuns = new HashMap<>();
+        gameMap.settlementRuns.forEach((player, runs) -> settlementRuns.put(player, new SettlementRuns(runs)));
+        hash = gameMap.hash;
+
+        for (Tile tile : tiles)
+            tile.containingMap = this;
     }
 
     /**
@@ -100,7 +258,6 @@ public class GameMap implements Iterable<Tile> {
         quadrantWidth = (int) roundedWith;
         mapWidth = 2 * quadrantWidth;
         tiles = new Tile[topLeft.length * 4];
-        specialPlaces = new HashSet<>();
         int index;
 
         // combines top left and top right into tiles array
@@ -114,9 +271,6 @@ public class GameMap implements Iterable<Tile> {
                                 topLeft[x * quadrantWidth + y],
                                 startingTokenCount,
                                 quadrantWidth);
-                if (TileType.specialPlacesTypes.contains(tiles[index].tileType)) {
-                    specialPlaces.add(tiles[index]);
-                }
             }
             for (int x = 0; x < quadrantWidth; x++) {
                 index = to1DIndexTopRight(x, y, quadrantWidth);
@@ -127,9 +281,6 @@ public class GameMap implements Iterable<Tile> {
                                 topRight[x * quadrantWidth + y],
                                 startingTokenCount,
                                 quadrantWidth);
-                if (TileType.specialPlacesTypes.contains(tiles[index].tileType)) {
-                    specialPlaces.add(tiles[index]);
-                }
             }
         }
 
@@ -144,9 +295,6 @@ public class GameMap implements Iterable<Tile> {
                                 bottomLeft[x * quadrantWidth + y],
                                 startingTokenCount,
                                 quadrantWidth);
-                if (TileType.specialPlacesTypes.contains(tiles[index].tileType)) {
-                    specialPlaces.add(tiles[index]);
-                }
             }
             for (int x = 0; x < quadrantWidth; x++) {
                 index = to1DIndexBottomRight(x, y, quadrantWidth);
@@ -157,13 +305,70 @@ public class GameMap implements Iterable<Tile> {
                                 bottomRight[x * quadrantWidth + y],
                                 startingTokenCount,
                                 quadrantWidth);
-                if (TileType.specialPlacesTypes.contains(tiles[index].tileType)) {
-                    specialPlaces.add(tiles[index]);
-                }
             }
         }
 
-        tileSet = Set.of(tiles);
+        neighbourTable = NeighbourTable.of(mapWidth);
+
+        // create the boards of the map
+        terrainBoards = new BitBoard[TileType.values().length];
+        for (TileType tileType : TileType.values())
+            terrainBoards[tileType.ordinal()] = new BitBoard(tiles.length);
+
+        quadrantBoards = new BitBoard[Quadrants.values().length];
+        for (Quadrants quadrant : Quadrants.values())
+            quadrantBoards[quadrant.ordinal()] = new BitBoard(tiles.length);
+
+        borderBoard = new BitBoard(tiles.length);
+        notFirstColumnBoard = new BitBoard(tiles.length);
+        notLastColumnBoard = new BitBoard(tiles.length);
+        evenRowsNotFirstColumnBoard = new BitBoard(tiles.length);
+        oddRowsNotLastColumnBoard = new BitBoard(tiles.length);
+        blockedBoard = new BitBoard(tiles.length);
+        occupiedBoard = new BitBoard(tiles.length);
+        settlementBoards = new HashMap<>();
+        settlementGroups = new HashMap<>();
+        frontiers = new HashMap<>();
+        settlementRuns = new HashMap<>();
+
+        for (int i = 0; i < tiles.length; i++) {
+            Tile tile = tiles[i];
+            tile.containingMap = this;
+
+            terrainBoards[tile.tileType.ordinal()].set(i);
+            quadrantBoards[tile.quadrant.ordinal()].set(i);
+
+            if (tile.isAtBorder(this))
+                borderBoard.set(i);
+            if (tile.x > 0)
+                notFirstColumnBoard.set(i);
+            if (tile.x < mapWidth - 1)
+                notLastColumnBoard.set(i);
+            if (tile.x > 0 && tile.y % 2 == 0)
+                evenRowsNotFirstColumnBoard.set(i);
+            if (tile.x < mapWidth - 1 && tile.y % 2 != 0)
+                oddRowsNotLastColumnBoard.set(i);
+            if (tile.isBlocked())
+                blockedBoard.set(i);
+            if (TileType.tokenType.contains(tile.tileType))
+                hash ^= ZobristKeys.remainingTokens(i, tile.remainingTokens);
+        }
+
+        // number the special places and mark the tiles next to them
+        specialPlaceIndices = IntStream.range(0, tiles.length)
+                .filter(i -> TileType.specialPlacesTypes.contains(tiles[i].tileType))
+                .toArray();
+
+        int words = (specialPlaceIndices.length + Long.SIZE - 1) / Long.SIZE;
+        specialMasks = new long[tiles.length * words];
+
+        for (int special = 0; special < specialPlaceIndices.length; special++) {
+            for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+                int neighbour = neighbourTable.neighbour(specialPlaceIndices[special], direction);
+                if (neighbour != NeighbourTable.NONE)
+                    specialMasks[neighbour * words + special / Long.SIZE] |= 1L << special;
+            }
+        }
     }
 
     /**
@@ -369,6 +574,583 @@ public class GameMap implements Iterable<Tile> {
         return (x >= 0 && y >= 0 && x < mapWidth && y < mapWidth);
     }
 
+    /**
+     * Gets the tile at the given 1D index.
+     *
+     * @param index the 1D index of the tile.
+     * @return The tile at the given index.
+     */
+    public Tile at(int index) {
+        return tiles[index];
+    }
+
+    /**
+     * Gets the 1D index of the given tile.
+     *
+     * @param tile the tile of the map.
+     * @return the 1D index of the tile.
+     */
+    public int indexOf(Tile tile) {
+        return to1DIndex(tile.x, tile.y, mapWidth);
+    }
+
+    /**
+     * Gets the amount of tiles of the map.
+     *
+     * @return the amount of tiles of the map.
+     */
+    public int size() {
+        return tiles.length;
+    }
+
+    /**
+     * Updates the boards of the map after a settlement was placed on a tile.
+     *
+     * @param tile the tile the settlement was placed on.
+     */
+    void onSettlementPlaced(Tile tile) {
+        int index = indexOf(tile);
+
+        blockedBoard.set(index);
+        occupiedBoard.set(index);
+        settlementBoards.computeIfAbsent(tile.occupiedBy, p -> new BitBoard(tiles.length)).set(index);
+        groupsOf(tile.occupiedBy).add(index);
+        frontierOf(tile.occupiedBy).add(index);
+        runsOf(tile.occupiedBy).update(index, settlementBoards.get(tile.occupiedBy));
+        hash ^= ZobristKeys.settlement(index, tile.occupiedBy);
+
+        for (ScoreEvaluator scoreEvaluator : scoreEvaluators)
+            scoreEvaluator.onSettlementPlaced(index, tile.occupiedBy);
+
+        record(ChangeType.PLACE, index, tile.occupiedBy);
+    }
+
+    /**
+     * Updates the boards of the map after a settlement was removed from a tile.
+     *
+     * @param tile   the tile the settlement was removed from.
+     * @param player the player who owned the settlement.
+     */
+    void onSettlementRemoved(Tile tile, Player player) {
+        int index = indexOf(tile);
+
+        if (!tile.isBlocked())
+            blockedBoard.clear(index);
+        occupiedBoard.clear(index);
+        settlementBoards.get(player).clear(index);
+        settlementGroups.get(player).remove(index);
+        frontiers.get(player).remove(index);
+        settlementRuns.get(player).update(index, settlementBoards.get(player));
+        hash ^= ZobristKeys.settlement(index, player);
+
+        for (ScoreEvaluator scoreEvaluator : scoreEvaluators)
+            scoreEvaluator.onSettlementRemoved(index, player);
+
+        record(ChangeType.REMOVE, index, player);
+    }
+
+    /**
+     * Updates the hash of the map after the amount of tokens on a special place changed.
+     *
+     * @param tile     the special place.
+     * @param previous the amount of tokens on the special place before the change.
+     */
+    void onRemainingTokensChanged(Tile tile, int previous) {
+        int index = indexOf(tile);
+        hash ^= ZobristKeys.remainingTokens(index, previous) ^ ZobristKeys.remainingTokens(index, tile.remainingTokens);
+    }
+
+    /**
+     * Updates the hash of the map after a player received or lost the token of a special place.
+     *
+     * @param tile   the special place.
+     * @param player the player who received or lost the token.
+     */
+    void onTokenOwnerChanged(Tile tile, Player player) {
+        hash ^= ZobristKeys.tokenOwner(indexOf(tile), player);
+    }
+
+    /**
+     * Gets the Zobrist hash of the map. The hash only depends on the settlements of the players, the tokens they own
+     * and the tokens that are left on the special places, so that maps that reach the same state in a different
+     * order have the same hash. It is updated incrementally on every change of the map.
+     *
+     * @return the hash of the map.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Hands all settlements of a player over to another player object. This is used to give a copy of the map its
+     * own copy of a player, so that both can be changed independently. Only maps without open marks and without
+     * score evaluators can hand over settlements.
+     *
+     * @param player      the player who owns the settlements.
+     * @param replacement the player who owns the settlements afterwards.
+     * @throws IllegalStateException if the map has open marks or score evaluators.
+     */
+    public void replacePlayer(Player player, Player replacement) {
+        if (!marks.isEmpty() || !scoreEvaluators.isEmpty())
+            throw new IllegalStateException("Settlements can only be handed over on a fresh copy of the map!");
+
+        BitBoard settlements = settlementBoards.remove(player);
+        if (settlements == null)
+            return;
+
+        settlements.iterator().forEachRemaining((int i) -> {
+            tiles[i].occupiedBy = replacement;
+            hash ^= ZobristKeys.settlement(i, player) ^ ZobristKeys.settlement(i, replacement);
+        });
+        settlementBoards.put(replacement, settlements);
+        settlementGroups.put(replacement, settlementGroups.remove(player));
+        frontiers.put(replacement, frontiers.remove(player));
+        settlementRuns.put(replacement, settlementRuns.remove(player));
+    }
+
+    /**
+     * Starts updating the score evaluator when the map changes.
+     *
+     * @param scoreEvaluator the score evaluator.
+     */
+    void attach(ScoreEvaluator scoreEvaluator) {
+        scoreEvaluators.add(scoreEvaluator);
+    }
+
+    /**
+     * Stops updating the score evaluator when the map changes.
+     *
+     * @param scoreEvaluator the score evaluator.
+     */
+    void detach(ScoreEvaluator scoreEvaluator) {
+        scoreEvaluators.remove(scoreEvaluator);
+    }
+
+    /**
+     * Gets the score evaluator of the map for the given players. If no evaluator for these players is attached to
+     * the map yet, a new one is created. Copies of the map do not share the evaluators of the original.
+     *
+     * @param players the players of the game.
+     * @return the score evaluator for the players.
+     */
+    public ScoreEvaluator getScoreEvaluator(List<Player> players) {
+        for (ScoreEvaluator scoreEvaluator : scoreEvaluators)
+            if (scoreEvaluator.getPlayers().equals(players))
+                return scoreEvaluator;
+
+        return new ScoreEvaluator(this, players);
+    }
+
+    /**
+     * Adds a change to the undo log if there is an open mark.
+     *
+     * @param type   the kind of change.
+     * @param index  the index of the tile that was changed.
+     * @param player the player who caused the change.
+     */
+    private void record(ChangeType type, int index, Player player) {
+        if (marks.isEmpty() || undoing)
+            return;
+
+        // a settlement that is removed right after it was placed cancels out the placement
+        int last = undoLog.size() - 1;
+        if (type == ChangeType.REMOVE && last >= marks.get(marks.size() - 1)) {
+            Change previous = undoLog.get(last);
+            if (previous.type == ChangeType.PLACE && previous.index == index && previous.player == player) {
+                undoLog.remove(last);
+                return;
+            }
+        }
+
+        undoLog.add(new Change(type, index, player));
+    }
+
+    /**
+     * Starts recording all changes of the map so that they can be undone with {@link #rollback(int)}.
+     * Marks can be nested, every mark has to be closed with either {@link #rollback(int)} or {@link #release(int)}.
+     *
+     * @return the mark that represents the current state of the map.
+     */
+    public int mark() {
+        marks.add(undoLog.size());
+        return marks.size() - 1;
+    }
+
+    /**
+     * Undoes all changes of the map that were made since the given mark and closes the mark.
+     *
+     * @param mark the mark returned by {@link #mark()}.
+     */
+    public void rollback(int mark) {
+        checkMark(mark);
+
+        undoing = true;
+        try {
+            for (int i = undoLog.size() - 1; i >= marks.get(mark); i--) {
+                Change change = undoLog.remove(i);
+                Tile tile = tiles[change.index];
+
+                switch (change.type) {
+                    case PLACE -> tile.removeSettlement();
+                    case REMOVE -> tile.placeSettlement(change.player);
+                    case TAKE_TOKEN -> {
+                        change.player.removeToken(tile);
+                        putTokenBack(tile);
+                    }
+                    case RETURN_TOKEN -> change.player.addToken(tile);
+                }
+            }
+        } finally {
+            undoing = false;
+        }
+
+        release(mark);
+    }
+
+    /**
+     * Keeps all changes of the map that were made since the given mark and closes the mark. The changes can still
+     * be undone by rolling back to an older mark.
+     *
+     * @param mark the mark returned by {@link #mark()}.
+     */
+    public void release(int mark) {
+        checkMark(mark);
+
+        marks.remove(mark);
+        if (marks.isEmpty())
+            undoLog.clear();
+    }
+
+    /**
+     * Checks whether the given mark is the most recent open mark.
+     *
+     * @param mark the mark returned by {@link #mark()}.
+     * @throws IllegalStateException if the mark is not the most recent open mark.
+     */
+    private void checkMark(int mark) {
+        if (mark != marks.size() - 1)
+            throw new IllegalStateException("Marks have to be closed in the reverse order they were opened!");
+    }
+
+    /**
+     * Places a settlement of the player on the tile at the given coordinates.
+     *
+     * @param player the player who owns the settlement.
+     * @param x      the x coordinate of the tile.
+     * @param y      the y coordinate of the tile.
+     */
+    public void placeSettlement(Player player, int x, int y) {
+        at(x, y).placeSettlement(player);
+    }
+
+    /**
+     * Removes the settlement from the tile at the given coordinates.
+     *
+     * @param x the x coordinate of the tile.
+     * @param y the y coordinate of the tile.
+     * @return the player who owned the settlement.
+     */
+    public Player removeSettlement(int x, int y) {
+        return at(x, y).removeSettlement();
+    }
+
+    /**
+     * Moves the settlement from one tile to another.
+     *
+     * @param fromX the x coordinate of the tile with the settlement.
+     * @param fromY the y coordinate of the tile with the settlement.
+     * @param toX   the x coordinate of the destination.
+     * @param toY   the y coordinate of the destination.
+     */
+    public void moveSettlement(int fromX, int fromY, int toX, int toY) {
+        at(fromX, fromY).moveSettlement(at(toX, toY));
+    }
+
+    /**
+     * Gives the player a token of the special place if it has tokens left and the player has not received one
+     * from it yet.
+     *
+     * @param player       the player who receives the token.
+     * @param specialPlace the special place of the map.
+     * @return true if the player received a token. False otherwise.
+     */
+    public boolean takeToken(Player player, Tile specialPlace) {
+        int remaining = specialPlace.remainingTokens;
+        player.addToken(specialPlace);
+
+        if (specialPlace.remainingTokens == remaining)
+            return false;
+
+        record(ChangeType.TAKE_TOKEN, indexOf(specialPlace), player);
+        return true;
+    }
+
+    /**
+     * Takes the token of the special place from the player and puts it back on the special place.
+     *
+     * @param player       the player who owns the token.
+     * @param specialPlace the special place of the map.
+     * @return true if the player returned a token. False otherwise.
+     */
+    public boolean returnToken(Player player, Tile specialPlace) {
+        if (!player.hasTokenFrom(specialPlace))
+            return false;
+
+        player.removeToken(specialPlace);
+        putTokenBack(specialPlace);
+
+        record(ChangeType.RETURN_TOKEN, indexOf(specialPlace), player);
+        return true;
+    }
+
+    /**
+     * Puts a token back on a special place.
+     *
+     * @param specialPlace the special place of the map.
+     */
+    private void putTokenBack(Tile specialPlace) {
+        specialPlace.remainingTokens++;
+        onRemainingTokensChanged(specialPlace, specialPlace.remainingTokens - 1);
+    }
+
+    /**
+     * Returns a stream of the tiles that are contained in the given board.
+     *
+     * @param board the board of the tiles.
+     * @return the stream of the tiles in ascending order of their index.
+     */
+    public Stream<Tile> stream(BitBoard board) {
+        return board.stream().mapToObj(i -> tiles[i]);
+    }
+
+    /**
+     * Gets a board of all tiles of the specified terrain type.
+     *
+     * @param terrain the terrain type to filter by.
+     * @return the board of all tiles of the given terrain type.
+     */
+    public BitBoard getTilesBoard(TileType terrain) {
+        return new BitBoard(terrainBoards[terrain.ordinal()]);
+    }
+
+    /**
+     * Gets a board of all tiles where the player has a settlement.
+     *
+     * @param player the player as the owner of the settlements.
+     * @return the board of all settlements of the player.
+     */
+    public BitBoard getSettlementsBoard(Player player) {
+        BitBoard settlements = settlementBoards.get(player);
+        return settlements == null ? new BitBoard(tiles.length) : new BitBoard(settlements);
+    }
+
+    /**
+     * Gets a board of all tiles where no settlement can be placed, either due to their terrain or because they
+     * are occupied.
+     *
+     * @return the board of all blocked tiles.
+     */
+    public BitBoard getBlockedBoard() {
+        return new BitBoard(blockedBoard);
+    }
+
+    /**
+     * Adds all tiles that surround any tile of the given board to the result.
+     *
+     * @param board  the board of the tiles whose surroundings are added.
+     * @param result the board to add the surrounding tiles to.
+     * @return the result.
+     */
+    public BitBoard addSurroundingTiles(BitBoard board, BitBoard result) {
+        // left and right
+        result.orShifted(board, notFirstColumnBoard, -1);
+        result.orShifted(board, notLastColumnBoard, 1);
+
+        // the tiles above and below with the same x coordinate are neighbours in every row
+        result.orShifted(board, -mapWidth);
+        result.orShifted(board, mapWidth);
+
+        // even rows are shifted to the left, odd rows to the right
+        result.orShifted(board, evenRowsNotFirstColumnBoard, -mapWidth - 1);
+        result.orShifted(board, evenRowsNotFirstColumnBoard, mapWidth - 1);
+        result.orShifted(board, oddRowsNotLastColumnBoard, -mapWidth + 1);
+        result.orShifted(board, oddRowsNotLastColumnBoard, mapWidth + 1);
+
+        return result;
+    }
+
+    /**
+     * Writes all free tiles of the terrain type that are next to a settlement of the player into the result.
+     *
+     * @param player  the player to check for.
+     * @param terrain the terrain to check for.
+     * @param result  the board to write the tiles into.
+     * @return the result.
+     */
+    public BitBoard placeableTilesNextToSettlements(Player player, TileType terrain, BitBoard result) {
+        result.clear();
+
+        SettlementFrontier frontier = frontiers.get(player);
+        if (terrain == null || frontier == null)
+            return result;
+
+        return result.copyFrom(frontier.tiles())
+                .and(terrainBoards[terrain.ordinal()])
+                .andNot(blockedBoard);
+    }
+
+    /**
+     * Writes all positions where the player can place a settlement on the given terrain into the result.
+     *
+     * @param player  the player to check for.
+     * @param terrain the terrain the player has.
+     * @param result  the board to write the tiles into.
+     * @return the result.
+     */
+    public BitBoard placeableTiles(Player player, TileType terrain, BitBoard result) {
+        placeableTilesNextToSettlements(player, terrain, result);
+
+        if (result.isEmpty() && terrain != null)
+            result.copyFrom(terrainBoards[terrain.ordinal()]).andNot(blockedBoard);
+
+        return result;
+    }
+
+    /**
+     * Writes all free tiles at the border of the map that are next to a settlement of the player into the result,
+     * or all free tiles at the border if there are none.
+     *
+     * @param player the player to check for.
+     * @param result the board to write the tiles into.
+     * @return the result.
+     */
+    public BitBoard placeableTilesAtBorder(Player player, BitBoard result) {
+        result.clear();
+
+        SettlementFrontier frontier = frontiers.get(player);
+        if (frontier != null)
+            result.copyFrom(frontier.tiles()).and(borderBoard).andNot(blockedBoard);
+
+        if (result.isEmpty())
+            result.copyFrom(borderBoard).andNot(blockedBoard);
+
+        return result;
+    }
+
+    /**
+     * Writes all unoccupied tiles of the terrain type that are next to a settlement of the player into the result,
+     * or all unoccupied tiles of the terrain type if there are none. Unlike {@link #placeableTiles}, this includes
+     * terrain types on which settlements can only be moved, like water.
+     *
+     * @param player  the player to check for.
+     * @param terrain the terrain to check for.
+     * @param result  the board to write the tiles into.
+     * @return the result.
+     */
+    public BitBoard unoccupiedTiles(Player player, TileType terrain, BitBoard result) {
+        result.clear();
+
+        SettlementFrontier frontier = frontiers.get(player);
+        if (frontier != null)
+            result.copyFrom(frontier.tiles()).and(terrainBoards[terrain.ordinal()]).andNot(occupiedBoard);
+
+        if (result.isEmpty())
+            result.copyFrom(terrainBoards[terrain.ordinal()]).andNot(occupiedBoard);
+
+        return result;
+    }
+
+    /**
+     * Writes all tiles next to a settlement of the player into the result. The frontier is updated incrementally when
+     * settlements are placed or removed, so this does not need to look at the settlements.
+     *
+     * @param player the player as the owner of the settlements.
+     * @param result the board to write the tiles into.
+     * @return the result, which includes occupied and blocked tiles.
+     */
+    public BitBoard settlementFrontier(Player player, BitBoard result) {
+        SettlementFrontier frontier = frontiers.get(player);
+        if (frontier == null)
+            result.clear();
+        else
+            result.copyFrom(frontier.tiles());
+
+        return result;
+    }
+
+    /**
+     * Checks whether a tile is next to a settlement of the player.
+     *
+     * @param player the player as the owner of the settlements.
+     * @param index  the index of the tile.
+     * @return true if the tile is next to a settlement of the player. False otherwise.
+     */
+    boolean isNextToSettlement(Player player, int index) {
+        SettlementFrontier frontier = frontiers.get(player);
+        return frontier != null && frontier.contains(index);
+    }
+
+    /**
+     * Writes all free tiles at the end of a straight line of settlements of the player with at least the given length
+     * into the result. The lines are updated incrementally when settlements are placed or removed.
+     *
+     * @param player the player as the owner of the settlements.
+     * @param length the minimal length of the line.
+     * @param result the board to write the tiles into.
+     * @return the result.
+     */
+    public BitBoard chainEnds(Player player, int length, BitBoard result) {
+        SettlementRuns runs = settlementRuns.get(player);
+        if (runs == null)
+            result.clear();
+        else
+            runs.chainEnds(length, result).andNot(blockedBoard);
+
+        return result;
+    }
+
+    /**
+     * Checks whether a tile is at the end of a straight line of settlements of the player with at least the given
+     * length. The tile itself is not checked.
+     *
+     * @param player the player as the owner of the settlements.
+     * @param index  the index of the tile.
+     * @param length the minimal length of the line.
+     * @return true if the tile is at the end of such a line. False otherwise.
+     */
+    boolean isAtEndOfChain(Player player, int index, int length) {
+        SettlementRuns runs = settlementRuns.get(player);
+        return runs != null && runs.isAtEndOfChain(index, length);
+    }
+
+    /**
+     * Gets the length of the longest straight line of settlements of the player along any axis of the map.
+     *
+     * @param player the player as the owner of the settlements.
+     * @return the length of the longest line, or 0 if the player has no settlements.
+     */
+    public int longestLine(Player player) {
+        SettlementRuns runs = settlementRuns.get(player);
+        return runs == null ? 0 : runs.longestLine(settlementBoards.get(player));
+    }
+
+    /**
+     * Writes all tiles where the player has a settlement into the result.
+     *
+     * @param player the player as the owner of the settlements.
+     * @param result the board to write the tiles into.
+     * @return the result.
+     */
+    public BitBoard settlements(Player player, BitBoard result) {
+        BitBoard settlements = settlementBoards.get(player);
+        if (settlements == null)
+            result.clear();
+        else
+            result.copyFrom(settlements);
+
+        return result;
+    }
+
     /**
      * Returns a stream of all the tiles of the map.
      *
@@ -494,7 +1276,10 @@ public class GameMap implements Iterable<Tile> {
         if (TileType.nonPlaceableTileTypes.contains(terrain))
             throw new InvalidParameterException("The specified terrain is not a placeable terrain type!");
 
-        return stream().filter(t -> t.tileType == terrain);
+        if (terrain == null)
+            return Stream.empty();
+
+        return stream(terrainBoards[terrain.ordinal()]);
     }
 
     /**
@@ -560,11 +1345,7 @@ public class GameMap implements Iterable<Tile> {
      * @return all free tiles that are next to a player's settlement.
      */
     public Stream<Tile> getPlaceableTilesAtBorder(Player player) {
-        Supplier<Stream<Tile>> tilesOnBorder = () -> getTilesAtBorder().filter(tile -> !tile.isBlocked()
-                && tile.hasSurroundingSettlement(this, player));
-
-        return tilesOnBorder.get().findAny().isEmpty() ?
-                getTilesAtBorder().filter(t -> !t.isBlocked()) : tilesOnBorder.get();
+        return stream(placeableTilesAtBorder(player, new BitBoard(tiles.length)));
     }
 
     /**
@@ -579,9 +1360,7 @@ public class GameMap implements Iterable<Tile> {
         if (!TileType.placeableTileTypes.contains(terrain) && terrain != null)
             throw new InvalidParameterException("not a landscape!");
 
-        return getTiles(terrain).filter(tile ->
-                !tile.isBlocked()
-                        && tile.hasSurroundingSettlement(this, player));
+        return stream(placeableTilesNextToSettlements(player, terrain, new BitBoard(tiles.length)));
     }
 
     /**
@@ -592,12 +1371,10 @@ public class GameMap implements Iterable<Tile> {
      * @return a set of all positions a player can place a settlement.
      */
     protected Stream<Tile> getAllPlaceableTiles(Player player, TileType terrain) {
-        Supplier<Stream<Tile>> allPossiblePlacements = () -> getAllPlaceableTilesNextToSettlements(player, terrain);
-
+        if (!TileType.placeableTileTypes.contains(terrain) && terrain != null)
+            throw new InvalidParameterException("not a landscape!");
 
-        return (allPossiblePlacements.get().findAny().isEmpty()) ?
-                getTiles(terrain).filter(t -> !t.isBlocked())
-                : allPossiblePlacements.get();
+        return stream(placeableTiles(player, terrain, new BitBoard(tiles.length)));
     }
 
     /**
@@ -607,7 +1384,8 @@ public class GameMap implements Iterable<Tile> {
      * @return all settlements of the player.
      */
     public Stream<Tile> getSettlements(Player player) {
-        return stream().filter(t -> t.occupiedBy == player);
+        BitBoard settlements = settlementBoards.get(player);
+        return settlements == null ? Stream.empty() : stream(new BitBoard(settlements));
     }
 
     /**
@@ -618,7 +1396,57 @@ public class GameMap implements Iterable<Tile> {
      * @return all tiles occupied by the player in the given quadrant.
      */
     public Stream<Tile> getSettlementsOfQuadrant(Player player, Quadrants quadrant) {
-        return getSettlements(player).filter(t -> t.quadrant == quadrant);
+        BitBoard settlements = settlementBoards.get(player);
+        if (settlements == null)
+            return Stream.empty();
+
+        return stream(new BitBoard(settlements).and(quadrantBoards[quadrant.ordinal()]));
+    }
+
+    /**
+     * Counts the tiles occupied by the player in the given quadrant.
+     *
+     * @param player   the player as the owner of the settlements.
+     * @param quadrant the quadrant to which the tiles belong to.
+     * @return the amount of tiles occupied by the player in the given quadrant.
+     */
+    public int countSettlementsOfQuadrant(Player player, Quadrants quadrant) {
+        BitBoard settlements = settlementBoards.get(player);
+        if (settlements == null)
+            return 0;
+
+        return new BitBoard(settlements).and(quadrantBoards[quadrant.ordinal()]).cardinality();
+    }
+
+    /**
+     * Gets the groups of settlements of a player.
+     *
+     * @param player the player as the owner of the settlements.
+     * @return the groups of settlements of the player.
+     */
+    SettlementGroups groupsOf(Player player) {
+        return settlementGroups.computeIfAbsent(player,
+                p -> new SettlementGroups(neighbourTable, specialMasks, specialPlaceIndices.length));
+    }
+
+    /**
+     * Gets the tiles next to the settlements of a player.
+     *
+     * @param player the player as the owner of the settlements.
+     * @return the frontier of the settlements of the player.
+     */
+    private SettlementFrontier frontierOf(Player player) {
+        return frontiers.computeIfAbsent(player, p -> new SettlementFrontier(neighbourTable));
+    }
+
+    /**
+     * Gets the lines of settlements of a player.
+     *
+     * @param player the player as the owner of the settlements.
+     * @return the runs of settlements of the player.
+     */
+    private SettlementRuns runsOf(Player player) {
+        return settlementRuns.computeIfAbsent(player, p -> new SettlementRuns(neighbourTable));
     }
 
     /**
@@ -630,17 +1458,35 @@ public class GameMap implements Iterable<Tile> {
      * @param y      the y-coordinate of the beginning settlement.
      */
     public void getSettlementGroup(Set<Tile> tiles, Player player, int x, int y) {
-        if (at(x, y).occupiedBy == null)
+        Tile start = at(x, y);
+        if (start.occupiedBy == null)
             throw new InvalidParameterException("Not an occupied tile!");
 
-        Stream<Tile> surroundings = at(x, y).surroundingSettlements(this, player);
+        tiles.add(start);
+
+        SettlementGroups groups = groupsOf(player);
+        BitBoard settlements = settlementBoards.get(player);
+        if (settlements == null)
+            return;
 
-        tiles.add(at(x, y));
+        // the group of the tile itself or of the surrounding settlements if the tile belongs to another player
+        BitBoard roots = new BitBoard(size());
+        int index = indexOf(start);
+        if (groups.contains(index))
+            roots.set(groups.find(index));
 
-        // remove all checked tiles
-        surroundings.filter(o -> !tiles.contains(o)).forEach(t -> {
-            // check surroundings of new tiles
-            getSettlementGroup(tiles, player, t.x, t.y);
+        for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+            int neighbour = neighbourTable.neighbour(index, direction);
+            if (neighbour != NeighbourTable.NONE && groups.contains(neighbour))
+                roots.set(groups.find(neighbour));
+        }
+
+        if (roots.isEmpty())
+            return;
+
+        settlements.iterator().forEachRemaining((int i) -> {
+            if (roots.get(groups.find(i)))
+                tiles.add(this.tiles[i]);
         });
     }
 
@@ -667,11 +1513,90 @@ public class GameMap implements Iterable<Tile> {
      * @return a list of groups of settlements of the player surrounding a tile.
      */
     public List<Set<Tile>> getSurroundingGroups(Player player, Tile tile) {
-        return tile.surroundingSettlements(this, player)
-                .map(t -> getSettlementGroup(player, t))
-                .filter(t -> !t.isEmpty())
-                .distinct()
-                .collect(Collectors.toList());
+        SettlementGroups groups = groupsOf(player);
+        int index = indexOf(tile);
+        List<Integer> roots = new ArrayList<>(NeighbourTable.DIRECTIONS);
+
+        for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+            int neighbour = neighbourTable.neighbour(index, direction);
+            if (neighbour != NeighbourTable.NONE && groups.contains(neighbour) && !roots.contains(groups.find(neighbour)))
+                roots.add(groups.find(neighbour));
+        }
+
+        List<Set<Tile>> surroundingGroups = new ArrayList<>(roots.size());
+        for (int root : roots)
+            surroundingGroups.add(getSettlementGroup(player, tiles[root]));
+
+        return surroundingGroups;
+    }
+
+    /**
+     * Gets the id of the group of the settlement on the tile. Two settlements of the player belong to the same group
+     * if they have the same id.
+     *
+     * @param player the player as the owner of the settlement.
+     * @param tile   the tile of the settlement.
+     * @return the id of the group or -1 if the tile does not contain a settlement of the player.
+     */
+    public int getGroupId(Player player, Tile tile) {
+        SettlementGroups groups = groupsOf(player);
+        int index = indexOf(tile);
+
+        return groups.contains(index) ? groups.find(index) : -1;
+    }
+
+    /**
+     * Gets the amount of settlements in the group of the settlement on the tile.
+     *
+     * @param player the player as the owner of the settlement.
+     * @param tile   the tile of the settlement.
+     * @return the size of the group or zero if the tile does not contain a settlement of the player.
+     */
+    public int getGroupSize(Player player, Tile tile) {
+        SettlementGroups groups = groupsOf(player);
+        int index = indexOf(tile);
+
+        return groups.contains(index) ? groups.sizeOf(index) : 0;
+    }
+
+    /**
+     * Gets the amount of groups of settlements of the player.
+     *
+     * @param player the player as the owner of the settlements.
+     * @return the amount of groups.
+     */
+    public int getGroupCount(Player player) {
+        return groupsOf(player).groupCount();
+    }
+
+    /**
+     * Gets the amount of settlements in the biggest group of settlements of the player.
+     *
+     * @param player the player as the owner of the settlements.
+     * @return the size of the biggest group.
+     */
+    public int getBiggestGroupSize(Player player) {
+        return groupsOf(player).biggestGroupSize();
+    }
+
+    /**
+     * Gets all special places next to the group of the settlement on the tile.
+     *
+     * @param player the player as the owner of the settlement.
+     * @param tile   the tile of the settlement.
+     * @return the special places next to the group or an empty set if the tile does not contain a settlement of
+     * the player.
+     */
+    public Set<Tile> getSpecialPlacesOfGroup(Player player, Tile tile) {
+        SettlementGroups groups = groupsOf(player);
+        int index = indexOf(tile);
+
+        if (!groups.contains(index))
+            return Set.of();
+
+        return groups.specialsOf(index)
+                .mapToObj(special -> tiles[specialPlaceIndices[special]])
+                .collect(Collectors.toSet());
     }
 
     /**
@@ -700,8 +1625,7 @@ public class GameMap implements Iterable<Tile> {
     public int fewestSettlementsInAllQuadrants(Player player) {
         return Arrays
                 .stream(Quadrants.values())
-                .map(q -> getSettlementsOfQuadrant(player, q).count())
-                .mapToInt(Math::toIntExact)
+                .mapToInt(q -> countSettlementsOfQuadrant(player, q))
                 .min()
                 .orElseThrow(NoSuchElementException::new);
     }
@@ -719,7 +1643,7 @@ public class GameMap implements Iterable<Tile> {
         int[] countsOfSettlements = new int[players.size()];
 
         for (int i = 0; i < players.size(); i++) {
-            countsOfSettlements[i] = (int) getSettlementsOfQuadrant(players.get(i), quadrant).count();
+            countsOfSettlements[i] = countSettlementsOfQuadrant(players.get(i), quadrant);
             countsOfPlayers.put(players.get(i), countsOfSettlements[i]);
         }
 
@@ -743,15 +1667,6 @@ public class GameMap implements Iterable<Tile> {
      * @return the count of special places connected by settlements of the player.
      */
     public long connectedSpecialPlaces(Player player) {
-        return specialPlaces
-                .stream()
-                .filter(t -> t.surroundingTiles(this).anyMatch(p -> p.occupiedBy == player))
-                .map(t -> getSurroundingGroups(player, t))
-                .flatMap(Collection::stream)
-                .map(this::getSpecialPlacesOfGroup)
-                .filter(t -> t.size() >= 2)
-                .flatMap(Set::stream)
-                .distinct()
-                .count();
+        return groupsOf(player).connectedSpecialPlaces();
     }
 }
\ No newline at end of file
@@ -0,0 +1,387 @@
+package kingdomBuilder.gamelogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Searches the basic placements of a turn with Monte Carlo Tree Search. The tree contains the placements of the
+ * current turn of the AI, every iteration then plays a few rounds of random turns for all players, including the
+ * opponents, with terrain cards drawn from the cards that are left in the deck. The result of the random turns
+ * decides how promising the placements are.
+ * <p>
+ * Every tree is searched on its own copy of the map, so that several trees can be searched in parallel and merged
+ * with {@link #bestPlacements(List)} afterwards. The random turns ignore tokens to keep them fast.
+ */
+final class MonteCarloSearch {
+
+    /**
+     * Represents the weight of the exploration in the selection of the children of a node.
+     */
+    static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * Represents the amount of rounds of random turns after the turn of the AI.
+     */
+    static final int ROLLOUT_ROUNDS = 2;
+
+    /**
+     * Represents the difference of scores that is rewarded with roughly three quarters of a win.
+     */
+    static final double SCORE_SCALE = 10.0;
+
+    /**
+     * Represents the amount of cards of every terrain in the deck.
+     */
+    static final int CARDS_PER_TERRAIN = 5;
+
+    /**
+     * Represents the terrains of the terrain cards.
+     */
+    private static final TileType[] TERRAINS = TileType.placeableTileTypes.toArray(new TileType[0]);
+
+    /**
+     * Represents the map of the game. It is not changed by the search.
+     */
+    private final GameMap gameMap;
+
+    /**
+     * Represents the player that the AI controls.
+     */
+    private final Player aiPlayer;
+
+    /**
+     * Represents all players in the order of their turns, starting with the player after the AI.
+     */
+    private final List<Player> turnOrder;
+
+    /**
+     * Represents the win conditions of the game.
+     */
+    private final List<WinCondition> winConditions;
+
+    /**
+     * Represents the amount of cards of every terrain that are left in the deck, indexed like {@link #TERRAINS}.
+     */
+    private final int[] remainingCards;
+
+    /**
+     * Represents the terrain card of the turn of the AI.
+     */
+    private final TileType terrain;
+
+    /**
+     * Represents the amount of basic placements of the turn of the AI.
+     */
+    private final int placements;
+
+    /**
+     * Represents a node of the tree. Every node except the root is a placement of the AI.
+     */
+    static final class Node {
+
+        /**
+         * Represents the index of the tile of the placement or -1 for the root.
+         */
+        final int tile;
+
+        /**
+         * Represents the children of the node that were already expanded.
+         */
+        final List<Node> children = new ArrayList<>();
+
+        /**
+         * Represents the placements that were not expanded yet or null if they were not collected yet.
+         */
+        int[] untried;
+
+        /**
+         * Represents the amount of placements at the start of {@link #untried} that were not expanded yet.
+         */
+        int untriedCount;
+
+        /**
+         * Represents how often the node was visited.
+         */
+        int visits;
+
+        /**
+         * Represents the sum of the rewards of all visits.
+         */
+        double reward;
+
+        /**
+         * Creates a node for a placement.
+         *
+         * @param tile the index of the tile of the placement or -1 for the root.
+         */
+        Node(int tile) {
+            this.tile = tile;
+        }
+
+        /**
+         * Gets the child with the best upper confidence bound.
+         *
+         * @return the child to visit next.
+         */
+        Node select() {
+            double logVisits = Math.log(visits);
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+
+            for (Node child : children) {
+                double value = child.reward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Creates the search for the turn of the AI.
+     *
+     * @param gameMap       the map of the game.
+     * @param aiPlayer      the player that the AI controls.
+     * @param players       all players of the game in the order of their turns or null if they are unknown.
+     * @param winConditions the win conditions of the game.
+     * @param playedCards   the amount of cards of every terrain that were played since the deck was shuffled.
+     */
+    MonteCarloSearch(GameMap gameMap,
+                     Player aiPlayer,
+                     List<Player> players,
+                     List<WinCondition> winConditions,
+                     Map<TileType, Integer> playedCards) {
+
+        this.gameMap = gameMap;
+        this.aiPlayer = aiPlayer;
+        this.winConditions = winConditions;
+        this.terrain = aiPlayer.getTerrainCard();
+        this.placements = Math.min(aiPlayer.remainingSettlementsOfTurn, aiPlayer.getRemainingSettlements());
+
+        // the turns continue with the player after the AI and end with the AI.
+        turnOrder = new ArrayList<>();
+        int aiIndex = (players == null) ? -1 : players.indexOf(aiPlayer);
+        if (aiIndex >= 0) {
+            for (int i = 1; i <= players.size(); i++)
+                turnOrder.add(players.get((aiIndex + i) % players.size()));
+        } else {
+            if (players != null)
+                turnOrder.addAll(players);
+            turnOrder.add(aiPlayer);
+        }
+
+        remainingCards = new int[TERRAINS.length];
+        for (int i = 0; i < TERRAINS.length; i++)
+            remainingCards[i] = Math.max(0, CARDS_PER_TERRAIN - playedCards.getOrDefault(TERRAINS[i], 0));
+    }
+
+    /**
+     * Searches a tree on its own copy of the map until either the amount of iterations or the deadline is reached.
+     *
+     * @param seed       the seed of the random turns.
+     * @param iterations the maximum amount of iterations.
+     * @param deadline   the value of {@link System#nanoTime()} at which the search stops.
+     * @return the root of the tree.
+     */
+    Node search(long seed, int iterations, long deadline) {
+        GameMap map = new GameMap(gameMap);
+        ScoreEvaluator evaluator = map.getScoreEvaluator(turnOrder);
+        SplittableRandom random = new SplittableRandom(seed);
+        BitBoard placeable = new BitBoard(map.size());
+        int[] remainingSettlements = new int[turnOrder.size()];
+        int[] cards = new int[remainingCards.length];
+        List<Node> path = new ArrayList<>(placements + 1);
+
+        Node root = new Node(-1);
+
+        for (int iteration = 0; iteration < iterations && System.nanoTime() - deadline < 0; iteration++) {
+            int mark = map.mark();
+            path.clear();
+            path.add(root);
+
+            // selection and expansion of the placements of the AI
+            Node node = root;
+            while (path.size() <= placements) {
+                if (node.untried == null) {
+                    node.untried = map.placeableTiles(aiPlayer, terrain, placeable).stream().toArray();
+                    node.untriedCount = node.untried.length;
+                }
+
+                Node next;
+                if (node.untriedCount > 0) {
+                    int pick = random.nextInt(node.untriedCount);
+                    next = new Node(node.untried[pick]);
+                    node.untried[pick] = node.untried[--node.untriedCount];
+                    node.children.add(next);
+                } else if (!node.children.isEmpty()) {
+                    next = node.select();
+                } else {
+                    break;
+                }
+
+                map.at(next.tile).placeSettlement(aiPlayer);
+                path.add(next);
+                node = next;
+
+                if (next.visits == 0)
+                    break;
+            }
+
+            // random turns of all players
+            for (int i = 0; i < turnOrder.size(); i++)
+                remainingSettlements[i] = turnOrder.get(i).getRemainingSettlements();
+            remainingSettlements[turnOrder.size() - 1] -= path.size() - 1;
+
+            // the turn of the AI is finished randomly if the tree does not reach its end yet.
+            remainingSettlements[turnOrder.size() - 1] -= randomTurn(map, aiPlayer, terrain,
+                    placements - (path.size() - 1), random, placeable);
+
+            System.arraycopy(remainingCards, 0, cards, 0, cards.length);
+            for (int round = 0; round < ROLLOUT_ROUNDS; round++) {
+                for (int i = 0; i < turnOrder.size(); i++) {
+                    int settlements = Math.min(remainingSettlements[i], Game.SETTLEMENTS_PER_TURN);
+                    remainingSettlements[i] -= randomTurn(map, turnOrder.get(i), drawCard(cards, random),
+                            settlements, random, placeable);
+                }
+            }
+
+            double reward = reward(evaluator);
+            map.rollback(mark);
+
+            for (Node visited : path) {
+                visited.visits++;
+                visited.reward += reward;
+            }
+        }
+
+        evaluator.detach();
+        return root;
+    }
+
+    /**
+     * Places settlements of a player on random placeable tiles.
+     *
+     * @param map         the map to place on.
+     * @param player      the player who places.
+     * @param terrain     the terrain card of the turn.
+     * @param settlements the amount of settlements to place.
+     * @param random      the source of randomness.
+     * @param placeable   the board that is used to collect the placeable tiles.
+     * @return the amount of settlements that were placed.
+     */
+    private static int randomTurn(GameMap map,
+                                   Player player,
+                                   TileType terrain,
+                                   int settlements,
+                                   SplittableRandom random,
+                                   BitBoard placeable) {
+
+        for (int i = 0; i < settlements; i++) {
+            map.placeableTiles(player, terrain, placeable);
+
+            int count = placeable.cardinality();
+            if (count == 0)
+                return i;
+
+            int tile = placeable.nextSetBit(0);
+            for (int skip = random.nextInt(count); skip > 0; skip--)
+                tile = placeable.nextSetBit(tile + 1);
+
+            map.at(tile).placeSettlement(player);
+        }
+        return Math.max(settlements, 0);
+    }
+
+    /**
+     * Draws a random terrain card from the deck. The deck is shuffled again when it is empty.
+     *
+     * @param cards  the amount of cards of every terrain that are left in the deck.
+     * @param random the source of randomness.
+     * @return the terrain of the drawn card.
+     */
+    private static TileType drawCard(int[] cards, SplittableRandom random) {
+        int total = 0;
+        for (int count : cards)
+            total += count;
+
+        if (total == 0) {
+            Arrays.fill(cards, CARDS_PER_TERRAIN);
+            total = CARDS_PER_TERRAIN * cards.length;
+        }
+
+        int pick = random.nextInt(total);
+        for (int i = 0; i < cards.length; i++) {
+            pick -= cards[i];
+            if (pick < 0) {
+                cards[i]--;
+                return TERRAINS[i];
+            }
+        }
+        throw new IllegalStateException("The deck is empty!");
+    }
+
+    /**
+     * Calculates the reward of the current state of the map for the AI. The reward grows with the lead of the AI
+     * over the best opponent and lies between zero and one.
+     *
+     * @param evaluator the evaluator of the map.
+     * @return the reward of the state.
+     */
+    private double reward(ScoreEvaluator evaluator) {
+        int own = evaluator.score(aiPlayer, winConditions);
+        int bestOpponent = Integer.MIN_VALUE;
+
+        for (Player player : turnOrder)
+            if (player != aiPlayer)
+                bestOpponent = Math.max(bestOpponent, evaluator.score(player, winConditions));
+
+        // without opponents the score itself is rewarded.
+        int lead = (bestOpponent == Integer.MIN_VALUE) ? own : own - bestOpponent;
+        return 1.0 / (1.0 + Math.exp(-lead / SCORE_SCALE));
+    }
+
+    /**
+     * Merges the trees of several searches and follows the placements that were visited most often.
+     *
+     * @param roots the roots of the trees.
+     * @return the indices of the tiles of the best placements in the order they are made.
+     */
+    static List<Integer> bestPlacements(List<Node> roots) {
+        List<Integer> best = new ArrayList<>();
+        List<Node> level = roots;
+
+        while (true) {
+            // sum the visits of every placement over all trees, ties are broken by the index of the tile.
+            Map<Integer, Integer> visits = new TreeMap<>();
+            for (Node node : level)
+                for (Node child : node.children)
+                    visits.merge(child.tile, child.visits, Integer::sum);
+
+            if (visits.isEmpty())
+                return best;
+
+            int tile = -1;
+            int mostVisits = -1;
+            for (Map.Entry<Integer, Integer> entry : visits.entrySet()) {
+                if (entry.getValue() > mostVisits) {
+                    tile = entry.getKey();
+                    mostVisits = entry.getValue();
+                }
+            }
+            best.add(tile);
+
+            List<Node> next = new ArrayList<>(level.size());
+            for (Node node : level)
+                for (Node child : node.children)
+                    if (child.tile == tile)
+                        next.add(child);
+            level = next;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package kingdomBuilder.gamelogic;
+
+import java.util.Arrays;
+
+/**
+ * Generates the legal moves of a player, which are the placements of the basic turn and the uses of all eight
+ * tokens. The moves are written into a reusable buffer of packed ints, so that a search can enumerate them without
+ * allocating tiles, streams or {@link ClientTurn} objects. A packed move holds the {@link ClientTurn.TurnType},
+ * the index of the tile the move starts at and, for harbor, paddock and barn, the index of the tile the settlement
+ * is moved to. The moves are ordered by their turn type, then by the tile they start at and then by their target.
+ * <br><br>
+ * A generator is not thread safe, every search thread needs its own one.
+ */
+public final class MoveGenerator {
+
+    /**
+     * Represents the amount of bits of a tile index of a packed move.
+     */
+    private static final int INDEX_BITS = 14;
+
+    /**
+     * Represents the mask of a tile index of a packed move.
+     */
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    /**
+     * Represents the shift of the turn type of a packed move.
+     */
+    private static final int TYPE_SHIFT = 2 * INDEX_BITS;
+
+    /**
+     * Represents the index of the target of a packed move that only places a settlement.
+     */
+    public static final int NONE = INDEX_MASK;
+
+    /**
+     * Represents the capacity of the buffer of a new generator, which holds the moves of a usual turn.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Represents the turn types, indexed by their ordinal.
+     */
+    private static final ClientTurn.TurnType[] TURN_TYPES = ClientTurn.TurnType.values();
+
+    /**
+     * Represents the generated moves.
+     */
+    private int[] moves;
+
+    /**
+     * Represents the amount of generated moves.
+     */
+    private int size;
+
+    /**
+     * Represents the board the sources of the moves are collected in.
+     */
+    private BitBoard sources;
+
+    /**
+     * Represents the board the targets of the moves are collected in.
+     */
+    private BitBoard targets;
+
+    /**
+     * Represents the board of the tiles that are placeable with the terrain card of the player, which is shared by
+     * the basic turn, the oracle and the barn.
+     */
+    private BitBoard terrainCardTargets;
+
+    /**
+     * Represents whether {@link #terrainCardTargets} is computed for the current generation.
+     */
+    private boolean terrainCardTargetsValid;
+
+    /**
+     * Creates a new generator with the default capacity.
+     */
+    public MoveGenerator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new generator.
+     *
+     * @param capacity the amount of moves the buffer holds before it has to grow.
+     */
+    public MoveGenerator(int capacity) {
+        this.moves = new int[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    /**
+     * Packs a move into an int.
+     *
+     * @param type the type of the move.
+     * @param from the index of the tile the move starts at.
+     * @param to   the index of the tile the settlement is moved to or {@link #NONE}.
+     * @return the packed move.
+     */
+    public static int pack(ClientTurn.TurnType type, int from, int to) {
+        return (type.ordinal() << TYPE_SHIFT) | (from << INDEX_BITS) | to;
+    }
+
+    /**
+     * Gets the type of a packed move.
+     *
+     * @param move the packed move.
+     * @return the type of the move.
+     */
+    public static ClientTurn.TurnType typeOf(int move) {
+        return TURN_TYPES[move >>> TYPE_SHIFT];
+    }
+
+    /**
+     * Gets the index of the tile a packed move starts at.
+     *
+     * @param move the packed move.
+     * @return the index of the tile the settlement is placed on or moved from.
+     */
+    public static int fromOf(int move) {
+        return (move >>> INDEX_BITS) & INDEX_MASK;
+    }
+
+    /**
+     * Gets the index of the tile a packed move moves a settlement to.
+     *
+     * @param move the packed move.
+     * @return the index of the target or {@link #NONE} if the move only places a settlement.
+     */
+    public static int toOf(int move) {
+        return move & INDEX_MASK;
+    }
+
+    /**
+     * Unpacks a move into a turn of the player.
+     *
+     * @param gameMap  the map the move was generated for.
+     * @param playerId the id of the player who makes the turn.
+     * @param move     the packed move.
+     * @return the turn of the move.
+     */
+    public static ClientTurn toClientTurn(GameMap gameMap, int playerId, int move) {
+        Tile from = gameMap.at(fromOf(move));
+        int to = toOf(move);
+        if (to == NONE)
+            return new ClientTurn(playerId, typeOf(move), from.x, from.y, -1, -1);
+
+        Tile target = gameMap.at(to);
+        return new ClientTurn(playerId, typeOf(move), from.x, from.y, target.x, target.y);
+    }
+
+    /**
+     * Checks whether the player may make moves of the given type at all, regardless of the map.
+     *
+     * @param player the player.
+     * @param type   the type of the moves.
+     * @return true if the player may make moves of the type. False otherwise.
+     */
+    public static boolean isAvailable(Player player, ClientTurn.TurnType type) {
+        return switch (type) {
+            case PLACE -> player.remainingSettlementsOfTurn > 0;
+            case ORACLE, FARM, TAVERN, TOWER, OASIS -> player.getRemainingSettlements() > 0
+                    && player.getCurrentTurnState() != TurnState.BASIC_TURN
+                    && player.playerHasTokenLeft(TileType.valueOf(type.name()));
+            case HARBOR, PADDOCK, BARN -> player.getCurrentTurnState() != TurnState.BASIC_TURN
+                    && player.playerHasTokenLeft(TileType.valueOf(type.name()));
+        };
+    }
+
+    /**
+     * Checks whether moves of the given type move a settlement instead of placing one.
+     *
+     * @param type the type of the moves.
+     * @return true if the moves have a target. False otherwise.
+     */
+    public static boolean isMove(ClientTurn.TurnType type) {
+        return type == ClientTurn.TurnType.HARBOR
+                || type == ClientTurn.TurnType.PADDOCK
+                || type == ClientTurn.TurnType.BARN;
+    }
+
+    /**
+     * Writes the tiles where moves of the given type start into the result. These are the settlements of the player
+     * for harbor, paddock and barn and the tiles a settlement can be placed on otherwise. The availability of the
+     * type is not checked, see {@link #isAvailable}.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @param type    the type of the moves.
+     * @param result  the board to write the tiles into.
+     * @return the result.
+     */
+    public static BitBoard sources(GameMap gameMap, Player player, ClientTurn.TurnType type, BitBoard result) {
+        return isMove(type) ? gameMap.settlements(player, result) : targets(gameMap, player, type, NONE, result);
+    }
+
+    /**
+     * Writes the tiles a settlement can be placed on or moved to with a move of the given type into the result.
+     * The availability of the type is not checked, see {@link #isAvailable}.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @param type    the type of the moves.
+     * @param from    the index of the settlement that is moved by a paddock, which is ignored by the other types.
+     * @param result  the board to write the tiles into.
+     * @return the result.
+     */
+    public static BitBoard targets(GameMap gameMap, Player player, ClientTurn.TurnType type, int from,
+                                   BitBoard result) {
+        return switch (type) {
+            case PLACE, ORACLE, BARN -> gameMap.placeableTiles(player, player.getTerrainCard(), result);
+            case FARM -> gameMap.placeableTiles(player, TileType.GRAS, result);
+            case OASIS -> gameMap.placeableTiles(player, TileType.DESERT, result);
+            case TOWER -> gameMap.placeableTilesAtBorder(player, result);
+            case HARBOR -> gameMap.unoccupiedTiles(player, TileType.WATER, result);
+            case TAVERN -> tavernTargets(gameMap, player, result);
+            case PADDOCK -> paddockTargets(gameMap, from, result);
+        };
+    }
+
+    /**
+     * Writes the free tiles at the end of a chain of three settlements of the player into the result.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @param result  the board to write the tiles into.
+     * @return the result.
+     */
+    private static BitBoard tavernTargets(GameMap gameMap, Player player, BitBoard result) {
+        return gameMap.chainEnds(player, Tile.CHAIN_LENGTH, result);
+    }
+
+    /**
+     * Writes the free tiles that are two tiles away from the given tile in a straight line into the result.
+     *
+     * @param gameMap the map.
+     * @param from    the index of the tile.
+     * @param result  the board to write the tiles into.
+     * @return the result.
+     */
+    private static BitBoard paddockTargets(GameMap gameMap, int from, BitBoard result) {
+        result.clear();
+        if (from == NONE)
+            return result;
+
+        NeighbourTable table = gameMap.neighbourTable;
+        for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+            int jump = table.jump(from, direction);
+            if (jump != NeighbourTable.NONE && !gameMap.at(jump).isBlocked())
+                result.set(jump);
+        }
+        return result;
+    }
+
+    /**
+     * Generates all legal moves of the player of every type.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @return the amount of generated moves.
+     */
+    public int generate(GameMap gameMap, Player player) {
+        reset(gameMap);
+        for (ClientTurn.TurnType type : TURN_TYPES) {
+            if (isAvailable(player, type))
+                addMoves(gameMap, player, type);
+        }
+        return size;
+    }
+
+    /**
+     * Generates all legal moves of the player of the given type.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @param type    the type of the moves.
+     * @return the amount of generated moves.
+     */
+    public int generate(GameMap gameMap, Player player, ClientTurn.TurnType type) {
+        reset(gameMap);
+        if (isAvailable(player, type))
+            addMoves(gameMap, player, type);
+        return size;
+    }
+
+    /**
+     * Generates the placements of a basic turn of the player on the given terrain, regardless of the state of the
+     * turn of the player. This is used by searches, which look at turns with other terrain cards.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @param terrain the terrain of the placements.
+     * @return the amount of generated moves.
+     */
+    public int generatePlacements(GameMap gameMap, Player player, TileType terrain) {
+        reset(gameMap);
+        addTargets(ClientTurn.TurnType.PLACE, gameMap.placeableTiles(player, terrain, targets));
+        return size;
+    }
+
+    /**
+     * Gets the amount of generated moves.
+     *
+     * @return the amount of moves of the last generation.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a generated move.
+     *
+     * @param index the index of the move, which is less than {@link #size()}.
+     * @return the packed move.
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Copies the generated moves, so that they survive the next generation.
+     *
+     * @return the packed moves of the last generation.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * Clears the buffer and prepares the boards for the given map.
+     *
+     * @param gameMap the map of the next generation.
+     */
+    private void reset(GameMap gameMap) {
+        size = 0;
+        terrainCardTargetsValid = false;
+
+        if (targets == null || targets.size != gameMap.size()) {
+            sources = new BitBoard(gameMap.size());
+            targets = new BitBoard(gameMap.size());
+            terrainCardTargets = new BitBoard(gameMap.size());
+        }
+    }
+
+    /**
+     * Adds all moves of the given type, whose availability was checked already.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @param type    the type of the moves.
+     */
+    private void addMoves(GameMap gameMap, Player player, ClientTurn.TurnType type) {
+        if (!isMove(type)) {
+            addTargets(type, targetsOf(gameMap, player, type));
+            return;
+        }
+
+        gameMap.settlements(player, sources);
+        // the targets of the harbor and the barn do not depend on the moved settlement.
+        BitBoard shared = (type == ClientTurn.TurnType.PADDOCK) ? null : targetsOf(gameMap, player, type);
+
+        for (int from = sources.nextSetBit(0); from >= 0; from = sources.nextSetBit(from + 1)) {
+            BitBoard board = (shared != null) ? shared : paddockTargets(gameMap, from, targets);
+            for (int to = board.nextSetBit(0); to >= 0; to = board.nextSetBit(to + 1))
+                add(pack(type, from, to));
+        }
+    }
+
+    /**
+     * Computes the targets of a type that does not depend on the moved settlement, reusing the tiles of the terrain
+     * card if they were computed for another type already.
+     *
+     * @param gameMap the map.
+     * @param player  the player.
+     * @param type    the type of the moves.
+     * @return the board of the targets.
+     */
+    private BitBoard targetsOf(GameMap gameMap, Player player, ClientTurn.TurnType type) {
+        if (type != ClientTurn.TurnType.PLACE && type != ClientTurn.TurnType.ORACLE && type != ClientTurn.TurnType.BARN)
+            return targets(gameMap, player, type, NONE, targets);
+
+        if (!terrainCardTargetsValid) {
+            gameMap.placeableTiles(player, player.getTerrainCard(), terrainCardTargets);
+            terrainCardTargetsValid = true;
+        }
+        return terrainCardTargets;
+    }
+
+    /**
+     * Adds a move that only places a settlement for every tile of the board.
+     *
+     * @param type  the type of the moves.
+     * @param board the board of the tiles.
+     */
+    private void addTargets(ClientTurn.TurnType type, BitBoard board) {
+        for (int index = board.nextSetBit(0); index >= 0; index = board.nextSetBit(index + 1))
+            add(pack(type, index, NONE));
+    }
+
+    /**
+     * Adds a move to the buffer and grows it if necessary.
+     *
+     * @param move the packed move.
+     */
+    private void add(int move) {
+        if (size == moves.length)
+            moves = Arrays.copyOf(moves, 2 * moves.length);
+        moves[size++] = move;
+    }
+}
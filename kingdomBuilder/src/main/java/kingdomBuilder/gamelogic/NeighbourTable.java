@@ -0,0 +1,180 @@
+package kingdomBuilder.gamelogic;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contains the precomputed indices of the neighbours of every tile for maps of a specific width.
+ * The tables are built once per map width and shared by all maps of that width.
+ */
+final class NeighbourTable {
+
+    /**
+     * Represents the direction to the top left neighbour.
+     */
+    static final int TOP_LEFT = 0;
+
+    /**
+     * Represents the direction to the top right neighbour.
+     */
+    static final int TOP_RIGHT = 1;
+
+    /**
+     * Represents the direction to the left neighbour.
+     */
+    static final int LEFT = 2;
+
+    /**
+     * Represents the direction to the right neighbour.
+     */
+    static final int RIGHT = 3;
+
+    /**
+     * Represents the direction to the bottom left neighbour.
+     */
+    static final int BOTTOM_LEFT = 4;
+
+    /**
+     * Represents the direction to the bottom right neighbour.
+     */
+    static final int BOTTOM_RIGHT = 5;
+
+    /**
+     * Represents the amount of directions of a hexagon.
+     */
+    static final int DIRECTIONS = 6;
+
+    /**
+     * Represents the value of a neighbour that lies outside the map.
+     */
+    static final int NONE = -1;
+
+    /**
+     * The tables that were already built, keyed by the width of the map.
+     */
+    private static final Map<Integer, NeighbourTable> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Represents the width of the map.
+     */
+    final int mapWidth;
+
+    /**
+     * Represents the index of the neighbour of every tile in every direction, stored as
+     * {@code index * DIRECTIONS + direction}.
+     */
+    private final int[] neighbours;
+
+    /**
+     * Represents the index of the tile two steps away from every tile in every direction, stored as
+     * {@code index * DIRECTIONS + direction}.
+     */
+    private final int[] jumps;
+
+    /**
+     * Creates the tables for a map with the given width.
+     *
+     * @param mapWidth the width of the map.
+     */
+    private NeighbourTable(int mapWidth) {
+        this.mapWidth = mapWidth;
+
+        int size = mapWidth * mapWidth;
+        neighbours = new int[size * DIRECTIONS];
+        jumps = new int[size * DIRECTIONS];
+
+        for (int y = 0; y < mapWidth; y++) {
+            for (int x = 0; x < mapWidth; x++) {
+                int index = GameMap.to1DIndex(x, y, mapWidth);
+
+                neighbours[index * DIRECTIONS + TOP_LEFT] = indexAt(GameMap.topLeftX(x, y), y - 1);
+                neighbours[index * DIRECTIONS + TOP_RIGHT] = indexAt(GameMap.topRightX(x, y), y - 1);
+                neighbours[index * DIRECTIONS + LEFT] = indexAt(x - 1, y);
+                neighbours[index * DIRECTIONS + RIGHT] = indexAt(x + 1, y);
+                neighbours[index * DIRECTIONS + BOTTOM_LEFT] = indexAt(GameMap.bottomLeftX(x, y), y + 1);
+                neighbours[index * DIRECTIONS + BOTTOM_RIGHT] = indexAt(GameMap.bottomRightX(x, y), y + 1);
+
+                jumps[index * DIRECTIONS + TOP_LEFT] = indexAt(GameMap.topLeftX(x, y, 2), y - 2);
+                jumps[index * DIRECTIONS + TOP_RIGHT] = indexAt(GameMap.topRightX(x, y, 2), y - 2);
+                jumps[index * DIRECTIONS + LEFT] = indexAt(x - 2, y);
+                jumps[index * DIRECTIONS + RIGHT] = indexAt(x + 2, y);
+                jumps[index * DIRECTIONS + BOTTOM_LEFT] = indexAt(GameMap.bottomLeftX(x, y, 2), y + 2);
+                jumps[index * DIRECTIONS + BOTTOM_RIGHT] = indexAt(GameMap.bottomRightX(x, y, 2), y + 2);
+            }
+        }
+    }
+
+    /**
+     * Gets the table for maps of the given width.
+     *
+     * @param mapWidth the width of the map.
+     * @return the table for maps of the given width.
+     */
+    static NeighbourTable of(int mapWidth) {
+        return cache.computeIfAbsent(mapWidth, NeighbourTable::new);
+    }
+
+    /**
+     * Gets the index of the given coordinates or NONE if they are outside the map.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @return the index of the coordinates or NONE.
+     */
+    private int indexAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= mapWidth || y >= mapWidth)
+            return NONE;
+
+        return GameMap.to1DIndex(x, y, mapWidth);
+    }
+
+    /**
+     * Gets the index of the neighbour of a tile in the given direction.
+     *
+     * @param index     the index of the tile.
+     * @param direction the direction of the neighbour.
+     * @return the index of the neighbour or NONE if it lies outside the map.
+     */
+    int neighbour(int index, int direction) {
+        return neighbours[index * DIRECTIONS + direction];
+    }
+
+    /**
+     * Gets the index of the tile two steps away from a tile in the given direction.
+     *
+     * @param index     the index of the tile.
+     * @param direction the direction of the jump.
+     * @return the index of the tile or NONE if it lies outside the map.
+     */
+    int jump(int index, int direction) {
+        return jumps[index * DIRECTIONS + direction];
+    }
+
+    /**
+     * Gets the index of the tile at the given distance from a tile in the given direction.
+     *
+     * @param index     the index of the tile.
+     * @param direction the direction of the line.
+     * @param distance  the distance from the tile.
+     * @return the index of the tile or NONE if it lies outside the map.
+     */
+    int step(int index, int direction, int distance) {
+        for (; distance >= 2 && index != NONE; distance -= 2)
+            index = jump(index, direction);
+
+        if (distance == 1 && index != NONE)
+            index = neighbour(index, direction);
+
+        return index;
+    }
+
+    /**
+     * Gets the direction that points the opposite way of the given direction.
+     *
+     * @param direction the direction.
+     * @return the opposite direction.
+     */
+    static int opposite(int direction) {
+        return DIRECTIONS - 1 - direction;
+    }
+}
@@ -100,6 +100,28 @@ public class Player {
         TileType.tokenType.forEach(tileType -> tokens.put(tileType, new Token()));
     }
 
+    /**
+     * Creates a copy of a player with the same tokens and the same state of the turn.
+     *
+     * @param player the player to copy.
+     */
+    public Player(Player player) {
+        this.ID = player.ID;
+        this.name = player.name;
+        this.color = player.color;
+        this.remainingSettlements = player.remainingSettlements;
+        this.terrainCard = player.terrainCard;
+        this.remainingSettlementsOfTurn = player.remainingSettlementsOfTurn;
+        this.currentTurnState = player.currentTurnState;
+        this.tokens = new HashMap<>(TileType.tokenType.size());
+        player.tokens.forEach((tileType, token) -> {
+            Token copy = new Token();
+            copy.originTiles.addAll(token.originTiles);
+            copy.remaining = token.remaining;
+            tokens.put(tileType, copy);
+        });
+    }
+
     /**
      * Updates the information for the player at the start of a turn.
      */
@@ -133,6 +155,9 @@ public class Player {
         if (originTile.hasTokens() && !token.originTiles.contains(originTile)) {
             token.originTiles.add(originTile);
             originTile.takeTokenFromSpecialPlace();
+
+            if (originTile.containingMap != null)
+                originTile.containingMap.onTokenOwnerChanged(originTile, this);
         }
     }
 
@@ -161,8 +186,8 @@ public class Player {
 
         Token token = tokens.get(originTile.tileType);
 
-
-        token.originTiles.remove(originTile);
+        if (token.originTiles.remove(originTile) && originTile.containingMap != null)
+            originTile.containingMap.onTokenOwnerChanged(originTile, this);
     }
 
     /**
@@ -0,0 +1,350 @@
+package kingdomBuilder.gamelogic;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates the scores of the players of a map incrementally. The evaluator is attached to a map and updates its
+ * counters every time a settlement is placed, removed or moved, so that reading a score does not have to walk the
+ * map. The scores are the same as the ones calculated by {@link Game#calculateScore(GameMap, Player, List, List)}.
+ */
+public final class ScoreEvaluator {
+
+    /**
+     * Represents the points for every castle next to a settlement of the player.
+     */
+    private static final int CASTLE_POINTS = 3;
+
+    /**
+     * Represents the map the evaluator is attached to.
+     */
+    private final GameMap gameMap;
+
+    /**
+     * Represents the players of the game.
+     */
+    private final List<Player> players;
+
+    /**
+     * Represents the counters of every player.
+     */
+    private final Map<Player, PlayerScore> scores = new IdentityHashMap<>();
+
+    /**
+     * Represents the amount of special places next to every tile.
+     */
+    private final int[] specialNeighbours;
+
+    /**
+     * Represents the tiles that score for the win condition "fisher" if they contain a settlement.
+     */
+    private final BitBoard fisherTiles;
+
+    /**
+     * Represents the tiles that score for the win condition "miner" if they contain a settlement.
+     */
+    private final BitBoard minerTiles;
+
+    /**
+     * Represents the castles of the map.
+     */
+    private final BitBoard castles;
+
+    /**
+     * Contains the counters of a single player.
+     */
+    private final class PlayerScore {
+
+        /**
+         * Represents the groups of settlements of the player, which are maintained by the map while the evaluator
+         * is attached and copied when it is detached.
+         */
+        SettlementGroups groups;
+
+        /**
+         * Represents the amount of settlements in every row.
+         */
+        final int[] rowCounts = new int[gameMap.mapWidth];
+
+        /**
+         * Represents how many rows contain a specific amount of settlements, indexed by the amount.
+         */
+        final int[] rowsWithCount = new int[gameMap.size() + 1];
+
+        /**
+         * Represents the amount of settlements in every quadrant.
+         */
+        final int[] quadrantCounts = new int[Quadrants.values().length];
+
+        /**
+         * Represents the amount of settlements next to every castle, indexed by the index of the castle tile.
+         */
+        final int[] castleNeighbours = new int[gameMap.size()];
+
+        /**
+         * Represents the amount of castles next to at least one settlement.
+         */
+        int castles = 0;
+
+        /**
+         * Represents the amount of rows with at least one settlement.
+         */
+        int occupiedRows = 0;
+
+        /**
+         * Represents the amount of settlements in the row with the most settlements.
+         */
+        int fullestRow = 0;
+
+        /**
+         * Represents the score of the win condition "worker".
+         */
+        int worker = 0;
+
+        /**
+         * Represents the score of the win condition "fisher".
+         */
+        int fisher = 0;
+
+        /**
+         * Represents the score of the win condition "miner".
+         */
+        int miner = 0;
+
+        /**
+         * Creates the counters of a player.
+         *
+         * @param player the player.
+         */
+        PlayerScore(Player player) {
+            groups = gameMap.groupsOf(player);
+            rowsWithCount[0] = gameMap.mapWidth;
+        }
+
+        /**
+         * Updates the counters after a settlement was placed or removed.
+         *
+         * @param index the index of the tile of the settlement.
+         * @param delta one if the settlement was placed, minus one if it was removed.
+         */
+        void update(int index, int delta) {
+            Tile tile = gameMap.at(index);
+
+            int row = tile.y;
+            rowsWithCount[rowCounts[row]]--;
+            rowCounts[row] += delta;
+            rowsWithCount[rowCounts[row]]++;
+
+            if (rowCounts[row] > fullestRow)
+                fullestRow = rowCounts[row];
+            while (fullestRow > 0 && rowsWithCount[fullestRow] == 0)
+                fullestRow--;
+
+            if (delta > 0 && rowCounts[row] == 1)
+                occupiedRows++;
+            else if (delta < 0 && rowCounts[row] == 0)
+                occupiedRows--;
+
+            quadrantCounts[tile.quadrant.ordinal()] += delta;
+
+            worker += delta * specialNeighbours[index];
+            if (fisherTiles.get(index))
+                fisher += delta;
+            if (minerTiles.get(index))
+                miner += delta;
+
+            NeighbourTable table = gameMap.neighbourTable;
+            for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+                int neighbour = table.neighbour(index, direction);
+                if (neighbour == NeighbourTable.NONE || !ScoreEvaluator.this.castles.get(neighbour))
+                    continue;
+
+                castleNeighbours[neighbour] += delta;
+                if (delta > 0 && castleNeighbours[neighbour] == 1)
+                    castles++;
+                else if (delta < 0 && castleNeighbours[neighbour] == 0)
+                    castles--;
+            }
+        }
+    }
+
+    /**
+     * Creates an evaluator for the given players and attaches it to the map.
+     *
+     * @param gameMap the map to evaluate.
+     * @param players the players of the game.
+     */
+    public ScoreEvaluator(GameMap gameMap, List<Player> players) {
+        this.gameMap = gameMap;
+        this.players = List.copyOf(players);
+
+        int size = gameMap.size();
+        specialNeighbours = new int[size];
+        fisherTiles = new BitBoard(size);
+        minerTiles = new BitBoard(size);
+        castles = gameMap.getTilesBoard(TileType.CASTLE);
+
+        for (int i = 0; i < size; i++) {
+            for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+                int neighbour = gameMap.neighbourTable.neighbour(i, direction);
+                if (neighbour == NeighbourTable.NONE)
+                    continue;
+
+                TileType type = gameMap.at(neighbour).tileType;
+                if (TileType.specialPlacesTypes.contains(type))
+                    specialNeighbours[i]++;
+                if (type == TileType.WATER && gameMap.at(i).tileType != TileType.WATER)
+                    fisherTiles.set(i);
+                if (type == TileType.MOUNTAIN)
+                    minerTiles.set(i);
+            }
+        }
+
+        for (Player player : this.players) {
+            PlayerScore score = new PlayerScore(player);
+            scores.put(player, score);
+            gameMap.getSettlementsBoard(player).iterator().forEachRemaining((int i) -> score.update(i, 1));
+        }
+
+        gameMap.attach(this);
+    }
+
+    /**
+     * Gets the players the evaluator calculates the scores for.
+     *
+     * @return the players of the game.
+     */
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Stops updating the evaluator when the map changes. The groups of settlements are copied from the map, so that
+     * the scores stay the same afterwards.
+     */
+    public void detach() {
+        gameMap.detach(this);
+        for (PlayerScore score : scores.values())
+            score.groups = new SettlementGroups(score.groups);
+    }
+
+    /**
+     * Updates the counters after a settlement was placed on the map.
+     *
+     * @param index  the index of the tile of the settlement.
+     * @param player the player who owns the settlement.
+     */
+    void onSettlementPlaced(int index, Player player) {
+        PlayerScore score = scores.get(player);
+        if (score != null)
+            score.update(index, 1);
+    }
+
+    /**
+     * Updates the counters after a settlement was removed from the map.
+     *
+     * @param index  the index of the tile of the settlement.
+     * @param player the player who owned the settlement.
+     */
+    void onSettlementRemoved(int index, Player player) {
+        PlayerScore score = scores.get(player);
+        if (score != null)
+            score.update(index, -1);
+    }
+
+    /**
+     * Gets the counters of a player.
+     *
+     * @param player the player.
+     * @return the counters of the player.
+     * @throws IllegalArgumentException if the player is not part of the game.
+     */
+    private PlayerScore of(Player player) {
+        PlayerScore score = scores.get(player);
+        if (score == null)
+            throw new IllegalArgumentException("The player is not part of the game!");
+        return score;
+    }
+
+    /**
+     * Calculates the score of a player with the given win conditions.
+     *
+     * @param player        the player for which the score should be calculated.
+     * @param winConditions the win conditions of the game.
+     * @return the score of the player.
+     */
+    public int score(Player player, List<WinCondition> winConditions) {
+        int score = scoreCastles(player);
+        for (WinCondition winCondition : winConditions)
+            score += score(player, winCondition);
+        return score;
+    }
+
+    /**
+     * Calculates the score of a player for a single win condition.
+     *
+     * @param player       the player for which the score should be calculated.
+     * @param winCondition the win condition.
+     * @return the score of the player for the win condition.
+     */
+    public int score(Player player, WinCondition winCondition) {
+        PlayerScore score = of(player);
+
+        return switch (winCondition) {
+            case LORDS -> scoreLord(player);
+            case MINER -> score.miner;
+            case FARMER -> 3 * Math.min(Math.min(score.quadrantCounts[0], score.quadrantCounts[1]),
+                    Math.min(score.quadrantCounts[2], score.quadrantCounts[3]));
+            case FISHER -> score.fisher;
+            case KNIGHT -> 2 * score.fullestRow;
+            case WORKER -> score.worker;
+            case CITIZEN -> score.groups.biggestGroupSize() / 2;
+            case EXPLORER -> score.occupiedRows;
+            case MERCHANT -> 4 * score.groups.connectedSpecialPlaces();
+            case ANCHORITE -> score.groups.groupCount();
+        };
+    }
+
+    /**
+     * Calculates the score of a player for the castles next to its settlements.
+     *
+     * @param player the player for which the score should be calculated.
+     * @return the score for all castles next to a settlement of the player.
+     */
+    public int scoreCastles(Player player) {
+        return CASTLE_POINTS * of(player).castles;
+    }
+
+    /**
+     * Calculates the score of a player for the win condition "lords".
+     *
+     * @param player the player for which the score should be calculated.
+     * @return the score for the win condition "lords".
+     */
+    private int scoreLord(Player player) {
+        int[] own = of(player).quadrantCounts;
+        int factorOfPoints = 0;
+
+        for (int quadrant = 0; quadrant < own.length; quadrant++) {
+            int highestCount = 0;
+            for (PlayerScore score : scores.values())
+                highestCount = Math.max(highestCount, score.quadrantCounts[quadrant]);
+
+            if (own[quadrant] == highestCount) {
+                factorOfPoints += 2;
+                continue;
+            }
+
+            int secondHighCount = 0;
+            for (PlayerScore score : scores.values())
+                if (score.quadrantCounts[quadrant] != highestCount)
+                    secondHighCount = Math.max(secondHighCount, score.quadrantCounts[quadrant]);
+
+            if (own[quadrant] == secondHighCount)
+                factorOfPoints += 1;
+        }
+
+        return factorOfPoints * 6;
+    }
+}
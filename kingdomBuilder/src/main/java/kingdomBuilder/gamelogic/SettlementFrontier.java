@@ -0,0 +1,95 @@
+package kingdomBuilder.gamelogic;
+
+/**
+ * Contains the frontier of the settlements of one player, which are all tiles next to at least one of the
+ * settlements. For every tile the amount of settlements next to it is counted, so that placing or removing a
+ * settlement only updates its six neighbours instead of recomputing the surroundings of all settlements.
+ * The frontier contains occupied tiles as well; the tiles of a terrain type are found by intersecting it with the
+ * board of the terrain type.
+ */
+final class SettlementFrontier {
+
+    /**
+     * Represents the neighbours of every tile of the map.
+     */
+    private final NeighbourTable neighbourTable;
+
+    /**
+     * Represents the amount of settlements of the player next to every tile.
+     */
+    private final byte[] adjacentSettlements;
+
+    /**
+     * Represents the tiles that are next to at least one settlement of the player.
+     */
+    private final BitBoard tiles;
+
+    /**
+     * Creates the frontier for a map without any settlements.
+     *
+     * @param neighbourTable the neighbours of every tile of the map.
+     */
+    SettlementFrontier(NeighbourTable neighbourTable) {
+        int size = neighbourTable.mapWidth * neighbourTable.mapWidth;
+
+        this.neighbourTable = neighbourTable;
+        this.adjacentSettlements = new byte[size];
+        this.tiles = new BitBoard(size);
+    }
+
+    /**
+     * Creates a copy of the frontier.
+     *
+     * @param frontier the frontier to copy.
+     */
+    SettlementFrontier(SettlementFrontier frontier) {
+        this.neighbourTable = frontier.neighbourTable;
+        this.adjacentSettlements = frontier.adjacentSettlements.clone();
+        this.tiles = new BitBoard(frontier.tiles);
+    }
+
+    /**
+     * Adds the neighbours of a new settlement to the frontier.
+     *
+     * @param index the index of the tile of the settlement.
+     */
+    void add(int index) {
+        for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+            int neighbour = neighbourTable.neighbour(index, direction);
+            if (neighbour != NeighbourTable.NONE && adjacentSettlements[neighbour]++ == 0)
+                tiles.set(neighbour);
+        }
+    }
+
+    /**
+     * Removes the neighbours of a removed settlement from the frontier, unless they are next to another settlement.
+     *
+     * @param index the index of the tile of the settlement.
+     */
+    void remove(int index) {
+        for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+            int neighbour = neighbourTable.neighbour(index, direction);
+            if (neighbour != NeighbourTable.NONE && --adjacentSettlements[neighbour] == 0)
+                tiles.clear(neighbour);
+        }
+    }
+
+    /**
+     * Checks whether a tile is next to a settlement of the player.
+     *
+     * @param index the index of the tile.
+     * @return true if the tile is part of the frontier. False otherwise.
+     */
+    boolean contains(int index) {
+        return adjacentSettlements[index] > 0;
+    }
+
+    /**
+     * Gets the board of the frontier, which must not be changed.
+     *
+     * @return the tiles that are next to at least one settlement of the player.
+     */
+    BitBoard tiles() {
+        return tiles;
+    }
+}
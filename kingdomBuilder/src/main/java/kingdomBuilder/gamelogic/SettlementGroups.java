@@ -0,0 +1,360 @@
+package kingdomBuilder.gamelogic;
+
+import java.util.stream.IntStream;
+
+/**
+ * Contains the groups of connected settlements of one player as a disjoint-set forest over the tile indices of a map.
+ * Placing a settlement merges the groups around it, removing a settlement rebuilds only the group it belonged to.
+ * Besides the groups themselves, the sizes of the groups and the special places they connect are tracked, so that
+ * the win conditions based on groups can be read without walking the map.
+ */
+final class SettlementGroups {
+
+    /**
+     * Represents the neighbours of every tile of the map.
+     */
+    private final NeighbourTable neighbourTable;
+
+    /**
+     * Represents the special places next to every tile as a bit mask over the indices of the special places.
+     * The mask of a tile is stored in {@code words} consecutive longs starting at {@code index * words}.
+     */
+    private final long[] specialMasks;
+
+    /**
+     * Represents the amount of longs that are needed for the bit mask of the special places.
+     */
+    private final int words;
+
+    /**
+     * Represents the tiles that contain a settlement of the player.
+     */
+    private final BitBoard members;
+
+    /**
+     * Represents the parent of every settlement in the forest. A settlement is the root of its group if it is its
+     * own parent.
+     */
+    private final int[] parent;
+
+    /**
+     * Represents the size of every group, stored at the root of the group.
+     */
+    private final int[] size;
+
+    /**
+     * Represents the special places next to every group as a bit mask, stored at the root of the group.
+     */
+    private final long[] specials;
+
+    /**
+     * Represents how many groups have a specific size, indexed by the size.
+     */
+    private final int[] groupsOfSize;
+
+    /**
+     * Represents for every special place how many groups connect it with at least one other special place.
+     */
+    private final int[] connectingGroups;
+
+    /**
+     * Represents the marks of the settlements that were visited while rebuilding a group.
+     */
+    private final int[] visited;
+
+    /**
+     * Represents the stack of settlements that still have to be visited while rebuilding a group.
+     */
+    private final int[] stack;
+
+    /**
+     * Represents the current mark for visited settlements.
+     */
+    private int visitMark = 0;
+
+    /**
+     * Represents the amount of groups.
+     */
+    private int groupCount = 0;
+
+    /**
+     * Represents the size of the biggest group.
+     */
+    private int biggestGroupSize = 0;
+
+    /**
+     * Represents the amount of special places that are connected with at least one other special place.
+     */
+    private int connectedSpecialPlaces = 0;
+
+    /**
+     * Creates the groups for a map without any settlements.
+     *
+     * @param neighbourTable the neighbours of every tile of the map.
+     * @param specialMasks   the special places next to every tile as a bit mask.
+     * @param specialCount   the amount of special places of the map.
+     */
+    SettlementGroups(NeighbourTable neighbourTable, long[] specialMasks, int specialCount) {
+        int tiles = neighbourTable.mapWidth * neighbourTable.mapWidth;
+
+        this.neighbourTable = neighbourTable;
+        this.specialMasks = specialMasks;
+        this.words = specialMasks.length / tiles;
+        this.members = new BitBoard(tiles);
+        this.parent = new int[tiles];
+        this.size = new int[tiles];
+        this.specials = new long[specialMasks.length];
+        this.groupsOfSize = new int[tiles + 1];
+        this.connectingGroups = new int[specialCount];
+        this.visited = new int[tiles];
+        this.stack = new int[tiles];
+    }
+
+    /**
+     * Creates a copy of the groups.
+     *
+     * @param groups the groups to copy.
+     */
+    SettlementGroups(SettlementGroups groups) {
+        this.neighbourTable = groups.neighbourTable;
+        this.specialMasks = groups.specialMasks;
+        this.words = groups.words;
+        this.members = new BitBoard(groups.members);
+        this.parent = groups.parent.clone();
+        this.size = groups.size.clone();
+        this.specials = groups.specials.clone();
+        this.groupsOfSize = groups.groupsOfSize.clone();
+        this.connectingGroups = groups.connectingGroups.clone();
+        this.visited = new int[groups.visited.length];
+        this.stack = new int[groups.stack.length];
+        this.groupCount = groups.groupCount;
+        this.biggestGroupSize = groups.biggestGroupSize;
+        this.connectedSpecialPlaces = groups.connectedSpecialPlaces;
+    }
+
+    /**
+     * Adds a settlement and merges it with all groups next to it.
+     *
+     * @param index the index of the tile of the settlement.
+     */
+    void add(int index) {
+        members.set(index);
+        parent[index] = index;
+        size[index] = 1;
+        System.arraycopy(specialMasks, index * words, specials, index * words, words);
+        addGroup(index);
+
+        for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+            int neighbour = neighbourTable.neighbour(index, direction);
+            if (neighbour != NeighbourTable.NONE && members.get(neighbour))
+                union(index, neighbour);
+        }
+    }
+
+    /**
+     * Removes a settlement and splits its group into the groups that are left without it.
+     *
+     * @param index the index of the tile of the settlement.
+     */
+    void remove(int index) {
+        removeGroup(find(index));
+        members.clear(index);
+
+        visitMark++;
+        for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+            int neighbour = neighbourTable.neighbour(index, direction);
+            if (neighbour != NeighbourTable.NONE && members.get(neighbour) && visited[neighbour] != visitMark)
+                rebuildGroup(neighbour);
+        }
+    }
+
+    /**
+     * Checks whether the tile contains a settlement of the player.
+     *
+     * @param index the index of the tile.
+     * @return true if the tile contains a settlement of the player. False otherwise.
+     */
+    boolean contains(int index) {
+        return members.get(index);
+    }
+
+    /**
+     * Finds the id of the group of a settlement. Two settlements belong to the same group if their ids are equal.
+     *
+     * @param index the index of the tile of the settlement.
+     * @return the id of the group.
+     */
+    int find(int index) {
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    /**
+     * Gets the size of the group of a settlement.
+     *
+     * @param index the index of the tile of the settlement.
+     * @return the amount of settlements in the group.
+     */
+    int sizeOf(int index) {
+        return size[find(index)];
+    }
+
+    /**
+     * Gets the special places next to the group of a settlement.
+     *
+     * @param index the index of the tile of the settlement.
+     * @return the indices of the special places next to the group.
+     */
+    IntStream specialsOf(int index) {
+        int offset = find(index) * words;
+
+        return IntStream.range(0, words * Long.SIZE)
+                .filter(special -> (specials[offset + special / Long.SIZE] & (1L << special)) != 0);
+    }
+
+    /**
+     * Gets the amount of groups.
+     *
+     * @return the amount of groups.
+     */
+    int groupCount() {
+        return groupCount;
+    }
+
+    /**
+     * Gets the size of the biggest group.
+     *
+     * @return the amount of settlements in the biggest group.
+     */
+    int biggestGroupSize() {
+        return biggestGroupSize;
+    }
+
+    /**
+     * Gets the amount of special places that are connected with at least one other special place by a group.
+     *
+     * @return the amount of connected special places.
+     */
+    int connectedSpecialPlaces() {
+        return connectedSpecialPlaces;
+    }
+
+    /**
+     * Merges the groups of two settlements.
+     *
+     * @param first  the index of the first settlement.
+     * @param second the index of the second settlement.
+     */
+    private void union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+
+        if (firstRoot == secondRoot)
+            return;
+
+        removeGroup(firstRoot);
+        removeGroup(secondRoot);
+
+        if (size[firstRoot] < size[secondRoot]) {
+            int temp = firstRoot;
+            firstRoot = secondRoot;
+            secondRoot = temp;
+        }
+
+        parent[secondRoot] = firstRoot;
+        size[firstRoot] += size[secondRoot];
+        for (int word = 0; word < words; word++)
+            specials[firstRoot * words + word] |= specials[secondRoot * words + word];
+        addGroup(firstRoot);
+    }
+
+    /**
+     * Collects all settlements that are connected to the given settlement into a new group.
+     *
+     * @param start the index of the settlement to start at.
+     */
+    private void rebuildGroup(int start) {
+        int groupSize = 0;
+        int top = 0;
+
+        for (int word = 0; word < words; word++)
+            specials[start * words + word] = 0;
+
+        stack[top++] = start;
+        visited[start] = visitMark;
+
+        while (top > 0) {
+            int index = stack[--top];
+            parent[index] = start;
+            groupSize++;
+            for (int word = 0; word < words; word++)
+                specials[start * words + word] |= specialMasks[index * words + word];
+
+            for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+                int neighbour = neighbourTable.neighbour(index, direction);
+                if (neighbour != NeighbourTable.NONE && members.get(neighbour) && visited[neighbour] != visitMark) {
+                    visited[neighbour] = visitMark;
+                    stack[top++] = neighbour;
+                }
+            }
+        }
+
+        size[start] = groupSize;
+        addGroup(start);
+    }
+
+    /**
+     * Adds the statistics of a group.
+     *
+     * @param root the root of the group.
+     */
+    private void addGroup(int root) {
+        groupCount++;
+        groupsOfSize[size[root]]++;
+        biggestGroupSize = Math.max(biggestGroupSize, size[root]);
+
+        if (countSpecials(root) < 2)
+            return;
+
+        for (int word = 0; word < words; word++)
+            for (long mask = specials[root * words + word]; mask != 0; mask &= mask - 1)
+                if (connectingGroups[word * Long.SIZE + Long.numberOfTrailingZeros(mask)]++ == 0)
+                    connectedSpecialPlaces++;
+    }
+
+    /**
+     * Removes the statistics of a group.
+     *
+     * @param root the root of the group.
+     */
+    private void removeGroup(int root) {
+        groupCount--;
+        groupsOfSize[size[root]]--;
+        while (biggestGroupSize > 0 && groupsOfSize[biggestGroupSize] == 0)
+            biggestGroupSize--;
+
+        if (countSpecials(root) < 2)
+            return;
+
+        for (int word = 0; word < words; word++)
+            for (long mask = specials[root * words + word]; mask != 0; mask &= mask - 1)
+                if (--connectingGroups[word * Long.SIZE + Long.numberOfTrailingZeros(mask)] == 0)
+                    connectedSpecialPlaces--;
+    }
+
+    /**
+     * Counts the special places next to a group.
+     *
+     * @param root the root of the group.
+     * @return the amount of special places next to the group.
+     */
+    private int countSpecials(int root) {
+        int count = 0;
+        for (int word = 0; word < words; word++)
+            count += Long.bitCount(specials[root * words + word]);
+        return count;
+    }
+}
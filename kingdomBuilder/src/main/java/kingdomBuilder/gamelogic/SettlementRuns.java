@@ -0,0 +1,141 @@
+package kingdomBuilder.gamelogic;
+
+/**
+ * Contains the lines of settlements of one player along the three axes of the map. For every tile and every
+ * direction the length of the run of consecutive settlements that starts next to the tile is stored, so that the
+ * ends of a chain of any length can be read without probing the map. Placing or removing a settlement only changes
+ * the runs of the tiles behind it in every direction, up to the first tile without a settlement of the player.
+ */
+final class SettlementRuns {
+
+    /**
+     * Represents the neighbours of every tile of the map.
+     */
+    private final NeighbourTable neighbourTable;
+
+    /**
+     * Represents the amount of consecutive settlements next to every tile in every direction, stored as
+     * {@code index * DIRECTIONS + direction}.
+     */
+    private final byte[] runs;
+
+    /**
+     * Represents the longest run of settlements next to every tile over all directions.
+     */
+    private final byte[] longest;
+
+    /**
+     * Creates the runs for a map without any settlements.
+     *
+     * @param neighbourTable the neighbours of every tile of the map.
+     */
+    SettlementRuns(NeighbourTable neighbourTable) {
+        int size = neighbourTable.mapWidth * neighbourTable.mapWidth;
+
+        this.neighbourTable = neighbourTable;
+        this.runs = new byte[size * NeighbourTable.DIRECTIONS];
+        this.longest = new byte[size];
+    }
+
+    /**
+     * Creates a copy of the runs.
+     *
+     * @param settlementRuns the runs to copy.
+     */
+    SettlementRuns(SettlementRuns settlementRuns) {
+        this.neighbourTable = settlementRuns.neighbourTable;
+        this.runs = settlementRuns.runs.clone();
+        this.longest = settlementRuns.longest.clone();
+    }
+
+    /**
+     * Updates the runs after a settlement was placed on or removed from a tile.
+     *
+     * @param index       the index of the tile that changed.
+     * @param settlements the settlements of the player after the change.
+     */
+    void update(int index, BitBoard settlements) {
+        for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++) {
+            int opposite = NeighbourTable.opposite(direction);
+
+            // walk backwards from the changed tile, every tile sees the run of its successor plus the successor itself
+            int next = index;
+            int tile = neighbourTable.neighbour(index, opposite);
+            while (tile != NeighbourTable.NONE) {
+                int run = settlements.get(next) ? runs[next * NeighbourTable.DIRECTIONS + direction] + 1 : 0;
+                runs[tile * NeighbourTable.DIRECTIONS + direction] = (byte) run;
+                updateLongest(tile);
+
+                if (!settlements.get(tile))
+                    break;
+
+                next = tile;
+                tile = neighbourTable.neighbour(tile, opposite);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the longest run next to a tile.
+     *
+     * @param index the index of the tile.
+     */
+    private void updateLongest(int index) {
+        byte max = 0;
+        for (int direction = 0; direction < NeighbourTable.DIRECTIONS; direction++)
+            max = (byte) Math.max(max, runs[index * NeighbourTable.DIRECTIONS + direction]);
+        longest[index] = max;
+    }
+
+    /**
+     * Gets the amount of consecutive settlements that start next to a tile in a direction.
+     *
+     * @param index     the index of the tile.
+     * @param direction the direction of the run.
+     * @return the length of the run.
+     */
+    int runLength(int index, int direction) {
+        return runs[index * NeighbourTable.DIRECTIONS + direction];
+    }
+
+    /**
+     * Checks whether a tile is at the end of a line of settlements with at least the given length.
+     *
+     * @param index  the index of the tile.
+     * @param length the minimal length of the line.
+     * @return true if the tile is at the end of such a line. False otherwise.
+     */
+    boolean isAtEndOfChain(int index, int length) {
+        return longest[index] >= length;
+    }
+
+    /**
+     * Writes all tiles that are at the end of a line of settlements with at least the given length into the result.
+     * The tiles are not filtered, so occupied tiles are included as well.
+     *
+     * @param length the minimal length of the line.
+     * @param result the board to write the tiles into.
+     * @return the result.
+     */
+    BitBoard chainEnds(int length, BitBoard result) {
+        result.clear();
+        for (int index = 0; index < longest.length; index++) {
+            if (longest[index] >= length)
+                result.set(index);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the length of the longest straight line of settlements along any axis of the map.
+     *
+     * @param settlements the settlements of the player.
+     * @return the length of the longest line, or 0 if there are no settlements.
+     */
+    int longestLine(BitBoard settlements) {
+        int max = 0;
+        for (int index = settlements.nextSetBit(0); index >= 0; index = settlements.nextSetBit(index + 1))
+            max = Math.max(max, longest[index] + 1);
+        return max;
+    }
+}
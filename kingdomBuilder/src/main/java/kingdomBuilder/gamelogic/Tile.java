@@ -1,17 +1,21 @@
 package kingdomBuilder.gamelogic;
 
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * Contains the data of a tile.
  */
 public class Tile {
 
+    /**
+     * The amount of settlements in a line that a tile must be at the end of to be a target of the tavern.
+     */
+    static final int CHAIN_LENGTH = 3;
+
     /**
      * The x and y coordinate of the tile.
      */
@@ -37,6 +41,11 @@ public class Tile {
      */
     protected int remainingTokens;
 
+    /**
+     * The map that contains the tile and needs to be informed about changes of the tile.
+     */
+    GameMap containingMap;
+
     /**
      * Creates a copy of a tile.
      *
@@ -113,6 +122,16 @@ public class Tile {
         return (remainingTokens > 0);
     }
 
+    /**
+     * Gets the index of the tile in the given map.
+     *
+     * @param gameMap the map containing the tile.
+     * @return the index of the tile or -1 if the tile lies outside the map.
+     */
+    private int indexIn(GameMap gameMap) {
+        return gameMap.isWithinBounds(x, y) ? GameMap.to1DIndex(x, y, gameMap.mapWidth) : NeighbourTable.NONE;
+    }
+
     /**
      * Check if a tile is at the front or back part of a chain of settlements that are owned by the specified player.
      *
@@ -125,65 +144,11 @@ public class Tile {
         if (isBlocked())
             return false;
 
-        // Check if chain is on right side
-        if (gameMap.isWithinBounds(x + 3, y)
-                && (gameMap.at(x + 1, y).occupiedBy() == player)
-                && (gameMap.at(x + 2, y).occupiedBy() == player)
-                && (gameMap.at(x + 3, y).occupiedBy() == player))
-            return true;
-
-        // Check if chain is on left side
-        if (gameMap.isWithinBounds(x - 3, y)
-                && (gameMap.at(x - 1, y).occupiedBy() == player)
-                && (gameMap.at(x - 2, y).occupiedBy() == player)
-                && (gameMap.at(x - 3, y).occupiedBy() == player))
-            return true;
-
-        // top right
-        if (gameMap.isWithinBounds(GameMap.topRightX(x, y, 3), y - 3)) {
-            boolean chainFound = true;
-            for (int i = 1; i < 4; i++)
-                if (gameMap.at(GameMap.topRightX(x, y, i), y - i).occupiedBy() != player) {
-                    chainFound = false;
-                    break;
-                }
-            if (chainFound) return true;
-        }
-
-        // top left
-        if (gameMap.isWithinBounds(GameMap.topLeftX(x, y, 3), y - 3)) {
-            boolean chainFound = true;
-            for (int i = 1; i < 4; i++)
-                if (gameMap.at(GameMap.topLeftX(x, y, i), y - i).occupiedBy() != player) {
-                    chainFound = false;
-                    break;
-                }
-            if (chainFound) return true;
-        }
-
-        // bottom right
-        if (gameMap.isWithinBounds(GameMap.bottomRightX(x, y, 3), y + 3)) {
-            boolean chainFound = true;
-            for (int i = 1; i < 4; i++)
-                if (gameMap.at(GameMap.bottomRightX(x, y, i), y + i).occupiedBy() != player) {
-                    chainFound = false;
-                    break;
-                }
-            if (chainFound) return true;
-        }
-
-        // bottom left
-        if (gameMap.isWithinBounds(GameMap.bottomLeftX(x, y, 3), y + 3)) {
-            boolean chainFound = true;
-            for (int i = 1; i < 4; i++)
-                if (gameMap.at(GameMap.bottomLeftX(x, y, i), y + i).occupiedBy() != player) {
-                    chainFound = false;
-                    break;
-                }
-            if (chainFound) return true;
-        }
+        int index = indexIn(gameMap);
+        if (index == NeighbourTable.NONE)
+            return false;
 
-        return false;
+        return gameMap.isAtEndOfChain(player, index, CHAIN_LENGTH);
     }
 
     /**
@@ -193,58 +158,33 @@ public class Tile {
      * @return All surrounding Tiles.
      */
     public Iterator<Tile> surroundingTilesIterator(GameMap gameMap) {
+        int index = indexIn(gameMap);
+        NeighbourTable table = gameMap.neighbourTable;
 
         return new Iterator<Tile>() {
-            int state = -1;
+            int direction = nextDirection(0);
 
+            /**
+             * Finds the next direction starting at the given one that has a neighbour.
+             *
+             * @param from the direction to start at.
+             * @return the next direction with a neighbour.
+             */
+            private int nextDirection(int from) {
+                if (index == NeighbourTable.NONE)
+                    return NeighbourTable.DIRECTIONS;
+
+                while (from < NeighbourTable.DIRECTIONS && table.neighbour(index, from) == NeighbourTable.NONE)
+                    from++;
+                return from;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
             @Override
             public boolean hasNext() {
-                switch (state) {
-                    case -1:
-                        // check given coordinates
-                        if (!gameMap.isWithinBounds(x, y)) {
-                            return false;
-                        }
-                    case 0:
-                        // top left
-                        if (GameMap.topLeftX(x, y) >= 0 && y > 0) {
-                            state = 0;
-                            return true;
-                        }
-                    case 1:
-                        // top right
-                        if (GameMap.topRightX(x, y) < gameMap.mapWidth && y > 0) {
-                            state = 1;
-                            return true;
-                        }
-                    case 2:
-                        // left
-                        if (x - 1 >= 0) {
-                            state = 2;
-                            return true;
-                        }
-                    case 3:
-                        // right
-                        if (x + 1 < gameMap.mapWidth) {
-                            state = 3;
-                            return true;
-                        }
-                    case 4:
-                        // bottom left
-                        if (GameMap.bottomLeftX(x, y) >= 0 && y + 1 < gameMap.mapWidth) {
-                            state = 4;
-                            return true;
-                        }
-                    case 5:
-                        // bottom right
-                        if (GameMap.bottomRightX(x, y) < gameMap.mapWidth && y + 1 < gameMap.mapWidth) {
-                            state = 5;
-                            return true;
-                        }
-                    default:
-                        // all tiles checked
-                        return false;
-                }
+                return direction < NeighbourTable.DIRECTIONS;
             }
 
             /**
@@ -252,28 +192,12 @@ public class Tile {
              */
             @Override
             public Tile next() {
-                switch (state) {
-                    case 0:
-                        state++;
-                        return gameMap.at(GameMap.topLeftX(x, y), y - 1);
-                    case 1:
-                        state++;
-                        return gameMap.at(GameMap.topRightX(x, y), y - 1);
-                    case 2:
-                        state++;
-                        return gameMap.at(x - 1, y);
-                    case 3:
-                        state++;
-                        return gameMap.at(x + 1, y);
-                    case 4:
-                        state++;
-                        return gameMap.at(GameMap.bottomLeftX(x, y), y + 1);
-                    case 5:
-                        state++;
-                        return gameMap.at(GameMap.bottomRightX(x, y), y + 1);
-                    default:
-                        return null;
-                }
+                if (!hasNext())
+                    return null;
+
+                Tile tile = gameMap.at(table.neighbour(index, direction));
+                direction = nextDirection(direction + 1);
+                return tile;
             }
         };
     }
@@ -285,12 +209,16 @@ public class Tile {
      * @return all surrounding tiles of the specified tile.
      */
     public Stream<Tile> surroundingTiles(GameMap gameMap) {
-        if (!gameMap.isWithinBounds(x, y)) {
+        int index = indexIn(gameMap);
+        if (index == NeighbourTable.NONE) {
             return Stream.empty();
         }
 
-        Iterable<Tile> iterable = () -> surroundingTilesIterator(gameMap);
-        return StreamSupport.stream(iterable.spliterator(), false);
+        NeighbourTable table = gameMap.neighbourTable;
+        return IntStream.range(0, NeighbourTable.DIRECTIONS)
+                .map(direction -> table.neighbour(index, direction))
+                .filter(neighbour -> neighbour != NeighbourTable.NONE)
+                .mapToObj(gameMap::at);
     }
 
     /**
@@ -300,46 +228,16 @@ public class Tile {
      * @return all free tiles that can be placed on that skipped position.
      */
     public Stream<Tile> surroundingTilesPaddock(GameMap gameMap) {
-        Set<Tile> freeTiles = new HashSet<>();
-        int tempX, tempY;
-
-        // top left diagonal
-        tempX = GameMap.topLeftX(x, y, 2);
-        tempY = y - 2;
-
-        if (gameMap.isWithinBounds(tempX, tempY) && !gameMap.at(tempX, tempY).isBlocked())
-            freeTiles.add(gameMap.at(tempX, tempY));
-
-        // top right diagonal
-        tempX = GameMap.topRightX(x, y, 2);
-        tempY = y - 2;
-
-        if (gameMap.isWithinBounds(tempX, tempY) && !gameMap.at(tempX, tempY).isBlocked())
-            freeTiles.add(gameMap.at(tempX, tempY));
-
-        // left
-        if (gameMap.isWithinBounds(x - 2, y) && !gameMap.at(x - 2, y).isBlocked())
-            freeTiles.add(gameMap.at(x - 2, y));
-
-        // right
-        if (gameMap.isWithinBounds(x + 2, y) && !gameMap.at(x + 2, y).isBlocked())
-            freeTiles.add(gameMap.at(x + 2, y));
-
-        // bottom left diagonal
-        tempX = GameMap.bottomLeftX(x, y, 2);
-        tempY = y + 2;
-
-        if (gameMap.isWithinBounds(tempX, tempY) && !gameMap.at(tempX, tempY).isBlocked())
-            freeTiles.add(gameMap.at(tempX, tempY));
-
-        // bottom right diagonal
-        tempX = GameMap.bottomRightX(x, y, 2);
-        tempY = y + 2;
-
-        if (gameMap.isWithinBounds(tempX, tempY) && !gameMap.at(tempX, tempY).isBlocked())
-            freeTiles.add(gameMap.at(tempX, tempY));
+        int index = indexIn(gameMap);
+        if (index == NeighbourTable.NONE) {
+            return Stream.empty();
+        }
 
-        return freeTiles.stream();
+        NeighbourTable table = gameMap.neighbourTable;
+        return IntStream.range(0, NeighbourTable.DIRECTIONS)
+                .map(direction -> table.jump(index, direction))
+                .filter(jump -> jump != NeighbourTable.NONE && !gameMap.at(jump).isBlocked())
+                .mapToObj(gameMap::at);
     }
 
     /**
@@ -371,33 +269,11 @@ public class Tile {
      * @return True if player has a neighbouring settlement. False otherwise.
      */
     public boolean hasSurroundingSettlement(GameMap gameMap, Player player) {
+        int index = indexIn(gameMap);
+        if (index == NeighbourTable.NONE)
+            return false;
 
-        // right tile
-        if (gameMap.isWithinBounds(x + 1, y) && (gameMap.at(x + 1, y).occupiedBy() == player))
-            return true;
-
-        // left tile
-        if (gameMap.isWithinBounds(x - 1, y) && (gameMap.at(x - 1, y).occupiedBy() == player))
-            return true;
-
-        // top right
-        if (gameMap.isWithinBounds(GameMap.topRightX(x, y), y + 1)
-                && (gameMap.at(GameMap.topRightX(x, y), y + 1).occupiedBy() == player))
-            return true;
-
-        // top left
-        if (gameMap.isWithinBounds(GameMap.topLeftX(x, y), y + 1)
-                && (gameMap.at(GameMap.topLeftX(x, y), y + 1).occupiedBy() == player))
-            return true;
-
-        // bottom right
-        if (gameMap.isWithinBounds(GameMap.bottomRightX(x, y), y - 1)
-                && (gameMap.at(GameMap.bottomRightX(x, y), y - 1).occupiedBy() == player))
-            return true;
-
-        // bottom left
-        return gameMap.isWithinBounds(GameMap.bottomLeftX(x, y), y - 1)
-                && (gameMap.at(GameMap.bottomLeftX(x, y), y - 1).occupiedBy() == player);
+        return gameMap.isNextToSettlement(player, index);
     }
 
     /**
@@ -425,6 +301,9 @@ public class Tile {
             throw new TileIsAlreadyOccupiedException("Is already occupied by Player: " + occupiedBy.name);
 
         occupiedBy = ownerOfSettlement;
+
+        if (containingMap != null)
+            containingMap.onSettlementPlaced(this);
     }
 
     /**
@@ -439,6 +318,9 @@ public class Tile {
         Player previousPlayer = occupiedBy;
         occupiedBy = null;
 
+        if (containingMap != null)
+            containingMap.onSettlementRemoved(this, previousPlayer);
+
         return previousPlayer;
     }
 
@@ -465,6 +347,9 @@ public class Tile {
             throw new HasNoTokenException("No more tokens remaining!");
 
         remainingTokens--;
+        if (containingMap != null)
+            containingMap.onRemainingTokensChanged(this, remainingTokens + 1);
+
         return tileType;
     }
 
@@ -484,4 +369,14 @@ public class Tile {
         else
             return Quadrants.BOTTOM_RIGHT;
     }
+
+    /**
+     * {@inheritDoc}
+     * Tiles are only equal to themselves, but the hash code depends on the position of the tile, so that hash based
+     * collections of tiles iterate in the same order every time. This keeps the turns of the AI reproducible.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * y + x;
+    }
 }
@@ -0,0 +1,525 @@
+package kingdomBuilder.gamelogic;
+
+import kingdomBuilder.gui.controller.BotDifficulty;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Plays complete games between bots without a server and without a user interface. Every game deals the terrain
+ * cards, lets the bots choose their turns with {@link AIGame#chooseAI()}, checks and applies the turns with the
+ * rules of {@link Game} and scores the players with {@link Game#calculateScore(GameMap, Player, List, List)}.
+ * Many games are played in parallel and summarized in a {@link Report} per difficulty.
+ */
+public final class Tournament {
+
+    /**
+     * Represents the amount of cards of every terrain in the deck.
+     */
+    private static final int CARDS_PER_TERRAIN = 5;
+
+    /**
+     * Represents the amount of win conditions of a game.
+     */
+    private static final int WIN_CONDITIONS_PER_GAME = 3;
+
+    /**
+     * Represents the map all games are played on. Every game plays on its own copy.
+     */
+    private final GameMap gameMap;
+
+    /**
+     * Represents the difficulties of the bots of every game. The seats are rotated from game to game.
+     */
+    private final List<BotDifficulty> seats;
+
+    /**
+     * Represents the amount of settlements every player starts with.
+     */
+    private int startingSettlements = Game.DEFAULT_STARTING_SETTLEMENTS;
+
+    /**
+     * Represents the seed of the first game. Every game uses its own seed derived from it.
+     */
+    private long seed = 0;
+
+    /**
+     * Represents the result of a single game.
+     *
+     * @param seats         the difficulties of the players in the order of their turns.
+     * @param scores        the scores of the players in the order of their turns.
+     * @param winConditions the win conditions of the game.
+     * @param latencies     the time in nanoseconds every turn of a player took to choose, indexed like the seats.
+     * @param invalidMoves  the amount of moves that broke the rules and were skipped, indexed like the seats.
+     */
+    public record GameResult(List<BotDifficulty> seats,
+                             int[] scores,
+                             List<WinCondition> winConditions,
+                             long[][] latencies,
+                             int[] invalidMoves) {
+
+        /**
+         * Gets the share of the win of a player. Players with the same highest score share the win.
+         *
+         * @param seat the seat of the player.
+         * @return one for a sole winner, a fraction for a shared win and zero otherwise.
+         */
+        public double winShare(int seat) {
+            int best = Arrays.stream(scores).max().orElse(0);
+            if (scores[seat] != best)
+                return 0;
+            return 1.0 / Arrays.stream(scores).filter(score -> score == best).count();
+        }
+    }
+
+    /**
+     * Represents the summary of all games of a difficulty.
+     *
+     * @param difficulty   the difficulty.
+     * @param games        the amount of games a bot of the difficulty played.
+     * @param wins         the amount of wins, where shared wins are counted as fractions.
+     * @param scores       the sorted scores of all games.
+     * @param latencies    the sorted time in nanoseconds of all turns.
+     * @param invalidMoves the amount of moves that broke the rules.
+     */
+    public record DifficultyReport(BotDifficulty difficulty,
+                                   int games,
+                                   double wins,
+                                   int[] scores,
+                                   long[] latencies,
+                                   int invalidMoves) {
+
+        /**
+         * Gets the rate of the games that were won.
+         *
+         * @return the share of the wins of all games.
+         */
+        public double winRate() {
+            return (games == 0) ? 0 : wins / games;
+        }
+
+        /**
+         * Gets the mean score.
+         *
+         * @return the mean score of all games.
+         */
+        public double meanScore() {
+            return Arrays.stream(scores).average().orElse(0);
+        }
+
+        /**
+         * Gets the standard deviation of the scores.
+         *
+         * @return the standard deviation of the scores of all games.
+         */
+        public double scoreDeviation() {
+            double mean = meanScore();
+            return Math.sqrt(Arrays.stream(scores).mapToDouble(score -> (score - mean) * (score - mean))
+                    .average().orElse(0));
+        }
+
+        /**
+         * Gets a percentile of the scores.
+         *
+         * @param percentile the percentile between 0 and 100.
+         * @return the score at the percentile.
+         */
+        public int scorePercentile(double percentile) {
+            return (scores.length == 0) ? 0 : scores[percentileIndex(scores.length, percentile)];
+        }
+
+        /**
+         * Gets a percentile of the time the turns took to choose.
+         *
+         * @param percentile the percentile between 0 and 100.
+         * @return the time in nanoseconds at the percentile.
+         */
+        public long latencyPercentile(double percentile) {
+            return (latencies.length == 0) ? 0 : latencies[percentileIndex(latencies.length, percentile)];
+        }
+    }
+
+    /**
+     * Represents the summary of a tournament.
+     *
+     * @param games        the amount of games that were played.
+     * @param difficulties the summary of every difficulty in the order of the seats.
+     */
+    public record Report(int games, List<DifficultyReport> difficulties) {
+
+        /**
+         * {@inheritDoc}
+         * The report is formatted as a table with one row per difficulty.
+         */
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("%d games%n", games));
+            builder.append(String.format("%-12s %6s %8s %7s %6s %5s %5s %5s %5s %5s %9s %9s %9s %9s %7s%n",
+                    "difficulty", "games", "win rate", "mean", "stddev", "min", "p25", "p50", "p75", "max",
+                    "p50 ms", "p90 ms", "p99 ms", "max ms", "invalid"));
+
+            for (DifficultyReport report : difficulties) {
+                builder.append(String.format(Locale.ROOT,
+                        "%-12s %6d %7.1f%% %7.1f %6.1f %5d %5d %5d %5d %5d %9.1f %9.1f %9.1f %9.1f %7d%n",
+                        report.difficulty.name(),
+                        report.games,
+                        100 * report.winRate(),
+                        report.meanScore(),
+                        report.scoreDeviation(),
+                        report.scorePercentile(0),
+                        report.scorePercentile(25),
+                        report.scorePercentile(50),
+                        report.scorePercentile(75),
+                        report.scorePercentile(100),
+                        report.latencyPercentile(50) / 1e6,
+                        report.latencyPercentile(90) / 1e6,
+                        report.latencyPercentile(99) / 1e6,
+                        report.latencyPercentile(100) / 1e6,
+                        report.invalidMoves));
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Creates a tournament between bots of the given difficulties.
+     *
+     * @param gameMap the map all games are played on.
+     * @param seats   the difficulties of the bots of every game.
+     * @throws IllegalArgumentException if there are no seats or more seats than player colors.
+     */
+    public Tournament(GameMap gameMap, List<BotDifficulty> seats) {
+        if (seats.isEmpty() || seats.size() > PlayerColor.values().length)
+            throw new IllegalArgumentException("A game needs between one and "
+                    + PlayerColor.values().length + " players!");
+
+        this.gameMap = gameMap;
+        this.seats = List.copyOf(seats);
+    }
+
+    /**
+     * Sets the amount of settlements every player starts with. Fewer settlements make shorter games.
+     *
+     * @param startingSettlements the amount of settlements.
+     * @throws IllegalArgumentException if the amount of settlements is not positive.
+     */
+    public void setStartingSettlements(int startingSettlements) {
+        if (startingSettlements <= 0)
+            throw new IllegalArgumentException("The players need at least one settlement!");
+        this.startingSettlements = startingSettlements;
+    }
+
+    /**
+     * Sets the seed of the tournament. The same seed deals the same cards and win conditions.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the given amount of games in parallel and summarizes them.
+     *
+     * @param games       the amount of games.
+     * @param parallelism the amount of games that are played at the same time.
+     * @return the summary of all games.
+     */
+    public Report run(int games, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<GameResult> results = pool.submit(() -> IntStream.range(0, games)
+                    .parallel()
+                    .mapToObj(this::playGame)
+                    .toList()).join();
+            return summarize(results);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Summarizes the results of games per difficulty.
+     *
+     * @param results the results of the games.
+     * @return the summary of the games.
+     */
+    public static Report summarize(List<GameResult> results) {
+        Map<BotDifficulty, List<Integer>> scores = new EnumMap<>(BotDifficulty.class);
+        Map<BotDifficulty, List<long[]>> latencies = new EnumMap<>(BotDifficulty.class);
+        Map<BotDifficulty, Double> wins = new EnumMap<>(BotDifficulty.class);
+        Map<BotDifficulty, Integer> invalidMoves = new EnumMap<>(BotDifficulty.class);
+
+        for (GameResult result : results) {
+            for (int seat = 0; seat < result.seats.size(); seat++) {
+                BotDifficulty difficulty = result.seats.get(seat);
+                scores.computeIfAbsent(difficulty, d -> new ArrayList<>()).add(result.scores[seat]);
+                latencies.computeIfAbsent(difficulty, d -> new ArrayList<>()).add(result.latencies[seat]);
+                wins.merge(difficulty, result.winShare(seat), Double::sum);
+                invalidMoves.merge(difficulty, result.invalidMoves[seat], Integer::sum);
+            }
+        }
+
+        List<DifficultyReport> reports = new ArrayList<>();
+        for (BotDifficulty difficulty : scores.keySet()) {
+            int[] sortedScores = scores.get(difficulty).stream().mapToInt(Integer::intValue).sorted().toArray();
+            long[] sortedLatencies = latencies.get(difficulty).stream().flatMapToLong(Arrays::stream)
+                    .sorted().toArray();
+
+            reports.add(new DifficultyReport(difficulty, sortedScores.length, wins.get(difficulty),
+                    sortedScores, sortedLatencies, invalidMoves.get(difficulty)));
+        }
+        return new Report(results.size(), reports);
+    }
+
+    /**
+     * Plays a single game. The seats are rotated by the number of the game, so that every difficulty starts
+     * equally often.
+     *
+     * @param number the number of the game.
+     * @return the result of the game.
+     */
+    public GameResult playGame(int number) {
+        Random random = new Random(seed + number);
+
+        GameMap map = new GameMap(gameMap);
+        List<BotDifficulty> gameSeats = new ArrayList<>(seats);
+        Collections.rotate(gameSeats, -(number % seats.size()));
+
+        List<WinCondition> winConditions = new ArrayList<>(List.of(WinCondition.values()));
+        Collections.shuffle(winConditions, random);
+        winConditions = new ArrayList<>(winConditions.subList(0, WIN_CONDITIONS_PER_GAME));
+
+        ArrayList<Player> players = new ArrayList<>();
+        for (int seat = 0; seat < gameSeats.size(); seat++)
+            players.add(new Player(seat, gameSeats.get(seat).name() + " " + seat,
+                    PlayerColor.values()[seat], startingSettlements));
+
+        List<AIGame> bots = new ArrayList<>();
+        for (int seat = 0; seat < gameSeats.size(); seat++) {
+            AIGame bot = new AIGame(map, gameSeats.get(seat), null);
+            bot.setAiPlayer(players.get(seat));
+            bot.setWinConditions(new ArrayList<>(winConditions));
+            bot.setPlayers(players);
+            // the games already run in parallel.
+            bot.setSingleThreaded(true);
+            bots.add(bot);
+        }
+
+        List<List<Long>> latencies = new ArrayList<>();
+        gameSeats.forEach(seat -> latencies.add(new ArrayList<>()));
+        int[] invalidMoves = new int[gameSeats.size()];
+
+        Deque<TileType> deck = new ArrayDeque<>();
+        boolean lastRound = false;
+        for (int round = 0; round < startingSettlements && !lastRound; round++) {
+            for (int seat = 0; seat < players.size(); seat++) {
+                Player player = players.get(seat);
+                AIGame bot = bots.get(seat);
+
+                TileType terrain = drawCard(deck, random);
+                player.setTerrainCard(terrain);
+                player.startTurn();
+                bot.updateTerrainCards(terrain);
+
+                if (!player.hasRemainingSettlements())
+                    continue;
+
+                // the bot plans on a copy of the game like in a real game, so its search cannot change the players.
+                AIGame search = bot.snapshot();
+                long start = System.nanoTime();
+                List<ClientTurn> turn = search.chooseAI();
+                latencies.get(seat).add(System.nanoTime() - start);
+
+                for (ClientTurn move : turn)
+                    if (!applyMove(map, player, move))
+                        invalidMoves[seat]++;
+
+                if (!player.hasRemainingSettlements())
+                    lastRound = true;
+            }
+        }
+
+        int[] scores = new int[players.size()];
+        for (int seat = 0; seat < players.size(); seat++)
+            scores[seat] = Game.calculateScore(map, players.get(seat), winConditions, players);
+
+        long[][] latencyArrays = latencies.stream()
+                .map(list -> list.stream().mapToLong(Long::longValue).toArray())
+                .toArray(long[][]::new);
+
+        return new GameResult(List.copyOf(gameSeats), scores, List.copyOf(winConditions), latencyArrays,
+                invalidMoves);
+    }
+
+    /**
+     * Draws the next terrain card from the deck. The deck is shuffled again when it is empty.
+     *
+     * @param deck   the cards that are left in the deck.
+     * @param random the source of randomness.
+     * @return the terrain of the drawn card.
+     */
+    public static TileType drawCard(Deque<TileType> deck, Random random) {
+        if (deck.isEmpty()) {
+            List<TileType> cards = new ArrayList<>();
+            for (TileType terrain : TileType.placeableTileTypes)
+                for (int i = 0; i < CARDS_PER_TERRAIN; i++)
+                    cards.add(terrain);
+            Collections.shuffle(cards, random);
+            deck.addAll(cards);
+        }
+        return deck.poll();
+    }
+
+    /**
+     * Checks a move with the rules of the game and applies it to the map if it is valid.
+     *
+     * @param map    the map of the game.
+     * @param player the player who makes the move.
+     * @param move   the move.
+     * @return true if the move was valid and applied. False otherwise.
+     */
+    public static boolean applyMove(GameMap map, Player player, ClientTurn move) {
+        if (!map.isWithinBounds(move.x, move.y))
+            return false;
+
+        Tile tile = map.at(move.x, move.y);
+
+        switch (move.type) {
+            case PLACE -> {
+                if (player.getRemainingSettlementsOfTurn() <= 0 || !Game.canUseBasicTurn(map, player, move.x, move.y))
+                    return false;
+
+                player.useBasicTurn();
+                place(map, player, tile);
+            }
+            case ORACLE -> {
+                return placeWithToken(map, player, tile, Game.allTokenOracleTiles(map, player), Game::useTokenOracle);
+            }
+            case FARM -> {
+                return placeWithToken(map, player, tile, Game.allTokenFarmTiles(map, player), Game::useTokenFarm);
+            }
+            case TAVERN -> {
+                return placeWithToken(map, player, tile, Game.allTokenTavernTiles(map, player), Game::useTokenTavern);
+            }
+            case TOWER -> {
+                return placeWithToken(map, player, tile, Game.allTokenTowerTiles(map, player), Game::useTokenTower);
+            }
+            case OASIS -> {
+                return placeWithToken(map, player, tile, Game.allTokenOasisTiles(map, player), Game::useTokenOasis);
+            }
+            case HARBOR -> {
+                return moveWithToken(map, player, move,
+                        Game.allTokenHarborTiles(map, player, false),
+                        Game.allTokenHarborTiles(map, player, true),
+                        Game::useTokenHarbor);
+            }
+            case PADDOCK -> {
+                return moveWithToken(map, player, move,
+                        Game.allTokenPaddockTiles(map, player),
+                        tile.occupiedBy() == player ?
+                                Game.allTokenPaddockTiles(map, player, move.x, move.y) : Stream.empty(),
+                        Game::useTokenPaddock);
+            }
+            case BARN -> {
+                return moveWithToken(map, player, move,
+                        Game.allTokenBarnTiles(map, player, false),
+                        Game.allTokenBarnTiles(map, player, true),
+                        Game::useTokenBarn);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Places a settlement of the player and gives the player the tokens of the special places next to it.
+     *
+     * @param map    the map of the game.
+     * @param player the player who places the settlement.
+     * @param tile   the tile of the settlement.
+     */
+    private static void place(GameMap map, Player player, Tile tile) {
+        Game.unsafePlaceSettlement(map, player, tile.x, tile.y);
+        Game.unsafeCheckForTokens(map, player, tile.x, tile.y);
+    }
+
+    /**
+     * Places a settlement with a token if the tile is one of the allowed tiles of the token.
+     *
+     * @param map      the map of the game.
+     * @param player   the player who uses the token.
+     * @param tile     the tile of the settlement.
+     * @param allowed  the tiles where the token allows to place.
+     * @param useToken uses the token of the player.
+     * @return true if the settlement was placed. False otherwise.
+     */
+    private static boolean placeWithToken(GameMap map,
+                                          Player player,
+                                          Tile tile,
+                                          Stream<Tile> allowed,
+                                          Consumer<Player> useToken) {
+
+        if (!player.hasRemainingSettlements() || allowed.noneMatch(t -> t == tile))
+            return false;
+
+        useToken.accept(player);
+        place(map, player, tile);
+        return true;
+    }
+
+    /**
+     * Moves a settlement with a token if both tiles are allowed by the token. The player receives the tokens next
+     * to the destination and loses the tokens of special places that are not next to a settlement anymore.
+     *
+     * @param map          the map of the game.
+     * @param player       the player who uses the token.
+     * @param move         the move.
+     * @param origins      the tiles the token allows to move from.
+     * @param destinations the tiles the token allows to move to.
+     * @param useToken     uses the token of the player.
+     * @return true if the settlement was moved. False otherwise.
+     */
+    private static boolean moveWithToken(GameMap map,
+                                         Player player,
+                                         ClientTurn move,
+                                         Stream<Tile> origins,
+                                         Stream<Tile> destinations,
+                                         Consumer<Player> useToken) {
+
+        if (!map.isWithinBounds(move.toX, move.toY))
+            return false;
+
+        Tile from = map.at(move.x, move.y);
+        Tile to = map.at(move.toX, move.toY);
+
+        if (from.occupiedBy() != player || origins.noneMatch(t -> t == from) || destinations.noneMatch(t -> t == to))
+            return false;
+
+        useToken.accept(player);
+        Game.unsafeMoveSettlement(map, player, from.x, from.y, to.x, to.y);
+        Game.unsafeCheckForTokens(map, player, to.x, to.y);
+
+        from.surroundingTokenTiles(map)
+                .filter(player::hasTokenFrom)
+                .filter(specialPlace -> specialPlace.surroundingTiles(map).noneMatch(t -> t.occupiedBy() == player))
+                .toList()
+                .forEach(specialPlace -> Game.unsafeRemoveToken(map, player, specialPlace.x, specialPlace.y));
+        return true;
+    }
+
+    /**
+     * Gets the index of a percentile in a sorted array.
+     *
+     * @param length     the length of the array.
+     * @param percentile the percentile between 0 and 100.
+     * @return the index of the element at the percentile.
+     */
+    private static int percentileIndex(int length, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * length) - 1;
+        return Math.min(length - 1, Math.max(0, index));
+    }
+}
@@ -0,0 +1,190 @@
+package kingdomBuilder.gamelogic;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches the results of the search of the AI for positions it has already evaluated. A position is identified by
+ * the hash of the map together with the terrain card, the amount of settlements left and the remaining depth of
+ * the search, so that the same position reached by a different order of placements does not have to be searched
+ * again.
+ * <p>
+ * The table has a fixed amount of slots that is derived from its memory cap. Every position belongs to a bucket of
+ * two slots: the first one keeps the deepest result of the current search, the second one always takes the newest
+ * result. Results of older searches are replaced first. The table can be shared by the threads of a parallel
+ * search.
+ */
+public final class TranspositionTable {
+
+    /**
+     * Represents the default memory cap of a table in bytes.
+     */
+    public static final long DEFAULT_MEMORY = 16L * 1024 * 1024;
+
+    /**
+     * Represents the estimated amount of bytes of one slot together with its entry and moves.
+     */
+    static final int ENTRY_BYTES = 256;
+
+    /**
+     * Represents the result of the search for a position.
+     *
+     * @param hash            the hash of the position.
+     * @param terrain         the terrain card of the turn.
+     * @param settlementsLeft the amount of settlements that were left.
+     * @param depth           the remaining depth of the search.
+     * @param score           the score of the position.
+     * @param relative        whether the score has to be added to the score the search collected on its way to
+     *                        the position.
+     * @param bestTurn        the moves of the best turn in the position.
+     * @param generation      the search the result belongs to.
+     */
+    public record Entry(long hash,
+                        TileType terrain,
+                        int settlementsLeft,
+                        int depth,
+                        int score,
+                        boolean relative,
+                        List<ClientTurn> bestTurn,
+                        int generation) {
+
+        /**
+         * Checks whether the entry belongs to the given position.
+         *
+         * @param hash            the hash of the position.
+         * @param terrain         the terrain card of the turn.
+         * @param settlementsLeft the amount of settlements that are left.
+         * @param depth           the remaining depth of the search.
+         * @return true if the entry belongs to the position. False otherwise.
+         */
+        boolean matches(long hash, TileType terrain, int settlementsLeft, int depth) {
+            return this.hash == hash
+                    && this.terrain == terrain
+                    && this.settlementsLeft == settlementsLeft
+                    && this.depth == depth;
+        }
+    }
+
+    /**
+     * Represents the slots of the table. The slots of a bucket are next to each other.
+     */
+    private final AtomicReferenceArray<Entry> slots;
+
+    /**
+     * Represents the mask to get the first slot of the bucket of a hash.
+     */
+    private final int bucketMask;
+
+    /**
+     * Represents the current search. Entries of older searches are replaced first.
+     */
+    private volatile int generation = 0;
+
+    /**
+     * Creates an empty table that uses at most roughly the given amount of memory.
+     *
+     * @param memory the memory cap of the table in bytes.
+     * @throws IllegalArgumentException if the memory cap is not enough for a single bucket.
+     */
+    public TranspositionTable(long memory) {
+        long capacity = memory / ENTRY_BYTES;
+        if (capacity < 2)
+            throw new IllegalArgumentException("The memory cap of the table is too small!");
+
+        int size = (int) Long.highestOneBit(Math.min(capacity, 1 << 30));
+        slots = new AtomicReferenceArray<>(size);
+        bucketMask = (size - 1) & ~1;
+    }
+
+    /**
+     * Gets the amount of results the table can hold.
+     *
+     * @return the amount of slots.
+     */
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Starts a new search. The results of previous searches stay valid, but are replaced before the results of the
+     * new search.
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    /**
+     * Removes all results from the table.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++)
+            slots.set(i, null);
+    }
+
+    /**
+     * Looks up the result of a position.
+     *
+     * @param hash            the hash of the position.
+     * @param terrain         the terrain card of the turn.
+     * @param settlementsLeft the amount of settlements that are left.
+     * @param depth           the remaining depth of the search.
+     * @return the result of the position or null if it is not in the table.
+     */
+    public Entry probe(long hash, TileType terrain, int settlementsLeft, int depth) {
+        int bucket = bucketOf(hash);
+
+        for (int i = bucket; i < bucket + 2; i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.matches(hash, terrain, settlementsLeft, depth))
+                return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Stores the result of a position. The first slot of the bucket is replaced if it holds a result of an older
+     * search or of a shallower or equal depth, otherwise the second slot is replaced.
+     *
+     * @param hash            the hash of the position.
+     * @param terrain         the terrain card of the turn.
+     * @param settlementsLeft the amount of settlements that were left.
+     * @param depth           the remaining depth of the search.
+     * @param score           the score of the position.
+     * @param relative        whether the score has to be added to the score the search collected on its way to
+     *                        the position.
+     * @param bestTurn        the moves of the best turn in the position.
+     */
+    public void store(long hash,
+                      TileType terrain,
+                      int settlementsLeft,
+                      int depth,
+                      int score,
+                      boolean relative,
+                      List<ClientTurn> bestTurn) {
+
+        int currentGeneration = generation;
+        Entry entry = new Entry(hash, terrain, settlementsLeft, depth, score, relative,
+                List.copyOf(bestTurn), currentGeneration);
+
+        int bucket = bucketOf(hash);
+        Entry preferred = slots.get(bucket);
+
+        if (preferred == null
+                || preferred.generation != currentGeneration
+                || preferred.depth <= depth
+                || preferred.matches(hash, terrain, settlementsLeft, depth))
+            slots.set(bucket, entry);
+        else
+            slots.set(bucket + 1, entry);
+    }
+
+    /**
+     * Gets the first slot of the bucket of a hash.
+     *
+     * @param hash the hash of the position.
+     * @return the index of the first slot of the bucket.
+     */
+    private int bucketOf(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & bucketMask;
+    }
+}
@@ -0,0 +1,99 @@
+package kingdomBuilder.gamelogic;
+
+import java.util.Map;
+
+/**
+ * Contains the keys of the Zobrist hash of a map. Every part of the state of a map, e.g. a settlement of a player on
+ * a tile, has its own pseudo random key and the hash of the map is the xor of the keys of all its parts, so that it
+ * can be updated by a single xor whenever a part changes. The keys are derived from the part itself instead of a
+ * table of random numbers, because the ids of the players are not known in advance. They are the same for all maps.
+ */
+final class ZobristKeys {
+
+    /**
+     * Represents the kind of key for a settlement of a player on a tile.
+     */
+    private static final long SETTLEMENT = 1;
+
+    /**
+     * Represents the kind of key for a token of a special place that is owned by a player.
+     */
+    private static final long TOKEN_OWNER = 2;
+
+    /**
+     * Represents the kind of key for the amount of tokens that are left on a special place.
+     */
+    private static final long REMAINING_TOKENS = 3;
+
+    /**
+     * Represents the kind of key for the amount of played terrain cards of a terrain.
+     */
+    private static final long PLAYED_CARDS = 4;
+
+    /**
+     * Hides the constructor, since the class only contains static methods.
+     */
+    private ZobristKeys() {
+    }
+
+    /**
+     * Gets the key for a settlement of a player on a tile.
+     *
+     * @param index  the index of the tile.
+     * @param player the player who owns the settlement.
+     * @return the key of the settlement.
+     */
+    static long settlement(int index, Player player) {
+        return key(SETTLEMENT, index, player.ID);
+    }
+
+    /**
+     * Gets the key for a token of a special place that is owned by a player.
+     *
+     * @param index  the index of the special place.
+     * @param player the player who owns the token.
+     * @return the key of the token.
+     */
+    static long tokenOwner(int index, Player player) {
+        return key(TOKEN_OWNER, index, player.ID);
+    }
+
+    /**
+     * Gets the key for the amount of tokens that are left on a special place.
+     *
+     * @param index           the index of the special place.
+     * @param remainingTokens the amount of tokens that are left.
+     * @return the key of the amount of tokens.
+     */
+    static long remainingTokens(int index, int remainingTokens) {
+        return key(REMAINING_TOKENS, index, remainingTokens);
+    }
+
+    /**
+     * Calculates the hash of the played terrain cards.
+     *
+     * @param playedCards the amount of played cards of every terrain.
+     * @return the hash of the played cards.
+     */
+    static long playedCards(Map<TileType, Integer> playedCards) {
+        long hash = 0;
+        for (Map.Entry<TileType, Integer> entry : playedCards.entrySet())
+            hash ^= key(PLAYED_CARDS, entry.getKey().ordinal(), entry.getValue());
+        return hash;
+    }
+
+    /**
+     * Derives a pseudo random key from the given values with the finalizer of the SplitMix64 generator.
+     *
+     * @param kind  the kind of the key.
+     * @param index the index of the tile.
+     * @param value the value of the part of the state.
+     * @return the key.
+     */
+    private static long key(long kind, int index, int value) {
+        long z = (kind << 56 ^ (long) index << 32 ^ (value & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
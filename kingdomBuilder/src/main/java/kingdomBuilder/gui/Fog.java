@@ -1,12 +1,15 @@
 package kingdomBuilder.gui;
 
 import javafx.animation.AnimationTimer;
-import javafx.scene.image.PixelWriter;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.PhongMaterial;
 import javafx.scene.shape.Box;
 
+import java.nio.IntBuffer;
+
 /**
  * Fog objects can be placed in a scene to provide a simple animated transparent fog effect.
  */
@@ -27,15 +30,45 @@ public class Fog extends Box {
      */
     private static final double DEFAULT_MAX_OPACITY = 0.6;
 
+    /**
+     * The amount of entries in the sine table, which must be a power of two.
+     */
+    private static final int SINE_TABLE_SIZE = 1024;
+
+    /**
+     * The values of {@code 0.5 + 0.5 * sin(x)} for one period, sampled at {@link #SINE_TABLE_SIZE} steps.
+     */
+    private static final float[] SINE_TABLE = new float[SINE_TABLE_SIZE];
+
+    static {
+        for (int i = 0; i < SINE_TABLE_SIZE; i++)
+            SINE_TABLE[i] = (float) (0.5 + 0.5 * Math.sin(2 * Math.PI * i / SINE_TABLE_SIZE));
+    }
+
     /**
      * Represents the state of the fog's animation.
      */
     private enum State { STOPPED, FADE_IN, PLAYING, FADE_OUT }
 
     /**
-     * Represents the noise applied to the fog's diffuse map.
+     * The resolution of the noise and diffuse map of the fog.
+     */
+    private final int resolution;
+
+    /**
+     * Represents the noise applied to the fog's diffuse map as offsets into the sine table, stored row by row.
+     */
+    private final int[] noise;
+
+    /**
+     * The pixels of the diffuse map as premultiplied ARGB values, stored row by row.
      */
-    private final float[][] noise;
+    private final IntBuffer pixels;
+
+    /**
+     * The buffer backing the diffuse map, which is written in one bulk update per frame.
+     */
+    private final PixelBuffer<IntBuffer> pixelBuffer;
 
     /**
      * The diffuse map of the fog containing varying opacity to be interpolated across the surface of the fog object.
@@ -67,6 +100,16 @@ public class Fog extends Box {
      */
     private long startTime;
 
+    /**
+     * The minimum time in nanoseconds between two updates of the diffuse map, or 0 to update it on every frame.
+     */
+    private long updateInterval = 0;
+
+    /**
+     * The system timestamp in nanoseconds of the last update of the diffuse map.
+     */
+    private long lastUpdate;
+
     /**
      * Constructs a new fog object with box proportions.
      * @param width the width of the box.
@@ -96,24 +139,20 @@ public class Fog extends Box {
         this.minOpacity = minOpacity;
         this.maxOpacity = maxOpacity;
 
-        noise = new float[resolution][resolution];
-        diffuseMap = new WritableImage(resolution, resolution);
-        PixelWriter pw = diffuseMap.getPixelWriter();
+        this.resolution = resolution;
+
+        // the border stays transparent to fade out the diffuseMap, so it is never written
+        noise = new int[resolution * resolution];
+        pixels = IntBuffer.allocate(resolution * resolution);
         for (int y = 1; y < resolution-1; y++) {
             for (int x = 1; x < resolution-1; x++) {
-                // first/last row/column of the noise array is unused and could be adjusted
-                noise[y][x] = (float)Math.random() * 10;
-                pw.setColor(x, y, Color.WHITE);
+                noise[y * resolution + x] = toSineIndex(Math.random() * 10);
+                pixels.put(y * resolution + x, 0xFFFFFFFF);
             }
         }
 
-        // the border is transparent to fade out the diffuseMap
-        for (int i = 0; i < resolution; i++) {
-            pw.setColor(0, i, Color.gray(1, 0));
-            pw.setColor(resolution-1, i, Color.gray(1, 0));
-            pw.setColor(i, 0, Color.gray(1, 0));
-            pw.setColor(i, resolution-1, Color.gray(1, 0));
-        }
+        pixelBuffer = new PixelBuffer<>(resolution, resolution, pixels, PixelFormat.getIntArgbPreInstance());
+        diffuseMap = new WritableImage(pixelBuffer);
 
         setMaterial(new PhongMaterial(color, diffuseMap, null, null, null));
 
@@ -124,15 +163,20 @@ public class Fog extends Box {
                 switch (state) {
                     case FADE_IN -> {
                         double relativeFadeIn = relativeFadeIn(now);
-                        updateDiffuseMap(now, relativeFadeIn);
+                        if (isUpdateDue(now))
+                            updateDiffuseMap(now, relativeFadeIn);
                         if (relativeFadeIn >= 1) {
                             state = State.PLAYING;
                         }
                     }
-                    case PLAYING -> updateDiffuseMap(now, 1);
+                    case PLAYING -> {
+                        if (isUpdateDue(now))
+                            updateDiffuseMap(now, 1);
+                    }
                     case FADE_OUT -> {
                         double relativeFadeOut = relativeFadeOut(now);
-                        updateDiffuseMap(now, relativeFadeOut);
+                        if (isUpdateDue(now))
+                            updateDiffuseMap(now, relativeFadeOut);
                         if (relativeFadeOut <= 0) {
                             super.stop();
                             state = State.STOPPED;
@@ -180,11 +224,33 @@ public class Fog extends Box {
     }
 
     /**
-     * Gets the resolution of the noise.
-     * @return the resolution of the noise.
+     * Limits how often the diffuse map is updated, which saves time on slow machines since the fog changes slowly.
+     * @param updatesPerSecond the maximum amount of updates per second, or 0 to update on every frame.
      */
-    private int getResolution() {
-        return noise.length;
+    public void setUpdateRate(double updatesPerSecond) {
+        updateInterval = updatesPerSecond > 0 ? (long) (1e9d / updatesPerSecond) : 0;
+    }
+
+    /**
+     * Checks whether enough time has passed since the last update of the diffuse map and remembers the update if so.
+     * @param now the current system timestamp in nanoseconds.
+     * @return true if the diffuse map should be updated. False otherwise.
+     */
+    private boolean isUpdateDue(long now) {
+        if (updateInterval > 0 && now - lastUpdate < updateInterval)
+            return false;
+
+        lastUpdate = now;
+        return true;
+    }
+
+    /**
+     * Converts an angle in radians into an index into the sine table.
+     * @param angle the angle in radians.
+     * @return the index of the angle in the sine table.
+     */
+    private static int toSineIndex(double angle) {
+        return (int) (angle * (SINE_TABLE_SIZE / (2 * Math.PI))) & (SINE_TABLE_SIZE - 1);
     }
 
     /**
@@ -206,15 +272,23 @@ public class Fog extends Box {
      * @param maxOpacity the maximum opacity in the diffuse map.
      */
     private void updateDiffuseMap(long now, double opacityFactor, double minOpacity, double maxOpacity) {
-        int resolution = getResolution();
-        PixelWriter pw = diffuseMap.getPixelWriter();
-        double variance = maxOpacity - minOpacity;
+        // the opacities are scaled to 0-255 up front, the time is wrapped into one period of the sine table
+        float scale = (float) (Math.min(Math.max(opacityFactor, 0), 1) * 255);
+        float min = (float) minOpacity * scale;
+        float variance = (float) (maxOpacity - minOpacity) * scale;
+        int time = toSineIndex(now * 1e-9 % (2 * Math.PI));
+
         for (int y = 1; y < resolution-1; y++) {
             for (int x = 1; x < resolution-1; x++) {
-                pw.setColor(x, y, Color.gray(1,
-                        Math.max(opacityFactor, 0) * (minOpacity + variance * (0.5 + 0.5 * Math.sin(now * 1e-9 + noise[y][x])))));
+                int index = y * resolution + x;
+                int alpha = (int) (min + variance * SINE_TABLE[(time + noise[index]) & (SINE_TABLE_SIZE - 1)] + 0.5f);
+
+                // white with premultiplied alpha has all channels equal to the alpha
+                pixels.put(index, alpha << 24 | alpha << 16 | alpha << 8 | alpha);
             }
         }
+
+        pixelBuffer.updateBuffer(buffer -> null);
     }
 
     /**
@@ -8,12 +8,19 @@ import kingdomBuilder.reducers.*;
 import kingdomBuilder.redux.Store;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Represents the specified JavaFX application for the KingdomBuilder.
  */
 public class KingdomBuilderApplication extends Application {
 
+    /**
+     * Represents the time in milliseconds to wait for the store to reduce the remaining actions when the application
+     * stops.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 2000;
+
     /**
      * Stores the whole state of the application.
      */
@@ -31,6 +38,7 @@ public class KingdomBuilderApplication extends Application {
     public KingdomBuilderApplication() throws IOException {
         store = new Store<KBState>(
                 new KBState(),
+                KBState::snapshot,
                 new ApplicationReducer(),
                 new ChatReducer(),
                 new GameReducer(),
@@ -70,6 +78,9 @@ public class KingdomBuilderApplication extends Application {
     @Override
     public void stop() throws Exception {
         store.dispatch(ApplicationReducer.EXIT_APPLICATION, null);
+        // the dispatcher reduces the exit before it stops, so that the connections are closed. If it does not stop
+        // in time, its daemon threads do not keep the application alive.
+        store.shutdown(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
         super.stop();
     }
 
@@ -47,5 +47,15 @@ public enum BotDifficulty {
             return ResourceBundle.getBundle("kingdomBuilder/gui/gui",
                     SceneLoader.getLocale()).getString("expert");
         }
+    },
+    /**
+     * Represents the difficulty Monte Carlo for a bot, which searches its turns with Monte Carlo Tree Search.
+     */
+    MONTE_CARLO {
+        @Override
+        public String toString() {
+            return ResourceBundle.getBundle("kingdomBuilder/gui/gui",
+                    SceneLoader.getLocale()).getString("monteCarlo");
+        }
     }
 }
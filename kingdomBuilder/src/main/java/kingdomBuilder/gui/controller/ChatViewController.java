@@ -185,8 +185,8 @@ public class ChatViewController extends Controller implements Initializable {
         setupWebView();
 
         store.subscribe(this::onClientChanges, "clients");
-        store.subscribe(this::onMessageChanged, "message");
-        store.subscribe(this::onTurn, "gameLastTurn");
+        store.subscribeToEvents(this::onMessageChanged, "message");
+        store.subscribeToEvents(this::onTurn, "gameLastTurn");
         store.subscribe(this::onJoinedGameChanged, "joinedGame");
         store.subscribe(this::onConnect, "isConnected");
         store.subscribe(this::onTurnStartChanged, "nextTerrainCard");
@@ -255,7 +255,7 @@ public class GameViewController extends Controller implements Initializable {
         store.subscribe(this::onTokenChanged, "token");
         store.subscribe(this::onWinConditionsChanged, "winConditions");
         store.subscribe(this::onTerrainCardChanged, "nextTerrainCard");
-        store.subscribe(this::onLastTurnChanged, "gameLastTurn");
+        store.subscribeToEvents(this::onLastTurnChanged, "gameLastTurn");
         store.subscribe(this::onNextPlayer, "nextPlayer");
         store.subscribe(this::onCurrentPlayerChanged, "currentPlayer");
         store.subscribe(this::onTurnCountChanged, "turnCount");
@@ -304,7 +304,8 @@ public class GameViewController extends Controller implements Initializable {
                 BotDifficulty.EASY,
                 BotDifficulty.NORMAL,
                 BotDifficulty.HARD,
-                BotDifficulty.EXPERT
+                BotDifficulty.EXPERT,
+                BotDifficulty.MONTE_CARLO
         );
 
         // setup the ComboBox
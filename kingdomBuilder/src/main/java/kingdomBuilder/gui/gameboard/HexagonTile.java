@@ -3,9 +3,6 @@ package kingdomBuilder.gui.gameboard;
 import javafx.animation.Interpolator;
 import javafx.animation.TranslateTransition;
 import javafx.scene.control.Tooltip;
-import javafx.scene.image.Image;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.PhongMaterial;
 import javafx.util.Duration;
 import kingdomBuilder.gamelogic.PlayerColor;
 import kingdomBuilder.gamelogic.TileType;
@@ -146,55 +143,7 @@ public class HexagonTile extends Tile {
      * @param betterColors whether better colors should be used or not.
      */
     public void placeSettlement(PlayerColor color, boolean betterColors) {
-        switch (color) {
-            case RED -> {
-                Image img;
-                if (betterColors) {
-                    img = TextureLoader.generateImage(1, 0.54, 0);
-                } else {
-                    img = TextureLoader.generateImage(1, 0, 0);
-                }
-                PhongMaterial mat = new PhongMaterial(Color.WHITE, img, null, null, null);
-
-                settlement.setMaterial(mat);
-            }
-
-            case BLUE -> {
-                Image img;
-                if (betterColors) {
-                    img = TextureLoader.generateImage(0.612, 0.52, 0.816);
-                } else {
-                    img = TextureLoader.generateImage(0, 0, 1);
-                }
-                PhongMaterial mat = new PhongMaterial(Color.WHITE, img, null, null, null);
-
-                settlement.setMaterial(mat);
-            }
-
-            case BLACK -> {
-                Image img;
-                if (betterColors) {
-                    img = TextureLoader.generateImage(0.616, 0.82, 0.2);
-                } else {
-                    img = TextureLoader.generateImage(0, 0, 0);
-                }
-                PhongMaterial mat = new PhongMaterial(Color.WHITE, img, null, null, null);
-
-                settlement.setMaterial(mat);
-            }
-
-            case WHITE -> {
-                Image img;
-                if (betterColors) {
-                    img = TextureLoader.generateImage(0.28, 0.52, 0.72);
-                } else {
-                    img = TextureLoader.generateImage(1, 1, 1);
-                }
-                PhongMaterial mat = new PhongMaterial(Color.WHITE, img, null, null, null);
-
-                settlement.setMaterial(mat);
-            }
-        }
+        settlement.setMaterial(MaterialLoader.getSettlementMaterial(color, betterColors));
         settlement.setOpacity(1.0);
     }
 
@@ -308,7 +257,6 @@ public class HexagonTile extends Tile {
      * Sets the material to the tile type's material.
      */
     public void resetMaterial() {
-        PhongMaterial mat = MaterialLoader.getMaterial(tileType);
-        hexagon.setMaterial(mat);
+        hexagon.setMaterial(MaterialLoader.getMaterial(tileType));
     }
 }
@@ -3,8 +3,12 @@ package kingdomBuilder.gui.gameboard;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.PhongMaterial;
+import kingdomBuilder.gamelogic.PlayerColor;
 import kingdomBuilder.gamelogic.TileType;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * Class that contains all materials for the 3D objects.
  */
@@ -121,6 +125,17 @@ public final class MaterialLoader {
      */
     public static final PhongMaterial MIDNIGHTBLUE = new PhongMaterial(Color.MIDNIGHTBLUE);
 
+    /**
+     * The materials for the settlements of each player color, created on first use and shared by all settlements.
+     */
+    private static final Map<PlayerColor, PhongMaterial> SETTLEMENTS = new EnumMap<>(PlayerColor.class);
+
+    /**
+     * The materials for the settlements of each player color with better colors, created on first use and shared by
+     * all settlements.
+     */
+    private static final Map<PlayerColor, PhongMaterial> BETTER_SETTLEMENTS = new EnumMap<>(PlayerColor.class);
+
     /**
      * Constructor so this class never get instanced.
      */
@@ -153,4 +168,39 @@ public final class MaterialLoader {
             case TOWER -> TOWER;
         };
     }
+
+    /**
+     * Gets the material for the settlements of a player.
+     * @param color the color of the player.
+     * @param betterColors whether better colors should be used or not.
+     * @return The material, which is the same for all settlements of the color.
+     */
+    public static PhongMaterial getSettlementMaterial(PlayerColor color, boolean betterColors) {
+        Map<PlayerColor, PhongMaterial> materials = betterColors ? BETTER_SETTLEMENTS : SETTLEMENTS;
+        return materials.computeIfAbsent(color, c -> createSettlementMaterial(c, betterColors));
+    }
+
+    /**
+     * Creates the material for the settlements of a player.
+     * @param color the color of the player.
+     * @param betterColors whether better colors should be used or not.
+     * @return The material.
+     */
+    private static PhongMaterial createSettlementMaterial(PlayerColor color, boolean betterColors) {
+        Image img = switch (color) {
+            case RED -> betterColors
+                    ? TextureLoader.generateImage(1, 0.54, 0)
+                    : TextureLoader.generateImage(1, 0, 0);
+            case BLUE -> betterColors
+                    ? TextureLoader.generateImage(0.612, 0.52, 0.816)
+                    : TextureLoader.generateImage(0, 0, 1);
+            case BLACK -> betterColors
+                    ? TextureLoader.generateImage(0.616, 0.82, 0.2)
+                    : TextureLoader.generateImage(0, 0, 0);
+            case WHITE -> betterColors
+                    ? TextureLoader.generateImage(0.28, 0.52, 0.72)
+                    : TextureLoader.generateImage(1, 1, 1);
+        };
+        return new PhongMaterial(Color.WHITE, img, null, null, null);
+    }
 }
@@ -1,5 +1,6 @@
 package kingdomBuilder.reducers;
 
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import kingdomBuilder.KBState;
 import kingdomBuilder.actions.*;
@@ -214,7 +215,7 @@ public class ApplicationReducer extends Reducer<KBState> {
             }
         });
 
-        store.subscribe(kbState -> store.dispatch(GameReducer.READY_GAME, null),
+        store.subscribeOnDispatcher(kbState -> store.dispatch(GameReducer.READY_GAME, null),
                 "players", "nextTerrainCard", "nextPlayer");
 
         for(int it = 0; it < oldState.clientPreferredNames().size(); ++it) {
@@ -252,7 +253,8 @@ public class ApplicationReducer extends Reducer<KBState> {
     public DeferredState onDisconnect(Store<KBState> store, KBState oldState, Boolean wasKicked) {
         DeferredState state = new DeferredState(oldState);
 
-        oldState.sceneLoader().showMenuView();
+        // the reducers do not run on the JavaFX Application Thread.
+        Platform.runLater(() -> oldState.sceneLoader().showMenuView());
 
         oldState.mainClient().disconnect();
         state.setMainClient(null);
@@ -266,7 +268,8 @@ public class ApplicationReducer extends Reducer<KBState> {
         state.setGames(oldState.games());
 
         if (wasKicked) {
-            Util.showLocalizedPopupMessage("kicked", (Stage) oldState.sceneLoader().getScene().getWindow());
+            Platform.runLater(() -> Util.showLocalizedPopupMessage("kicked",
+                    (Stage) oldState.sceneLoader().getScene().getWindow()));
             if (oldState.joinedGame()) {
                 oldState.Bots().keySet().forEach(c -> store.dispatch(BotReducer.DISCONNECT_BOT, c));
                 state.setPlayers(null);
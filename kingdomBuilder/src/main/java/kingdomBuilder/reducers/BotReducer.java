@@ -30,6 +30,10 @@ public class BotReducer extends Reducer<KBState> {
      * Represents the String to identify the related {@link BotReducer#onMakeTurnBot reduce} method.
      */
     public static final String MAKE_TURN_BOT = "MAKE_TURN_BOT";
+    /**
+     * Represents the String to identify the related {@link BotReducer#onPlayTurnBot reduce} method.
+     */
+    public static final String PLAY_TURN_BOT = "PLAY_TURN_BOT";
     /**
      * Represents the String to identify the related {@link BotReducer#onGrantTokenBot reduce} method.
      */
@@ -46,6 +50,41 @@ public class BotReducer extends Reducer<KBState> {
      * Represents the String to identify the related {@link BotReducer#onSetWinConditionBot reduce} method.
      */
     public static final String SET_WIN_CONDITION_BOT = "SET_WIN_CONDITION_BOT";
+    /**
+     * Represents the String to identify the related {@link BotReducer#onSetTimeLimitBot reduce} method.
+     */
+    public static final String SET_TIME_LIMIT_BOT = "SET_TIME_LIMIT_BOT";
+    /**
+     * Represents the amount of moves a bot usually sends in one turn.
+     */
+    private static final int EXPECTED_MOVES_PER_TURN = 5;
+
+    /**
+     * Represents the moves, which a bot has chosen for its turn.
+     *
+     * @param client the bot mainClient whose turn it is.
+     * @param moves  the moves in the order they are sent.
+     */
+    public record BotTurn(Client client, List<ClientTurn> moves) {
+    }
+
+    /**
+     * Represents a terrain card, which was drawn while a bot plays.
+     *
+     * @param client      the bot mainClient.
+     * @param terrainCard the terrain card or null if there is none.
+     */
+    public record BotTerrainCard(Client client, TileType terrainCard) {
+    }
+
+    /**
+     * Represents the time limit of a turn, which the server has sent to a bot.
+     *
+     * @param client    the bot mainClient.
+     * @param timeLimit the time limit in milliseconds or -1 if the game has no time limit.
+     */
+    public record BotTimeLimit(Client client, int timeLimit) {
+    }
 
     /**
      * Constructs a new BotReducer and lets it register itself.
@@ -60,10 +99,12 @@ public class BotReducer extends Reducer<KBState> {
      * @param store the store.
      */
     public static void subscribeMethods(Store<KBState> store) {
-        store.subscribe(kbState -> kbState.Bots().keySet().forEach(
-                c -> store.dispatch(MAKE_TURN_BOT, c)), "nextTerrainCard");
+        // the card is passed along, since the state may hold the next card already when the action is reduced.
+        store.subscribeOnDispatcher(kbState -> kbState.Bots().keySet().forEach(
+                c -> store.dispatch(MAKE_TURN_BOT, new BotTerrainCard(c, kbState.nextTerrainCard()))),
+                "nextTerrainCard");
 
-        store.subscribe(kbState -> {
+        store.subscribeOnDispatcher(kbState -> {
             if (kbState.winConditions() != null && !kbState.winConditions().isEmpty())
                 kbState.Bots().keySet().forEach(c -> store.dispatch(SET_WIN_CONDITION_BOT, c));
         }, "winConditions");
@@ -117,11 +158,19 @@ public class BotReducer extends Reducer<KBState> {
         });
         //mainClient.onTokenReceived.subscribe(m -> store.dispatch(GRANT_TOKEN_BOT, m));
 
+        AIGame aiGame = new AIGame(oldState.gameMap(), difficulty);
+        // the moves of a turn are sent one after another, so the search has to stop early enough to send them all.
+        aiGame.setSafetyMargin(AIGame.DEFAULT_SAFETY_MARGIN
+                + (int) ((0.5 + EXPECTED_MOVES_PER_TURN * 1.1) * SceneLoader.ANIMATION_TIME));
+        client.onTimeLimitReply.subscribe(m ->
+                store.dispatch(SET_TIME_LIMIT_BOT, new BotTimeLimit(client, m.timeLimit())));
+
         client.login(difficulty + " AI");
         client.loadNamespace();
         client.joinGame(oldState.mainClient().getGameId());
+        client.timeLimitRequest();
 
-        oldState.Bots().put(client, new AIGame(oldState.gameMap(), difficulty));
+        oldState.Bots().put(client, aiGame);
 
         state.setBots(oldState.Bots());
         return state;
@@ -129,68 +178,96 @@ public class BotReducer extends Reducer<KBState> {
 
     /**
      * Represents the reducer to handle the next turn of a bot.
+     * The moves are chosen by an effect, since the search would block the dispatcher for its whole time limit.
+     * The effect searches on a snapshot of the bot, which is taken here on the dispatcher.
      *
-     * @param unused   the store.
+     * @param store    the store.
      * @param oldState the old state.
-     * @param client   the bot mainClient whose turn it is.
+     * @param card     the bot mainClient and the terrain card, which was drawn.
      * @return the deferredState.
      */
     @Reduce(action = MAKE_TURN_BOT)
-    public DeferredState onMakeTurnBot(Store<KBState> unused, KBState oldState, Client client) {
+    public DeferredState onMakeTurnBot(Store<KBState> store, KBState oldState, BotTerrainCard card) {
         DeferredState state = new DeferredState(oldState);
 
+        Client client = card.client();
         AIGame aiGame = oldState.Bots().get(client);
 
         if (aiGame == null || !oldState.gameStarted())
             return state;
 
-        if (oldState.nextTerrainCard() != null)
-            aiGame.updateTerrainCards(oldState.nextTerrainCard());
+        if (card.terrainCard() != null)
+            aiGame.updateTerrainCards(card.terrainCard());
 
         if (oldState.currentPlayer() != null
                 && client.getClientId() == oldState.nextPlayer()
                 && aiGame.aiPlayer.getRemainingSettlementsOfTurn() > 0) {
 
             //System.out.println(oldState.nextPlayer() + " || " + mainClient.getClientId());
-            List<ClientTurn> moves = oldState.Bots().get(client).chooseAI();
+            // the search runs on a copy, since the reducers go on changing the map and the players meanwhile.
+            AIGame search = aiGame.snapshot();
+            store.runEffect(() -> new BotTurn(client, search.chooseAI()), PLAY_TURN_BOT);
+        }
 
-            // adding turns in reverse on the stack, so pop() gets the turns in order
-            Stack<ClientTurn> stack = new Stack<>();
-            for (int i = moves.size() - 1; i >= 0; i--) {
-                stack.push(moves.get(i));
-            }
+        return state;
+    }
 
-            // timer is now depends on the animation timer
-            aiGame.turnTimer.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    if (stack.empty()) {
-                        //cancels the timer task when all moves are made and sends the end turn message
-                        client.endTurn();
-                        cancel();
-                        return;
-                    }
-                    ClientTurn c = stack.pop();
-                    int x = c.x;
-                    int y = c.y;
-                    int toX = c.toX;
-                    int toY = c.toY;
-
-                    switch (c.type) {
-                        case PLACE -> client.placeSettlement(x, y);
-                        case ORACLE -> client.useTokenOracle(x, y);
-                        case FARM -> client.useTokenFarm(x, y);
-                        case TAVERN -> client.useTokenTavern(x, y);
-                        case TOWER -> client.useTokenTower(x, y);
-                        case HARBOR -> client.useTokenHarbor(x, y, toX, toY);
-                        case PADDOCK -> client.useTokenPaddock(x, y, toX, toY);
-                        case BARN -> client.useTokenBarn(x, y, toX, toY);
-                        case OASIS -> client.useTokenOasis(x, y);
-                    }
-                }
-            }, (int) (0.5 * SceneLoader.ANIMATION_TIME), (int) (1.1 * SceneLoader.ANIMATION_TIME));
+    /**
+     * Represents the reducer to send the moves, which a bot has chosen for its turn.
+     *
+     * @param unused   the store.
+     * @param oldState the old state.
+     * @param turn     the bot mainClient and its moves.
+     * @return the deferredState.
+     */
+    @Reduce(action = PLAY_TURN_BOT)
+    public DeferredState onPlayTurnBot(Store<KBState> unused, KBState oldState, BotTurn turn) {
+        DeferredState state = new DeferredState(oldState);
+
+        Client client = turn.client();
+        AIGame aiGame = oldState.Bots().get(client);
+
+        // the bot may have been disconnected during the search.
+        if (aiGame == null || aiGame.turnTimer == null)
+            return state;
+
+        List<ClientTurn> moves = turn.moves();
+
+        // adding turns in reverse on the stack, so pop() gets the turns in order
+        Stack<ClientTurn> stack = new Stack<>();
+        for (int i = moves.size() - 1; i >= 0; i--) {
+            stack.push(moves.get(i));
         }
 
+        // timer is now depends on the animation timer
+        aiGame.turnTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                if (stack.empty()) {
+                    //cancels the timer task when all moves are made and sends the end turn message
+                    client.endTurn();
+                    cancel();
+                    return;
+                }
+                ClientTurn c = stack.pop();
+                int x = c.x;
+                int y = c.y;
+                int toX = c.toX;
+                int toY = c.toY;
+
+                switch (c.type) {
+                    case PLACE -> client.placeSettlement(x, y);
+                    case ORACLE -> client.useTokenOracle(x, y);
+                    case FARM -> client.useTokenFarm(x, y);
+                    case TAVERN -> client.useTokenTavern(x, y);
+                    case TOWER -> client.useTokenTower(x, y);
+                    case HARBOR -> client.useTokenHarbor(x, y, toX, toY);
+                    case PADDOCK -> client.useTokenPaddock(x, y, toX, toY);
+                    case BARN -> client.useTokenBarn(x, y, toX, toY);
+                    case OASIS -> client.useTokenOasis(x, y);
+                }
+            }
+        }, (int) (0.5 * SceneLoader.ANIMATION_TIME), (int) (1.1 * SceneLoader.ANIMATION_TIME));
         return state;
     }
 
@@ -254,6 +331,25 @@ public class BotReducer extends Reducer<KBState> {
         return state;
     }
 
+    /**
+     * Represents the reducer to handle the time limit of a turn, which the server has sent to a bot.
+     *
+     * @param unused    the store.
+     * @param oldState  the old state.
+     * @param timeLimit the bot mainClient and its time limit.
+     * @return the deferredState.
+     */
+    @Reduce(action = SET_TIME_LIMIT_BOT)
+    public DeferredState onSetTimeLimitBot(Store<KBState> unused, KBState oldState, BotTimeLimit timeLimit) {
+        DeferredState state = new DeferredState(oldState);
+
+        AIGame aiGame = oldState.Bots().get(timeLimit.client());
+        if (aiGame != null)
+            aiGame.setTimeLimit(timeLimit.timeLimit());
+
+        return state;
+    }
+
     /**
      * Represents the reducer to handle setting the win conditions relevant to a bot.
      *
@@ -76,7 +76,7 @@ public class Reducer<State> {
      */
     private DeferredState<State> invoke(Method m, Store<State> store, Object payload) {
         try {
-            return (DeferredState<State>) m.invoke(this, store, store.getState(), payload);
+            return (DeferredState<State>) m.invoke(this, store, store.getReducedState(), payload);
         } catch(Exception unused) {
             unused.printStackTrace();
             return null;
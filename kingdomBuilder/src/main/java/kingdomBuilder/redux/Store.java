@@ -3,19 +3,71 @@ package kingdomBuilder.redux;
 import javafx.application.Platform;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents the store of the application.
+ * <br><br>
+ * The reducers run on a dedicated dispatcher thread, one action after another, so that the
+ * JavaFX Application Thread is not blocked by them. Actions, which are dispatched in a burst,
+ * are reduced as one batch. Subscribers are notified on the JavaFX Application Thread once per
+ * batch with the final state, and notifications, which are still pending there, are merged
+ * as well. Subscribers, which were subscribed via {@link #subscribeOnDispatcher}, are notified
+ * on the dispatcher after every action, which changed their attributes, so that they see every
+ * change. Subscribers, which were subscribed via {@link #subscribeToEvents}, are notified on the
+ * JavaFX Application Thread after every action as well, since their attributes hold events like
+ * the last turn, which would be lost by merging. The JavaFX Application Thread only sees
+ * snapshots of the state, which are taken on the dispatcher, since the reducers may change parts
+ * of the state in place.
+ * Expensive work, which does not need to mutate the state, is run as an effect,
+ * see {@link #runEffect}.
  * @param <State> state of application.
  */
 public class Store<State> {
     private static final String ATTRIBUTE_WILDCARD = "*";
+    private static final String DISPATCHER_THREAD_NAME = "StoreDispatcher";
+    private static final String EFFECT_THREAD_NAME_PREFIX = "StoreEffect-";
+
+    /**
+     * Represents an action, which was dispatched but not reduced yet.
+     * @param action the type of action as string.
+     * @param payload the payload passed to the reducer.
+     */
+    private record PendingAction(String action, Object payload) {}
+
+    /**
+     * Represents an event, whose subscriber has not been notified on the JavaFX Application Thread yet.
+     * @param subscriber the subscriber of the event.
+     * @param state the snapshot of the state after the action, which caused the event.
+     * @param <State> state of application.
+     */
+    private record PendingEvent<State>(Subscriber<State> subscriber, State state) {}
 
     /**
      * Represents the state of the application.
      */
-    private State state;
+    private volatile State state;
+
+    /**
+     * Represents the last snapshot of the state, which was published to the JavaFX Application Thread.
+     */
+    private volatile State publishedState;
+
+    /**
+     * Represents the function, which copies the state on the dispatcher before it is published.
+     */
+    private final UnaryOperator<State> snapshot;
 
     /**
      * Represents the reducer of the application.
@@ -27,15 +79,60 @@ public class Store<State> {
      */
     private final Map<String, Set<Subscriber<State>>> subscribers;
 
+    /**
+     * Represents the subscribers, which are notified on the dispatcher thread instead of the JavaFX Application Thread.
+     */
+    private final Set<Subscriber<State>> dispatcherSubscribers;
+
+    /**
+     * Represents the subscribers on the JavaFX Application Thread, which are notified after every action instead of
+     * once per batch.
+     */
+    private final Set<Subscriber<State>> eventSubscribers;
+
+    /**
+     * Represents the actions, which are reduced by the next batch.
+     */
+    private final Queue<PendingAction> pendingActions;
+
+    /**
+     * Represents whether a batch is scheduled on the dispatcher, which has not started to reduce yet.
+     */
+    private final AtomicBoolean batchScheduled;
+
+    /**
+     * Represents the subscribers, whose notification on the JavaFX Application Thread is pending.
+     */
+    private final Set<Subscriber<State>> pendingUiSubscribers;
+
+    /**
+     * Represents the events, whose notification on the JavaFX Application Thread is pending, in the order of their
+     * actions. It is guarded by {@link #pendingUiSubscribers}.
+     */
+    private final List<PendingEvent<State>> pendingUiEvents;
+
+    /**
+     * Represents the executor, which runs the reducers one after another.
+     */
+    private final ExecutorService dispatcher;
+
+    /**
+     * Represents the executor, which runs the effects.
+     */
+    private final ExecutorService effects;
+
+    /**
+     * Represents the executor, which notifies the subscribers that touch the UI.
+     */
+    private final Executor uiExecutor;
+
     /**
      * Creates a new Store object with the given state and reducer.
      * @param state state of the application.
      * @param reducer reducer of the application.
      */
     public Store(State state, Reducer<State> reducer) {
-        this.state = state;
-        this.reducer = reducer;
-        this.subscribers = new HashMap<>();
+        this(state, Platform::runLater, UnaryOperator.identity(), reducer);
     }
 
     /**
@@ -45,16 +142,81 @@ public class Store<State> {
      */
     @SafeVarargs
     public Store(State state, Reducer<State>... reducers) {
+        this(state, Platform::runLater, UnaryOperator.identity(), combineReducers(reducers));
+    }
+
+    /**
+     * Creates a new Store object with the given state and combines the reducers. The state is copied by the given
+     * function before it is published to the JavaFX Application Thread.
+     * @param state the initial state of the application.
+     * @param snapshot the function, which copies the parts of the state that the reducers change in place.
+     * @param reducers a list of reducers mutating the state via actions.
+     */
+    @SafeVarargs
+    public Store(State state, UnaryOperator<State> snapshot, Reducer<State>... reducers) {
+        this(state, Platform::runLater, snapshot, combineReducers(reducers));
+    }
+
+    /**
+     * Creates a new Store object with the given state and reducer, whose subscribers are notified by the given executor.
+     * @param state state of the application.
+     * @param uiExecutor the executor, which notifies the subscribers that touch the UI.
+     * @param reducer reducer of the application.
+     */
+    public Store(State state, Executor uiExecutor, Reducer<State> reducer) {
+        this(state, uiExecutor, UnaryOperator.identity(), reducer);
+    }
+
+    /**
+     * Creates a new Store object with the given state and reducer, whose subscribers are notified by the given executor
+     * with snapshots of the state.
+     * @param state state of the application.
+     * @param uiExecutor the executor, which notifies the subscribers that touch the UI.
+     * @param snapshot the function, which copies the parts of the state that the reducers change in place.
+     * @param reducer reducer of the application.
+     */
+    public Store(State state, Executor uiExecutor, UnaryOperator<State> snapshot, Reducer<State> reducer) {
         this.state = state;
-        this.reducer = combineReducers(reducers);
-        this.subscribers = new HashMap<>();
+        this.snapshot = snapshot;
+        this.publishedState = snapshot.apply(state);
+        this.reducer = reducer;
+        this.subscribers = new ConcurrentHashMap<>();
+        this.dispatcherSubscribers = ConcurrentHashMap.newKeySet();
+        this.eventSubscribers = ConcurrentHashMap.newKeySet();
+        this.uiExecutor = uiExecutor;
+        this.pendingActions = new ConcurrentLinkedQueue<>();
+        this.batchScheduled = new AtomicBoolean(false);
+        this.pendingUiSubscribers = new HashSet<>();
+        this.pendingUiEvents = new ArrayList<>();
+
+        this.dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, DISPATCHER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final AtomicInteger effectCount = new AtomicInteger(0);
+        this.effects = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, EFFECT_THREAD_NAME_PREFIX + effectCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
-     * Gets the state of the application.
+     * Gets the last snapshot of the state of the application, which was published to the subscribers.
+     * The dispatcher does not change it anymore, so that it can be read from any thread.
      * @return the state of application.
      */
     public State getState() {
+        return this.publishedState;
+    }
+
+    /**
+     * Gets the state, which the reducers work on. It may only be used on the dispatcher thread.
+     * @return the state of the application.
+     */
+    State getReducedState() {
         return this.state;
     }
 
@@ -62,20 +224,9 @@ public class Store<State> {
      * Calls the reducer to get the new state and notifies all subscribers.
      * @param action changes the state.
      */
-    public synchronized void dispatchOld(Action action) {
+    public void dispatchOld(Action action) {
         System.out.println("Reducer Log Old: " + action.getClass().getSimpleName());
-        Platform.runLater(() -> {
-            final DeferredState<State> state = reducer.reduce(this, action.getClass().getSimpleName(), action);
-            if(state.getChangedAttributes().isEmpty()) return;
-
-            Set<Subscriber<State>> subscribers = new HashSet<>();
-            subscribers.addAll(getSubscriberSet(ATTRIBUTE_WILDCARD));
-            for(String attribute: state.getChangedAttributes())
-                subscribers.addAll(getSubscriberSet(attribute));
-
-            this.state = state.withChanges();
-            subscribers.forEach(s -> s.onChange(this.state));
-        });
+        enqueue(new PendingAction(action.getClass().getSimpleName(), action));
     }
 
     /**
@@ -83,24 +234,146 @@ public class Store<State> {
      * @param action the type of action as string.
      * @param payload the payload passed to the reducer.
      */
-    public synchronized void dispatch(String action, Object payload) {
+    public void dispatch(String action, Object payload) {
         System.out.println("Reducer Log: " + action);
-        Platform.runLater(() -> {
-            final DeferredState<State> state = reducer.reduce(this, action, payload);
-            if(state.getChangedAttributes().isEmpty()) return;
+        enqueue(new PendingAction(action, payload));
+    }
+
+    /**
+     * Runs expensive work, like the search of a bot, on an effect thread, so that neither the dispatcher
+     * nor the JavaFX Application Thread is blocked by it. The result is dispatched with the given action,
+     * once the work is done.
+     * @param work the work, whose result is the payload of the action.
+     * @param action the type of action as string, which is dispatched with the result.
+     * @param <T> the type of the result.
+     */
+    public <T> void runEffect(Supplier<T> work, String action) {
+        try {
+            effects.execute(() -> dispatch(action, work.get()));
+        } catch(RejectedExecutionException exc) {
+            // The effects only reject work after the shutdown, when the dispatcher would drop the result anyway.
+            if(!effects.isShutdown()) throw exc;
+        }
+    }
+
+    /**
+     * Stops the effects and waits until the dispatcher has reduced the actions, which were dispatched so far,
+     * including those dispatched by their reducers. Actions, which are dispatched afterwards from other threads,
+     * are dropped.
+     * @param timeout the maximum time to wait for the dispatcher.
+     * @param unit the unit of the timeout.
+     * @return true if the dispatcher has stopped, false if the timeout elapsed before.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        effects.shutdownNow();
+        dispatcher.shutdown();
+        return dispatcher.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Helper method, which queues an action and schedules a batch, unless one is scheduled already.
+     * @param action the action to be reduced.
+     */
+    private void enqueue(PendingAction action) {
+        pendingActions.add(action);
+        if(!batchScheduled.compareAndSet(false, true)) return;
+
+        try {
+            dispatcher.execute(this::reduceBatch);
+        } catch(RejectedExecutionException exc) {
+            // The dispatcher only rejects batches after the shutdown. The actions, which the reducers of the running
+            // batch dispatch, are still reduced by its loop. Actions from other threads are dropped, see shutdown.
+            if(!dispatcher.isShutdown()) throw exc;
+        }
+    }
+
+    /**
+     * Helper method, which reduces all queued actions on the dispatcher thread, including those dispatched by
+     * the reducers meanwhile. Subscribers on the dispatcher are notified after every action, which changed
+     * their attributes, so that they see every intermediate state. Event subscribers on the JavaFX Application
+     * Thread get a snapshot after every such action as well. Every other affected subscriber on the
+     * JavaFX Application Thread is notified once with the final state of the batch.
+     */
+    private void reduceBatch() {
+        // Actions, which are queued from now on, may not be reduced by this batch, so they schedule another one.
+        batchScheduled.set(false);
 
-            Set<Subscriber<State>> subscribers = new HashSet<>();
-            subscribers.addAll(getSubscriberSet(ATTRIBUTE_WILDCARD));
-            for(String attribute: state.getChangedAttributes())
-                subscribers.addAll(getSubscriberSet(attribute));
+        final Set<String> changedAttributes = new HashSet<>();
+        final List<PendingEvent<State>> events = new ArrayList<>();
+        State latestSnapshot = null;
+        PendingAction action;
+        while((action = pendingActions.poll()) != null) {
+            final DeferredState<State> state = reducer.reduce(this, action.action(), action.payload());
+            if(state.getChangedAttributes().isEmpty()) continue;
 
+            changedAttributes.addAll(state.getChangedAttributes());
             this.state = state.withChanges();
-            subscribers.forEach(s -> s.onChange(this.state));
-        });
+            latestSnapshot = null;
+
+            final State newState = this.state;
+            for(var subscriber: getSubscribers(state.getChangedAttributes())) {
+                if(dispatcherSubscribers.contains(subscriber)) {
+                    subscriber.onChange(newState);
+                } else if(eventSubscribers.contains(subscriber)) {
+                    if(latestSnapshot == null) latestSnapshot = snapshot.apply(newState);
+                    events.add(new PendingEvent<>(subscriber, latestSnapshot));
+                }
+            }
+        }
+
+        if(changedAttributes.isEmpty()) return;
+
+        this.publishedState = latestSnapshot != null ? latestSnapshot : snapshot.apply(this.state);
+        boolean scheduleUi;
+        synchronized(pendingUiSubscribers) {
+            final boolean idle = pendingUiSubscribers.isEmpty() && pendingUiEvents.isEmpty();
+            pendingUiEvents.addAll(events);
+            for(var subscriber: getSubscribers(changedAttributes))
+                if(!dispatcherSubscribers.contains(subscriber) && !eventSubscribers.contains(subscriber))
+                    pendingUiSubscribers.add(subscriber);
+
+            scheduleUi = idle && !(pendingUiSubscribers.isEmpty() && pendingUiEvents.isEmpty());
+        }
+
+        if(scheduleUi)
+            uiExecutor.execute(this::notifyUiSubscribers);
+    }
+
+    /**
+     * Helper method, which collects the subscribers of the given attributes and those listening to every attribute.
+     * @param attributes the names of the changed attributes.
+     * @return the subscribers, which have to be notified.
+     */
+    private Set<Subscriber<State>> getSubscribers(Set<String> attributes) {
+        Set<Subscriber<State>> subscribers = new HashSet<>(getSubscriberSet(ATTRIBUTE_WILDCARD));
+        for(String attribute: attributes)
+            subscribers.addAll(getSubscriberSet(attribute));
+        return subscribers;
     }
 
     /**
-     * Subscribes an entity, which is then informed, when the state changes.
+     * Helper method, which notifies the pending events in order and afterwards the pending subscribers with the
+     * latest state on the JavaFX Application Thread.
+     */
+    private void notifyUiSubscribers() {
+        final List<PendingEvent<State>> events;
+        final List<Subscriber<State>> subscribers;
+        synchronized(pendingUiSubscribers) {
+            events = new ArrayList<>(pendingUiEvents);
+            pendingUiEvents.clear();
+            subscribers = new ArrayList<>(pendingUiSubscribers);
+            pendingUiSubscribers.clear();
+        }
+
+        events.forEach(e -> e.subscriber().onChange(e.state()));
+
+        final State state = this.publishedState;
+        subscribers.forEach(s -> s.onChange(state));
+    }
+
+    /**
+     * Subscribes an entity, which is then informed on the JavaFX Application Thread, when the state changes.
      * @param subscriber the subscriber, which is notified when the state changes.
      * @param attributes a list of attribute names for which the subscriber listens.
      */
@@ -118,7 +391,30 @@ public class Store<State> {
             subs.add(subscriber);
         }
 
-        subscriber.onChange(this.state);
+        subscriber.onChange(this.publishedState);
+    }
+
+    /**
+     * Subscribes an entity, which does not touch the UI and is therefore informed on the dispatcher thread,
+     * when the state changes.
+     * @param subscriber the subscriber, which is notified when the state changes.
+     * @param attributes a list of attribute names for which the subscriber listens.
+     */
+    public void subscribeOnDispatcher(Subscriber<State> subscriber, String... attributes) {
+        dispatcherSubscribers.add(subscriber);
+        subscribe(subscriber, attributes);
+    }
+
+    /**
+     * Subscribes an entity, which is informed on the JavaFX Application Thread after every action, which changed one
+     * of its attributes. It is meant for attributes, which hold events like the last turn or a chat message instead
+     * of values, since merging their notifications would drop all but the last event of a batch.
+     * @param subscriber the subscriber, which is notified with a snapshot of the state after every such action.
+     * @param attributes a list of attribute names for which the subscriber listens.
+     */
+    public void subscribeToEvents(Subscriber<State> subscriber, String... attributes) {
+        eventSubscribers.add(subscriber);
+        subscribe(subscriber, attributes);
     }
 
     /**
@@ -129,12 +425,12 @@ public class Store<State> {
     private Set<Subscriber<State>> getSubscriberSet(String name) {
         return subscribers.computeIfAbsent(
             name,
-            (String unused) -> new HashSet<>()
+            (String unused) -> ConcurrentHashMap.newKeySet()
         );
     }
 
     @SafeVarargs
-    private Reducer<State> combineReducers(Reducer<State>... reducers) {
+    private static <State> Reducer<State> combineReducers(Reducer<State>... reducers) {
         HashMap<String, BiFunction<Store<State>, Object, DeferredState<State>>> map = new HashMap<>();
         for(var reducer: reducers)
             map.putAll(reducer.getReducers());
@@ -0,0 +1,446 @@
+package kingdomBuilder.server;
+
+import kingdomBuilder.gamelogic.GameMap;
+import kingdomBuilder.gamelogic.PlayerColor;
+import kingdomBuilder.gamelogic.TileType;
+import kingdomBuilder.network.generated.ProtocolSerializer;
+import kingdomBuilder.network.protocol.ClientData;
+import kingdomBuilder.network.protocol.ClientLeft;
+import kingdomBuilder.network.protocol.HostGame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Represents a game server, which runs in the process of its clients and speaks the protocol of the game server
+ * launched by {@link kingdomBuilder.misc.Server}. Clients can log in, chat, query the server, upload quadrants, host
+ * and join games and play them, see {@link ServerGame}. Administrative commands, spectating and time limits are not
+ * supported and invalid commands are ignored instead of answered with an error.
+ * <br><br>
+ * The server runs on a single thread with a selector, which accepts the connections, reads and deserializes the
+ * commands, applies them and writes the replies. Thus the games need no synchronization. A command sent to several
+ * clients is serialized only once.
+ */
+public class LocalServer implements Runnable {
+
+    /**
+     * Represents the version the server reports, which is the one of the game server it stands in for.
+     */
+    static final String VERSION = "v1.3.2";
+
+    /**
+     * Represents the resource containing the quadrants of the game server, one quadrant per line.
+     */
+    private static final String QUADRANTS_RESOURCE = "quadrants.txt";
+
+    /**
+     * Represents the size of the buffer the commands are read into.
+     */
+    private static final int RECEIVE_BUFFER_SIZE = 8192;
+
+    /**
+     * Represents the channel accepting the connections.
+     */
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * Represents the selector of the server channel and of all connections.
+     */
+    private final Selector selector;
+
+    /**
+     * Represents the buffer all connections read into, since they are read one after another.
+     */
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(RECEIVE_BUFFER_SIZE);
+
+    /**
+     * Represents the quadrants by their id.
+     */
+    private final TreeMap<Integer, TileType[]> quadrants;
+
+    /**
+     * Represents the logged in clients by their id.
+     */
+    private final Map<Integer, ServerConnection> clients = new LinkedHashMap<>();
+
+    /**
+     * Represents the games by their id.
+     */
+    private final Map<Integer, ServerGame> games = new LinkedHashMap<>();
+
+    /**
+     * Represents the connections, which have commands to write.
+     */
+    private final Set<ServerConnection> pendingConnections = new LinkedHashSet<>();
+
+    /**
+     * Represents the source of randomness of the games.
+     */
+    private Random random = new Random();
+
+    /**
+     * Represents the id of the next client.
+     */
+    private int nextClientId = 0;
+
+    /**
+     * Represents the id of the next game.
+     */
+    private int nextGameId = 0;
+
+    /**
+     * Represents whether the server was asked to stop.
+     */
+    private volatile boolean stopped = false;
+
+    /**
+     * Represents whether the server is running.
+     */
+    private volatile boolean running = false;
+
+    /**
+     * Creates a server with the quadrants of the game server and binds it to an address.
+     *
+     * @param address the address to listen on. A port of 0 chooses a free port.
+     * @throws IOException when the address cannot be bound.
+     */
+    public LocalServer(InetSocketAddress address) throws IOException {
+        this(address, loadQuadrants());
+    }
+
+    /**
+     * Creates a server with the given quadrants and binds it to an address. Further quadrants can be uploaded by
+     * the clients.
+     *
+     * @param address   the address to listen on. A port of 0 chooses a free port.
+     * @param quadrants the quadrants by their id.
+     * @throws IOException when the address cannot be bound.
+     */
+    public LocalServer(InetSocketAddress address, Map<Integer, TileType[]> quadrants) throws IOException {
+        this.quadrants = new TreeMap<>(quadrants);
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException exc) {
+            serverChannel.close();
+            selector.close();
+            throw exc;
+        }
+    }
+
+    /**
+     * Sets the seed of the server. The same seed deals the same cards and win conditions.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Gets the address the server listens on.
+     *
+     * @return the address, including the chosen port.
+     * @throws IOException when the server is closed.
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Checks whether the server is running.
+     *
+     * @return true if the server is running. False otherwise.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops the server. All connections are closed and the server cannot be run again.
+     */
+    public void stop() {
+        stopped = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Accepts connections and handles the commands of the clients until the server is stopped.
+     */
+    @Override
+    public void run() {
+        running = true;
+
+        try {
+            while (!stopped) {
+                selector.select();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid())
+                        continue;
+
+                    if (key.isAcceptable())
+                        accept();
+                    else if (key.attachment() instanceof ServerConnection connection)
+                        connection.onSelected(receiveBuffer);
+                }
+
+                flush();
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        } finally {
+            close();
+            running = false;
+        }
+    }
+
+    /**
+     * Accepts all pending connections.
+     *
+     * @throws IOException when the server channel fails.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new ServerConnection(this, channel, key));
+        }
+    }
+
+    /**
+     * Writes the commands of all connections, which have commands to write.
+     */
+    private void flush() {
+        // a connection that fails to write is closed, which queues commands for the other clients.
+        while (!pendingConnections.isEmpty()) {
+            ServerConnection[] connections = pendingConnections.toArray(new ServerConnection[0]);
+            pendingConnections.clear();
+
+            for (ServerConnection connection : connections)
+                connection.flush();
+        }
+    }
+
+    /**
+     * Closes all connections, the selector and the server channel.
+     */
+    private void close() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Marks a connection as having commands to write, which are written after the current selection.
+     *
+     * @param connection the connection.
+     */
+    void markPending(ServerConnection connection) {
+        pendingConnections.add(connection);
+    }
+
+    /**
+     * Logs a connection in and assigns it an id.
+     *
+     * @param connection the connection.
+     * @return the id of the client.
+     */
+    int login(ServerConnection connection) {
+        int clientId = nextClientId++;
+        clients.put(clientId, connection);
+        return clientId;
+    }
+
+    /**
+     * Removes a closed connection from the server and its game and tells the other clients about it.
+     *
+     * @param connection the closed connection.
+     */
+    void disconnect(ServerConnection connection) {
+        pendingConnections.remove(connection);
+        if (connection.clientId < 0 || clients.remove(connection.clientId) == null)
+            return;
+
+        ClientData clientData = connection.clientData();
+        if (connection.game != null)
+            leaveGame(connection);
+
+        broadcast(clients.values(), null, ProtocolSerializer.serialize(new ClientLeft(clientData)));
+    }
+
+    /**
+     * Hosts a game, if all its quadrants are known.
+     *
+     * @param connection the client who hosts the game.
+     * @param settings   the settings of the game.
+     * @return the game or null if a quadrant is unknown or the player limit is invalid.
+     */
+    ServerGame hostGame(ServerConnection connection, HostGame settings) {
+        TileType[] topLeft = quadrants.get(settings.quadrantId1());
+        TileType[] topRight = quadrants.get(settings.quadrantId2());
+        TileType[] bottomLeft = quadrants.get(settings.quadrantId3());
+        TileType[] bottomRight = quadrants.get(settings.quadrantId4());
+
+        if (topLeft == null || topRight == null || bottomLeft == null || bottomRight == null
+                || settings.playerLimit() < 1 || settings.playerLimit() > PlayerColor.values().length)
+            return null;
+
+        GameMap gameMap = new GameMap(GameMap.DEFAULT_STARTING_TOKEN_COUNT, topLeft, topRight, bottomLeft, bottomRight);
+        ServerGame game = new ServerGame(nextGameId++, connection.clientId, settings, gameMap,
+                new Random(random.nextLong()));
+
+        games.put(game.id, game);
+        return game;
+    }
+
+    /**
+     * Removes a client from its game and removes the game, once it is over.
+     *
+     * @param connection the client.
+     */
+    void leaveGame(ServerConnection connection) {
+        ServerGame game = connection.game;
+        game.leave(connection, clients.values());
+        connection.game = null;
+        removeIfOver(game);
+    }
+
+    /**
+     * Removes a game that is over, so that its clients can join other games.
+     *
+     * @param game the game.
+     */
+    void removeIfOver(ServerGame game) {
+        if (!game.isOver())
+            return;
+
+        games.remove(game.id);
+        for (ServerConnection participant : game.getParticipants())
+            participant.game = null;
+    }
+
+    /**
+     * Adds an uploaded quadrant.
+     *
+     * @param fieldTypes the types of the fields of the quadrant.
+     * @return the id of the quadrant.
+     */
+    int uploadQuadrant(TileType[] fieldTypes) {
+        int quadrantId = quadrants.isEmpty() ? 0 : quadrants.lastKey() + 1;
+        quadrants.put(quadrantId, fieldTypes);
+        return quadrantId;
+    }
+
+    /**
+     * Gets a quadrant.
+     *
+     * @param quadrantId the id of the quadrant.
+     * @return the types of the fields of the quadrant or null if the quadrant is unknown.
+     */
+    TileType[] getQuadrant(int quadrantId) {
+        return quadrants.get(quadrantId);
+    }
+
+    /**
+     * Gets the ids of all quadrants.
+     *
+     * @return the ids in ascending order.
+     */
+    List<Integer> getQuadrantIds() {
+        return List.copyOf(quadrants.keySet());
+    }
+
+    /**
+     * Gets the logged in clients.
+     *
+     * @return the clients by their id.
+     */
+    Map<Integer, ServerConnection> getClients() {
+        return clients;
+    }
+
+    /**
+     * Gets the games.
+     *
+     * @return the games by their id.
+     */
+    Map<Integer, ServerGame> getGames() {
+        return games;
+    }
+
+    /**
+     * Sends a command to several clients. The command is encoded only once and shared by all of them.
+     *
+     * @param connections the clients.
+     * @param excluded    a client who does not receive the command or null.
+     * @param command     the serialized command.
+     */
+    static void broadcast(Collection<ServerConnection> connections, ServerConnection excluded, String command) {
+        ByteBuffer frame = ServerConnection.frame(command);
+        for (ServerConnection connection : connections)
+            if (connection != excluded)
+                connection.send(frame.duplicate());
+    }
+
+    /**
+     * Loads the quadrants of the game server from the resources.
+     *
+     * @return the quadrants by their id.
+     * @throws IOException when the quadrants cannot be read.
+     */
+    public static Map<Integer, TileType[]> loadQuadrants() throws IOException {
+        InputStream stream = LocalServer.class.getResourceAsStream(QUADRANTS_RESOURCE);
+        if (stream == null)
+            throw new MissingResourceException("Failed to retrieve the quadrants",
+                    LocalServer.class.getName(), QUADRANTS_RESOURCE);
+
+        Map<Integer, TileType[]> quadrants = new TreeMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank())
+                    continue;
+
+                String[] fields = line.split(";");
+                TileType[] fieldTypes = new TileType[fields.length - 1];
+                for (int i = 1; i < fields.length; i++)
+                    fieldTypes[i - 1] = TileType.valueOf(fields[i]);
+
+                quadrants.put(Integer.parseInt(fields[0]), fieldTypes);
+            }
+        }
+        return quadrants;
+    }
+}
@@ -0,0 +1,874 @@
+package kingdomBuilder.server;
+
+import kingdomBuilder.gamelogic.ClientTurn;
+import kingdomBuilder.gamelogic.TileType;
+import kingdomBuilder.network.generated.ProtocolSerializer;
+import kingdomBuilder.network.generated.ServerProtocolConsumer;
+import kingdomBuilder.network.generated.ServerProtocolDeserializer;
+import kingdomBuilder.network.internal.LineFramer;
+import kingdomBuilder.network.internal.Transport;
+import kingdomBuilder.network.protocol.*;
+
+import java.io.IOException;
+import java.lang.reflect.RecordComponent;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Represents the connection of a client to a {@link LocalServer}. It reads the commands of the client, deserializes
+ * them with the {@link ServerProtocolDeserializer} and answers them. Commands of clients that are not logged in are
+ * ignored, except for "iam".
+ * <br><br>
+ * Commands for the client are queued and written in batches with a single gathering write, once the server has handled
+ * all ready connections.
+ */
+class ServerConnection implements ServerProtocolConsumer {
+
+    /**
+     * Represents the namespace of the game, which clients load before they host or join games.
+     */
+    private static final String NAMESPACE = "kingdom_builder";
+
+    /**
+     * Represents the modules of the server.
+     */
+    private static final List<ModuleData> MODULES = List.of(
+            new ModuleData("Server", "std"),
+            new ModuleData("Kingdom Builder", NAMESPACE));
+
+    /**
+     * Represents the highest amount of commands that are written at once.
+     */
+    private static final int MAX_COMMANDS_PER_WRITE = 64;
+
+    /**
+     * Represents the server of the connection.
+     */
+    private final LocalServer server;
+
+    /**
+     * Represents the channel of the connection.
+     */
+    private final SocketChannel channel;
+
+    /**
+     * Represents the framer, which splits the received bytes into commands.
+     */
+    private final LineFramer framer = new LineFramer();
+
+    /**
+     * Represents the handler of the framed commands.
+     */
+    private final Consumer<CharSequence> commandConsumer = this::onCommand;
+
+    /**
+     * Represents the commands, which are queued for writing.
+     */
+    private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+
+    /**
+     * Represents the commands of the current write.
+     */
+    private final ByteBuffer[] batch = new ByteBuffer[MAX_COMMANDS_PER_WRITE];
+
+    /**
+     * Represents the selection key of the channel.
+     */
+    private final SelectionKey key;
+
+    /**
+     * Represents the id of the client or -1 if the client is not logged in.
+     */
+    int clientId = -1;
+
+    /**
+     * Represents the name of the client.
+     */
+    String name;
+
+    /**
+     * Represents the game the client joined or null.
+     */
+    ServerGame game;
+
+    /**
+     * Represents whether the client has loaded the namespace of the game.
+     */
+    private boolean namespaceLoaded = false;
+
+    /**
+     * Creates the connection of a client that was accepted by the server.
+     *
+     * @param server  the server.
+     * @param channel the channel of the client.
+     * @param key     the selection key of the channel.
+     */
+    ServerConnection(LocalServer server, SocketChannel channel, SelectionKey key) {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+    }
+
+    /**
+     * Reads and handles the commands of the client or writes the queued commands, depending on the readiness of the
+     * channel.
+     *
+     * @param buffer the buffer to read into, which is shared by all connections.
+     */
+    void onSelected(ByteBuffer buffer) {
+        if (key.isWritable())
+            flush();
+
+        if (!key.isValid() || !key.isReadable())
+            return;
+
+        try {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                close();
+                return;
+            }
+
+            buffer.flip();
+            framer.feed(buffer, commandConsumer);
+        } catch (IOException exc) {
+            close();
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Handles a command of the client. A game that is over afterwards is removed from the server.
+     *
+     * @param command the command without its terminator.
+     */
+    private void onCommand(CharSequence command) {
+        if (!channel.isOpen())
+            return;
+
+        ServerProtocolDeserializer.deserialize(command, this);
+
+        if (game != null)
+            server.removeIfOver(game);
+    }
+
+    /**
+     * Queues a command for the client. The command is written after the server has handled all ready connections.
+     *
+     * @param frame the encoded command including its terminator. The buffer must not be used afterwards.
+     */
+    void send(ByteBuffer frame) {
+        if (!channel.isOpen())
+            return;
+
+        writeQueue.add(frame);
+        server.markPending(this);
+    }
+
+    /**
+     * Queues a command for the client.
+     *
+     * @param command the serialized command.
+     */
+    void send(String command) {
+        send(frame(command));
+    }
+
+    /**
+     * Writes as many queued commands as the channel accepts. The channel is watched for writability as long as
+     * commands are left.
+     */
+    void flush() {
+        try {
+            while (!writeQueue.isEmpty()) {
+                int count = 0;
+                for (ByteBuffer frame : writeQueue) {
+                    batch[count++] = frame;
+                    if (count == batch.length)
+                        break;
+                }
+
+                channel.write(batch, 0, count);
+                boolean written = !batch[count - 1].hasRemaining();
+                Arrays.fill(batch, 0, count, null);
+
+                while (!writeQueue.isEmpty() && !writeQueue.peek().hasRemaining())
+                    writeQueue.poll();
+
+                // the socket buffer is full, the rest is written once the channel is writable again.
+                if (!written)
+                    break;
+            }
+
+            if (key.isValid())
+                key.interestOps(writeQueue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } catch (IOException exc) {
+            close();
+        }
+    }
+
+    /**
+     * Closes the connection and removes the client from the server.
+     */
+    void close() {
+        if (!channel.isOpen())
+            return;
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+
+        writeQueue.clear();
+        server.disconnect(this);
+    }
+
+    /**
+     * Gets the data of the client, as it is sent to the other clients.
+     *
+     * @return the data of the client.
+     */
+    ClientData clientData() {
+        return new ClientData(clientId, name, gameId());
+    }
+
+    /**
+     * Gets the id of the game of the client.
+     *
+     * @return the id or -1 if the client has not joined a game.
+     */
+    private int gameId() {
+        return (game == null) ? -1 : game.id;
+    }
+
+    /**
+     * Checks whether the client is logged in.
+     *
+     * @return true if the client is logged in. False otherwise.
+     */
+    private boolean isLoggedIn() {
+        return clientId >= 0;
+    }
+
+    /**
+     * Encodes a command for the transmission.
+     *
+     * @param command the serialized command.
+     * @return the encoded command including its terminator.
+     */
+    static ByteBuffer frame(String command) {
+        return ByteBuffer.wrap((command + Transport.COMMAND_TERMINATOR).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ignores a command, which could not be deserialized.
+     *
+     * @param packet the command.
+     */
+    @Override
+    public void onFailure(String packet) {
+    }
+
+    /**
+     * Logs the client in and tells the other clients about it.
+     *
+     * @param message the name of the client.
+     */
+    @Override
+    public void accept(IAm message) {
+        if (isLoggedIn())
+            return;
+
+        name = message.name();
+        clientId = server.login(this);
+
+        send(ProtocolSerializer.serialize(new WelcomeToServer(clientId, name, -1)));
+        LocalServer.broadcast(server.getClients().values(), this,
+                ProtocolSerializer.serialize(new ClientJoined(clientData())));
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(Bye message) {
+        close();
+    }
+
+    /**
+     * Ignores the answer to a ping.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(Pong message) {
+    }
+
+    /**
+     * Sends a message to the receivers or, if there are none, to all other clients.
+     *
+     * @param message the receivers and the message.
+     */
+    @Override
+    public void accept(Chat message) {
+        if (!isLoggedIn())
+            return;
+
+        String command = ProtocolSerializer.serialize(new Message(clientId, message.receiverIds(), message.message()));
+        if (message.receiverIds().isEmpty()) {
+            LocalServer.broadcast(server.getClients().values(), this, command);
+            return;
+        }
+
+        ByteBuffer frame = frame(command);
+        for (int receiverId : message.receiverIds()) {
+            ServerConnection receiver = server.getClients().get(receiverId);
+            if (receiver != null)
+                receiver.send(frame.duplicate());
+        }
+    }
+
+    /**
+     * Loads the namespace of the game.
+     *
+     * @param message the namespace.
+     */
+    @Override
+    public void accept(Load message) {
+        if (!isLoggedIn() || !message.namespace().equals(NAMESPACE))
+            return;
+
+        namespaceLoaded = true;
+        send(ProtocolSerializer.serialize(new NamespaceLoaded(NAMESPACE)));
+    }
+
+    /**
+     * Unloads the namespace of the game.
+     *
+     * @param message the namespace.
+     */
+    @Override
+    public void accept(Unload message) {
+        if (!isLoggedIn() || !namespaceLoaded || !message.namespace().equals(NAMESPACE))
+            return;
+
+        namespaceLoaded = false;
+        send(ProtocolSerializer.serialize(new NamespaceUnloaded(NAMESPACE)));
+    }
+
+    /**
+     * Sends the modules of the server.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(ModulesRequest message) {
+        if (isLoggedIn())
+            send(ProtocolSerializer.serialize(new ModulesReply(MODULES)));
+    }
+
+    /**
+     * Sends the modules the client has loaded.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(MyModulesRequest message) {
+        if (isLoggedIn())
+            send(ProtocolSerializer.serialize(new MyNamespacesReply(namespaceLoaded ? MODULES : MODULES.subList(0, 1))));
+    }
+
+    /**
+     * Sends the version of the server.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(VersionRequest message) {
+        if (isLoggedIn())
+            send(ProtocolSerializer.serialize(new VersionReply(LocalServer.VERSION)));
+    }
+
+    /**
+     * Sends the data of all clients.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(ClientsRequest message) {
+        if (isLoggedIn())
+            send(ProtocolSerializer.serialize(new ClientsReply(server.getClients().values().stream()
+                    .map(ServerConnection::clientData)
+                    .toList())));
+    }
+
+    /**
+     * Sends the data of a client.
+     *
+     * @param message the id of the client.
+     */
+    @Override
+    public void accept(ClientRequest message) {
+        ServerConnection client = server.getClients().get(message.clientId());
+        if (isLoggedIn() && client != null)
+            send(ProtocolSerializer.serialize(new ClientReply(client.clientData())));
+    }
+
+    /**
+     * Sends the data of the client itself.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(WhoAmIRequest message) {
+        if (isLoggedIn())
+            send(ProtocolSerializer.serialize(new WhoAmIReply(clientId, name, gameId())));
+    }
+
+    /**
+     * Sends the ids of all quadrants.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(QuadrantsRequest message) {
+        if (isLoggedIn())
+            send(ProtocolSerializer.serialize(new QuadrantsReply(server.getQuadrantIds())));
+    }
+
+    /**
+     * Sends the fields of a quadrant.
+     *
+     * @param message the id of the quadrant.
+     */
+    @Override
+    public void accept(QuadrantRequest message) {
+        TileType[] fieldTypes = server.getQuadrant(message.quadrantId());
+        if (isLoggedIn() && fieldTypes != null)
+            send(ProtocolSerializer.serialize(quadrantReply(message.quadrantId(), fieldTypes)));
+    }
+
+    /**
+     * Adds a quadrant to the server and tells all clients about it.
+     *
+     * @param message the fields of the quadrant.
+     */
+    @Override
+    public void accept(UploadQuadrant message) {
+        if (!isLoggedIn())
+            return;
+
+        TileType[] fieldTypes;
+        try {
+            fieldTypes = fieldTypesOf(message);
+        } catch (IllegalArgumentException exc) {
+            return;
+        }
+
+        int quadrantId = server.uploadQuadrant(fieldTypes);
+        LocalServer.broadcast(server.getClients().values(), null,
+                ProtocolSerializer.serialize(new QuadrantUploaded(clientId, quadrantId)));
+    }
+
+    /**
+     * Hosts a game and tells all clients about it.
+     *
+     * @param message the settings of the game.
+     */
+    @Override
+    public void accept(HostGame message) {
+        if (!isLoggedIn() || game != null)
+            return;
+
+        ServerGame hosted = server.hostGame(this, message);
+        if (hosted != null)
+            LocalServer.broadcast(server.getClients().values(), null,
+                    ProtocolSerializer.serialize(new GameHosted(hosted.gameData())));
+    }
+
+    /**
+     * Joins a game, which has not started yet.
+     *
+     * @param message the id of the game.
+     */
+    @Override
+    public void accept(Join message) {
+        ServerGame joined = server.getGames().get(message.gameId());
+        if (!isLoggedIn() || game != null || joined == null || !joined.canJoin())
+            return;
+
+        game = joined;
+        joined.join(this, server.getClients().values());
+    }
+
+    /**
+     * Sends the data of all games.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(GamesRequest message) {
+        if (isLoggedIn())
+            send(ProtocolSerializer.serialize(new GamesReply(server.getGames().values().stream()
+                    .map(ServerGame::gameData)
+                    .toList())));
+    }
+
+    /**
+     * Sends the ids of the players of a game.
+     *
+     * @param message the id of the game.
+     */
+    @Override
+    public void accept(PlayersOfGameRequest message) {
+        ServerGame requested = server.getGames().get(message.gameId());
+        if (isLoggedIn() && requested != null)
+            send(ProtocolSerializer.serialize(requested.playersOfGameReply()));
+    }
+
+    /**
+     * Sends the quadrants of a game.
+     *
+     * @param message the id of the game.
+     */
+    @Override
+    public void accept(DetailsOfGameRequest message) {
+        ServerGame requested = server.getGames().get(message.gameId());
+        if (!isLoggedIn() || requested == null)
+            return;
+
+        BoardData boardData = requested.boardData();
+        send(ProtocolSerializer.serialize(new DetailsOfGameReply("[" + requested.id + ";"
+                + ProtocolSerializer.serialize(boardData, new StringBuilder()) + "]")));
+    }
+
+    /**
+     * Sends the data and the settings of the game of the client.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(MyGameRequest message) {
+        if (game != null)
+            send(ProtocolSerializer.serialize(game.myGameReply()));
+    }
+
+    /**
+     * Sends the players of the game of the client.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(PlayersRequest message) {
+        if (game != null)
+            send(ProtocolSerializer.serialize(game.playersReply()));
+    }
+
+    /**
+     * Sends the quadrants of the game of the client.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(BoardRequest message) {
+        if (game != null)
+            send(ProtocolSerializer.serialize(new BoardReply(game.boardData())));
+    }
+
+    /**
+     * Sends the win conditions of the game of the client.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(WinConditionsRequest message) {
+        if (game == null || !game.hasStarted())
+            return;
+
+        kingdomBuilder.network.protocol.WinCondition winCondition = game.winCondition();
+        send(ProtocolSerializer.serialize(new WinConditionReply(
+                winCondition.winCondition1(), winCondition.winCondition2(), winCondition.winCondition3())));
+    }
+
+    /**
+     * Sends the client whose turn it is.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(WhoseTurnRequest message) {
+        if (game != null && game.hasStarted())
+            send(ProtocolSerializer.serialize(new WhoseTurnReply(game.whoseTurn())));
+    }
+
+    /**
+     * Sends the amount of settlements every player of the game has left.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(SettlementsLeftRequest message) {
+        if (game != null)
+            send(ProtocolSerializer.serialize(game.settlementsLeftReply()));
+    }
+
+    /**
+     * Sends the amount of turns of the game of the client.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(TurnsRequest message) {
+        if (game != null)
+            send(ProtocolSerializer.serialize(new TurnsReply(game.getTurns())));
+    }
+
+    /**
+     * Sends the time limit of the game of the client.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(TimeLimitRequest message) {
+        if (game != null)
+            send(ProtocolSerializer.serialize(new TimeLimitReply(game.settings.timeLimit())));
+    }
+
+    /**
+     * Sends the turn limit of the game of the client.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(TurnLimitRequest message) {
+        if (game != null)
+            send(ProtocolSerializer.serialize(new TurnLimitReply(game.settings.turnLimit())));
+    }
+
+    /**
+     * Sends the player limit of the game of the client.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(PlayerLimitRequest message) {
+        if (game != null)
+            send(ProtocolSerializer.serialize(new PlayerLimitReply(game.settings.playerLimit())));
+    }
+
+    /**
+     * Places a settlement as part of the basic turn.
+     *
+     * @param message the position of the settlement.
+     */
+    @Override
+    public void accept(Place message) {
+        if (game != null)
+            game.move(this, ClientTurn.TurnType.PLACE, message.row(), message.column(), -1, -1);
+    }
+
+    /**
+     * Places a settlement with an oracle token.
+     *
+     * @param message the position of the settlement.
+     */
+    @Override
+    public void accept(Oracle message) {
+        if (game != null)
+            game.move(this, ClientTurn.TurnType.ORACLE, message.row(), message.column(), -1, -1);
+    }
+
+    /**
+     * Places a settlement with a farm token.
+     *
+     * @param message the position of the settlement.
+     */
+    @Override
+    public void accept(Farm message) {
+        if (game != null)
+            game.move(this, ClientTurn.TurnType.FARM, message.row(), message.column(), -1, -1);
+    }
+
+    /**
+     * Places a settlement with a tavern token.
+     *
+     * @param message the position of the settlement.
+     */
+    @Override
+    public void accept(Tavern message) {
+        if (game != null)
+            game.move(this, ClientTurn.TurnType.TAVERN, message.row(), message.column(), -1, -1);
+    }
+
+    /**
+     * Places a settlement with a tower token.
+     *
+     * @param message the position of the settlement.
+     */
+    @Override
+    public void accept(Tower message) {
+        if (game != null)
+            game.move(this, ClientTurn.TurnType.TOWER, message.row(), message.column(), -1, -1);
+    }
+
+    /**
+     * Places a settlement with an oasis token.
+     *
+     * @param message the position of the settlement.
+     */
+    @Override
+    public void accept(Oasis message) {
+        if (game != null)
+            game.move(this, ClientTurn.TurnType.OASIS, message.row(), message.column(), -1, -1);
+    }
+
+    /**
+     * Moves a settlement with a harbor token.
+     *
+     * @param message the positions the settlement is moved from and to.
+     */
+    @Override
+    public void accept(Harbor message) {
+        if (game != null)
+            game.move(this, ClientTurn.TurnType.HARBOR,
+                    message.rowFrom(), message.columnFrom(), message.row(), message.column());
+    }
+
+    /**
+     * Moves a settlement with a paddock token.
+     *
+     * @param message the positions the settlement is moved from and to.
+     */
+    @Override
+    public void accept(Paddock message) {
+        if (game != null)
+            game.move(this, ClientTurn.TurnType.PADDOCK,
+                    message.rowFrom(), message.columnFrom(), message.row(), message.column());
+    }
+
+    /**
+     * Moves a settlement with a barn token.
+     *
+     * @param message the positions the settlement is moved from and to.
+     */
+    @Override
+    public void accept(Barn message) {
+        if (game != null)
+            game.move(this, ClientTurn.TurnType.BARN,
+                    message.rowFrom(), message.columnFrom(), message.row(), message.column());
+    }
+
+    /**
+     * Ends the turn of the client.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(EndTurn message) {
+        if (game != null)
+            game.endTurn(this);
+    }
+
+    /**
+     * Rejects the password, since the server has no administrators.
+     *
+     * @param message the password.
+     */
+    @Override
+    public void accept(Root message) {
+        if (isLoggedIn())
+            send(ProtocolSerializer.serialize(new WrongPassword()));
+    }
+
+    /**
+     * Ignores the command, since the server has no administrators.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(KickClient message) {
+    }
+
+    /**
+     * Ignores the command, since the server has no administrators.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(ShutdownServer message) {
+    }
+
+    /**
+     * Ignores the command, since spectating is not supported.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(Spectate message) {
+    }
+
+    /**
+     * Ignores the command, since spectating is not supported.
+     *
+     * @param message the command.
+     */
+    @Override
+    public void accept(Unspectate message) {
+    }
+
+    /**
+     * Creates the reply to ?quadrant. The record has a component per field, thus it is created reflectively.
+     *
+     * @param quadrantId the id of the quadrant.
+     * @param fieldTypes the types of the fields of the quadrant.
+     * @return the reply.
+     */
+    private static QuadrantReply quadrantReply(int quadrantId, TileType[] fieldTypes) {
+        RecordComponent[] components = QuadrantReply.class.getRecordComponents();
+        Class<?>[] types = new Class<?>[components.length];
+        Object[] arguments = new Object[components.length];
+
+        types[0] = int.class;
+        arguments[0] = quadrantId;
+        for (int i = 1; i < components.length; i++) {
+            types[i] = String.class;
+            arguments[i] = fieldTypes[i - 1].name();
+        }
+
+        try {
+            return QuadrantReply.class.getDeclaredConstructor(types).newInstance(arguments);
+        } catch (ReflectiveOperationException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    /**
+     * Gets the types of the fields of an uploaded quadrant. The record has a component per field, thus they are read
+     * reflectively.
+     *
+     * @param message the uploaded quadrant.
+     * @return the types of the fields.
+     * @throws IllegalArgumentException when a field has an unknown type.
+     */
+    private static TileType[] fieldTypesOf(UploadQuadrant message) {
+        RecordComponent[] components = UploadQuadrant.class.getRecordComponents();
+        TileType[] fieldTypes = new TileType[components.length];
+
+        try {
+            for (int i = 0; i < components.length; i++)
+                fieldTypes[i] = TileType.valueOf((String) components[i].getAccessor().invoke(message));
+        } catch (ReflectiveOperationException exc) {
+            throw new IllegalStateException(exc);
+        }
+        return fieldTypes;
+    }
+}
@@ -0,0 +1,489 @@
+package kingdomBuilder.server;
+
+import kingdomBuilder.gamelogic.ClientTurn;
+import kingdomBuilder.gamelogic.Game;
+import kingdomBuilder.gamelogic.GameMap;
+import kingdomBuilder.gamelogic.Player;
+import kingdomBuilder.gamelogic.PlayerColor;
+import kingdomBuilder.gamelogic.Tile;
+import kingdomBuilder.gamelogic.TileType;
+import kingdomBuilder.gamelogic.Tournament;
+import kingdomBuilder.gamelogic.WinCondition;
+import kingdomBuilder.network.generated.ProtocolSerializer;
+import kingdomBuilder.network.protocol.*;
+
+import java.util.*;
+
+/**
+ * Represents a game hosted on a {@link LocalServer}. The game starts as soon as the player limit is reached. Every
+ * move is checked and applied with {@link Tournament#applyMove(GameMap, Player, ClientTurn)}, thus with the rules of
+ * {@link Game}, and the players are scored with {@link Game#calculateScore(GameMap, Player, List, List)}.
+ * <br><br>
+ * Like the game server, the position of a received token is the one of the settlement next to the special place,
+ * while the position of a lost token is the one of the special place.
+ */
+class ServerGame {
+
+    /**
+     * Represents the type of the games, as it is reported by the game server.
+     */
+    static final String GAME_TYPE = "kingdom_builder:kingdom_builder";
+
+    /**
+     * Represents the amount of win conditions of a game.
+     */
+    private static final int WIN_CONDITIONS_PER_GAME = 3;
+
+    /**
+     * Represents the id of the game.
+     */
+    final int id;
+
+    /**
+     * Represents the id of the client who hosted the game.
+     */
+    final int hostId;
+
+    /**
+     * Represents the settings of the game, as they were sent by the host.
+     */
+    final HostGame settings;
+
+    /**
+     * Represents the clients, who joined the game, in the order of their turns.
+     */
+    private final List<ServerConnection> participants = new ArrayList<>();
+
+    /**
+     * Represents the players of the clients, indexed like the participants.
+     */
+    private final List<Player> players = new ArrayList<>();
+
+    /**
+     * Represents the map of the game. Every game plays on its own map.
+     */
+    private final GameMap gameMap;
+
+    /**
+     * Represents the special places of the map, which give tokens.
+     */
+    private final List<Tile> specialPlaces;
+
+    /**
+     * Represents the terrain cards that are left in the deck.
+     */
+    private final Deque<TileType> deck = new ArrayDeque<>();
+
+    /**
+     * Represents the source of randomness of the cards and the win conditions.
+     */
+    private final Random random;
+
+    /**
+     * Represents the win conditions of the game.
+     */
+    private List<WinCondition> winConditions = List.of();
+
+    /**
+     * Represents the seat of the player whose turn it is or -1 if the game has not started yet.
+     */
+    private int currentSeat = -1;
+
+    /**
+     * Represents the amount of turns that were started.
+     */
+    private int turns = 0;
+
+    /**
+     * Represents whether a player has placed the last settlement, so that the game ends with the round.
+     */
+    private boolean lastRound = false;
+
+    /**
+     * Represents whether the game is over.
+     */
+    private boolean over = false;
+
+    /**
+     * Creates a game, which waits for players to join.
+     *
+     * @param id        the id of the game.
+     * @param hostId    the id of the client who hosted the game.
+     * @param settings  the settings of the game.
+     * @param gameMap   the map assembled from the quadrants of the settings.
+     * @param random    the source of randomness of the cards and the win conditions.
+     */
+    ServerGame(int id, int hostId, HostGame settings, GameMap gameMap, Random random) {
+        this.id = id;
+        this.hostId = hostId;
+        this.settings = settings;
+        this.gameMap = gameMap;
+        this.random = random;
+        this.specialPlaces = gameMap.stream()
+                .filter(tile -> TileType.tokenType.contains(tile.tileType))
+                .toList();
+    }
+
+    /**
+     * Checks whether another client can join the game.
+     *
+     * @return true if the game has not started and is not full. False otherwise.
+     */
+    boolean canJoin() {
+        return currentSeat < 0 && !over && participants.size() < settings.playerLimit();
+    }
+
+    /**
+     * Adds a client to the game and starts the game when the player limit is reached.
+     *
+     * @param connection the client who joins.
+     * @param clients    all clients of the server, which are notified about the new player.
+     */
+    void join(ServerConnection connection, Collection<ServerConnection> clients) {
+        participants.add(connection);
+        players.add(new Player(connection.clientId, connection.name, freeColor(), Game.DEFAULT_STARTING_SETTLEMENTS));
+
+        connection.send(ProtocolSerializer.serialize(new WelcomeToGame(id)));
+        LocalServer.broadcast(clients, connection, ProtocolSerializer.serialize(new PlayerJoined(connection.clientId, id)));
+
+        if (participants.size() == settings.playerLimit())
+            start();
+    }
+
+    /**
+     * Finds the first color that none of the players uses, since players can leave the game before it starts.
+     *
+     * @return the color of the next player.
+     */
+    private PlayerColor freeColor() {
+        return Arrays.stream(PlayerColor.values())
+                .filter(color -> players.stream().noneMatch(player -> player.color == color))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Removes a client from the game. A running game goes on without the player, unless no player is left.
+     *
+     * @param connection the client who leaves.
+     * @param clients    all clients of the server, which are notified about the leaving player.
+     */
+    void leave(ServerConnection connection, Collection<ServerConnection> clients) {
+        int seat = participants.indexOf(connection);
+        if (seat < 0)
+            return;
+
+        participants.remove(seat);
+        players.remove(seat);
+        LocalServer.broadcast(clients, connection, ProtocolSerializer.serialize(new PlayerLeft(connection.clientId, id)));
+
+        if (currentSeat < 0 || over)
+            return;
+
+        if (participants.isEmpty()) {
+            over = true;
+        } else if (seat < currentSeat) {
+            currentSeat--;
+        } else if (seat == currentSeat) {
+            // the next player takes the seat of the leaving player.
+            if (currentSeat == participants.size())
+                endRound();
+            else
+                startTurn(currentSeat);
+        }
+    }
+
+    /**
+     * Deals the cards and the win conditions and starts the first turn.
+     */
+    private void start() {
+        List<WinCondition> conditions = new ArrayList<>(List.of(WinCondition.values()));
+        Collections.shuffle(conditions, random);
+        winConditions = List.copyOf(conditions.subList(0, WIN_CONDITIONS_PER_GAME));
+
+        broadcast(ProtocolSerializer.serialize(new InitStart()));
+        broadcast(ProtocolSerializer.serialize(winCondition()));
+
+        for (int seat = 0; seat < participants.size(); seat++) {
+            TileType card = Tournament.drawCard(deck, random);
+            players.get(seat).setTerrainCard(card);
+            participants.get(seat).send(ProtocolSerializer.serialize(new YourTerrainCard(card.name())));
+        }
+
+        broadcast(ProtocolSerializer.serialize(new GameStart()));
+        startTurn(0);
+    }
+
+    /**
+     * Starts the turn of a player and tells everyone the terrain of the turn.
+     *
+     * @param seat the seat of the player.
+     */
+    private void startTurn(int seat) {
+        currentSeat = seat;
+        turns++;
+
+        Player player = players.get(seat);
+        player.startTurn();
+
+        broadcast(ProtocolSerializer.serialize(new TurnStart(player.ID)));
+        broadcast(ProtocolSerializer.serialize(new TerrainTypeOfTurn(player.getTerrainCard().name())));
+    }
+
+    /**
+     * Checks a move of a client and tells everyone about the changes, if it is valid. Moves of clients whose turn it
+     * is not and moves which break the rules are ignored.
+     *
+     * @param connection the client who makes the move.
+     * @param type       the type of the move.
+     * @param row        the row of the settlement to place or to move.
+     * @param column     the column of the settlement to place or to move.
+     * @param toRow      the row to move the settlement to or -1.
+     * @param toColumn   the column to move the settlement to or -1.
+     */
+    void move(ServerConnection connection, ClientTurn.TurnType type, int row, int column, int toRow, int toColumn) {
+        if (!isTurnOf(connection))
+            return;
+
+        Player player = players.get(currentSeat);
+        List<Tile> tokensBefore = tokensOf(player);
+
+        if (!Tournament.applyMove(gameMap, player, new ClientTurn(player.ID, type, column, row, toColumn, toRow)))
+            return;
+
+        boolean moved = toRow >= 0;
+        int settlementRow = moved ? toRow : row;
+        int settlementColumn = moved ? toColumn : column;
+
+        if (type != ClientTurn.TurnType.PLACE)
+            broadcast(ProtocolSerializer.serialize(new TokenUsed(player.ID, type.name())));
+
+        broadcast(ProtocolSerializer.serialize(new SettlementPlaced(player.ID, settlementRow, settlementColumn)));
+        if (moved)
+            broadcast(ProtocolSerializer.serialize(new SettlementRemoved(player.ID, row, column)));
+
+        List<Tile> tokensAfter = tokensOf(player);
+        for (Tile specialPlace : tokensAfter)
+            if (!tokensBefore.contains(specialPlace))
+                broadcast(ProtocolSerializer.serialize(new TokenReceived(player.ID, specialPlace.tileType.name(),
+                        settlementRow, settlementColumn)));
+
+        for (Tile specialPlace : tokensBefore)
+            if (!tokensAfter.contains(specialPlace))
+                broadcast(ProtocolSerializer.serialize(new TokenLost(player.ID, specialPlace.tileType.name(),
+                        specialPlace.y, specialPlace.x)));
+
+        if (!moved && !player.hasRemainingSettlements() && !lastRound) {
+            lastRound = true;
+            broadcast(ProtocolSerializer.serialize(new PlayerUsedLastSettlement(player.ID)));
+        }
+    }
+
+    /**
+     * Ends the turn of a client, if the client has placed all settlements of the basic turn, and starts the next
+     * turn. The game is over after the round, in which a player placed the last settlement, or after the turn limit.
+     *
+     * @param connection the client who ends the turn.
+     */
+    void endTurn(ServerConnection connection) {
+        if (!isTurnOf(connection))
+            return;
+
+        Player player = players.get(currentSeat);
+        if (Game.allBasicTurnTiles(gameMap, player).findAny().isPresent())
+            return;
+
+        TileType card = Tournament.drawCard(deck, random);
+        player.setTerrainCard(card);
+        connection.send(ProtocolSerializer.serialize(new YourTerrainCard(card.name())));
+
+        if (settings.turnLimit() > 0 && turns >= settings.turnLimit())
+            finish();
+        else if (currentSeat + 1 < participants.size())
+            startTurn(currentSeat + 1);
+        else
+            endRound();
+    }
+
+    /**
+     * Ends a round by either starting the next one or finishing the game.
+     */
+    private void endRound() {
+        if (lastRound)
+            finish();
+        else
+            startTurn(0);
+    }
+
+    /**
+     * Scores the players and tells everyone about the winners.
+     */
+    private void finish() {
+        over = true;
+
+        List<ScoresData> scores = new ArrayList<>();
+        int best = Integer.MIN_VALUE;
+        for (Player player : players) {
+            int score = Game.calculateScore(gameMap, player, winConditions, players);
+            scores.add(new ScoresData(player.ID, score));
+            best = Math.max(best, score);
+        }
+
+        List<Integer> winners = new ArrayList<>();
+        for (ScoresData score : scores)
+            if (score.score() == best)
+                winners.add(score.clientId());
+
+        broadcast(ProtocolSerializer.serialize(new Scores(scores)));
+        broadcast(ProtocolSerializer.serialize(new GameOver(winners)));
+    }
+
+    /**
+     * Checks whether it is the turn of a client.
+     *
+     * @param connection the client.
+     * @return true if the game is running and it is the turn of the client. False otherwise.
+     */
+    private boolean isTurnOf(ServerConnection connection) {
+        return currentSeat >= 0 && !over && participants.get(currentSeat) == connection;
+    }
+
+    /**
+     * Gets the special places a player has a token from.
+     *
+     * @param player the player.
+     * @return the special places in the order of the map.
+     */
+    private List<Tile> tokensOf(Player player) {
+        List<Tile> tokens = new ArrayList<>();
+        for (Tile specialPlace : specialPlaces)
+            if (player.hasTokenFrom(specialPlace))
+                tokens.add(specialPlace);
+        return tokens;
+    }
+
+    /**
+     * Sends a command to all players of the game.
+     *
+     * @param command the serialized command.
+     */
+    private void broadcast(String command) {
+        LocalServer.broadcast(participants, null, command);
+    }
+
+    /**
+     * Checks whether the game is over.
+     *
+     * @return true if the game is over. False otherwise.
+     */
+    boolean isOver() {
+        return over;
+    }
+
+    /**
+     * Gets the clients who joined the game.
+     *
+     * @return the clients in the order of their turns.
+     */
+    List<ServerConnection> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Gets the data of the game, as it is sent to announce the game and as reply to ?games.
+     *
+     * @return the data of the game.
+     */
+    GameData gameData() {
+        return new GameData(hostId, GAME_TYPE, id, settings.gameName(), settings.gameDescription(),
+                settings.playerLimit(), participants.size());
+    }
+
+    /**
+     * Gets the quadrants of the game.
+     *
+     * @return the ids of the quadrants.
+     */
+    BoardData boardData() {
+        return new BoardData(settings.quadrantId1(), settings.quadrantId2(), settings.quadrantId3(),
+                settings.quadrantId4());
+    }
+
+    /**
+     * Gets the reply to ?mygame.
+     *
+     * @return the data and the settings of the game.
+     */
+    MyGameReply myGameReply() {
+        return new MyGameReply(hostId, GAME_TYPE, id, settings.gameName(), settings.gameDescription(),
+                settings.playerLimit(), participants.size(), settings.timeLimit(), settings.turnLimit(), boardData());
+    }
+
+    /**
+     * Gets the reply to ?players.
+     *
+     * @return the ids and the colors of the players.
+     */
+    PlayersReply playersReply() {
+        return new PlayersReply(players.stream()
+                .map(player -> new PlayerData(player.ID, player.color.name()))
+                .toList());
+    }
+
+    /**
+     * Gets the reply to ?playersofgame.
+     *
+     * @return the ids of the players.
+     */
+    PlayersOfGameReply playersOfGameReply() {
+        return new PlayersOfGameReply(id, players.stream().map(player -> player.ID).toList());
+    }
+
+    /**
+     * Gets the reply to ?settlementsleft.
+     *
+     * @return the amount of settlements every player has left.
+     */
+    SettlementsLeftReply settlementsLeftReply() {
+        return new SettlementsLeftReply(players.stream()
+                .map(player -> new SettlementData(player.ID, player.getRemainingSettlements()))
+                .toList());
+    }
+
+    /**
+     * Gets the win conditions as they are sent at the start of the game.
+     *
+     * @return the win conditions.
+     */
+    kingdomBuilder.network.protocol.WinCondition winCondition() {
+        return new kingdomBuilder.network.protocol.WinCondition(
+                winConditions.get(0).name(), winConditions.get(1).name(), winConditions.get(2).name());
+    }
+
+    /**
+     * Checks whether the win conditions are already chosen.
+     *
+     * @return true if the game has started. False otherwise.
+     */
+    boolean hasStarted() {
+        return currentSeat >= 0;
+    }
+
+    /**
+     * Gets the client whose turn it is.
+     *
+     * @return the id of the client or -1 if the game is not running.
+     */
+    int whoseTurn() {
+        return (currentSeat < 0 || over) ? -1 : players.get(currentSeat).ID;
+    }
+
+    /**
+     * Gets the amount of turns that were started.
+     *
+     * @return the amount of turns.
+     */
+    int getTurns() {
+        return turns;
+    }
+}
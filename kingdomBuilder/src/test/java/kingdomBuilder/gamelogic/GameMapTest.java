@@ -871,4 +871,280 @@ public class GameMapTest {
         assertTrue(specialPlaces.contains(s7));
 
     }
+
+    @Test
+    void testAddSurroundingTiles() {
+        // every tile on its own has to match the surrounding tiles of the tile
+        for (Tile tile : gameMap) {
+            BitBoard board = new BitBoard(gameMap.size());
+            board.set(gameMap.indexOf(tile));
+
+            Set<Tile> expected = tile.surroundingTiles(gameMap).collect(Collectors.toSet());
+            Set<Tile> result = gameMap.stream(gameMap.addSurroundingTiles(board, new BitBoard(gameMap.size())))
+                    .collect(Collectors.toSet());
+
+            assertEquals(expected, result, "wrong surrounding tiles at " + tile.x + "/" + tile.y);
+        }
+    }
+
+    @Test
+    void testSettlementsBoard() {
+        gameMap.at(4, 5).placeSettlement(playerOne);
+        gameMap.at(19, 19).placeSettlement(playerOne);
+        gameMap.at(3, 5).placeSettlement(playerTwo);
+
+        BitBoard settlements = gameMap.getSettlementsBoard(playerOne);
+        assertEquals(2, settlements.cardinality());
+        assertTrue(settlements.get(gameMap.indexOf(gameMap.at(4, 5))));
+        assertTrue(settlements.get(gameMap.indexOf(gameMap.at(19, 19))));
+        assertTrue(gameMap.getBlockedBoard().get(gameMap.indexOf(gameMap.at(3, 5))));
+
+        gameMap.at(4, 5).moveSettlement(gameMap.at(5, 5));
+        settlements = gameMap.getSettlementsBoard(playerOne);
+        assertFalse(settlements.get(gameMap.indexOf(gameMap.at(4, 5))));
+        assertTrue(settlements.get(gameMap.indexOf(gameMap.at(5, 5))));
+        assertFalse(gameMap.getBlockedBoard().get(gameMap.indexOf(gameMap.at(4, 5))));
+    }
+
+    @Test
+    void testNeighbourTable() {
+        NeighbourTable table = gameMap.neighbourTable;
+
+        for (int y = 0; y < gameMap.mapWidth; y++) {
+            for (int x = 0; x < gameMap.mapWidth; x++) {
+                int index = gameMap.indexOf(gameMap.at(x, y));
+
+                for (int distance = 1; distance <= 3; distance++) {
+                    int topLeftX = GameMap.topLeftX(x, y, distance);
+                    int topRightX = GameMap.topRightX(x, y, distance);
+
+                    assertEquals(gameMap.isWithinBounds(topLeftX, y - distance)
+                                    ? gameMap.indexOf(gameMap.at(topLeftX, y - distance)) : -1,
+                            table.step(index, NeighbourTable.TOP_LEFT, distance));
+                    assertEquals(gameMap.isWithinBounds(topRightX, y + distance)
+                                    ? gameMap.indexOf(gameMap.at(topRightX, y + distance)) : -1,
+                            table.step(index, NeighbourTable.BOTTOM_RIGHT, distance));
+                    assertEquals(gameMap.isWithinBounds(x - distance, y)
+                                    ? gameMap.indexOf(gameMap.at(x - distance, y)) : -1,
+                            table.step(index, NeighbourTable.LEFT, distance));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMarkAndRollback() {
+        gameMap.at(1, 4).placeSettlement(playerOne);
+        Tile tower = gameMap.getTiles().filter(t -> t.tileType == TileType.TOWER).findFirst().orElseThrow();
+        int tokens = tower.remainingTokens;
+
+        int outer = gameMap.mark();
+        gameMap.placeSettlement(playerOne, 2, 4);
+        gameMap.moveSettlement(1, 4, 4, 4);
+        assertTrue(gameMap.takeToken(playerOne, tower));
+
+        int inner = gameMap.mark();
+        gameMap.placeSettlement(playerTwo, 0, 0);
+        gameMap.removeSettlement(2, 4);
+        gameMap.rollback(inner);
+
+        assertSame(playerOne, gameMap.at(2, 4).occupiedBy);
+        assertFalse(gameMap.at(0, 0).isBlocked());
+        assertEquals(tokens - 1, tower.remainingTokens);
+
+        gameMap.rollback(outer);
+
+        assertSame(playerOne, gameMap.at(1, 4).occupiedBy);
+        assertFalse(gameMap.at(4, 4).isBlocked());
+        assertFalse(gameMap.at(2, 4).isBlocked());
+        assertEquals(1, gameMap.getSettlementsBoard(playerOne).cardinality());
+        assertEquals(tokens, tower.remainingTokens);
+        assertFalse(playerOne.hasTokenFrom(tower));
+
+        // marks have to be closed in order
+        int first = gameMap.mark();
+        gameMap.mark();
+        assertThrows(IllegalStateException.class, () -> gameMap.release(first));
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        gameMap.at(1, 4).placeSettlement(playerOne);
+        gameMap.placeSettlement(playerOne, 16, 3);
+        gameMap.placeSettlement(playerOne, 16, 5);
+        gameMap.placeSettlement(playerOne, 6, 8);
+        gameMap.placeSettlement(playerOne, 7, 8);
+        gameMap.placeSettlement(playerOne, 8, 8);
+
+        List<Player> players = List.of(playerOne, playerTwo);
+        ScoreEvaluator evaluator = new ScoreEvaluator(gameMap, players);
+        List<WinCondition> winConditions = List.of(WinCondition.values());
+        int score = evaluator.score(playerOne, winConditions);
+        BitBoard frontier = gameMap.settlementFrontier(playerOne, new BitBoard(gameMap.size()));
+        long hash = gameMap.getHash();
+
+        GameMap copy = new GameMap(gameMap);
+        Tile tower = copy.getTiles().filter(t -> t.tileType == TileType.TOWER).findFirst().orElseThrow();
+        copy.takeToken(playerTwo, tower);
+        copy.removeSettlement(1, 4);
+        copy.placeSettlement(playerOne, 16, 4);
+        copy.removeSettlement(8, 8);
+
+        // the copy has its own tiles, boards, groups, frontier, lines and hash
+        assertEquals(5, copy.getSettlementsBoard(playerOne).cardinality());
+        assertEquals(2, copy.getGroupCount(playerOne));
+        assertEquals(2, copy.longestLine(playerOne));
+        assertNotEquals(frontier, copy.settlementFrontier(playerOne, new BitBoard(copy.size())));
+        assertNotEquals(hash, copy.getHash());
+
+        assertSame(playerOne, gameMap.at(1, 4).occupiedBy);
+        assertEquals(tower.remainingTokens + 1,
+                gameMap.at(tower.x, tower.y).remainingTokens);
+        assertEquals(6, gameMap.getSettlementsBoard(playerOne).cardinality());
+        assertEquals(4, gameMap.getGroupCount(playerOne));
+        assertEquals(3, gameMap.longestLine(playerOne));
+        assertEquals(frontier, gameMap.settlementFrontier(playerOne, new BitBoard(gameMap.size())));
+        assertEquals(hash, gameMap.getHash());
+
+        // evaluators of the original are not updated by the copy
+        assertEquals(score, evaluator.score(playerOne, winConditions));
+        evaluator.detach();
+    }
+
+    @Test
+    void testSettlementGroups() {
+        assertEquals(0, gameMap.getGroupCount(playerOne));
+
+        gameMap.at(16, 3).placeSettlement(playerOne);
+        gameMap.at(16, 5).placeSettlement(playerOne);
+        gameMap.at(16, 6).placeSettlement(playerOne);
+
+        assertEquals(2, gameMap.getGroupCount(playerOne));
+        assertNotEquals(gameMap.getGroupId(playerOne, gameMap.at(16, 3)),
+                gameMap.getGroupId(playerOne, gameMap.at(16, 5)));
+        assertEquals(-1, gameMap.getGroupId(playerTwo, gameMap.at(16, 3)));
+        assertEquals(0, gameMap.connectedSpecialPlaces(playerOne));
+
+        // closing the gap merges both groups and connects both oasis
+        gameMap.at(16, 4).placeSettlement(playerOne);
+
+        assertEquals(1, gameMap.getGroupCount(playerOne));
+        assertEquals(4, gameMap.getGroupSize(playerOne, gameMap.at(16, 6)));
+        assertEquals(4, gameMap.getBiggestGroupSize(playerOne));
+        assertEquals(gameMap.getGroupId(playerOne, gameMap.at(16, 3)),
+                gameMap.getGroupId(playerOne, gameMap.at(16, 6)));
+        assertEquals(Set.of(gameMap.at(17, 2), gameMap.at(15, 7)),
+                gameMap.getSpecialPlacesOfGroup(playerOne, gameMap.at(16, 3)));
+        assertEquals(2, gameMap.connectedSpecialPlaces(playerOne));
+
+        // moving a settlement out of the middle splits the group again
+        gameMap.at(16, 4).moveSettlement(gameMap.at(0, 0));
+
+        assertEquals(3, gameMap.getGroupCount(playerOne));
+        assertEquals(2, gameMap.getBiggestGroupSize(playerOne));
+        assertEquals(1, gameMap.getGroupSize(playerOne, gameMap.at(0, 0)));
+        assertEquals(0, gameMap.connectedSpecialPlaces(playerOne));
+    }
+
+    @Test
+    void testHash() {
+        long empty = gameMap.getHash();
+
+        // the order of the placements does not change the hash
+        GameMap other = new GameMap(gameMap);
+        gameMap.placeSettlement(playerOne, 16, 3);
+        gameMap.placeSettlement(playerOne, 16, 4);
+        other.placeSettlement(playerOne, 16, 4);
+        other.placeSettlement(playerOne, 16, 3);
+
+        assertNotEquals(empty, gameMap.getHash());
+        assertEquals(gameMap.getHash(), other.getHash());
+        assertEquals(gameMap.getHash(), new GameMap(gameMap).getHash());
+
+        // the owner of a settlement is part of the hash
+        other.removeSettlement(16, 4);
+        other.placeSettlement(playerTwo, 16, 4);
+        assertNotEquals(gameMap.getHash(), other.getHash());
+
+        // moving a settlement and taking a token change the hash, rolling back restores it
+        long placed = gameMap.getHash();
+        int mark = gameMap.mark();
+        gameMap.moveSettlement(16, 4, 0, 0);
+        long moved = gameMap.getHash();
+        assertNotEquals(placed, moved);
+
+        assertTrue(gameMap.takeToken(playerOne, gameMap.at(17, 2)));
+        assertNotEquals(moved, gameMap.getHash());
+
+        gameMap.rollback(mark);
+        assertEquals(placed, gameMap.getHash());
+
+        gameMap.removeSettlement(16, 3);
+        gameMap.removeSettlement(16, 4);
+        assertEquals(empty, gameMap.getHash());
+    }
+
+    @Test
+    void testSettlementFrontier() {
+        BitBoard frontier = new BitBoard(gameMap.size());
+        BitBoard expected = new BitBoard(gameMap.size());
+        assertTrue(gameMap.settlementFrontier(playerOne, frontier).isEmpty());
+
+        // a tile next to two settlements stays in the frontier until both are gone
+        gameMap.placeSettlement(playerOne, 16, 3);
+        gameMap.placeSettlement(playerOne, 16, 5);
+        gameMap.addSurroundingTiles(gameMap.settlements(playerOne, new BitBoard(gameMap.size())), expected);
+        assertEquals(expected, gameMap.settlementFrontier(playerOne, frontier));
+        assertTrue(gameMap.at(16, 4).hasSurroundingSettlement(gameMap, playerOne));
+        assertFalse(gameMap.at(16, 4).hasSurroundingSettlement(gameMap, playerTwo));
+
+        gameMap.removeSettlement(16, 3);
+        assertTrue(gameMap.at(16, 4).hasSurroundingSettlement(gameMap, playerOne));
+
+        int mark = gameMap.mark();
+        gameMap.moveSettlement(16, 5, 0, 0);
+        assertFalse(gameMap.at(16, 4).hasSurroundingSettlement(gameMap, playerOne));
+        assertTrue(gameMap.at(1, 0).hasSurroundingSettlement(gameMap, playerOne));
+
+        // rolling back restores the frontier
+        gameMap.rollback(mark);
+        expected.clear();
+        gameMap.addSurroundingTiles(gameMap.settlements(playerOne, new BitBoard(gameMap.size())), expected);
+        assertEquals(expected, gameMap.settlementFrontier(playerOne, frontier));
+    }
+
+    @Test
+    void testSettlementRuns() {
+        BitBoard ends = new BitBoard(gameMap.size());
+        assertEquals(0, gameMap.longestLine(playerOne));
+        assertTrue(gameMap.chainEnds(playerOne, 1, ends).isEmpty());
+
+        // a horizontal line of three settlements has a free end on both sides
+        gameMap.placeSettlement(playerOne, 6, 8);
+        gameMap.placeSettlement(playerOne, 7, 8);
+        assertEquals(2, gameMap.longestLine(playerOne));
+        assertTrue(gameMap.chainEnds(playerOne, 3, ends).isEmpty());
+
+        gameMap.placeSettlement(playerOne, 8, 8);
+        assertEquals(3, gameMap.longestLine(playerOne));
+        assertEquals(Set.of(gameMap.at(5, 8), gameMap.at(9, 8)),
+                gameMap.chainEnds(playerOne, 3, ends).stream().mapToObj(gameMap::at).collect(Collectors.toSet()));
+        assertTrue(gameMap.at(9, 8).isAtEndOfAChain(gameMap, playerOne));
+        assertFalse(gameMap.at(9, 8).isAtEndOfAChain(gameMap, playerTwo));
+
+        // longer lines are found for any length, ends on water are left out, breaking them up removes the ends
+        int mark = gameMap.mark();
+        gameMap.placeSettlement(playerOne, 5, 8);
+        assertEquals(4, gameMap.longestLine(playerOne));
+        assertEquals(Set.of(gameMap.at(9, 8)),
+                gameMap.chainEnds(playerOne, 4, ends).stream().mapToObj(gameMap::at).collect(Collectors.toSet()));
+
+        gameMap.moveSettlement(7, 8, 0, 0);
+        assertEquals(2, gameMap.longestLine(playerOne));
+        assertTrue(gameMap.chainEnds(playerOne, 3, ends).isEmpty());
+
+        gameMap.rollback(mark);
+        assertEquals(3, gameMap.longestLine(playerOne));
+        assertTrue(gameMap.at(5, 8).isAtEndOfAChain(gameMap, playerOne));
+    }
 }
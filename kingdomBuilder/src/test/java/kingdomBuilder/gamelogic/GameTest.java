@@ -1,5 +1,6 @@
 package kingdomBuilder.gamelogic;
 
+import kingdomBuilder.gui.controller.BotDifficulty;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -7,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -473,6 +476,53 @@ class GameTest {
         assertTrue(expectedTiles.containsAll(actualTiles));
     }
 
+    @Test
+    void testMoveGeneratorMatchesAllTiles() {
+        playerOne.addToken(new Tile(19, 19, TileType.HARBOR, 2, 20));
+        playerOne.addToken(new Tile(19, 18, TileType.PADDOCK, 2, 20));
+        playerOne.addToken(new Tile(19, 17, TileType.TAVERN, 2, 20));
+        playerOne.setTerrainCard(TileType.FORREST);
+        playerOne.startTurn();
+
+        MoveGenerator generator = new MoveGenerator(1);
+        int count = generator.generate(mapWithPlacements, playerOne);
+
+        Set<Tile> placements = new HashSet<>();
+        Set<Tile> taverns = new HashSet<>();
+        Set<List<Tile>> harbors = new HashSet<>();
+        Set<List<Tile>> paddocks = new HashSet<>();
+
+        for (int i = 0; i < count; i++) {
+            int move = generator.get(i);
+            ClientTurn turn = MoveGenerator.toClientTurn(mapWithPlacements, playerOne.ID, move);
+            Tile from = mapWithPlacements.at(turn.x, turn.y);
+
+            switch (turn.type) {
+                case PLACE -> placements.add(from);
+                case TAVERN -> taverns.add(from);
+                case HARBOR -> harbors.add(List.of(from, mapWithPlacements.at(turn.toX, turn.toY)));
+                case PADDOCK -> paddocks.add(List.of(from, mapWithPlacements.at(turn.toX, turn.toY)));
+                default -> fail("The player has no token of type " + turn.type);
+            }
+        }
+
+        assertEquals(Game.allBasicTurnTiles(mapWithPlacements, playerOne).collect(Collectors.toSet()), placements);
+        assertEquals(Game.allTokenTavernTiles(mapWithPlacements, playerOne).collect(Collectors.toSet()), taverns);
+
+        Set<List<Tile>> expectedHarbors = new HashSet<>();
+        Set<List<Tile>> expectedPaddocks = new HashSet<>();
+        mapWithPlacements.getSettlements(playerOne).forEach(settlement -> {
+            Game.allTokenHarborTiles(mapWithPlacements, playerOne, true)
+                    .forEach(to -> expectedHarbors.add(List.of(settlement, to)));
+            Game.allTokenPaddockTiles(mapWithPlacements, playerOne, settlement.x, settlement.y)
+                    .forEach(to -> expectedPaddocks.add(List.of(settlement, to)));
+        });
+
+        assertEquals(expectedHarbors, harbors);
+        assertEquals(expectedPaddocks, paddocks);
+        assertEquals(count, placements.size() + taverns.size() + harbors.size() + paddocks.size());
+    }
+
     @Test
     void testScoreCastles() {
 
@@ -1306,4 +1356,120 @@ class GameTest {
         assertSame(TurnState.END_OF_TURN, playerOne.getCurrentTurnState());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void testScoreEvaluator() {
+        List<Player> players = List.of(playerOne, playerTwo, playerThree);
+        ScoreEvaluator evaluator = new ScoreEvaluator(mapWithPlacements, players);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 500; i++) {
+            Player player = players.get(random.nextInt(players.size()));
+            List<Tile> settlements = mapWithPlacements.getSettlements(player).toList();
+
+            if (!settlements.isEmpty() && random.nextInt(3) == 0) {
+                settlements.get(random.nextInt(settlements.size())).removeSettlement();
+            } else {
+                List<Tile> free = mapWithPlacements.getTiles()
+                        .filter(t -> !t.isBlocked() && TileType.placeableTileTypes.contains(t.tileType))
+                        .toList();
+                free.get(random.nextInt(free.size())).placeSettlement(player);
+            }
+
+            for (Player p : players) {
+                assertEquals(Game.scoreCastles(mapWithPlacements, p), evaluator.scoreCastles(p));
+                for (WinCondition c : WinCondition.values())
+                    assertEquals(Game.calculateScore(mapWithPlacements, p, List.of(c), players),
+                            evaluator.score(p, List.of(c)), c + " after " + i + " changes");
+            }
+        }
+
+        // detached evaluators are not updated anymore
+        evaluator.detach();
+        int anchorite = evaluator.score(playerOne, WinCondition.ANCHORITE);
+        mapWithPlacements.getSettlements(playerOne).toList().forEach(Tile::removeSettlement);
+        assertEquals(anchorite, evaluator.score(playerOne, WinCondition.ANCHORITE));
+    }
+
+    @Test
+    void testMonteCarloSmallBudgetMakesCompleteTurn() {
+        ArrayList<Player> players = new ArrayList<>(List.of(playerOne, playerTwo));
+
+        for (TileType terrain : TileType.placeableTileTypes) {
+            GameMap map = new GameMap(gameMap);
+            playerOne.setTerrainCard(terrain);
+            playerOne.startTurn();
+
+            // the iterations are split over more trees than there are iterations, so no tree reaches all placements
+            AIGame bot = new AIGame(map, BotDifficulty.MONTE_CARLO, null);
+            bot.setAiPlayer(playerOne);
+            bot.setPlayers(players);
+            bot.setWinConditions(new ArrayList<>(List.of(WinCondition.FISHER, WinCondition.KNIGHT, WinCondition.LORDS)));
+            bot.setParallelism(4);
+            bot.setMonteCarloBudget(2, 1000);
+
+            List<ClientTurn> turn = bot.snapshot().chooseAI();
+
+            assertEquals(Game.SETTLEMENTS_PER_TURN,
+                    turn.stream().filter(move -> move.type == ClientTurn.TurnType.PLACE).count(), terrain.name());
+            for (ClientTurn move : turn)
+                assertTrue(Tournament.applyMove(map, playerOne, move), terrain.name());
+        }
+    }
+
+    @Test
+    void testSnapshotChoosesTurnWhileTheGameGoesOn() {
+        playerOne.setTerrainCard(TileType.FLOWER);
+        playerOne.startTurn();
+
+        AIGame bot = new AIGame(gameMap, BotDifficulty.HARD, null);
+        bot.setAiPlayer(playerOne);
+        bot.setPlayers(new ArrayList<>(List.of(playerOne, playerTwo)));
+        bot.setWinConditions(new ArrayList<>(List.of(WinCondition.FISHER, WinCondition.KNIGHT, WinCondition.LORDS)));
+        AIGame snapshot = bot.snapshot();
+
+        // the game goes on while the snapshot searches, so its map must not see the new settlements
+        List<Tile> flowers = gameMap.stream().filter(tile -> tile.tileType == TileType.FLOWER).toList();
+        flowers.forEach(tile -> tile.placeSettlement(playerTwo));
+        long hash = gameMap.getHash();
+        int remainingSettlements = playerOne.getRemainingSettlements();
+
+        List<ClientTurn> turn = snapshot.chooseAI();
+
+        assertEquals(Game.SETTLEMENTS_PER_TURN,
+                turn.stream().filter(move -> move.type == ClientTurn.TurnType.PLACE).count());
+        for (ClientTurn move : turn)
+            assertSame(playerTwo, gameMap.at(move.x, move.y).occupiedBy());
+
+        // the search spends the settlements of the copy of the player only
+        assertEquals(hash, gameMap.getHash());
+        assertEquals(remainingSettlements, playerOne.getRemainingSettlements());
+        assertEquals(Game.SETTLEMENTS_PER_TURN, playerOne.getRemainingSettlementsOfTurn());
+    }
+
+    @Test
+    void testTournamentPlaysDeterministicLegalGames() {
+        Tournament tournament = new Tournament(gameMap, List.of(BotDifficulty.HARD, BotDifficulty.NORMAL));
+        tournament.setStartingSettlements(12);
+        tournament.setSeed(42);
+
+        for (int number = 0; number < 2; number++) {
+            Tournament.GameResult result = tournament.playGame(number);
+            Tournament.GameResult again = tournament.playGame(number);
+
+            // the bots plan on the player they play, so every move has to be legal once the turn starts again
+            assertArrayEquals(new int[] {0, 0}, result.invalidMoves());
+            assertArrayEquals(result.scores(), again.scores());
+            assertEquals(result.winConditions(), again.winConditions());
+
+            // the game ends after the round in which a player placed the last settlement, at most four turns each
+            long[][] turns = result.latencies();
+            assertTrue(turns[0].length >= 1 && turns[0].length <= 4);
+            assertTrue(turns[1].length <= turns[0].length);
+        }
+
+        Tournament.Report report = tournament.run(4, 2);
+        assertEquals(4, report.games());
+        report.difficulties().forEach(difficulty -> assertEquals(0, difficulty.invalidMoves()));
+    }
+}
@@ -0,0 +1,225 @@
+package kingdomBuilder.redux;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoreTest {
+
+    static final long TIMEOUT = 5;
+
+    /**
+     * Represents a state with a log, which the reducers change in place like the map of the game, and a message,
+     * which holds an event like the last turn of the game.
+     */
+    static final class TestState {
+        final List<String> log = new ArrayList<>();
+        String message;
+
+        TestState snapshot() {
+            TestState copy = new TestState();
+            copy.log.addAll(log);
+            copy.message = message;
+            return copy;
+        }
+    }
+
+    TestState state;
+    Store<TestState> store;
+    final Queue<Runnable> uiTasks = new ConcurrentLinkedQueue<>();
+    final CountDownLatch release = new CountDownLatch(1);
+    final Set<Thread> reducerThreads = ConcurrentHashMap.newKeySet();
+
+    static DeferredState<TestState> changed(TestState state, String... attributes) {
+        return new DeferredState<>() {
+            @Override
+            public Set<String> getChangedAttributes() {
+                return Set.of(attributes);
+            }
+
+            @Override
+            public TestState withChanges() {
+                return state;
+            }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        HashMap<String, BiFunction<Store<TestState>, Object, DeferredState<TestState>>> reducers = new HashMap<>();
+        reducers.put("WAIT", (store, payload) -> {
+            try {
+                assertTrue(release.await(TIMEOUT, TimeUnit.SECONDS));
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+            }
+            return changed(state);
+        });
+        reducers.put("LOG", (store, payload) -> {
+            reducerThreads.add(Thread.currentThread());
+            state.log.add((String) payload);
+            return changed(state, "log");
+        });
+        reducers.put("FOLLOW_UP", (store, payload) -> {
+            store.dispatch("LOG", payload);
+            return changed(state);
+        });
+        reducers.put("MESSAGE", (store, payload) -> {
+            state.message = (String) payload;
+            return changed(state, "message");
+        });
+
+        state = new TestState();
+        store = new Store<>(state, uiTasks::add, TestState::snapshot, new Reducer<>(reducers));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        store.shutdown(TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs the notifications, which the store has handed over to the JavaFX Application Thread so far.
+     */
+    void runUiTasks() {
+        Runnable task;
+        while ((task = uiTasks.poll()) != null)
+            task.run();
+    }
+
+    /**
+     * Blocks the dispatcher until {@link #release} is counted down, so that the following actions are reduced as a
+     * single batch.
+     */
+    void holdDispatcher() {
+        store.dispatch("WAIT", null);
+    }
+
+    @Test
+    void testEventsOfOneBatchReachUiSubscribers() throws InterruptedException {
+        List<String> events = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        store.subscribeToEvents(s -> events.add(s.message), "message");
+        store.subscribe(s -> values.add(s.message), "message");
+        events.clear();
+        values.clear();
+
+        holdDispatcher();
+        for (int i = 0; i < 5; i++)
+            store.dispatch("MESSAGE", "message " + i);
+        release.countDown();
+        assertTrue(store.shutdown(TIMEOUT, TimeUnit.SECONDS));
+        runUiTasks();
+
+        // every event is delivered in order, the values are merged into the final state of the batch
+        assertEquals(List.of("message 0", "message 1", "message 2", "message 3", "message 4"), events);
+        assertEquals(List.of("message 4"), values);
+    }
+
+    @Test
+    void testEventsSeeTheStateOfTheirAction() throws InterruptedException {
+        List<String> events = new ArrayList<>();
+        store.subscribeToEvents(s -> events.add(s.message + " after " + s.log), "message");
+        events.clear();
+
+        holdDispatcher();
+        store.dispatch("LOG", "a");
+        store.dispatch("MESSAGE", "first");
+        store.dispatch("LOG", "b");
+        store.dispatch("MESSAGE", "second");
+        store.dispatch("LOG", "c");
+        release.countDown();
+        assertTrue(store.shutdown(TIMEOUT, TimeUnit.SECONDS));
+        runUiTasks();
+
+        assertEquals(List.of("first after [a]", "second after [a, b]"), events);
+        assertEquals(List.of("a", "b", "c"), store.getState().log);
+    }
+
+    @Test
+    void testDispatcherSubscribersRunOnTheDispatcher() throws InterruptedException {
+        List<Thread> dispatcherThreads = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> dispatcherLogSizes = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> uiThreads = new ArrayList<>();
+        store.subscribeOnDispatcher(s -> {
+            dispatcherThreads.add(Thread.currentThread());
+            dispatcherLogSizes.add(s.log.size());
+        }, "log");
+        store.subscribe(s -> uiThreads.add(Thread.currentThread()), "log");
+        dispatcherThreads.clear();
+        dispatcherLogSizes.clear();
+        uiThreads.clear();
+
+        holdDispatcher();
+        store.dispatch("LOG", "a");
+        store.dispatch("LOG", "b");
+        store.dispatch("LOG", "c");
+        release.countDown();
+        assertTrue(store.shutdown(TIMEOUT, TimeUnit.SECONDS));
+        runUiTasks();
+
+        // the reducers and the dispatcher subscribers share one thread, which sees every action
+        assertEquals(1, reducerThreads.size());
+        assertNotSame(Thread.currentThread(), reducerThreads.iterator().next());
+        assertEquals(Collections.nCopies(3, reducerThreads.iterator().next()), dispatcherThreads);
+        assertEquals(List.of(1, 2, 3), dispatcherLogSizes);
+
+        // the subscribers that touch the UI only run on the executor of the UI
+        assertEquals(List.of(Thread.currentThread()), uiThreads);
+    }
+
+    @Test
+    void testUiSubscribersGetSnapshots() throws InterruptedException {
+        List<TestState> published = new ArrayList<>();
+        store.subscribe(published::add, "log");
+        published.clear();
+
+        store.dispatch("LOG", "a");
+        store.dispatch("LOG", "b");
+        assertTrue(store.shutdown(TIMEOUT, TimeUnit.SECONDS));
+        runUiTasks();
+
+        assertFalse(published.isEmpty());
+        for (TestState snapshot : published)
+            assertNotSame(state, snapshot);
+        assertEquals(List.of("a", "b"), published.get(published.size() - 1).log);
+        assertNotSame(state, store.getState());
+
+        // the reducers change the live state in place, the published snapshots stay as they were
+        state.log.add("c");
+        assertEquals(List.of("a", "b"), published.get(published.size() - 1).log);
+        assertEquals(List.of("a", "b"), store.getState().log);
+    }
+
+    @Test
+    void testShutdownDrainsQueuedActions() throws InterruptedException {
+        holdDispatcher();
+        for (int i = 0; i < 1000; i++)
+            store.dispatch("LOG", String.valueOf(i));
+        store.dispatch("FOLLOW_UP", "follow-up");
+
+        // the dispatcher is still blocked, once it is released it reduces everything that was queued before
+        assertFalse(store.shutdown(0, TimeUnit.SECONDS));
+        release.countDown();
+        assertTrue(store.shutdown(TIMEOUT, TimeUnit.SECONDS));
+
+        assertEquals(1001, state.log.size());
+        assertEquals("999", state.log.get(999));
+        assertEquals("follow-up", state.log.get(1000));
+        assertEquals(state.log, store.getState().log);
+
+        // actions, which are dispatched after the shutdown, are dropped
+        store.dispatch("LOG", "late");
+        assertEquals(1001, state.log.size());
+    }
+}
@@ -0,0 +1,405 @@
+package kingdomBuilder.server;
+
+import kingdomBuilder.gamelogic.ClientTurn;
+import kingdomBuilder.gamelogic.Game;
+import kingdomBuilder.gamelogic.GameMap;
+import kingdomBuilder.gamelogic.MoveGenerator;
+import kingdomBuilder.gamelogic.Player;
+import kingdomBuilder.gamelogic.PlayerColor;
+import kingdomBuilder.gamelogic.Tile;
+import kingdomBuilder.gamelogic.TileType;
+import kingdomBuilder.gamelogic.Tournament;
+import kingdomBuilder.gamelogic.WinCondition;
+import kingdomBuilder.network.generated.ProtocolSerializer;
+import kingdomBuilder.network.internal.Transport;
+import kingdomBuilder.network.protocol.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalServerTest {
+
+    static final int TIMEOUT = 5000;
+    static final long SEED = 42;
+
+    static final String TURN_START = prefixOf(ProtocolSerializer.serialize(new TurnStart(0)));
+    static final String TERRAIN_TYPE_OF_TURN =
+            prefixOf(ProtocolSerializer.serialize(new TerrainTypeOfTurn(TileType.GRAS.name())));
+    static final String WIN_CONDITION =
+            prefixOf(ProtocolSerializer.serialize(new kingdomBuilder.network.protocol.WinCondition("", "", "")));
+    static final String YOUR_TERRAIN_CARD =
+            prefixOf(ProtocolSerializer.serialize(new YourTerrainCard(TileType.GRAS.name())));
+    static final String SCORES = prefixOf(ProtocolSerializer.serialize(new Scores(List.of())));
+
+    Map<Integer, TileType[]> quadrants;
+    int[] quadrantIds;
+    LocalServer server;
+    Thread serverThread;
+    final List<TestClient> clients = new ArrayList<>();
+
+    /**
+     * Connects to the server like a real client and reads the commands of the server line by line.
+     */
+    class TestClient {
+        final Socket socket;
+        final BufferedReader reader;
+        final Writer writer;
+
+        TestClient() throws IOException {
+            socket = new Socket();
+            socket.connect(server.getAddress(), TIMEOUT);
+            socket.setSoTimeout(TIMEOUT);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            clients.add(this);
+        }
+
+        void send(String command) throws IOException {
+            writer.write(command + Transport.COMMAND_TERMINATOR);
+            writer.flush();
+        }
+
+        String next() throws IOException {
+            String line = reader.readLine();
+            assertNotNull(line);
+            return line;
+        }
+
+        String skipUntil(String prefix) throws IOException {
+            String line = next();
+            while (!line.startsWith(prefix))
+                line = next();
+            return line;
+        }
+
+        void expect(String command) throws IOException {
+            assertEquals(command, skipUntil(command));
+        }
+
+        void expectClosed() throws IOException {
+            while (reader.readLine() != null)
+                ;
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    static String prefixOf(String serialized) {
+        int payload = serialized.indexOf('<');
+        return payload < 0 ? serialized : serialized.substring(0, payload);
+    }
+
+    static String payloadOf(String line) {
+        return line.substring(line.indexOf('<') + 1, line.lastIndexOf('>'));
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        quadrants = LocalServer.loadQuadrants();
+        quadrantIds = quadrants.keySet().stream().mapToInt(Integer::intValue).limit(4).toArray();
+
+        server = new LocalServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.setSeed(SEED);
+        serverThread = new Thread(server, "LocalServerTest");
+        serverThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (TestClient client : clients)
+            client.close();
+        server.stop();
+        serverThread.join(TIMEOUT);
+    }
+
+    TestClient login(String name, int expectedId) throws IOException {
+        TestClient client = new TestClient();
+        client.send(ProtocolSerializer.serialize(new IAm(name)));
+        client.expect(ProtocolSerializer.serialize(new WelcomeToServer(expectedId, name, -1)));
+        return client;
+    }
+
+    /**
+     * Logs in alice and bob, lets alice host a game for two and lets both join it.
+     *
+     * @return the win conditions of the game.
+     */
+    List<WinCondition> startGame(TestClient alice, TestClient bob) throws IOException {
+        alice.send(ProtocolSerializer.serialize(new HostGame("test", "round trip", 2, -1, -1,
+                quadrantIds[0], quadrantIds[1], quadrantIds[2], quadrantIds[3])));
+        String hosted = ProtocolSerializer.serialize(new GameHosted(
+                new GameData(0, ServerGame.GAME_TYPE, 0, "test", "round trip", 2, 0)));
+        alice.expect(hosted);
+        bob.expect(hosted);
+
+        alice.send(ProtocolSerializer.serialize(new Join(0)));
+        alice.expect(ProtocolSerializer.serialize(new WelcomeToGame(0)));
+        bob.expect(ProtocolSerializer.serialize(new PlayerJoined(0, 0)));
+
+        bob.send(ProtocolSerializer.serialize(new Join(0)));
+        bob.expect(ProtocolSerializer.serialize(new WelcomeToGame(0)));
+        alice.expect(ProtocolSerializer.serialize(new PlayerJoined(1, 0)));
+
+        List<WinCondition> winConditions = null;
+        for (TestClient client : List.of(alice, bob)) {
+            client.expect(ProtocolSerializer.serialize(new InitStart()));
+            String conditions = payloadOf(client.skipUntil(WIN_CONDITION));
+            winConditions = Arrays.stream(conditions.substring(1, conditions.length() - 1).split(";"))
+                    .map(WinCondition::valueOf)
+                    .toList();
+            client.skipUntil(YOUR_TERRAIN_CARD);
+            client.expect(ProtocolSerializer.serialize(new GameStart()));
+            client.expect(ProtocolSerializer.serialize(new TurnStart(0)));
+        }
+
+        assertEquals(3, winConditions.size());
+        return winConditions;
+    }
+
+    GameMap replicaMap() {
+        return new GameMap(GameMap.DEFAULT_STARTING_TOKEN_COUNT, quadrants.get(quadrantIds[0]),
+                quadrants.get(quadrantIds[1]), quadrants.get(quadrantIds[2]), quadrants.get(quadrantIds[3]));
+    }
+
+    static String commandOf(ClientTurn turn) {
+        return switch (turn.type) {
+            case PLACE -> ProtocolSerializer.serialize(new Place(turn.y, turn.x));
+            case ORACLE -> ProtocolSerializer.serialize(new Oracle(turn.y, turn.x));
+            case FARM -> ProtocolSerializer.serialize(new Farm(turn.y, turn.x));
+            case TAVERN -> ProtocolSerializer.serialize(new Tavern(turn.y, turn.x));
+            case TOWER -> ProtocolSerializer.serialize(new Tower(turn.y, turn.x));
+            case OASIS -> ProtocolSerializer.serialize(new Oasis(turn.y, turn.x));
+            case HARBOR -> ProtocolSerializer.serialize(new Harbor(turn.y, turn.x, turn.toY, turn.toX));
+            case PADDOCK -> ProtocolSerializer.serialize(new Paddock(turn.y, turn.x, turn.toY, turn.toX));
+            case BARN -> ProtocolSerializer.serialize(new Barn(turn.y, turn.x, turn.toY, turn.toX));
+        };
+    }
+
+    /**
+     * Picks a token move if there is one, otherwise a placement next to a special place the player has no token
+     * from, so that the game uses tokens as early as possible.
+     */
+    static int pickMove(GameMap map, Player player, MoveGenerator moves) {
+        int fallback = moves.get(0);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (MoveGenerator.typeOf(move) != ClientTurn.TurnType.PLACE)
+                return move;
+
+            Tile tile = map.at(MoveGenerator.fromOf(move));
+            if (tile.surroundingTokenTiles(map)
+                    .anyMatch(specialPlace -> specialPlace.hasTokens() && !player.hasTokenFrom(specialPlace)))
+                fallback = move;
+        }
+        return fallback;
+    }
+
+    @Test
+    void testPlayGameRoundTrip() throws IOException {
+        TestClient alice = login("alice", 0);
+        TestClient bob = login("bob", 1);
+        List<WinCondition> winConditions = startGame(alice, bob);
+
+        GameMap map = replicaMap();
+        List<Player> players = List.of(
+                new Player(0, "alice", PlayerColor.values()[0], Game.DEFAULT_STARTING_SETTLEMENTS),
+                new Player(1, "bob", PlayerColor.values()[1], Game.DEFAULT_STARTING_SETTLEMENTS));
+        List<TestClient> seats = List.of(alice, bob);
+
+        MoveGenerator moves = new MoveGenerator();
+        int tokensUsed = 0;
+        int seat = 0;
+        String line;
+
+        while (true) {
+            TestClient client = seats.get(seat);
+            Player player = players.get(seat);
+            for (TestClient other : seats)
+                player.setTerrainCard(TileType.valueOf(payloadOf(other.skipUntil(TERRAIN_TYPE_OF_TURN))));
+            player.startTurn();
+
+            while (moves.generate(map, player) > 0) {
+                int move = pickMove(map, player, moves);
+                ClientTurn turn = MoveGenerator.toClientTurn(map, player.ID, move);
+                client.send(commandOf(turn));
+
+                if (turn.type != ClientTurn.TurnType.PLACE) {
+                    client.expect(ProtocolSerializer.serialize(new TokenUsed(player.ID, turn.type.name())));
+                    tokensUsed++;
+                }
+                int row = turn.toY >= 0 ? turn.toY : turn.y;
+                int column = turn.toX >= 0 ? turn.toX : turn.x;
+                client.expect(ProtocolSerializer.serialize(new SettlementPlaced(player.ID, row, column)));
+                assertTrue(Tournament.applyMove(map, player, turn));
+            }
+
+            client.send(ProtocolSerializer.serialize(new EndTurn()));
+            client.skipUntil(YOUR_TERRAIN_CARD);
+
+            line = null;
+            for (TestClient other : seats) {
+                String next = other.next();
+                while (!next.startsWith(TURN_START) && !next.startsWith(SCORES))
+                    next = other.next();
+                if (line != null)
+                    assertEquals(line, next);
+                line = next;
+            }
+            if (line.startsWith(SCORES))
+                break;
+
+            seat = (seat + 1) % seats.size();
+            assertEquals(ProtocolSerializer.serialize(new TurnStart(players.get(seat).ID)), line);
+        }
+
+        List<ScoresData> scores = new ArrayList<>();
+        int best = Integer.MIN_VALUE;
+        for (Player player : players) {
+            int score = Game.calculateScore(map, player, winConditions, players);
+            scores.add(new ScoresData(player.ID, score));
+            best = Math.max(best, score);
+        }
+
+        List<Integer> winners = new ArrayList<>();
+        for (ScoresData score : scores)
+            if (score.score() == best)
+                winners.add(score.clientId());
+
+        assertEquals(ProtocolSerializer.serialize(new Scores(scores)), line);
+        for (TestClient client : seats)
+            client.expect(ProtocolSerializer.serialize(new GameOver(winners)));
+        assertTrue(tokensUsed > 0);
+        assertTrue(players.stream().anyMatch(player -> !player.hasRemainingSettlements()));
+
+        // the game is removed once it is over.
+        alice.send(ProtocolSerializer.serialize(new GamesRequest()));
+        alice.expect(ProtocolSerializer.serialize(new GamesReply(List.of())));
+    }
+
+    @Test
+    void testIllegalMovesAreIgnored() throws IOException {
+        TestClient alice = login("alice", 0);
+        TestClient bob = login("bob", 1);
+        startGame(alice, bob);
+
+        GameMap map = replicaMap();
+        Player player = new Player(0, "alice", PlayerColor.values()[0], Game.DEFAULT_STARTING_SETTLEMENTS);
+        player.setTerrainCard(TileType.valueOf(payloadOf(alice.skipUntil(TERRAIN_TYPE_OF_TURN))));
+        player.startTurn();
+        bob.skipUntil(TERRAIN_TYPE_OF_TURN);
+
+        Tile legal = Game.allBasicTurnTiles(map, player).findFirst().orElseThrow();
+        Tile wrongTerrain = map.stream()
+                .filter(tile -> TileType.placeableTileTypes.contains(tile.tileType))
+                .filter(tile -> tile.tileType != player.getTerrainCard())
+                .findFirst()
+                .orElseThrow();
+        Tile settlement = map.stream()
+                .filter(tile -> tile.tileType == TileType.WATER)
+                .findFirst()
+                .orElseThrow();
+
+        String settlementsLeft = ProtocolSerializer.serialize(new SettlementsLeftReply(List.of(
+                new SettlementData(0, Game.DEFAULT_STARTING_SETTLEMENTS),
+                new SettlementData(1, Game.DEFAULT_STARTING_SETTLEMENTS))));
+
+        // a move out of turn.
+        bob.send(ProtocolSerializer.serialize(new Place(legal.y, legal.x)));
+        bob.send(ProtocolSerializer.serialize(new SettlementsLeftRequest()));
+        assertEquals(settlementsLeft, bob.next());
+
+        // a settlement on the wrong terrain, on water, a token the player does not have and ending the turn early.
+        alice.send(ProtocolSerializer.serialize(new Place(wrongTerrain.y, wrongTerrain.x)));
+        alice.send(ProtocolSerializer.serialize(new Place(settlement.y, settlement.x)));
+        alice.send(ProtocolSerializer.serialize(new Harbor(legal.y, legal.x, settlement.y, settlement.x)));
+        alice.send(ProtocolSerializer.serialize(new EndTurn()));
+        alice.send(ProtocolSerializer.serialize(new SettlementsLeftRequest()));
+        assertEquals(settlementsLeft, alice.next());
+
+        alice.send(ProtocolSerializer.serialize(new WhoseTurnRequest()));
+        assertEquals(ProtocolSerializer.serialize(new WhoseTurnReply(0)), alice.next());
+
+        // the rejected moves leave the turn intact.
+        alice.send(ProtocolSerializer.serialize(new Place(legal.y, legal.x)));
+        assertEquals(ProtocolSerializer.serialize(new SettlementPlaced(0, legal.y, legal.x)), alice.next());
+    }
+
+    @Test
+    void testJoinAfterLeaveGetsFreeColor() throws IOException {
+        TestClient alice = login("alice", 0);
+        TestClient bob = login("bob", 1);
+        TestClient carol = login("carol", 2);
+
+        alice.send(ProtocolSerializer.serialize(new HostGame("test", "colors", 3, -1, -1,
+                quadrantIds[0], quadrantIds[1], quadrantIds[2], quadrantIds[3])));
+        alice.expect(ProtocolSerializer.serialize(new GameHosted(
+                new GameData(0, ServerGame.GAME_TYPE, 0, "test", "colors", 3, 0))));
+
+        alice.send(ProtocolSerializer.serialize(new Join(0)));
+        alice.expect(ProtocolSerializer.serialize(new WelcomeToGame(0)));
+        bob.send(ProtocolSerializer.serialize(new Join(0)));
+        bob.expect(ProtocolSerializer.serialize(new WelcomeToGame(0)));
+
+        // alice leaves before the game starts, carol takes her color instead of the one bob uses.
+        alice.close();
+        bob.expect(ProtocolSerializer.serialize(new PlayerLeft(0, 0)));
+
+        carol.send(ProtocolSerializer.serialize(new Join(0)));
+        carol.expect(ProtocolSerializer.serialize(new WelcomeToGame(0)));
+        carol.send(ProtocolSerializer.serialize(new PlayersRequest()));
+        carol.expect(ProtocolSerializer.serialize(new PlayersReply(List.of(
+                new PlayerData(1, PlayerColor.BLUE.name()),
+                new PlayerData(2, PlayerColor.RED.name())))));
+    }
+
+    @Test
+    void testDisconnectDuringTurn() throws IOException {
+        TestClient alice = login("alice", 0);
+        TestClient bob = login("bob", 1);
+        startGame(alice, bob);
+        bob.skipUntil(TERRAIN_TYPE_OF_TURN);
+
+        alice.close();
+
+        bob.expect(ProtocolSerializer.serialize(new PlayerLeft(0, 0)));
+        bob.expect(ProtocolSerializer.serialize(new TurnStart(1)));
+
+        GameMap map = replicaMap();
+        Player player = new Player(1, "bob", PlayerColor.values()[1], Game.DEFAULT_STARTING_SETTLEMENTS);
+        player.setTerrainCard(TileType.valueOf(payloadOf(bob.skipUntil(TERRAIN_TYPE_OF_TURN))));
+        player.startTurn();
+        bob.expect(ProtocolSerializer.serialize(new ClientLeft(new ClientData(0, "alice", 0))));
+
+        // the remaining player goes on with the game.
+        Tile tile = Game.allBasicTurnTiles(map, player).findFirst().orElseThrow();
+        bob.send(ProtocolSerializer.serialize(new Place(tile.y, tile.x)));
+        bob.expect(ProtocolSerializer.serialize(new SettlementPlaced(1, tile.y, tile.x)));
+
+        // the game is removed once the last player is gone.
+        bob.send(ProtocolSerializer.serialize(new Bye()));
+        bob.expectClosed();
+        TestClient carol = login("carol", 2);
+        carol.send(ProtocolSerializer.serialize(new GamesRequest()));
+        carol.expect(ProtocolSerializer.serialize(new GamesReply(List.of())));
+        carol.send(ProtocolSerializer.serialize(new ClientsRequest()));
+        carol.expect(ProtocolSerializer.serialize(new ClientsReply(List.of(new ClientData(2, "carol", -1)))));
+    }
+}
@@ -402,6 +402,11 @@ public abstract class Client {
      */
     public abstract void myGameRequest();
 
+    /**
+     * Sends the timelimit message.
+     */
+    public abstract void timeLimitRequest();
+
     /**
      * Hosts a game with the given parameters.
      *
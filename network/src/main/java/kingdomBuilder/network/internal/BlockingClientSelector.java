@@ -0,0 +1,131 @@
+package kingdomBuilder.network.internal;
+
+import kingdomBuilder.network.Client;
+import kingdomBuilder.network.ClientSelector;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implements a {@link ClientSelector}, whose clients use blocking IO on threads of their own
+ * instead of sharing a selector, see {@link BlockingTransport}.
+ * <br><br>
+ * Since the clients do not depend on a selection loop, {@link #run()} only waits until the
+ * selector is stopped; stopping it does not affect the connections.
+ */
+public class BlockingClientSelector implements ClientSelector {
+    private static final String THREAD_NAME_PREFIX = "BlockingTransport-";
+    private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+    private static final String VIRTUAL_THREAD_BUILDER = "java.lang.Thread$Builder";
+
+    private final ThreadFactory threadFactory;
+    private final AtomicInteger connectionCount;
+    private boolean running;
+    private boolean stopped;
+
+    /**
+     * Creates a selector, whose clients run on virtual threads, if the runtime supports them,
+     * and on daemon threads with a small stack otherwise.
+     */
+    public BlockingClientSelector() {
+        this(defaultThreadFactory());
+    }
+
+    /**
+     * Creates a selector, whose clients run on threads of the given factory.
+     * @param threadFactory the factory of the reading and writing threads of the clients.
+     */
+    public BlockingClientSelector(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+        this.connectionCount = new AtomicInteger(0);
+        this.running = false;
+        this.stopped = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Client connect(InetSocketAddress address) throws IOException {
+        BlockingTransport transport = new BlockingTransport(address, threadFactory, connectionCount::decrementAndGet);
+        connectionCount.incrementAndGet();
+
+        // The client has to subscribe to the transport, before it receives anything.
+        Client client = new ClientImpl(transport);
+        transport.start();
+
+        return client;
+    }
+
+    /**
+     * {@return Returns the amount of clients created by this selector, which were not disconnected yet.}
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void stop() {
+        stopped = true;
+        notifyAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void run() {
+        running = true;
+
+        try {
+            while(!stopped) wait();
+        } catch(InterruptedException ignored) {}
+
+        running = false;
+        stopped = false;
+    }
+
+    /**
+     * Creates the factory of virtual threads, which are available from Java 21 on. Since the
+     * project is built for Java 17, they are looked up reflectively; platform threads are used,
+     * if they are not available.
+     * @return The factory of the reading and writing threads of the clients.
+     */
+    public static ThreadFactory defaultThreadFactory() {
+        return defaultThreadFactory(VIRTUAL_THREAD_BUILDER);
+    }
+
+    /**
+     * Creates the factory of virtual threads with the given builder class, see {@link #defaultThreadFactory()}.
+     * @param builderClassName the name of the class, which builds the virtual threads.
+     * @return The factory of the reading and writing threads of the clients.
+     */
+    static ThreadFactory defaultThreadFactory(String builderClassName) {
+        try {
+            Class<?> builderClass = Class.forName(builderClassName);
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch(ReflectiveOperationException | RuntimeException unsupported) {
+            final AtomicInteger threadCount = new AtomicInteger(0);
+            return runnable -> {
+                Thread thread = new Thread(null, runnable, THREAD_NAME_PREFIX + threadCount.getAndIncrement(), PLATFORM_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
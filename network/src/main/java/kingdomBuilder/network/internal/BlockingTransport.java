@@ -0,0 +1,199 @@
+package kingdomBuilder.network.internal;
+
+import kingdomBuilder.network.generated.ProtocolConsumer;
+import kingdomBuilder.network.generated.ProtocolDeserializer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Implements a {@link Transport} with blocking IO, where every connection has a thread, which
+ * connects and reads, and a thread, which writes.
+ * <br><br>
+ * Received commands are deserialized on the reading thread. Queued commands are written in
+ * batches with a single gathering write, like {@link IOHandler} does.
+ */
+public class BlockingTransport implements Transport {
+    private static final int MAX_COMMANDS_PER_WRITE = 64;
+    private static final int RECEIVE_BUFFER_SIZE = 8192;
+
+    private final InetSocketAddress address;
+    private final ThreadFactory threadFactory;
+    private final Runnable onDisconnect;
+    private final LinkedBlockingQueue<ByteBuffer> writeQueue;
+    private final AtomicInteger unsentCount;
+    private final AtomicBoolean connected;
+    private final AtomicBoolean closed;
+    private final LineFramer framer;
+    private final Consumer<CharSequence> commandConsumer;
+    private volatile SocketChannel channel;
+    private volatile Thread writer;
+    private volatile ProtocolConsumer consumer;
+
+    /**
+     * Initializes the transport without connecting; the connection is established by {@link #start()}.
+     * @param address the address to connect to.
+     * @param threadFactory the factory of the reading and the writing thread.
+     * @param onDisconnect the callback, which is run once when the transport is disconnected.
+     */
+    public BlockingTransport(InetSocketAddress address, ThreadFactory threadFactory, Runnable onDisconnect) {
+        this.address = address;
+        this.threadFactory = threadFactory;
+        this.onDisconnect = onDisconnect;
+        this.writeQueue = new LinkedBlockingQueue<>();
+        this.unsentCount = new AtomicInteger(0);
+        this.connected = new AtomicBoolean(false);
+        this.closed = new AtomicBoolean(false);
+        this.framer = new LineFramer();
+        this.commandConsumer = this::onCommand;
+        this.channel = null;
+        this.writer = null;
+        this.consumer = null;
+    }
+
+    /**
+     * Starts the reading thread, which connects to the address and then starts the writing thread.
+     * Commands sent before the connection is established are written afterwards.
+     */
+    public void start() {
+        threadFactory.newThread(this::read).start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setConsumer(ProtocolConsumer consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Commands sent after the transport was disconnected are dropped.
+     */
+    @Override
+    public void sendCommand(ByteBuffer command) throws IOException {
+        if(closed.get()) return;
+
+        for(int i = 0; i < COMMAND_TERMINATOR.length(); ++i)
+            command.put((byte) COMMAND_TERMINATOR.charAt(i));
+
+        unsentCount.incrementAndGet();
+        writeQueue.add(command.flip());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasPendingCommands() {
+        return unsentCount.get() > 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConnected() {
+        return connected.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Both threads of the transport end afterwards.
+     */
+    @Override
+    public void disconnect() {
+        if(!closed.compareAndSet(false, true)) return;
+        connected.set(false);
+
+        // A thread blocked on the channel is released by closing it, the writer might wait for commands.
+        final SocketChannel channel = this.channel;
+        if(channel != null) {
+            try { channel.close(); }
+            catch(IOException unused) {}
+        }
+
+        final Thread writer = this.writer;
+        if(writer != null) writer.interrupt();
+
+        onDisconnect.run();
+    }
+
+    /**
+     * Connects to the address, starts the writing thread and reads from the channel until the
+     * connection is closed.
+     */
+    private void read() {
+        try {
+            channel = SocketChannel.open(address);
+        } catch(IOException exc) {
+            disconnect();
+            return;
+        }
+
+        // The transport might have been disconnected, while the connection was established.
+        if(closed.get()) {
+            try { channel.close(); }
+            catch(IOException unused) {}
+            return;
+        }
+
+        connected.set(true);
+        writer = threadFactory.newThread(this::write);
+        writer.start();
+
+        final ByteBuffer buffer = ByteBuffer.allocate(RECEIVE_BUFFER_SIZE);
+        try {
+            while(channel.read(buffer) >= 0) {
+                buffer.flip();
+                framer.feed(buffer, commandConsumer);
+                buffer.clear();
+            }
+        } catch(IOException ignored) {}
+
+        disconnect();
+    }
+
+    /**
+     * Deserializes a received command and notifies the consumer.
+     * @param command the command without its terminator.
+     */
+    private void onCommand(CharSequence command) {
+        ProtocolDeserializer.deserialize(command, consumer);
+    }
+
+    /**
+     * Waits for queued commands and writes them until the transport is disconnected.
+     */
+    private void write() {
+        final ByteBuffer[] batch = new ByteBuffer[MAX_COMMANDS_PER_WRITE];
+        try {
+            while(!closed.get()) {
+                int count = 0;
+                batch[count++] = writeQueue.take();
+
+                ByteBuffer command;
+                while(count < batch.length && (command = writeQueue.poll()) != null)
+                    batch[count++] = command;
+
+                // A blocking write might still transmit only a part of the batch.
+                while(batch[count - 1].hasRemaining())
+                    channel.write(batch, 0, count);
+
+                Arrays.fill(batch, 0, count, null);
+                unsentCount.addAndGet(-count);
+            }
+        } catch(InterruptedException | IOException ignored) {}
+
+        disconnect();
+    }
+}
@@ -8,21 +8,22 @@ import kingdomBuilder.network.Client;
 import kingdomBuilder.network.protocol.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
- * Implements the {@link Client} using an IOHandler.
+ * Implements the {@link Client} using a {@link Transport}.
  */
 public class ClientImpl extends Client implements ProtocolConsumer {
     // TODO: doc
-    private final IOHandler ioHandler;
+    private final Transport ioHandler;
 
     /**
      * Initializes the client.
      *
-     * @param ioHandler a handler, which deals with asynchronous IO using javas selector mechanism.
+     * @param ioHandler a transport, which deals with the IO, e.g. asynchronously using javas selector mechanism.
      */
-    public ClientImpl(IOHandler ioHandler) {
+    public ClientImpl(Transport ioHandler) {
         this.ioHandler = ioHandler;
         this.ioHandler.setConsumer(this);
 
@@ -34,8 +35,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void login(String preferredName) {
-        final String command = ProtocolSerializer.serialize(new IAm(preferredName));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new IAm(preferredName), Transport::allocateCommand));
     }
 
     /**
@@ -43,8 +43,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void logout() {
-        final String command = ProtocolSerializer.serialize(new Bye());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Bye(), Transport::allocateCommand));
     }
 
     /**
@@ -52,8 +51,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void loadNamespace() {
-        final String command = ProtocolSerializer.serialize(new Load("kingdom_builder"));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Load("kingdom_builder"), Transport::allocateCommand));
     }
 
     /**
@@ -61,8 +59,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void clientsRequest() {
-        final String command = ProtocolSerializer.serialize(new ClientsRequest());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new ClientsRequest(), Transport::allocateCommand));
     }
 
     /**
@@ -70,8 +67,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void gamesRequest() {
-        final String command = ProtocolSerializer.serialize(new GamesRequest());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new GamesRequest(), Transport::allocateCommand));
     }
 
     /**
@@ -79,8 +75,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void quadrantsRequest() {
-        final String command = ProtocolSerializer.serialize(new QuadrantsRequest());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new QuadrantsRequest(), Transport::allocateCommand));
     }
 
     /**
@@ -88,8 +83,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void quadrantRequest(int quadrantId) {
-        final String command = ProtocolSerializer.serialize(new QuadrantRequest(quadrantId));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new QuadrantRequest(quadrantId), Transport::allocateCommand));
     }
 
     /**
@@ -97,8 +91,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void chat(List<Integer> recipients, String message) {
-        final String command = ProtocolSerializer.serialize(new Chat(recipients, message));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Chat(recipients, message), Transport::allocateCommand));
     }
 
     /**
@@ -106,8 +99,15 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void myGameRequest() {
-        final String command = ProtocolSerializer.serialize(new MyGameRequest());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new MyGameRequest(), Transport::allocateCommand));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void timeLimitRequest() {
+        trySendCommand(ProtocolSerializer.serialize(new TimeLimitRequest(), Transport::allocateCommand));
     }
 
     /**
@@ -123,7 +123,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
                          int quadrantId2,
                          int quadrantId3,
                          int quadrantId4) {
-        final String command = ProtocolSerializer.serialize(new HostGame(
+        final HostGame packet = new HostGame(
                 gameName,
                 gameDescription,
                 playerLimit,
@@ -132,8 +132,8 @@ public class ClientImpl extends Client implements ProtocolConsumer {
                 quadrantId1,
                 quadrantId2,
                 quadrantId3,
-                quadrantId4));
-        trySendCommand(command);
+                quadrantId4);
+        trySendCommand(ProtocolSerializer.serialize(packet, Transport::allocateCommand));
     }
 
     /**
@@ -141,8 +141,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void joinGame(int gameId) {
-        final String command = ProtocolSerializer.serialize(new Join(gameId));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Join(gameId), Transport::allocateCommand));
     }
 
     /**
@@ -151,8 +150,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void boardRequest() {
         // request the quadrants right after joining a game
-        final String command = ProtocolSerializer.serialize(new BoardRequest());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new BoardRequest(), Transport::allocateCommand));
     }
 
     /**
@@ -161,8 +159,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void playersRequest() {
         // request the quadrants right after joining a game
-        final String command = ProtocolSerializer.serialize(new PlayersRequest());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new PlayersRequest(), Transport::allocateCommand));
     }
 
     /**
@@ -187,8 +184,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void placeSettlement(int x, int y) {
         //hack because server uses row/column is y/x
-        final String command = ProtocolSerializer.serialize(new Place(y, x));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Place(y, x), Transport::allocateCommand));
     }
 
     /**
@@ -196,8 +192,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void endTurn() {
-        final String command = ProtocolSerializer.serialize(new EndTurn());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new EndTurn(), Transport::allocateCommand));
     }
 
     /**
@@ -206,8 +201,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void useTokenOracle(int x, int y) {
         //hack because server uses row/column is y/x
-        final String command = ProtocolSerializer.serialize(new Oracle(y, x));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Oracle(y, x), Transport::allocateCommand));
     }
 
     /**
@@ -216,8 +210,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void useTokenFarm(int x, int y) {
         //hack because server uses row/column is y/x
-        final String command = ProtocolSerializer.serialize(new Farm(y, x));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Farm(y, x), Transport::allocateCommand));
     }
 
     /**
@@ -227,8 +220,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void useTokenTavern(int x, int y) {
         //hack because server uses row/column is y/x
-        final String command = ProtocolSerializer.serialize(new Tavern(y, x));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Tavern(y, x), Transport::allocateCommand));
     }
 
     /**
@@ -237,8 +229,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void useTokenTower(int x, int y) {
         //hack because server uses row/column is y/x
-        final String command = ProtocolSerializer.serialize(new Tower(y, x));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Tower(y, x), Transport::allocateCommand));
     }
 
     /**
@@ -247,8 +238,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void useTokenOasis(int x, int y) {
         //hack because server uses row/column is y/x
-        final String command = ProtocolSerializer.serialize(new Oasis(y, x));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Oasis(y, x), Transport::allocateCommand));
     }
 
     /**
@@ -257,8 +247,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void useTokenHarbor(int fromX, int fromY, int x, int y) {
         //hack because server uses row/column is y/x
-        final String command = ProtocolSerializer.serialize(new Harbor(fromY, fromX, y, x));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Harbor(fromY, fromX, y, x), Transport::allocateCommand));
     }
 
     /**
@@ -267,8 +256,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void useTokenPaddock(int fromX, int fromY, int x, int y) {
         //hack because server uses row/column is y/x
-        final String command = ProtocolSerializer.serialize(new Paddock(fromY, fromX, y, x));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Paddock(fromY, fromX, y, x), Transport::allocateCommand));
     }
 
     /**
@@ -277,8 +265,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     @Override
     public void useTokenBarn(int fromX, int fromY, int x, int y) {
         //hack because server uses row/column is y/x
-        final String command = ProtocolSerializer.serialize(new Barn(fromY, fromX, y, x));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Barn(fromY, fromX, y, x), Transport::allocateCommand));
     }
 
     /**
@@ -286,8 +273,8 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void uploadQuadrant(String quadrant) {
-        final String command = ProtocolSerializer.serialize(UploadQuadrant.fromString(quadrant));
-        trySendCommand(command);
+        final UploadQuadrant packet = UploadQuadrant.fromString(quadrant);
+        trySendCommand(ProtocolSerializer.serialize(packet, Transport::allocateCommand));
     }
 
     /**
@@ -295,8 +282,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void serverVersion() {
-        final String command = ProtocolSerializer.serialize(new VersionRequest());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new VersionRequest(), Transport::allocateCommand));
     }
 
     /**
@@ -304,8 +290,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void playersOfGame(int gameId) {
-        final String command = ProtocolSerializer.serialize(new PlayersOfGameRequest(gameId));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new PlayersOfGameRequest(gameId), Transport::allocateCommand));
     }
 
     /**
@@ -313,8 +298,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void root(String password) {
-        final String command = ProtocolSerializer.serialize(new Root(password));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Root(password), Transport::allocateCommand));
     }
 
     /**
@@ -322,8 +306,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void kickClient(int clientID) {
-        final String command = ProtocolSerializer.serialize(new KickClient(clientID));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new KickClient(clientID), Transport::allocateCommand));
     }
 
     /**
@@ -331,8 +314,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void shutdownServer() {
-        final String command = ProtocolSerializer.serialize(new ShutdownServer());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new ShutdownServer(), Transport::allocateCommand));
     }
 
     /**
@@ -340,8 +322,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void spectateGame(int id){
-        final String command = ProtocolSerializer.serialize(new Spectate(id));
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Spectate(id), Transport::allocateCommand));
     }
 
     /**
@@ -349,8 +330,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void unspectateGame(){
-        final String command = ProtocolSerializer.serialize(new Unspectate());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Unspectate(), Transport::allocateCommand));
     }
 
     /**
@@ -364,7 +344,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
     /**
      * {@inheritDoc}
      */
-    private void trySendCommand(String command) {
+    private void trySendCommand(ByteBuffer command) {
         try {
             ioHandler.sendCommand(command);
         } catch (IOException exc) {
@@ -442,8 +422,7 @@ public class ClientImpl extends Client implements ProtocolConsumer {
      */
     @Override
     public void accept(Ping message) {
-        final String command = ProtocolSerializer.serialize(new Pong());
-        trySendCommand(command);
+        trySendCommand(ProtocolSerializer.serialize(new Pong(), Transport::allocateCommand));
     }
 
     // TODO: doc
@@ -5,10 +5,13 @@ import kingdomBuilder.network.ClientSelector;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -18,15 +21,29 @@ public class ClientSelectorImpl implements ClientSelector {
     private final Selector selector;
     private final AtomicBoolean running;
     private final AtomicBoolean stopped;
+    private final AtomicInteger connectionCount;
+    private final Executor dispatcher;
 
     /**
      * Creates a new selector, used to multiplex sockets.
      * @throws IOException Thrown when selector creation fails.
      */
     public ClientSelectorImpl() throws IOException {
+        this(null);
+    }
+
+    /**
+     * Creates a new selector, used to multiplex sockets.
+     * @param dispatcher the executor, which deserializes received commands, or null to deserialize
+     *                   them on the thread running the selector.
+     * @throws IOException Thrown when selector creation fails.
+     */
+    public ClientSelectorImpl(Executor dispatcher) throws IOException {
         this.selector = Selector.open();
         this.running = new AtomicBoolean(false);
         this.stopped = new AtomicBoolean(false);
+        this.connectionCount = new AtomicInteger(0);
+        this.dispatcher = dispatcher;
     }
 
     /**
@@ -38,12 +55,23 @@ public class ClientSelectorImpl implements ClientSelector {
         channel.configureBlocking(false);
         channel.connect(address);
 
-        IOHandler handler = new IOHandler(selector, channel);
+        IOHandler handler = new IOHandler(selector, channel, dispatcher, connectionCount::decrementAndGet);
         channel.register(selector, SelectionKey.OP_CONNECT, handler);
+        connectionCount.incrementAndGet();
+
+        // A running selection only considers the channels registered before it started.
+        selector.wakeup();
 
         return new ClientImpl(handler);
     }
 
+    /**
+     * {@return Returns the amount of clients created by this selector, which were not disconnected yet.}
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -58,6 +86,7 @@ public class ClientSelectorImpl implements ClientSelector {
     @Override
     public void stop() {
         stopped.set(true);
+        selector.wakeup();
     }
 
     /**
@@ -84,8 +113,13 @@ public class ClientSelectorImpl implements ClientSelector {
     private void onSelect(SelectionKey key) {
         //System.out.println("SELECTING.");
         IOHandler handler = (IOHandler) key.attachment();
-        if(key.isValid() && key.isConnectable()) handler.onIsConnectable(key);
-        if(key.isValid() && key.isReadable()) handler.onIsReadable(key);
-        if(key.isValid() && key.isWritable()) handler.onIsWriteable(key);
+        try {
+            if(key.isValid() && key.isConnectable()) handler.onIsConnectable(key);
+            if(key.isValid() && key.isReadable()) handler.onIsReadable(key);
+            if(key.isValid() && key.isWritable()) handler.onIsWriteable(key);
+        } catch(CancelledKeyException unused) {
+            // The client was disconnected by another thread after its key was selected;
+            // this must not stop the selection of the other clients.
+        }
     }
 }
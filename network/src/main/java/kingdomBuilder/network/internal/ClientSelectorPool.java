@@ -0,0 +1,159 @@
+package kingdomBuilder.network.internal;
+
+import kingdomBuilder.network.Client;
+import kingdomBuilder.network.ClientSelector;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implements a {@link ClientSelector}, which spreads its clients over several selectors,
+ * each of which runs on its own thread.
+ * <br><br>
+ * The first selector runs on the thread running the pool, the others run on threads started
+ * by the pool. Stopping the pool stops all of them.
+ */
+public class ClientSelectorPool implements ClientSelector {
+
+    /**
+     * Represents the strategies to choose the selector of a new client.
+     */
+    public enum Assignment {
+        /**
+         * Chooses the selectors one after another.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * Chooses the selector with the fewest connected clients.
+         */
+        LEAST_LOADED
+    }
+
+    private final ClientSelectorImpl[] selectors;
+    private final Assignment assignment;
+    private final AtomicInteger next;
+    private final AtomicBoolean running;
+
+    /**
+     * Creates a pool with one selector per available processor, which assigns new clients to
+     * the least loaded selector and deserializes received commands on the selector threads.
+     * @throws IOException Thrown when selector creation fails.
+     */
+    public ClientSelectorPool() throws IOException {
+        this(Runtime.getRuntime().availableProcessors(), Assignment.LEAST_LOADED, null);
+    }
+
+    /**
+     * Creates a pool of selectors.
+     * @param size the amount of selectors and thus threads.
+     * @param assignment the strategy to choose the selector of a new client.
+     * @param dispatcher the executor, which deserializes received commands, or null to deserialize
+     *                   them on the selector threads.
+     * @throws IOException Thrown when selector creation fails.
+     */
+    public ClientSelectorPool(int size, Assignment assignment, Executor dispatcher) throws IOException {
+        if(size < 1)
+            throw new IllegalArgumentException("The pool needs at least one selector.");
+
+        this.selectors = new ClientSelectorImpl[size];
+        for(int i = 0; i < size; ++i)
+            selectors[i] = new ClientSelectorImpl(dispatcher);
+
+        this.assignment = assignment;
+        this.next = new AtomicInteger(0);
+        this.running = new AtomicBoolean(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Client connect(InetSocketAddress address) throws IOException {
+        return choose().connect(address);
+    }
+
+    /**
+     * {@return Returns the amount of selectors in the pool.}
+     */
+    public int getSize() {
+        return selectors.length;
+    }
+
+    /**
+     * {@return Returns the amount of connected clients of all selectors.}
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for(ClientSelectorImpl selector: selectors)
+            count += selector.getConnectionCount();
+
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop() {
+        for(ClientSelectorImpl selector: selectors)
+            selector.stop();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+        running.set(true);
+
+        final Thread[] threads = new Thread[selectors.length];
+        final String name = Thread.currentThread().getName();
+        for(int i = 1; i < selectors.length; ++i) {
+            threads[i] = new Thread(selectors[i], name + "-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        selectors[0].run();
+
+        // The first selector stops either when the pool is stopped or when it fails;
+        // the others are only stopped, if they are still running, so that no stop request lingers.
+        for(int i = 1; i < threads.length; ++i)
+            if(threads[i].isAlive()) selectors[i].stop();
+
+        for(int i = 1; i < threads.length; ++i) {
+            try { threads[i].join(); }
+            catch(InterruptedException exc) { break; }
+        }
+
+        running.set(false);
+    }
+
+    /**
+     * Chooses the selector of a new client according to the assignment strategy.
+     * @return The selector to connect the client with.
+     */
+    private ClientSelectorImpl choose() {
+        if(assignment == Assignment.ROUND_ROBIN)
+            return selectors[Math.floorMod(next.getAndIncrement(), selectors.length)];
+
+        ClientSelectorImpl leastLoaded = selectors[0];
+        for(ClientSelectorImpl selector: selectors)
+            if(selector.getConnectionCount() < leastLoaded.getConnectionCount())
+                leastLoaded = selector;
+
+        return leastLoaded;
+    }
+}
@@ -5,34 +5,42 @@ import kingdomBuilder.network.generated.ProtocolDeserializer;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
-import java.util.List;
-import java.util.Queue;
-import java.util.Scanner;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /**
  * Handles IO events reported by {@link ClientSelectorImpl} and acts as "glue" between
  * {@link kingdomBuilder.network.Client} and {@link ClientSelectorImpl}.
  */
-public class IOHandler {
-    private static final String COMMAND_TERMINATOR = "\n";
+public class IOHandler implements Transport {
+    private static final int MAX_COMMANDS_PER_WRITE = 64;
 
     private final Selector selector;
     private final SocketChannel channel;
-    private final Queue<ByteBuffer> writeQueue;
+    private final MpscQueue<ByteBuffer> writeQueue;
+    private final ByteBuffer[] pending;
+    private final AtomicBoolean flushing;
     private final AtomicBoolean connected;
+    private final LongAdder writeCount;
+    private final LongAdder bytesWritten;
+    private final LongAdder wakeupCount;
+    private final LineFramer framer;
+    private final Consumer<CharSequence> commandConsumer;
+    private final Executor dispatcher;
+    private final MpscQueue<String> received;
+    private final AtomicBoolean dispatching;
+    private final Runnable onDisconnect;
     private ByteBuffer buffer;
-    private String stringBuffer;
-    private String eol;
     private ProtocolConsumer consumer;
+    private volatile int pendingCount;
+    private volatile boolean writeInterest;
 
     /**
      * Initializes the handler to default state.
@@ -40,20 +48,44 @@ public class IOHandler {
      * @param channel the channel to operate upon.
      */
     public IOHandler(Selector selector, SocketChannel channel) {
+        this(selector, channel, null, () -> {});
+    }
+
+    /**
+     * Initializes the handler to default state.
+     * @param selector the selector to which the channel is registered to.
+     * @param channel the channel to operate upon.
+     * @param dispatcher the executor, which deserializes received commands, or null to deserialize
+     *                   them on the selector thread. Commands of this channel are still deserialized
+     *                   one after another and in the order they were received.
+     * @param onDisconnect the callback, which is run once when the channel is disconnected.
+     */
+    public IOHandler(Selector selector, SocketChannel channel, Executor dispatcher, Runnable onDisconnect) {
         this.selector = selector;
         this.channel = channel;
-        this.writeQueue = new ConcurrentLinkedQueue<>();
+        this.writeQueue = new MpscQueue<>();
+        this.pending = new ByteBuffer[MAX_COMMANDS_PER_WRITE];
+        this.flushing = new AtomicBoolean(false);
         this.connected = new AtomicBoolean(false);
+        this.writeCount = new LongAdder();
+        this.bytesWritten = new LongAdder();
+        this.wakeupCount = new LongAdder();
+        this.framer = new LineFramer();
+        this.commandConsumer = this::onCommand;
+        this.dispatcher = dispatcher;
+        this.received = new MpscQueue<>();
+        this.dispatching = new AtomicBoolean(false);
+        this.onDisconnect = onDisconnect;
         this.buffer = null;
-        this.stringBuffer = "";
-        this.eol = "";
         this.consumer = null;
+        this.pendingCount = 0;
+        this.writeInterest = false;
     }
 
     /**
-     * Sets the consumer, which is notified about incoming packets.
-     * @param consumer the consumer to notify.
+     * {@inheritDoc}
      */
+    @Override
     public void setConsumer(ProtocolConsumer consumer) {
         this.consumer = consumer;
     }
@@ -68,8 +100,8 @@ public class IOHandler {
             if (channel.finishConnect()) {
                 connected.set(true);
 
+                // Called by the selector thread; the new interest set is used by its next selection.
                 key.interestOps(SelectionKey.OP_READ);
-                selector.wakeup();
 
                 int bufferSize = channel.socket().getReceiveBufferSize();
                 buffer = ByteBuffer.allocate(bufferSize);
@@ -84,9 +116,10 @@ public class IOHandler {
 
     /**
      * Used by {@link kingdomBuilder.network.ClientSelector}, when the connection received data.
+     * Only the thread running the selector of the channel calls this, thus no locking is required.
      * @param key the key under which the underlying socket was registered.
      */
-    public synchronized void onIsReadable(SelectionKey key) {
+    public void onIsReadable(SelectionKey key) {
         int bytesRead = 0;
         int totalBytesRead = 0;
         try {
@@ -101,50 +134,43 @@ public class IOHandler {
         // on linux. Is this a bug in JRE?
         if(totalBytesRead <= 0) return;
 
-        String contents = new String(buffer.array(), 0, totalBytesRead); // .trim();
+        // Complete commands are deserialized straight from the received bytes;
+        // an incomplete command is kept by the framer until the rest arrives.
+        buffer.flip();
+        framer.feed(buffer, commandConsumer);
         buffer.clear();
-        buffer.rewind();
+    }
 
+    /**
+     * Deserializes a received command and notifies the consumer.
+     * @param command the command without its terminator.
+     */
+    private void onCommand(CharSequence command) {
+        if(dispatcher == null) {
+            ProtocolDeserializer.deserialize(command, consumer);
+            return;
+        }
 
-        stringBuffer = stringBuffer + contents;
+        // The framer reuses the sequence, thus it is copied before leaving the selector thread.
+        received.offer(command.toString());
+        if(dispatching.compareAndSet(false, true))
+            dispatcher.execute(this::dispatchReceived);
+    }
 
-        if(eol.isEmpty()) {
-            if(stringBuffer.contains("\r\n"))
-                eol = "\r\n";
-            else if(stringBuffer.contains("\n"))
-                eol = "\n";
-            // Haven't received a full command yet; returning till later.
-            else
-                return;
-        }
+    /**
+     * Deserializes all received commands on the dispatcher. Only a single task per handler runs
+     * at a time, so that the consumer sees the commands in order.
+     */
+    private void dispatchReceived() {
+        do {
+            String command;
+            while((command = received.poll()) != null)
+                ProtocolDeserializer.deserialize(command, consumer);
 
-        // Splits the string buffer into chunks like these:
-        // "COMMAND(eol)", "COMMAND2(eol)", "COMMAND3(eol)"
-        // the last split may not be a completely transmitted command yet,
-        // thus the delimiter is retained to check that each command is complete.
-        var commands = List.of(stringBuffer.split("(?<=\n)"));
-        commands
-            .forEach(c -> {
-                if(c.endsWith(eol))
-                    ProtocolDeserializer.deserialize(c.trim(), consumer);
-            });
-
-        String lastCommand = !commands.isEmpty()
-            ? commands.get(commands.size() - 1)
-            : "";
-
-        stringBuffer = !lastCommand.endsWith(eol)
-                ? lastCommand
-                : "";
-
-        /*
-        Scanner t = new Scanner(contents);
-        while(t.hasNextLine()) {
-            String line = t.nextLine();
-            if(consumer != null)
-                ProtocolDeserializer.deserialize(line, consumer);
-        }
-        */
+            dispatching.set(false);
+
+            // Commands received after the last poll, but before the flag was cleared, are picked up here.
+        } while(!received.isEmpty() && dispatching.compareAndSet(false, true));
     }
 
     /**
@@ -166,12 +192,24 @@ public class IOHandler {
      * @throws IOException Thrown when the connection was lost.
      */
     public void sendCommand(String command) throws IOException {
-        final String commandLine = command + COMMAND_TERMINATOR;
-        final ByteBuffer buffer = ByteBuffer.wrap(commandLine.getBytes());
+        final byte[] bytes = command.getBytes(StandardCharsets.UTF_8);
+        sendCommand(Transport.allocateCommand(bytes.length).put(bytes));
+    }
 
-        writeQueue.offer(buffer);
+    /**
+     * {@inheritDoc}
+     * The command is pushed to the internal command queue, which is flushed right away unless
+     * the selector thread is waiting for the socket to become writeable.
+     */
+    @Override
+    public void sendCommand(ByteBuffer command) throws IOException {
+        for(int i = 0; i < COMMAND_TERMINATOR.length(); ++i)
+            command.put((byte) COMMAND_TERMINATOR.charAt(i));
+
+        writeQueue.offer(command.flip());
         try {
-            tryFlush();
+            // While registered for write selection, the selector thread flushes the queue.
+            if(!writeInterest) tryFlush();
         } catch(Exception e) {
             connected.set(false);
             throw e;
@@ -179,77 +217,155 @@ public class IOHandler {
     }
 
     /**
-     * {@return Returns whether any commands are still pending to be written.}
+     * {@inheritDoc}
      */
+    @Override
     public boolean hasPendingCommands() {
-        return !writeQueue.isEmpty();
+        return !writeQueue.isEmpty() || pendingCount > 0;
     }
 
     /**
-     * {@return Returns whether the channel/socket is connected.}
+     * {@inheritDoc}
      */
+    @Override
     public boolean isConnected() {
         return connected.get();
     }
 
     /**
-     * Disconnects the channel (i.e. closes the socket) and removes it from the selector.
+     * {@inheritDoc}
+     * The channel is also removed from the selector.
      */
+    @Override
     public void disconnect() {
+        final boolean wasOpen = channel.isOpen();
         try {
             SelectionKey key = channel.keyFor(selector);
             key.cancel();
             channel.close();
         } catch(Exception unused) {}
+
+        if(wasOpen) onDisconnect.run();
+    }
+
+    /**
+     * {@return Returns the amount of write calls issued to the socket.}
+     */
+    public long getWriteCount() {
+        return writeCount.sum();
+    }
+
+    /**
+     * {@return Returns the amount of bytes written to the socket.}
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * {@return Returns the average amount of bytes written per write call or 0, if nothing was written yet.}
+     */
+    public double getBytesPerWrite() {
+        final long writes = getWriteCount();
+        return writes == 0 ? 0 : (double) getBytesWritten() / writes;
+    }
+
+    /**
+     * {@return Returns how often the handler woke up the selector.}
+     */
+    public long getWakeupCount() {
+        return wakeupCount.sum();
     }
 
     /**
      * Writes all commands to the socket either until all commands are sent
      * or when the sockets internal buffer is full.
      *
-     * Registers this socket for write selection, if the buffer was exhausted
-     * before all commands were transmitted and socket is not registered for this
-     * intent yet.
+     * Only a single thread flushes at a time; when another thread is already
+     * flushing, the commands queued by this thread are left to it.
      */
     private void tryFlush() throws IOException {
+        // Commands queued before the connection was established are flushed afterwards.
         SelectionKey key = channel.keyFor(selector);
-        if(key == null) return;
+        if(key == null || !connected.get()) return;
 
-        if(!connected.get()) {
-            key.interestOpsOr(SelectionKey.OP_WRITE);
-            selector.wakeup();
-            return;
+        while(hasPendingCommands()) {
+            if(!flushing.compareAndSet(false, true)) return;
+
+            try { flush(key); }
+            finally { flushing.set(false); }
+
+            // The socket is full; the selector reports, when it is writeable again.
+            // Otherwise, commands queued while the flag was still set are flushed by the next iteration.
+            if(writeInterest) return;
         }
+    }
+
+    /**
+     * Drains the queued commands in batches, each of which is transmitted with a single
+     * gathering write.
+     *
+     * Registers this socket for write selection, if the buffer was exhausted
+     * before all commands were transmitted, and deregisters it once all commands
+     * were transmitted.
+     * @param key the key under which the underlying socket was registered.
+     */
+    private void flush(SelectionKey key) throws IOException {
+        while(true) {
+            ByteBuffer command;
+            while(pendingCount < pending.length && (command = writeQueue.poll()) != null)
+                pending[pendingCount++] = command;
+
+            if(pendingCount == 0) {
+                // All stored commands have been written;
+                // we are not interested in writing until
+                // sendCommand is being called again.
+                setWriteInterest(key, false);
+                return;
+            }
+
+            final long written = channel.write(pending, 0, pendingCount);
+            writeCount.increment();
+            bytesWritten.add(written);
 
-        // Queue needs to be synchronized, because buffer is only popped,
-        // once it's been transmitted completely.
-        synchronized (writeQueue) {
-            while (!writeQueue.isEmpty()) {
-                ByteBuffer buffer = writeQueue.peek();
-
-                int bytesWritten = 0;
-                do bytesWritten = channel.write(buffer);
-                while (bytesWritten > 0 && buffer.hasRemaining());
-
-                // Successfully transmitted the message;
-                // remove the current and start working on the next.
-                if (!buffer.hasRemaining()) writeQueue.poll();
-                else {
-
-                    // Internal buffer is full; register to be notified,
-                    // when it is writeable again.
-                    key.interestOpsOr(SelectionKey.OP_WRITE);
-                    selector.wakeup();
-                    return;
-                }
+            // Successfully transmitted commands are removed;
+            // a partially transmitted one stays at the front.
+            int transmitted = 0;
+            while(transmitted < pendingCount && !pending[transmitted].hasRemaining())
+                transmitted++;
+
+            System.arraycopy(pending, transmitted, pending, 0, pendingCount - transmitted);
+            Arrays.fill(pending, pendingCount - transmitted, pendingCount, null);
+            pendingCount -= transmitted;
+
+            if(pendingCount > 0) {
+                // Internal buffer is full; register to be notified,
+                // when it is writeable again.
+                setWriteInterest(key, true);
+                return;
             }
         }
+    }
 
-        // All stored commands have been written;
-        // we are not interested in writing until
-        // sendCommand is being called again.
-        key.interestOps(SelectionKey.OP_READ);
-        selector.wakeup();
+    /**
+     * Changes whether the socket is registered for write selection. The interest ops are only
+     * touched and the selector is only woken up, when the registration actually changes.
+     * @param key the key under which the underlying socket was registered.
+     * @param enabled whether the socket should be registered for write selection.
+     */
+    private void setWriteInterest(SelectionKey key, boolean enabled) {
+        if(writeInterest == enabled) return;
+        writeInterest = enabled;
+
+        if(enabled) {
+            key.interestOpsOr(SelectionKey.OP_WRITE);
+
+            // The selector might be blocked with the old interest set.
+            wakeupCount.increment();
+            selector.wakeup();
+        } else {
+            key.interestOpsAnd(~SelectionKey.OP_WRITE);
+        }
     }
 
 }
@@ -0,0 +1,151 @@
+package kingdomBuilder.network.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Splits the bytes received from a socket into lines, which are terminated by either
+ * "\n" or "\r\n".
+ *
+ * The received bytes are scanned in place for the terminator. Only the bytes of a line,
+ * which has not been received completely yet, are copied into a reusable buffer, that grows
+ * as needed. Lines are decoded as a whole, thus multi-byte UTF-8 characters split across
+ * two reads are decoded correctly, since the byte '\n' never occurs within a multi-byte
+ * character.
+ */
+public class LineFramer {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte LINE_FEED = '\n';
+
+    private final CharsetDecoder decoder;
+    private byte[] partial;
+    private ByteBuffer partialView;
+    private int partialLength;
+    private CharBuffer line;
+
+    /**
+     * Initializes the framer without any partially received line.
+     */
+    public LineFramer() {
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.partial = new byte[INITIAL_CAPACITY];
+        this.partialView = ByteBuffer.wrap(partial);
+        this.partialLength = 0;
+        this.line = CharBuffer.allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Consumes all remaining bytes of the buffer and passes every completed line to the consumer.
+     *
+     * The line is passed without its terminator and without leading or trailing whitespace;
+     * empty lines are skipped. The passed character sequence is reused for the next line, thus
+     * the consumer has to copy it, if it needs it after returning.
+     *
+     * @param buffer the received bytes, ready to be read.
+     * @param consumer the consumer to pass completed lines to.
+     */
+    public void feed(ByteBuffer buffer, Consumer<CharSequence> consumer) {
+        final int limit = buffer.limit();
+
+        while(buffer.hasRemaining()) {
+            final int start = buffer.position();
+            final int end = indexOf(buffer, start, limit);
+
+            // The line is not complete yet; keep its bytes until the next read.
+            if(end < 0) {
+                append(buffer, start, limit);
+                buffer.position(limit);
+                return;
+            }
+
+            if(partialLength > 0) {
+                append(buffer, start, end);
+                partialView.clear().limit(partialLength);
+                decode(partialView, consumer);
+                partialLength = 0;
+            } else {
+                // The line lies completely within the buffer and is decoded in place.
+                buffer.limit(end);
+                decode(buffer, consumer);
+                buffer.limit(limit);
+            }
+
+            buffer.position(end + 1);
+        }
+    }
+
+    /**
+     * {@return Returns whether bytes of an incomplete line are kept.}
+     */
+    public boolean hasPartialLine() {
+        return partialLength > 0;
+    }
+
+    /**
+     * Decodes the bytes of a complete line and passes the trimmed line to the consumer.
+     * Trimming also removes the carriage return of a "\r\n" terminator.
+     * @param bytes the bytes of the line without the terminator.
+     * @param consumer the consumer to pass the line to.
+     */
+    private void decode(ByteBuffer bytes, Consumer<CharSequence> consumer) {
+        // A UTF-8 encoded line never has more characters than bytes.
+        if(line.capacity() < bytes.remaining())
+            line = CharBuffer.allocate(Math.max(bytes.remaining(), line.capacity() * 2));
+
+        line.clear();
+        decoder.reset();
+        decoder.decode(bytes, line, true);
+        decoder.flush(line);
+        line.flip();
+
+        int first = line.position();
+        int last = line.limit();
+        while(first < last && line.get(first) <= ' ') first++;
+        while(last > first && line.get(last - 1) <= ' ') last--;
+
+        if(first == last) return;
+
+        line.limit(last).position(first);
+        consumer.accept(line);
+    }
+
+    /**
+     * Copies bytes of the buffer to the end of the incomplete line and grows it if needed.
+     * @param buffer the buffer to copy from.
+     * @param from the index of the first byte to copy.
+     * @param to the index after the last byte to copy.
+     */
+    private void append(ByteBuffer buffer, int from, int to) {
+        final int length = to - from;
+        if(partialLength + length > partial.length) {
+            byte[] grown = new byte[Math.max(partialLength + length, partial.length * 2)];
+            System.arraycopy(partial, 0, grown, 0, partialLength);
+            partial = grown;
+            partialView = ByteBuffer.wrap(partial);
+        }
+
+        buffer.get(from, partial, partialLength, length);
+        partialLength += length;
+    }
+
+    /**
+     * Searches the buffer for the next line feed.
+     * @param buffer the buffer to search.
+     * @param from the index to start the search at.
+     * @param to the index to end the search before.
+     * @return The index of the line feed or -1, if there is none.
+     */
+    private static int indexOf(ByteBuffer buffer, int from, int to) {
+        for(int i = from; i < to; i++)
+            if(buffer.get(i) == LINE_FEED)
+                return i;
+
+        return -1;
+    }
+}
@@ -0,0 +1,73 @@
+package kingdomBuilder.network.internal;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implements a lock-free, unbounded queue for many producers and a single consumer.
+ *
+ * Producers append a node by swapping the tail, thus offering never blocks or retries.
+ * Only one thread at a time may poll the queue; {@link #isEmpty()} may be called by any thread.
+ *
+ * @param <E> the type of the elements.
+ */
+public class MpscQueue<E> {
+
+    /**
+     * Represents a node of the linked list of elements.
+     */
+    private static class Node<E> {
+        private E value;
+        private volatile Node<E> next;
+
+        private Node(E value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node<E>> tail;
+    private volatile Node<E> head;
+
+    /**
+     * Initializes an empty queue.
+     */
+    public MpscQueue() {
+        final Node<E> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    /**
+     * Appends an element to the queue. May be called by any thread.
+     * @param element the element to append.
+     */
+    public void offer(E element) {
+        final Node<E> node = new Node<>(element);
+        final Node<E> previous = tail.getAndSet(node);
+
+        // Between the swap and this write the node is invisible to the consumer,
+        // which then treats the queue as empty until the link is published.
+        previous.next = node;
+    }
+
+    /**
+     * Removes the first element of the queue. Must only be called by the consumer.
+     * @return The first element or null, if the queue is empty.
+     */
+    public E poll() {
+        final Node<E> next = head.next;
+        if(next == null)
+            return null;
+
+        final E value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    }
+
+    /**
+     * {@return Returns whether the queue contains no (completely offered) elements.}
+     */
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+}
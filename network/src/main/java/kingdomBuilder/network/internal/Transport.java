@@ -0,0 +1,57 @@
+package kingdomBuilder.network.internal;
+
+import kingdomBuilder.network.generated.ProtocolConsumer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Transmits the commands of a {@link ClientImpl} and passes the received packets to its consumer.
+ */
+public interface Transport {
+
+    /**
+     * Represents the terminator appended to every command.
+     */
+    String COMMAND_TERMINATOR = "\n";
+
+    /**
+     * Allocates a buffer for a command of the given size, which leaves room for the terminator
+     * appended by {@link #sendCommand(ByteBuffer)}.
+     * @param size the size of the command in bytes.
+     * @return The buffer to serialize the command into.
+     */
+    static ByteBuffer allocateCommand(int size) {
+        return ByteBuffer.allocate(size + COMMAND_TERMINATOR.length());
+    }
+
+    /**
+     * Sets the consumer, which is notified about incoming packets.
+     * @param consumer the consumer to notify.
+     */
+    void setConsumer(ProtocolConsumer consumer);
+
+    /**
+     * Appends the terminator to the command and queues it for transmission. The buffer is handed
+     * over to the transport and must not be used afterwards.
+     * @param command the buffer the command was serialized into, positioned after the command and
+     *                with room for the terminator, e.g. allocated by {@link #allocateCommand(int)}.
+     * @throws IOException Thrown when the connection was lost.
+     */
+    void sendCommand(ByteBuffer command) throws IOException;
+
+    /**
+     * {@return Returns whether any commands are still pending to be written.}
+     */
+    boolean hasPendingCommands();
+
+    /**
+     * {@return Returns whether the channel/socket is connected.}
+     */
+    boolean isConnected();
+
+    /**
+     * Disconnects the channel (i.e. closes the socket).
+     */
+    void disconnect();
+}
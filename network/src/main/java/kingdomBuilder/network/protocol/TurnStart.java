@@ -5,7 +5,7 @@ import kingdomBuilder.annotations.Protocol;
 /**
  * Represents message that will be sent when turn started.
  */
-@Protocol(format = "[GAME_MESSAGE] [TURN_START] <#{client id}>")
+@Protocol(format = "[GAME_MESSAGE] [TURN_START] <#{clientId}>")
 public record TurnStart(
         int clientId
 ) {
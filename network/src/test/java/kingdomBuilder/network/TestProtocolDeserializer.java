@@ -1,11 +1,19 @@
 package kingdomBuilder.network;
 
 import kingdomBuilder.network.generated.ProtocolDeserializer;
+import kingdomBuilder.network.generated.ProtocolSerializer;
+import kingdomBuilder.network.generated.ServerProtocolConsumer;
+import kingdomBuilder.network.generated.ServerProtocolDeserializer;
+import kingdomBuilder.network.internal.LineFramer;
 
 import kingdomBuilder.network.protocol.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -796,4 +804,90 @@ public class TestProtocolDeserializer {
         assertFalse(testConsumer.hasError());
         assertInstanceOf(WrongPassword.class, testConsumer.getObject());
     }
+
+    @Test
+    void testFramingCommandSplitWithinMultiByteCharacter() {
+        final byte[] bytes = "[SERVER_MESSAGE] [MESSAGE] <[1;{2};Gr\u00fc\u00dfe!]>\n".getBytes(StandardCharsets.UTF_8);
+        final int split = "[SERVER_MESSAGE] [MESSAGE] <[1;{2};Gr".length() + 1;
+        final LineFramer framer = new LineFramer();
+
+        framer.feed(ByteBuffer.wrap(bytes, 0, split), frame -> ProtocolDeserializer.deserialize(frame.toString(), testConsumer));
+        assertNull(testConsumer.getObject(), "An incomplete command was deserialized.");
+        assertTrue(framer.hasPartialLine());
+
+        framer.feed(ByteBuffer.wrap(bytes, split, bytes.length - split), frame -> ProtocolDeserializer.deserialize(frame.toString(), testConsumer));
+        assertFalse(testConsumer.hasError(), "Parsing failed with an error.");
+        assertFalse(framer.hasPartialLine());
+
+        Message typedPacket = assertInstanceOf(Message.class, testConsumer.getObject());
+        assertEquals("Gr\u00fc\u00dfe!", typedPacket.message());
+    }
+
+    @Test
+    void testFramingSeveralCommandsInOneRead() {
+        final String commands = "[SERVER_MESSAGE] [CLIENT_JOINED] <[4;Ich;-1]>\r\n"
+            + "\r\n"
+            + "[SERVER_MESSAGE] [CLIENT_LEFT] <[5;Du;-1]>\r\n"
+            + "[SERVER_MESSAGE] [CLIENT_";
+        final List<String> frames = new ArrayList<>();
+        final LineFramer framer = new LineFramer();
+
+        framer.feed(ByteBuffer.wrap(commands.getBytes(StandardCharsets.UTF_8)), frame -> frames.add(frame.toString()));
+
+        assertEquals(List.of("[SERVER_MESSAGE] [CLIENT_JOINED] <[4;Ich;-1]>", "[SERVER_MESSAGE] [CLIENT_LEFT] <[5;Du;-1]>"), frames);
+        assertTrue(framer.hasPartialLine());
+    }
+
+    /**
+     * Deserializes a command of a client and returns the deserialized packet.
+     * @param command the command to deserialize.
+     * @return The packet, or null, if the deserialization failed.
+     */
+    private static Object deserializeCommand(String command) {
+        final Object[] packet = new Object[1];
+        final ServerProtocolConsumer consumer = (ServerProtocolConsumer) Proxy.newProxyInstance(
+            ServerProtocolConsumer.class.getClassLoader(),
+            new Class<?>[]{ ServerProtocolConsumer.class },
+            (proxy, method, args) -> {
+                if(method.getName().equals("accept")) packet[0] = args[0];
+                return null;
+            });
+
+        ServerProtocolDeserializer.deserialize(command, consumer);
+        return packet[0];
+    }
+
+    @Test
+    void testDeserializingClientCommands() {
+        assertEquals(new IAm("Dr.  Best"), deserializeCommand("iam Dr.  Best"));
+        assertEquals(new EndTurn(), deserializeCommand("end turn"));
+        assertEquals(new Place(1, 2), deserializeCommand("place [1;2]"));
+        assertEquals(new Join(3), deserializeCommand("join 3"));
+        assertEquals(new QuadrantRequest(4), deserializeCommand("?quadrant 4"));
+        assertEquals(new Chat(List.of(1, 2), "Gr\u00fc\u00dfe; ihr"), deserializeCommand("chat [{1,2};Gr\u00fc\u00dfe; ihr]"));
+        assertEquals(new HostGame("my game", "some game", 2, -1, 100, 0, 1, 2, 3),
+            deserializeCommand("host game [my game;some game;2;-1;100;0;1;2;3]"));
+    }
+
+    @Test
+    void testDeserializingSerializedClientCommands() {
+        final Tavern tavern = new Tavern(3, 4);
+        final Harbor harbor = new Harbor(1, 2, 3, 4);
+        final GamesRequest gamesRequest = new GamesRequest();
+        final PlayersOfGameRequest playersOfGameRequest = new PlayersOfGameRequest(7);
+        final Chat chat = new Chat(List.of(), "Hallo");
+
+        assertEquals(tavern, deserializeCommand(ProtocolSerializer.serialize(tavern)));
+        assertEquals(harbor, deserializeCommand(ProtocolSerializer.serialize(harbor)));
+        assertEquals(gamesRequest, deserializeCommand(ProtocolSerializer.serialize(gamesRequest)));
+        assertEquals(playersOfGameRequest, deserializeCommand(ProtocolSerializer.serialize(playersOfGameRequest)));
+        assertEquals(chat, deserializeCommand(ProtocolSerializer.serialize(chat)));
+    }
+
+    @Test
+    void testDeserializingUnknownClientCommandFails() {
+        assertNull(deserializeCommand("end game"));
+        assertNull(deserializeCommand("place [1;x]"));
+        assertNull(deserializeCommand("tavernx [1;2]"));
+    }
 }
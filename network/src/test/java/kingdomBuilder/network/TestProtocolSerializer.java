@@ -1,11 +1,17 @@
 package kingdomBuilder.network;
 
+import kingdomBuilder.network.generated.ProtocolDeserializer;
 import kingdomBuilder.network.generated.ProtocolSerializer;
 
 import kingdomBuilder.network.protocol.*;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -296,4 +302,95 @@ public class TestProtocolSerializer {
         final String message = ProtocolSerializer.serialize(new Barn(3, 4, 2, 1));
         assertEquals("barn [3;4;2;1]", message);
     }
+
+    @Test
+    void testSerializingChatIntoByteBuffer() {
+        final Chat chat = new Chat(List.of(-7, 0, 2147483647), "Gr\u00fc\u00dfe \u20ac \ud83d\ude00");
+        final byte[] expected = ProtocolSerializer.serialize(chat).getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(expected.length, ProtocolSerializer.sizeOf(chat));
+
+        final ByteBuffer buffer = ProtocolSerializer.serialize(chat, ByteBuffer.allocate(ProtocolSerializer.sizeOf(chat)));
+        assertFalse(buffer.hasRemaining());
+        assertArrayEquals(expected, buffer.array());
+    }
+
+    @Test
+    void testSerializingHostGameIntoStringBuilder() {
+        final HostGame hostGame = new HostGame("my game", "some game", 2, -1, 100, 0, 1, 2, 3);
+        final StringBuilder builder = new StringBuilder("> ");
+
+        ProtocolSerializer.serialize(hostGame, builder);
+        assertEquals("> " + ProtocolSerializer.serialize(hostGame), builder.toString());
+        assertEquals(builder.length() - 2, ProtocolSerializer.sizeOf(hostGame));
+    }
+
+    @Test
+    void testSerializingServerMessagesWithComponents() {
+        assertEquals("[SERVER_MESSAGE] [CLIENT_JOINED] <[4;Ich;-1]>",
+                ProtocolSerializer.serialize(new ClientJoined(new ClientData(4, "Ich", -1))));
+        assertEquals("[GAME_MESSAGE] [SCORES] <{[1;20],[2;-3]}>",
+                ProtocolSerializer.serialize(new Scores(List.of(new ScoresData(1, 20), new ScoresData(2, -3)))));
+        assertEquals("[GAME_MESSAGE] [GAME_OVER] <{1,2}>",
+                ProtocolSerializer.serialize(new GameOver(List.of(1, 2))));
+        assertEquals("[REPLY_MESSAGE] (?playersofgame) <[3;{1,2}]>",
+                ProtocolSerializer.serialize(new PlayersOfGameReply(3, List.of(1, 2))));
+        assertEquals("[GAME_MESSAGE] [TURN_START] <7>",
+                ProtocolSerializer.serialize(new TurnStart(7)));
+    }
+
+    @Test
+    void testSerializedServerMessagesAreDeserializedAgain() {
+        final ClientJoined clientJoined = new ClientJoined(new ClientData(4, "Ich", -1));
+        final GameHosted gameHosted = new GameHosted(new GameData(1, "Kingdom Builder", 2, "Spiel", "Gr\u00fc\u00dfe", 3, 1));
+        final MyGameReply myGame = new MyGameReply(1, "Kingdom Builder", 2, "Spiel", "Test", 3, 1, -1, 100, new BoardData(0, 1, 2, 3));
+        final Scores scores = new Scores(List.of(new ScoresData(1, 20), new ScoresData(2, -3)));
+        final SettlementPlaced settlementPlaced = new SettlementPlaced(1, 10, 19);
+        final TokenReceived tokenReceived = new TokenReceived(1, "Tavern", 3, 4);
+
+        final List<Map.Entry<Object, String>> packets = List.of(
+                Map.entry(clientJoined, ProtocolSerializer.serialize(clientJoined)),
+                Map.entry(gameHosted, ProtocolSerializer.serialize(gameHosted)),
+                Map.entry(myGame, ProtocolSerializer.serialize(myGame)),
+                Map.entry(scores, ProtocolSerializer.serialize(scores)),
+                Map.entry(settlementPlaced, ProtocolSerializer.serialize(settlementPlaced)),
+                Map.entry(tokenReceived, ProtocolSerializer.serialize(tokenReceived)));
+
+        for(Map.Entry<Object, String> entry: packets) {
+            final Object packet = entry.getKey();
+            final String message = entry.getValue();
+            final ProtocolTestConsumer testConsumer = new ProtocolTestConsumer();
+
+            ProtocolDeserializer.deserialize(message, testConsumer);
+            assertFalse(testConsumer.hasError(), "Parsing failed with an error: " + message);
+            assertEquals(packet, testConsumer.getObject());
+        }
+    }
+
+    @Test
+    void testSerializingScoresIntoByteBuffer() {
+        final Scores scores = new Scores(List.of(new ScoresData(1, 20), new ScoresData(22, -300)));
+        final byte[] expected = ProtocolSerializer.serialize(scores).getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(expected.length, ProtocolSerializer.sizeOf(scores));
+
+        final ByteBuffer buffer = ProtocolSerializer.serialize(scores, ByteBuffer.allocate(ProtocolSerializer.sizeOf(scores)));
+        assertFalse(buffer.hasRemaining());
+        assertArrayEquals(expected, buffer.array());
+    }
+
+    @Test
+    void testSerializingIntoAllocatedCommand() {
+        final Place place = new Place(12, 7);
+        final byte[] expected = ProtocolSerializer.serialize(place).getBytes(StandardCharsets.UTF_8);
+        final List<Integer> sizes = new ArrayList<>();
+
+        final ByteBuffer buffer = ProtocolSerializer.serialize(place, size -> {
+            sizes.add(size);
+            return ByteBuffer.allocate(size + 1);
+        });
+        assertEquals(List.of(expected.length), sizes);
+        assertEquals(expected.length, buffer.position());
+        assertArrayEquals(expected, Arrays.copyOf(buffer.array(), buffer.position()));
+    }
 }
@@ -0,0 +1,88 @@
+package kingdomBuilder.network.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accepts the connections of the transports under test on the loopback address and reads and writes
+ * their commands line by line with blocking sockets.
+ */
+public class LoopbackServer implements AutoCloseable {
+    static final int TIMEOUT = 5000;
+
+    private final ServerSocket serverSocket;
+    private final List<Connection> connections = new ArrayList<>();
+
+    /**
+     * Represents a connection accepted by the server.
+     */
+    public static class Connection {
+        final Socket socket;
+        final BufferedReader reader;
+        final Writer writer;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.socket.setSoTimeout(TIMEOUT);
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        String next() throws IOException {
+            return reader.readLine();
+        }
+
+        void send(String command) throws IOException {
+            writer.write(command + Transport.COMMAND_TERMINATOR);
+            writer.flush();
+        }
+
+        InputStream input() throws IOException {
+            return socket.getInputStream();
+        }
+    }
+
+    /**
+     * Opens the server on a free port.
+     * @param receiveBufferSize the size of the receive buffer of accepted connections or 0 for the default.
+     */
+    public LoopbackServer(int receiveBufferSize) throws IOException {
+        serverSocket = new ServerSocket();
+        if(receiveBufferSize > 0)
+            serverSocket.setReceiveBufferSize(receiveBufferSize);
+        serverSocket.setSoTimeout(TIMEOUT);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    public LoopbackServer() throws IOException {
+        this(0);
+    }
+
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    public Connection accept() throws IOException {
+        Connection connection = new Connection(serverSocket.accept());
+        connections.add(connection);
+        return connection;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for(Connection connection: connections)
+            connection.socket.close();
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,92 @@
+package kingdomBuilder.network.internal;
+
+import kingdomBuilder.network.Client;
+import kingdomBuilder.network.generated.ProtocolSerializer;
+import kingdomBuilder.network.protocol.Chat;
+import kingdomBuilder.network.protocol.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBlockingTransport {
+    LoopbackServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LoopbackServer();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void testFallsBackToPlatformThreads() throws InterruptedException {
+        ThreadFactory factory = BlockingClientSelector.defaultThreadFactory("java.lang.Thread$MissingBuilder");
+
+        CompletableFuture<String> ran = new CompletableFuture<>();
+        Thread first = factory.newThread(() -> ran.complete(Thread.currentThread().getName()));
+        Thread second = factory.newThread(() -> {});
+
+        assertEquals("BlockingTransport-0", first.getName());
+        assertEquals("BlockingTransport-1", second.getName());
+        assertTrue(first.isDaemon());
+
+        first.start();
+        first.join(LoopbackServer.TIMEOUT);
+        assertEquals("BlockingTransport-0", ran.getNow(null));
+    }
+
+    @Test
+    void testDefaultThreadFactoryCreatesThreads() throws InterruptedException {
+        // virtual threads on runtimes that support them, platform threads otherwise.
+        CompletableFuture<Boolean> ran = new CompletableFuture<>();
+        Thread thread = BlockingClientSelector.defaultThreadFactory().newThread(() -> ran.complete(true));
+
+        assertTrue(thread.getName().startsWith("BlockingTransport-"));
+        assertTrue(thread.isDaemon());
+
+        thread.start();
+        thread.join(LoopbackServer.TIMEOUT);
+        assertTrue(ran.getNow(false));
+    }
+
+    @Test
+    void testRoundTripOnFallbackThreads() throws Exception {
+        BlockingClientSelector selector = new BlockingClientSelector(
+                BlockingClientSelector.defaultThreadFactory("java.lang.Thread$MissingBuilder"));
+        Client client = selector.connect(server.getAddress());
+
+        CompletableFuture<String> received = new CompletableFuture<>();
+        client.onMessageReceived.subscribe(message ->
+                received.complete(message.message() + " on " + Thread.currentThread().getName()));
+
+        // the commands, which are sent before the connection is established, are written afterwards.
+        client.chat(List.of(1), "first");
+        client.chat(List.of(1), "second");
+
+        LoopbackServer.Connection connection = server.accept();
+        assertEquals(ProtocolSerializer.serialize(new Chat(List.of(1), "first")), connection.next());
+        assertEquals(ProtocolSerializer.serialize(new Chat(List.of(1), "second")), connection.next());
+
+        // the reading thread was created first, so it deserializes the commands.
+        connection.send(ProtocolSerializer.serialize(new Message(0, List.of(1), "hello")));
+        assertEquals("hello on BlockingTransport-0", received.get(LoopbackServer.TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(client.isConnected());
+        assertEquals(1, selector.getConnectionCount());
+
+        client.disconnect();
+        assertFalse(client.isConnected());
+        assertEquals(0, selector.getConnectionCount());
+        assertNull(connection.next());
+    }
+}
@@ -0,0 +1,111 @@
+package kingdomBuilder.network.internal;
+
+import kingdomBuilder.network.Client;
+import kingdomBuilder.network.generated.ProtocolSerializer;
+import kingdomBuilder.network.protocol.Chat;
+import kingdomBuilder.network.protocol.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestClientSelectorPool {
+    static final String THREAD_NAME = "TestClientSelectorPool";
+
+    LoopbackServer server;
+    ClientSelectorPool pool;
+    Thread thread;
+    final Map<Integer, String> selectorThreads = new ConcurrentHashMap<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.stop();
+        thread.join(LoopbackServer.TIMEOUT);
+        assertFalse(pool.isRunning());
+        server.close();
+    }
+
+    void startPool(int size, ClientSelectorPool.Assignment assignment) throws IOException {
+        server = new LoopbackServer();
+        pool = new ClientSelectorPool(size, assignment, null);
+        thread = new Thread(pool, THREAD_NAME);
+        thread.start();
+    }
+
+    /**
+     * Connects a client, whose received messages are recorded together with the thread that deserialized them.
+     */
+    Client connect(CountDownLatch received) throws IOException {
+        Client client = pool.connect(server.getAddress());
+        client.onMessageReceived.subscribe(message -> {
+            selectorThreads.put(message.clientId(), Thread.currentThread().getName());
+            received.countDown();
+        });
+        return client;
+    }
+
+    @Test
+    void testClientsAreServedAcrossSelectors() throws Exception {
+        startPool(3, ClientSelectorPool.Assignment.ROUND_ROBIN);
+        CountDownLatch received = new CountDownLatch(6);
+
+        List<Client> clients = new ArrayList<>();
+        List<LoopbackServer.Connection> connections = new ArrayList<>();
+        for(int i = 0; i < 6; ++i) {
+            clients.add(connect(received));
+            connections.add(server.accept());
+        }
+        assertEquals(6, pool.getConnectionCount());
+
+        // every client sends and receives on the selector it was assigned to.
+        for(int i = 0; i < 6; ++i) {
+            clients.get(i).chat(List.of(i), "from client " + i);
+            connections.get(i).send(ProtocolSerializer.serialize(new Message(i, List.of(i), "to client " + i)));
+        }
+        for(int i = 0; i < 6; ++i)
+            assertEquals(ProtocolSerializer.serialize(new Chat(List.of(i), "from client " + i)), connections.get(i).next());
+
+        assertTrue(received.await(LoopbackServer.TIMEOUT, TimeUnit.MILLISECONDS));
+        for(int i = 0; i < 6; ++i) {
+            String expected = (i % 3 == 0) ? THREAD_NAME : THREAD_NAME + "-" + (i % 3);
+            assertEquals(expected, selectorThreads.get(i), "client " + i);
+        }
+
+        for(Client client: clients)
+            client.disconnect();
+        assertEquals(0, pool.getConnectionCount());
+    }
+
+    @Test
+    void testNewClientsGoToTheLeastLoadedSelector() throws Exception {
+        startPool(2, ClientSelectorPool.Assignment.LEAST_LOADED);
+        CountDownLatch received = new CountDownLatch(1);
+
+        Client first = connect(received);
+        server.accept();
+        Client second = connect(received);
+        server.accept();
+        assertEquals(2, pool.getConnectionCount());
+
+        // the first selector is empty again, so it serves the next client.
+        first.disconnect();
+        Client third = connect(received);
+        LoopbackServer.Connection connection = server.accept();
+        connection.send(ProtocolSerializer.serialize(new Message(3, List.of(3), "to the third client")));
+
+        assertTrue(received.await(LoopbackServer.TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(THREAD_NAME, selectorThreads.get(3));
+
+        second.disconnect();
+        third.disconnect();
+        assertEquals(0, pool.getConnectionCount());
+    }
+}
@@ -0,0 +1,130 @@
+package kingdomBuilder.network.internal;
+
+import kingdomBuilder.network.generated.ProtocolSerializer;
+import kingdomBuilder.network.protocol.Chat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIOHandler {
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    LoopbackServer server;
+    Selector selector;
+    SocketChannel channel;
+    SelectionKey key;
+    IOHandler handler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LoopbackServer(BUFFER_SIZE);
+        selector = Selector.open();
+
+        channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.SO_SNDBUF, BUFFER_SIZE);
+        channel.connect(server.getAddress());
+
+        handler = new IOHandler(selector, channel);
+        key = channel.register(selector, SelectionKey.OP_CONNECT, handler);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        handler.disconnect();
+        selector.close();
+        server.close();
+    }
+
+    /**
+     * Completes the connection like the selector thread does.
+     */
+    LoopbackServer.Connection finishConnect() throws IOException {
+        LoopbackServer.Connection connection = server.accept();
+        while(!handler.isConnected()) {
+            selector.select(LoopbackServer.TIMEOUT);
+            handler.onIsConnectable(key);
+        }
+        return connection;
+    }
+
+    @Test
+    void testQueuedCommandsGoOutInOneGatheringWrite() throws IOException {
+        List<String> commands = new ArrayList<>();
+        for(int i = 0; i < 10; ++i)
+            commands.add(ProtocolSerializer.serialize(new Chat(List.of(i), "queued command " + i)));
+
+        // the commands wait for the connection and are written together, once it is established.
+        for(String command: commands)
+            handler.sendCommand(command);
+        assertTrue(handler.hasPendingCommands());
+        assertEquals(0, handler.getWriteCount());
+
+        LoopbackServer.Connection connection = finishConnect();
+
+        assertFalse(handler.hasPendingCommands());
+        assertEquals(1, handler.getWriteCount());
+        assertEquals(0, handler.getWakeupCount());
+
+        long bytes = 0;
+        for(String command: commands) {
+            assertEquals(command, connection.next());
+            bytes += command.getBytes(StandardCharsets.UTF_8).length + Transport.COMMAND_TERMINATOR.length();
+        }
+        assertEquals(bytes, handler.getBytesWritten());
+        assertEquals(bytes, handler.getBytesPerWrite());
+    }
+
+    @Test
+    void testFullSocketWakesTheSelectorOnce() throws Exception {
+        LoopbackServer.Connection connection = finishConnect();
+
+        // the commands exceed the buffers of both sockets, since the server does not read yet.
+        char[] text = new char[BUFFER_SIZE];
+        Arrays.fill(text, 'x');
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for(int i = 0; i < 64; ++i) {
+            String command = ProtocolSerializer.serialize(new Chat(List.of(i), new String(text)));
+            handler.sendCommand(command);
+            expected.writeBytes((command + Transport.COMMAND_TERMINATOR).getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue(handler.hasPendingCommands());
+        assertEquals(1, handler.getWakeupCount());
+        assertTrue((key.interestOps() & SelectionKey.OP_WRITE) != 0);
+
+        CompletableFuture<byte[]> received = CompletableFuture.supplyAsync(() -> {
+            try {
+                return connection.input().readNBytes(expected.size());
+            } catch(IOException exc) {
+                throw new RuntimeException(exc);
+            }
+        });
+
+        // the selector thread writes the rest, whenever the socket is writeable again.
+        while(handler.hasPendingCommands()) {
+            selector.select(k -> {
+                if(k.isWritable()) handler.onIsWriteable(k);
+            }, LoopbackServer.TIMEOUT);
+        }
+
+        assertArrayEquals(expected.toByteArray(), received.get(LoopbackServer.TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(expected.size(), handler.getBytesWritten());
+        assertEquals(1, handler.getWakeupCount());
+        assertEquals(0, key.interestOps() & SelectionKey.OP_WRITE);
+    }
+}
@@ -1,2 +1,2 @@
 rootProject.name = "kingdomBuilder"
-include("kingdomBuilder", "network", "annotations", "annotationProcessors")
+include("kingdomBuilder", "network", "annotations", "annotationProcessors", "benchmarks")